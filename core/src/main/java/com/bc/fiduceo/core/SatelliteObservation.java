@@ -22,11 +22,15 @@ package com.bc.fiduceo.core;
 
 
 import com.bc.fiduceo.geometry.Geometry;
+import com.bc.fiduceo.geometry.GeometryCollection;
+import com.bc.fiduceo.geometry.GeometryUtil;
 import com.bc.fiduceo.geometry.TimeAxis;
+import com.google.common.geometry.S2LatLngRect;
 
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Date;
+import java.util.function.Supplier;
 
 public class SatelliteObservation {
 
@@ -34,6 +38,9 @@ public class SatelliteObservation {
     private Date stopTime;
     private Geometry geoBounds;
     private TimeAxis[] timeAxes;
+    private Supplier<Geometry> geoBoundsDecoder;
+    private S2LatLngRect[] boundingRects;
+    private Supplier<TimeAxis[]> timeAxesDecoder;
     private Sensor sensor;
     private NodeType nodeType;
     private Path dataFilePath;
@@ -43,12 +50,54 @@ public class SatelliteObservation {
         nodeType = NodeType.UNDEFINED;
     }
 
-    public Geometry getGeoBounds() {
+    public synchronized Geometry getGeoBounds() {
+        if (geoBoundsDecoder != null) {
+            geoBounds = geoBoundsDecoder.get();
+            geoBoundsDecoder = null;
+        }
         return geoBounds;
     }
 
-    public void setGeoBounds(Geometry geoBounds) {
+    public synchronized void setGeoBounds(Geometry geoBounds) {
         this.geoBounds = geoBounds;
+        this.geoBoundsDecoder = null;
+        this.boundingRects = null;
+    }
+
+    /**
+     * Defers the decoding of the geo-bounds until the first call to getGeoBounds(). The storage drivers
+     * use this to avoid parsing geometries of observations that are filtered out before being accessed.
+     *
+     * @param geoBoundsDecoder the decoder, invoked at most once
+     */
+    public synchronized void setGeoBoundsDecoder(Supplier<Geometry> geoBoundsDecoder) {
+        this.geoBounds = null;
+        this.geoBoundsDecoder = geoBoundsDecoder;
+        this.boundingRects = null;
+    }
+
+    /**
+     * Retrieves the latitude/longitude bounding rectangles of the geo-bounds, one per geometry of a segmented
+     * geo-bounds collection. The rectangles are calculated on first use and kept until the geo-bounds change.
+     *
+     * @return the bounding rectangles, empty rectangles for missing or empty geometries
+     */
+    public synchronized S2LatLngRect[] getBoundingRects() {
+        if (boundingRects == null) {
+            final Geometry bounds = getGeoBounds();
+            final Geometry[] geometries;
+            if (bounds instanceof GeometryCollection) {
+                geometries = ((GeometryCollection) bounds).getGeometries();
+            } else {
+                geometries = new Geometry[]{bounds};
+            }
+
+            boundingRects = new S2LatLngRect[geometries.length];
+            for (int i = 0; i < geometries.length; i++) {
+                boundingRects[i] = GeometryUtil.getBoundingRect(geometries[i]);
+            }
+        }
+        return boundingRects;
     }
 
     public Date getStartTime() {
@@ -91,12 +140,27 @@ public class SatelliteObservation {
         this.dataFilePath = Paths.get(path);
     }
 
-    public TimeAxis[] getTimeAxes() {
+    public synchronized TimeAxis[] getTimeAxes() {
+        if (timeAxesDecoder != null) {
+            timeAxes = timeAxesDecoder.get();
+            timeAxesDecoder = null;
+        }
         return timeAxes;
     }
 
-    public void setTimeAxes(TimeAxis[] timeAxes) {
+    public synchronized void setTimeAxes(TimeAxis[] timeAxes) {
         this.timeAxes = timeAxes;
+        this.timeAxesDecoder = null;
+    }
+
+    /**
+     * Defers the decoding of the time axes until the first call to getTimeAxes().
+     *
+     * @param timeAxesDecoder the decoder, invoked at most once
+     */
+    public synchronized void setTimeAxesDecoder(Supplier<TimeAxis[]> timeAxesDecoder) {
+        this.timeAxes = null;
+        this.timeAxesDecoder = timeAxesDecoder;
     }
 
     public void setVersion(String version) {
@@ -37,6 +37,10 @@ public class SystemConfig {
     private String geometryLibraryType;
     private ArchiveConfig archiveConfig;
     private int readerCacheSize;
+    private int workerThreads;
+    private int arrayCacheSize;
+    private int arrayCacheTileHeight;
+    private boolean observationCatalogue;
 
     public static SystemConfig loadFrom(File configDirectory) throws IOException {
         final File systemPropertiesFile = new File(configDirectory, "system-config.xml");
@@ -62,6 +66,10 @@ public class SystemConfig {
     public SystemConfig() {
         geometryLibraryType = "S2";
         readerCacheSize = 8;
+        workerThreads = 1;
+        arrayCacheSize = 0;
+        arrayCacheTileHeight = 0;
+        observationCatalogue = false;
     }
 
     public String getGeometryLibraryType() {
@@ -90,9 +98,66 @@ public class SystemConfig {
         if (readerCacheSize != null) {
             this.readerCacheSize = Integer.parseInt(readerCacheSize.getTextTrim());
         }
+
+        final Element workerThreads = rootElement.getChild("worker-threads");
+        if (workerThreads != null) {
+            this.workerThreads = Integer.parseInt(workerThreads.getTextTrim());
+        }
+
+        final Element arrayCacheSize = rootElement.getChild("array-cache-size");
+        if (arrayCacheSize != null) {
+            this.arrayCacheSize = Integer.parseInt(arrayCacheSize.getTextTrim());
+        }
+
+        final Element arrayCacheTileHeight = rootElement.getChild("array-cache-tile-height");
+        if (arrayCacheTileHeight != null) {
+            this.arrayCacheTileHeight = Integer.parseInt(arrayCacheTileHeight.getTextTrim());
+        }
+
+        final Element observationCatalogue = rootElement.getChild("observation-catalogue");
+        if (observationCatalogue != null) {
+            this.observationCatalogue = Boolean.parseBoolean(observationCatalogue.getTextTrim());
+        }
     }
 
     public int getReaderCacheSize() {
         return readerCacheSize;
     }
+
+    /**
+     * Retrieves the number of worker threads the tools may use for parallel processing.
+     *
+     * @return the number of worker threads, 1 means single-threaded processing
+     */
+    public int getWorkerThreads() {
+        return workerThreads;
+    }
+
+    /**
+     * Retrieves the memory budget shared by the array caches of all open readers.
+     *
+     * @return the budget in megabytes, 0 means unlimited
+     */
+    public int getArrayCacheSize() {
+        return arrayCacheSize;
+    }
+
+    /**
+     * Retrieves the number of scan-lines the array caches read at once.
+     *
+     * @return the tile height, 0 means that complete variables are read
+     */
+    public int getArrayCacheTileHeight() {
+        return arrayCacheTileHeight;
+    }
+
+    /**
+     * Retrieves whether the matchup tool loads the secondary observations of a run once and keeps them in memory,
+     * instead of querying the database for each primary observation.
+     *
+     * @return true when the observation catalogue is enabled
+     */
+    public boolean isObservationCatalogueEnabled() {
+        return observationCatalogue;
+    }
 }
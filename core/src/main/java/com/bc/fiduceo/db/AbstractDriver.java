@@ -22,96 +22,320 @@
 package com.bc.fiduceo.db;
 
 
+import com.bc.fiduceo.core.NodeType;
+import com.bc.fiduceo.core.SatelliteObservation;
 import com.bc.fiduceo.core.Sensor;
+import com.bc.fiduceo.geometry.Geometry;
+import com.bc.fiduceo.geometry.GeometryFactory;
+import com.bc.fiduceo.geometry.LineString;
+import com.bc.fiduceo.geometry.TimeAxis;
 import com.bc.fiduceo.util.TimeUtils;
 import org.apache.commons.dbcp2.BasicDataSource;
 import org.esa.snap.core.util.StringUtils;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
+import java.sql.DatabaseMetaData;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Savepoint;
 import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 abstract class AbstractDriver implements Driver {
 
-    private static final String DATE_PATTERN = "yyyy-MM-dd HH:mm:ss.S";
-
-    Connection connection;
-
+    private static final int MAX_OPEN_PREPARED_STATEMENTS = 32;
+
+    // one row per cell of the S2 covering of the observation geo-bounds, see CellCovering
+    static final String CREATE_CELL_COVERING_TABLE = "CREATE TABLE CELL_COVERING (ObservationId INT," +
+            "RangeMin BIGINT," +
+            "RangeMax BIGINT," +
+            "FOREIGN KEY (ObservationId) REFERENCES SATELLITE_OBSERVATION(ID))";
+    static final String CREATE_CELL_COVERING_INDEX = "CREATE INDEX CELL_COVERING_OBSERVATION ON CELL_COVERING(ObservationId, RangeMin, RangeMax)";
+    static final String INSERT_CELL_COVERING = "INSERT INTO CELL_COVERING VALUES(?, ?, ?)";
+
+    private BasicDataSource dataSource;
+
+    // the SENSOR table holds a handful of rows which never change once inserted - keep them in memory instead of
+    // querying per inserted or retrieved observation
+    private final Map<String, Integer> sensorIds = new ConcurrentHashMap<>();
+    private final Map<Integer, String> sensorNames = new ConcurrentHashMap<>();
+
+    // cleared when the JDBC driver does not report one generated key per row of a statement batch
+    private volatile boolean batchKeysSupported = true;
+
+    /**
+     * Opens the connection pool of the data source. Each operation borrows a connection and returns it when done,
+     * so one driver instance can be used by several threads. Prepared statements are pooled per connection, closing
+     * them hands them back to the pool.
+     *
+     * @param dataSource the data source
+     * @throws SQLException on database errors
+     */
     @Override
     public void open(BasicDataSource dataSource) throws SQLException {
-        try {
-            final java.sql.Driver driverClass = (java.sql.Driver) Class.forName(dataSource.getDriverClassName()).newInstance();
-            DriverManager.registerDriver(driverClass);
-        } catch (ClassNotFoundException | InstantiationException | IllegalAccessException e) {
-            throw new SQLException(e.getMessage());
+        dataSource.setPoolPreparedStatements(true);
+        dataSource.setMaxOpenPreparedStatements(MAX_OPEN_PREPARED_STATEMENTS);
+        this.dataSource = dataSource;
+
+        // borrow one connection to fail early on configuration errors
+        try (Connection ignored = getConnection()) {
+        }
+
+        updateSchema();
+    }
+
+    /**
+     * Brings databases created before the bounding rectangle columns and the CELL_COVERING table were introduced
+     * up to date. The columns are added with NULL values and the cell coverings stay empty for the observations
+     * already stored, the queries do not apply the spatial pre-filters to these observations. Does nothing on an
+     * uninitialized or current database.
+     *
+     * @throws SQLException on database errors
+     */
+    void updateSchema() throws SQLException {
+        try (Connection connection = getConnection();
+             Statement statement = connection.createStatement()) {
+            final DatabaseMetaData metaData = connection.getMetaData();
+            if (!hasTable(metaData, "SATELLITE_OBSERVATION")) {
+                return;
+            }
+
+            if (!hasColumn(metaData, "SATELLITE_OBSERVATION", "MinLat")) {
+                for (final String column : new String[]{"MinLat", "MaxLat", "MinLon", "MaxLon"}) {
+                    statement.executeUpdate("ALTER TABLE SATELLITE_OBSERVATION ADD COLUMN " + column + " DOUBLE PRECISION");
+                }
+                statement.execute("CREATE INDEX MIN_LAT ON SATELLITE_OBSERVATION(MinLat)");
+                statement.execute("CREATE INDEX MAX_LAT ON SATELLITE_OBSERVATION(MaxLat)");
+            }
+
+            if (!hasTable(metaData, "CELL_COVERING")) {
+                statement.executeUpdate(CREATE_CELL_COVERING_TABLE);
+                statement.execute(CREATE_CELL_COVERING_INDEX);
+            }
+        }
+    }
+
+    Connection getConnection() throws SQLException {
+        if (dataSource == null) {
+            throw new SQLException("Driver is not opened");
+        }
+        return dataSource.getConnection();
+    }
+
+    boolean hasTable(String tableName) throws SQLException {
+        try (Connection connection = getConnection();
+             ResultSet tables = connection.getMetaData().getTables(null, null, tableName, null)) {
+            return tables.next();
+        }
+    }
+
+    private static boolean hasTable(DatabaseMetaData metaData, String tableName) throws SQLException {
+        try (ResultSet tables = metaData.getTables(null, null, toStoredCase(metaData, tableName), null)) {
+            return tables.next();
         }
-        connection = DriverManager.getConnection(dataSource.getUrl(),
-                dataSource.getUsername(),
-                dataSource.getPassword());
+    }
+
+    private static boolean hasColumn(DatabaseMetaData metaData, String tableName, String columnName) throws SQLException {
+        try (ResultSet columns = metaData.getColumns(null, null, toStoredCase(metaData, tableName), toStoredCase(metaData, columnName))) {
+            return columns.next();
+        }
+    }
+
+    // unquoted identifiers are stored in upper case by H2 and in lower case by PostgreSQL
+    private static String toStoredCase(DatabaseMetaData metaData, String identifier) throws SQLException {
+        if (metaData.storesUpperCaseIdentifiers()) {
+            return identifier.toUpperCase();
+        } else if (metaData.storesLowerCaseIdentifiers()) {
+            return identifier.toLowerCase();
+        }
+        return identifier;
     }
 
     @Override
     public void initialize() throws SQLException {
-        Statement statement = connection.createStatement();
-        statement.executeUpdate("CREATE TABLE SATELLITE_OBSERVATION (ID INT AUTO_INCREMENT PRIMARY KEY, " +
-                "StartDate TIMESTAMP," +
-                "StopDate TIMESTAMP," +
-                "NodeType TINYINT," +
-                "GeoBounds GEOMETRY, " +
-                "SensorId INT," +
-                "Version VARCHAR(16)," +
-                "DataFile VARCHAR(256))");
-
-        statement = connection.createStatement();
-        statement.executeUpdate("CREATE TABLE SENSOR (ID INT AUTO_INCREMENT PRIMARY KEY, " +
-                "Name VARCHAR(64))");
-
-        statement = connection.createStatement();
-        statement.executeUpdate("CREATE TABLE TIMEAXIS (ID INT AUTO_INCREMENT PRIMARY KEY, " +
-                "ObservationId INT," +
-                "Axis GEOMETRY," +
-                "StartTime TIMESTAMP, " +
-                "StopTime TIMESTAMP, " +
-                "FOREIGN KEY (ObservationId) REFERENCES SATELLITE_OBSERVATION(ID))");
+        try (Connection connection = getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.executeUpdate("CREATE TABLE SATELLITE_OBSERVATION (ID INT AUTO_INCREMENT PRIMARY KEY, " +
+                    "StartDate TIMESTAMP," +
+                    "StopDate TIMESTAMP," +
+                    "NodeType TINYINT," +
+                    "GeoBounds GEOMETRY, " +
+                    "SensorId INT," +
+                    "Version VARCHAR(16)," +
+                    "DataFile VARCHAR(256)," +
+                    "MinLat DOUBLE," +
+                    "MaxLat DOUBLE," +
+                    "MinLon DOUBLE," +
+                    "MaxLon DOUBLE)");
+
+            statement.executeUpdate("CREATE TABLE SENSOR (ID INT AUTO_INCREMENT PRIMARY KEY, " +
+                    "Name VARCHAR(64))");
+
+            statement.executeUpdate("CREATE TABLE TIMEAXIS (ID INT AUTO_INCREMENT PRIMARY KEY, " +
+                    "ObservationId INT," +
+                    "Axis GEOMETRY," +
+                    "StartTime TIMESTAMP, " +
+                    "StopTime TIMESTAMP, " +
+                    "FOREIGN KEY (ObservationId) REFERENCES SATELLITE_OBSERVATION(ID))");
+
+            statement.executeUpdate(CREATE_CELL_COVERING_TABLE);
+
+            statement.execute("CREATE INDEX MIN_LAT ON SATELLITE_OBSERVATION(MinLat)");
+
+            statement.execute("CREATE INDEX MAX_LAT ON SATELLITE_OBSERVATION(MaxLat)");
+
+            statement.execute(CREATE_CELL_COVERING_INDEX);
+        }
     }
 
     @Override
     public void clear() throws SQLException {
-        Statement statement = connection.createStatement();
-        statement.execute("DROP TABLE IF EXISTS TIMEAXIS");
+        try (Connection connection = getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS CELL_COVERING");
+
+            statement.execute("DROP TABLE IF EXISTS TIMEAXIS");
 
-        statement = connection.createStatement();
-        statement.execute("DROP TABLE IF EXISTS SATELLITE_OBSERVATION");
+            statement.execute("DROP TABLE IF EXISTS SATELLITE_OBSERVATION");
 
-        connection.createStatement();
-        statement.execute("DROP TABLE IF EXISTS SENSOR");
+            statement.execute("DROP TABLE IF EXISTS SENSOR");
+        }
+
+        clearSensorCache();
     }
 
     @Override
     public void close() throws SQLException {
-        connection.close();
+        clearSensorCache();
+        if (dataSource != null) {
+            dataSource.close();
+            dataSource = null;
+        }
+    }
+
+    @Override
+    public void insert(SatelliteObservation satelliteObservation) throws SQLException {
+        insert(Collections.singletonList(satelliteObservation));
+    }
+
+    /**
+     * Inserts the observations in a single transaction, either all of them are stored or none.
+     *
+     * @param satelliteObservations the observations
+     * @throws SQLException on database errors
+     */
+    @Override
+    public void insert(List<SatelliteObservation> satelliteObservations) throws SQLException {
+        if (satelliteObservations.isEmpty()) {
+            return;
+        }
+
+        // resolve the sensors up front, they are committed on a connection of their own and must not compete for
+        // the pool while the transaction holds a connection
+        for (final SatelliteObservation satelliteObservation : satelliteObservations) {
+            getOrInsertSensorId(satelliteObservation.getSensor());
+        }
+
+        try (Connection connection = getConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                insertBatch(connection, satelliteObservations);
+                connection.commit();
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        }
     }
 
     @Override
     public int insert(Sensor sensor) throws SQLException {
-        final PreparedStatement preparedStatement = connection.prepareStatement("INSERT INTO SENSOR VALUES(default, ?)", Statement.RETURN_GENERATED_KEYS);
-        preparedStatement.setString(1, sensor.getName());
-        preparedStatement.executeUpdate();
+        try (Connection connection = getConnection()) {
+            return insert(connection, sensor);
+        }
+    }
+
+    /**
+     * Writes the observations, called within the transaction opened by insert(List).
+     *
+     * @param connection            the connection running the transaction
+     * @param satelliteObservations the observations
+     * @throws SQLException on database errors
+     */
+    abstract void insertBatch(Connection connection, List<SatelliteObservation> satelliteObservations) throws SQLException;
 
-        final ResultSet generatedKeys = preparedStatement.getGeneratedKeys();
-        if (generatedKeys.next()) {
-            return generatedKeys.getInt(1);
+    @Override
+    public Set<String> getDataFilePaths(String sensorName) throws SQLException {
+        final Set<String> dataFilePaths = new HashSet<>();
+        try (Connection connection = getConnection();
+             PreparedStatement preparedStatement = connection.prepareStatement("SELECT obs.DataFile FROM SATELLITE_OBSERVATION obs " +
+                     "INNER JOIN SENSOR sen ON obs.SensorId = sen.ID WHERE sen.Name = ?")) {
+            preparedStatement.setString(1, sensorName);
+            try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                while (resultSet.next()) {
+                    dataFilePaths.add(resultSet.getString("DataFile"));
+                }
+            }
         }
-        return -1;
+        return dataFilePaths;
+    }
+
+    /**
+     * Prepares the observation query for the parameters given. The result set is scrollable, the drivers need to
+     * step back when collecting the time axes of an observation.
+     *
+     * @param connection the connection
+     * @param parameter  the query parameter, may be null
+     * @return the statement, ready to be executed
+     * @throws SQLException on database errors
+     */
+    static PreparedStatement prepareQuery(Connection connection, QueryParameter parameter) throws SQLException {
+        return prepareQuery(connection, "*", parameter);
+    }
+
+    /**
+     * Prepares the observation query for the parameters given, selecting the columns passed in.
+     *
+     * @param connection the connection
+     * @param columns    the comma separated select list
+     * @param parameter  the query parameter, may be null
+     * @return the statement, ready to be executed
+     * @throws SQLException on database errors
+     */
+    static PreparedStatement prepareQuery(Connection connection, String columns, QueryParameter parameter) throws SQLException {
+        final PreparedStatement preparedStatement = connection.prepareStatement(createSql(columns, parameter), ResultSet.TYPE_SCROLL_INSENSITIVE, ResultSet.CONCUR_READ_ONLY);
+        try {
+            setSqlParameters(preparedStatement, parameter);
+        } catch (SQLException e) {
+            preparedStatement.close();
+            throw e;
+        }
+        return preparedStatement;
     }
 
     // package access for testing only tb 2016-11-29
     static String createSql(QueryParameter parameter) {
+        return createSql("*", parameter);
+    }
+
+    // package access for testing only
+    static String createSql(String columns, QueryParameter parameter) {
         final StringBuilder sql = new StringBuilder();
-        sql.append("SELECT * FROM SATELLITE_OBSERVATION obs INNER JOIN SENSOR sen ON obs.SensorId = sen.ID INNER JOIN TIMEAXIS axis ON obs.ID = axis.ObservationId");
+        sql.append("SELECT ");
+        sql.append(columns);
+        sql.append(" FROM SATELLITE_OBSERVATION obs INNER JOIN SENSOR sen ON obs.SensorId = sen.ID INNER JOIN TIMEAXIS axis ON obs.ID = axis.ObservationId");
         if (parameter == null) {
             return sql.toString();
         }
@@ -123,9 +347,7 @@ abstract class AbstractDriver implements Driver {
         final java.util.Date startTime = parameter.getStartTime();
 
         if (startTime != null) {
-            sql.append("obs.stopDate >= '");
-            sql.append(TimeUtils.format(startTime, DATE_PATTERN));
-            sql.append("'");
+            sql.append("obs.stopDate >= ?");
 
             appendAnd = true;
         }
@@ -135,9 +357,7 @@ abstract class AbstractDriver implements Driver {
             if (appendAnd) {
                 sql.append(" AND ");
             }
-            sql.append("obs.startDate <= '");
-            sql.append(TimeUtils.format(stopTime, DATE_PATTERN));
-            sql.append("'");
+            sql.append("obs.startDate <= ?");
             appendAnd = true;
         }
 
@@ -147,9 +367,7 @@ abstract class AbstractDriver implements Driver {
                 sql.append(" AND ");
             }
 
-            sql.append("sen.Name = '");
-            sql.append(sensorName);
-            sql.append("'");
+            sql.append("sen.Name = ?");
             appendAnd = true;
         }
 
@@ -159,9 +377,7 @@ abstract class AbstractDriver implements Driver {
                 sql.append(" AND ");
             }
 
-            sql.append("obs.DataFile = '");
-            sql.append(path);
-            sql.append("'");
+            sql.append("obs.DataFile = ?");
             appendAnd = true;
         }
 
@@ -171,34 +387,417 @@ abstract class AbstractDriver implements Driver {
                 sql.append(" AND ");
             }
 
-            sql.append("obs.Version = '");
-            sql.append(version);
-            sql.append("'");
+            sql.append("obs.Version = ?");
+            appendAnd = true;
+        }
+
+        final BoundingRect searchRect = BoundingRect.create(parameter.getGeometry());
+        if (searchRect != null) {
+            if (appendAnd) {
+                sql.append(" AND ");
+            }
+
+            // observations without geolocation (e.g. insitu data) are not spatially constrained
+            sql.append("(obs.MinLat IS NULL OR (obs.MaxLat >= ? AND obs.MinLat <= ? AND obs.MaxLon >= ? AND obs.MinLon <= ?");
+
+            // the rectangle test runs on the indexed columns first, the cell ranges refine the remaining rows. Observations
+            // without cell covering rows, e.g. those stored before the table was introduced, are not refined. Both subqueries
+            // are uncorrelated and the statement always has MAX_CELLS range pairs, so its text does not depend on the geometry
+            // and the pooled prepared statement is reused
+            if (CellCovering.create(parameter.getGeometry()) != null) {
+                sql.append(" AND (obs.ID IN (SELECT cov.ObservationId FROM CELL_COVERING cov WHERE ");
+                for (int i = 0; i < CellCovering.MAX_CELLS; i++) {
+                    if (i > 0) {
+                        sql.append(" OR ");
+                    }
+                    sql.append("(cov.RangeMin <= ? AND cov.RangeMax >= ?)");
+                }
+                sql.append(") OR obs.ID IN (SELECT uncov.ID FROM SATELLITE_OBSERVATION uncov LEFT JOIN CELL_COVERING cov ON cov.ObservationId = uncov.ID WHERE cov.ObservationId IS NULL))");
+            }
+            sql.append("))");
         }
 
         return sql.toString();
     }
 
-    Sensor getSensor(int id) throws SQLException {
-        final Statement statement = connection.createStatement(ResultSet.TYPE_SCROLL_INSENSITIVE, ResultSet.CONCUR_UPDATABLE);
-        final ResultSet resultSet = statement.executeQuery("SELECT * FROM SENSOR where ID = " + id);
-        if (resultSet.next()) {
-            final Sensor sensor = new Sensor();
-            sensor.setName(resultSet.getString("Name"));
-            return sensor;
+    // sets the values for the placeholders of createSql(), in the same order
+    // package access for testing only
+    static void setSqlParameters(PreparedStatement preparedStatement, QueryParameter parameter) throws SQLException {
+        if (parameter == null) {
+            return;
+        }
+
+        int index = 1;
+        final java.util.Date startTime = parameter.getStartTime();
+        if (startTime != null) {
+            preparedStatement.setTimestamp(index++, TimeUtils.toTimestamp(startTime));
+        }
+
+        final java.util.Date stopTime = parameter.getStopTime();
+        if (stopTime != null) {
+            preparedStatement.setTimestamp(index++, TimeUtils.toTimestamp(stopTime));
+        }
+
+        final String sensorName = parameter.getSensorName();
+        if (StringUtils.isNotNullAndNotEmpty(sensorName)) {
+            preparedStatement.setString(index++, sensorName);
+        }
+
+        final String path = parameter.getPath();
+        if (StringUtils.isNotNullAndNotEmpty(path)) {
+            preparedStatement.setString(index++, path);
+        }
+
+        final String version = parameter.getVersion();
+        if (StringUtils.isNotNullAndNotEmpty(version)) {
+            preparedStatement.setString(index++, version);
+        }
+
+        final BoundingRect searchRect = BoundingRect.create(parameter.getGeometry());
+        if (searchRect != null) {
+            preparedStatement.setDouble(index++, searchRect.minLat);
+            preparedStatement.setDouble(index++, searchRect.maxLat);
+            preparedStatement.setDouble(index++, searchRect.minLon);
+            preparedStatement.setDouble(index++, searchRect.maxLon);
+
+            final CellCovering searchCovering = CellCovering.create(parameter.getGeometry());
+            if (searchCovering != null) {
+                // coverings with less cells repeat their last range, this does not change the result
+                for (int i = 0; i < CellCovering.MAX_CELLS; i++) {
+                    final int cell = Math.min(i, searchCovering.size() - 1);
+                    preparedStatement.setLong(index++, searchCovering.rangeMax[cell]);
+                    preparedStatement.setLong(index++, searchCovering.rangeMin[cell]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads the observations from a result set of the observation query. The set must contain the columns ID,
+     * StartDate, StopDate, NodeType, SensorId, Version, DataFile, StartTime and StopTime plus the geometry columns
+     * GeoBounds and Axis as WKB. The geometries are not decoded here but on first access to the observation,
+     * most observations of a query are discarded by the matchup strategies after a look at the time and bounding
+     * rectangle only.
+     *
+     * @param connection      the connection
+     * @param resultSet       the result set, scrollable
+     * @param geometryFactory the factory decoding the geometries
+     * @return the observations
+     * @throws SQLException on database errors
+     */
+    List<SatelliteObservation> getObservations(Connection connection, ResultSet resultSet, GeometryFactory geometryFactory) throws SQLException {
+        resultSet.last();
+        final int numValues = resultSet.getRow();
+        resultSet.beforeFirst();
+
+        final List<SatelliteObservation> resultList = new ArrayList<>(numValues);
+        while (resultSet.next()) {
+            final SatelliteObservation observation = new SatelliteObservation();
+
+            final int observationId = resultSet.getInt("ID");
+
+            final Timestamp startDate = resultSet.getTimestamp("StartDate");
+            observation.setStartTime(TimeUtils.toDate(startDate));
+
+            final Timestamp stopDate = resultSet.getTimestamp("StopDate");
+            observation.setStopTime(TimeUtils.toDate(stopDate));
+
+            final int nodeTypeId = resultSet.getInt("NodeType");
+            observation.setNodeType(NodeType.fromId(nodeTypeId));
+
+            final byte[] geoBounds = resultSet.getBytes("GeoBounds");
+            if (geoBounds != null) {
+                observation.setGeoBoundsDecoder(() -> geometryFactory.fromStorageFormat(geoBounds));
+            }
+
+            final int sensorId = resultSet.getInt("SensorId");
+            final Sensor sensor = getSensor(connection, sensorId);
+            observation.setSensor(sensor);
+
+            final String version = resultSet.getString("Version");
+            observation.setVersion(version);
+
+            final String dataFile = resultSet.getString("DataFile");
+            observation.setDataFilePath(dataFile);
+
+            final List<EncodedTimeAxis> encodedTimeAxes = new ArrayList<>();
+            while (observationId == resultSet.getInt("ID")) {
+                final byte[] axis = resultSet.getBytes("Axis");
+                if (axis != null) {
+                    final Date startTime = TimeUtils.toDate(resultSet.getTimestamp("StartTime"));
+                    final Date stopTime = TimeUtils.toDate(resultSet.getTimestamp("StopTime"));
+                    encodedTimeAxes.add(new EncodedTimeAxis(axis, startTime, stopTime));
+                }
+
+                if (!resultSet.next()) {
+                    break;
+                }
+            }
+            resultSet.previous();   // need to rewind one result because the while loop runs one result too far tb 2016-09-23
+
+            observation.setTimeAxesDecoder(() -> decodeTimeAxes(encodedTimeAxes, geometryFactory));
+
+            resultList.add(observation);
+        }
+
+        return resultList;
+    }
+
+    private static TimeAxis[] decodeTimeAxes(List<EncodedTimeAxis> encodedTimeAxes, GeometryFactory geometryFactory) {
+        final TimeAxis[] timeAxes = new TimeAxis[encodedTimeAxes.size()];
+        for (int i = 0; i < timeAxes.length; i++) {
+            final EncodedTimeAxis encodedTimeAxis = encodedTimeAxes.get(i);
+            final LineString axisGeometry = (LineString) geometryFactory.fromStorageFormat(encodedTimeAxis.axis);
+            timeAxes[i] = geometryFactory.createTimeAxis(axisGeometry, encodedTimeAxis.startTime, encodedTimeAxis.stopTime);
+        }
+        return timeAxes;
+    }
+
+    /**
+     * Writes the observations with their time axes and cell coverings as statement batches. The drivers supply the
+     * INSERT statements, they differ in the conversion of the WKB parameters to their geometry columns. The observation
+     * statement takes the columns of SATELLITE_OBSERVATION without ID, the time axis statement those of TIMEAXIS
+     * without ID.
+     *
+     * @param connection           the connection running the transaction
+     * @param observations         the observations
+     * @param insertObservationSql the INSERT statement for SATELLITE_OBSERVATION
+     * @param insertTimeAxisSql    the INSERT statement for TIMEAXIS
+     * @param geometryFactory      the geometry factory converting the geometries to WKB
+     * @throws SQLException on database errors
+     */
+    void insertBatch(Connection connection, List<SatelliteObservation> observations, String insertObservationSql,
+                     String insertTimeAxisSql, GeometryFactory geometryFactory) throws SQLException {
+        try (PreparedStatement observationStatement = connection.prepareStatement(insertObservationSql, Statement.RETURN_GENERATED_KEYS);
+             PreparedStatement timeAxisStatement = connection.prepareStatement(insertTimeAxisSql);
+             PreparedStatement cellCoveringStatement = connection.prepareStatement(INSERT_CELL_COVERING)) {
+            final int[] observationIds = insertObservations(connection, observationStatement, observations, geometryFactory);
+            for (int i = 0; i < observationIds.length; i++) {
+                final SatelliteObservation observation = observations.get(i);
+                addTimeAxes(timeAxisStatement, observationIds[i], observation, geometryFactory);
+                addCellCovering(cellCoveringStatement, observationIds[i], observation.getGeoBounds());
+            }
+            timeAxisStatement.executeBatch();
+            cellCoveringStatement.executeBatch();
+        }
+    }
+
+    // Drivers that report the generated key of the last batch row only get the batch rolled back to the savepoint,
+    // the rows are then inserted one by one for this and all later calls
+    private int[] insertObservations(Connection connection, PreparedStatement preparedStatement, List<SatelliteObservation> observations,
+                                     GeometryFactory geometryFactory) throws SQLException {
+        if (batchKeysSupported && observations.size() > 1) {
+            final Savepoint savepoint = connection.setSavepoint();
+            for (final SatelliteObservation observation : observations) {
+                setObservationParameters(preparedStatement, observation, geometryFactory);
+                preparedStatement.addBatch();
+            }
+            preparedStatement.executeBatch();
+
+            final int[] observationIds = getGeneratedIds(preparedStatement, observations.size());
+            if (observationIds != null) {
+                connection.releaseSavepoint(savepoint);
+                return observationIds;
+            }
+            connection.rollback(savepoint);
+            batchKeysSupported = false;
+        }
+
+        final int[] observationIds = new int[observations.size()];
+        for (int i = 0; i < observationIds.length; i++) {
+            setObservationParameters(preparedStatement, observations.get(i), geometryFactory);
+            preparedStatement.executeUpdate();
+
+            final int[] generatedIds = getGeneratedIds(preparedStatement, 1);
+            if (generatedIds == null) {
+                throw new SQLException("Internal driver error: no ID generated for SATELLITE_OBSERVATION");
+            }
+            observationIds[i] = generatedIds[0];
+        }
+        return observationIds;
+    }
+
+    // the ID is the first column of the table, drivers returning all columns of the inserted rows deliver it first as well
+    private static int[] getGeneratedIds(PreparedStatement preparedStatement, int numRows) throws SQLException {
+        final int[] ids = new int[numRows];
+        int numIds = 0;
+        try (ResultSet generatedKeys = preparedStatement.getGeneratedKeys()) {
+            while (generatedKeys.next()) {
+                if (numIds == numRows) {
+                    return null;
+                }
+                ids[numIds++] = generatedKeys.getInt(1);
+            }
+        }
+        return numIds == numRows ? ids : null;
+    }
+
+    private void setObservationParameters(PreparedStatement preparedStatement, SatelliteObservation observation, GeometryFactory geometryFactory) throws SQLException {
+        final int sensorId = getOrInsertSensorId(observation.getSensor());
+
+        preparedStatement.setTimestamp(1, TimeUtils.toTimestamp(observation.getStartTime()));
+        preparedStatement.setTimestamp(2, TimeUtils.toTimestamp(observation.getStopTime()));
+        preparedStatement.setByte(3, (byte) observation.getNodeType().toId());
+        final Geometry geoBounds = observation.getGeoBounds();
+        if (geoBounds != null) {
+            preparedStatement.setBytes(4, geometryFactory.toStorageFormat(geoBounds));
         } else {
-            throw new SQLException("No Sensor available for ID '" + id + "'");
+            preparedStatement.setNull(4, Types.BINARY);
         }
+        preparedStatement.setInt(5, sensorId);
+        preparedStatement.setString(6, observation.getVersion());
+        preparedStatement.setString(7, observation.getDataFilePath().toString());
+        setBoundingRect(preparedStatement, 8, BoundingRect.create(geoBounds));
     }
 
-    Integer getSensorId(String sensorName) throws SQLException {
-        final Statement statement = connection.createStatement(ResultSet.TYPE_SCROLL_INSENSITIVE, ResultSet.CONCUR_UPDATABLE);
-        final ResultSet resultSet = statement.executeQuery("SELECT ID FROM SENSOR WHERE NAME = '" + sensorName + "'");
+    private static void addTimeAxes(PreparedStatement preparedStatement, int observationId, SatelliteObservation observation, GeometryFactory geometryFactory) throws SQLException {
+        final TimeAxis[] timeAxes = observation.getTimeAxes();
+        if (timeAxes != null) {
+            for (final TimeAxis timeAxis : timeAxes) {
+                preparedStatement.setInt(1, observationId);
+                preparedStatement.setBytes(2, geometryFactory.toStorageFormat(timeAxis.getGeometry()));
+                preparedStatement.setTimestamp(3, TimeUtils.toTimestamp(timeAxis.getStartTime()));
+                preparedStatement.setTimestamp(4, TimeUtils.toTimestamp(timeAxis.getEndTime()));
+                preparedStatement.addBatch();
+            }
+        } else {
+            preparedStatement.setInt(1, observationId);
+            preparedStatement.setNull(2, Types.BINARY);
+            preparedStatement.setTimestamp(3, TimeUtils.toTimestamp(observation.getStartTime()));
+            preparedStatement.setTimestamp(4, TimeUtils.toTimestamp(observation.getStopTime()));
+            preparedStatement.addBatch();
+        }
+    }
+
+    /**
+     * Adds the cell covering rows of the geometry to the batch of the statement passed in, the statement must
+     * be prepared with INSERT_CELL_COVERING.
+     *
+     * @param preparedStatement the statement
+     * @param observationId     the ID of the observation the geometry belongs to
+     * @param geoBounds         the geo-bounds of the observation, may be null
+     * @throws SQLException on database errors
+     */
+    static void addCellCovering(PreparedStatement preparedStatement, int observationId, Geometry geoBounds) throws SQLException {
+        final CellCovering cellCovering = CellCovering.create(geoBounds);
+        if (cellCovering == null) {
+            return;
+        }
 
-        if (resultSet.first()) {
-            return resultSet.getInt("ID");
+        for (int i = 0; i < cellCovering.size(); i++) {
+            preparedStatement.setInt(1, observationId);
+            preparedStatement.setLong(2, cellCovering.rangeMin[i]);
+            preparedStatement.setLong(3, cellCovering.rangeMax[i]);
+            preparedStatement.addBatch();
+        }
+    }
+
+    static void setBoundingRect(PreparedStatement preparedStatement, int firstIndex, BoundingRect boundingRect) throws SQLException {
+        if (boundingRect != null) {
+            preparedStatement.setDouble(firstIndex, boundingRect.minLat);
+            preparedStatement.setDouble(firstIndex + 1, boundingRect.maxLat);
+            preparedStatement.setDouble(firstIndex + 2, boundingRect.minLon);
+            preparedStatement.setDouble(firstIndex + 3, boundingRect.maxLon);
         } else {
-            return null;
+            for (int i = 0; i < 4; i++) {
+                preparedStatement.setNull(firstIndex + i, Types.DOUBLE);
+            }
+        }
+    }
+
+    Sensor getSensor(Connection connection, int id) throws SQLException {
+        String sensorName = sensorNames.get(id);
+        if (sensorName == null) {
+            try (PreparedStatement preparedStatement = connection.prepareStatement("SELECT Name FROM SENSOR WHERE ID = ?")) {
+                preparedStatement.setInt(1, id);
+                try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                    if (!resultSet.next()) {
+                        throw new SQLException("No Sensor available for ID '" + id + "'");
+                    }
+                    sensorName = resultSet.getString("Name");
+                }
+            }
+            cacheSensor(sensorName, id);
+        }
+
+        final Sensor sensor = new Sensor();
+        sensor.setName(sensorName);
+        return sensor;
+    }
+
+    Integer getSensorId(Connection connection, String sensorName) throws SQLException {
+        final Integer cachedId = sensorIds.get(sensorName);
+        if (cachedId != null) {
+            return cachedId;
+        }
+
+        try (PreparedStatement preparedStatement = connection.prepareStatement("SELECT ID FROM SENSOR WHERE NAME = ?")) {
+            preparedStatement.setString(1, sensorName);
+            try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                if (!resultSet.next()) {
+                    return null;
+                }
+                final int sensorId = resultSet.getInt("ID");
+                cacheSensor(sensorName, sensorId);
+                return sensorId;
+            }
+        }
+    }
+
+    // synchronized to prevent two threads from inserting the same sensor; the cached case does not touch the
+    // database at all
+    synchronized int getOrInsertSensorId(Sensor sensor) throws SQLException {
+        final String sensorName = sensor.getName();
+        final Integer cachedId = sensorIds.get(sensorName);
+        if (cachedId != null) {
+            return cachedId;
+        }
+
+        try (Connection connection = getConnection()) {
+            final Integer sensorId = getSensorId(connection, sensorName);
+            if (sensorId != null) {
+                return sensorId;
+            }
+
+            final int insertedId = insert(connection, sensor);
+            cacheSensor(sensorName, insertedId);
+            return insertedId;
+        }
+    }
+
+    private int insert(Connection connection, Sensor sensor) throws SQLException {
+        try (PreparedStatement preparedStatement = connection.prepareStatement("INSERT INTO SENSOR VALUES(default, ?)", Statement.RETURN_GENERATED_KEYS)) {
+            preparedStatement.setString(1, sensor.getName());
+            preparedStatement.executeUpdate();
+
+            try (ResultSet generatedKeys = preparedStatement.getGeneratedKeys()) {
+                if (generatedKeys.next()) {
+                    return generatedKeys.getInt(1);
+                }
+            }
+        }
+        return -1;
+    }
+
+    private void cacheSensor(String sensorName, int sensorId) {
+        sensorIds.put(sensorName, sensorId);
+        sensorNames.put(sensorId, sensorName);
+    }
+
+    private void clearSensorCache() {
+        sensorIds.clear();
+        sensorNames.clear();
+    }
+
+    private static class EncodedTimeAxis {
+        private final byte[] axis;
+        private final Date startTime;
+        private final Date stopTime;
+
+        private EncodedTimeAxis(byte[] axis, Date startTime, Date stopTime) {
+            this.axis = axis;
+            this.startTime = startTime;
+            this.stopTime = stopTime;
         }
     }
 }
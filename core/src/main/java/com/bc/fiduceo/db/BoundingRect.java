@@ -0,0 +1,66 @@
+/*
+ * Copyright (C) 2015 Brockmann Consult GmbH
+ * This code was developed for the EC project "Fidelity and Uncertainty in
+ * Climate Data Records from Earth Observations (FIDUCEO)".
+ * Grant Agreement: 638822
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * A copy of the GNU General Public License should have been supplied along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ *
+ */
+
+
+package com.bc.fiduceo.db;
+
+import com.bc.fiduceo.geometry.Geometry;
+import com.bc.fiduceo.geometry.GeometryUtil;
+import com.google.common.geometry.S1Interval;
+import com.google.common.geometry.S2LatLngRect;
+
+/**
+ * Latitude/longitude bounds of an observation as persisted in the database, in decimal degrees. The
+ * bounds are calculated on the sphere; a longitude range crossing the anti-meridian is stored as the full
+ * longitude range to keep the database query a simple range overlap test.
+ */
+class BoundingRect {
+
+    final double minLon;
+    final double minLat;
+    final double maxLon;
+    final double maxLat;
+
+    BoundingRect(double minLon, double minLat, double maxLon, double maxLat) {
+        this.minLon = minLon;
+        this.minLat = minLat;
+        this.maxLon = maxLon;
+        this.maxLat = maxLat;
+    }
+
+    static BoundingRect create(Geometry geometry) {
+        if (geometry == null) {
+            return null;
+        }
+
+        final S2LatLngRect rect = GeometryUtil.getBoundingRect(geometry);
+        if (rect.isEmpty()) {
+            return null;
+        }
+
+        final double minLat = rect.latLo().degrees();
+        final double maxLat = rect.latHi().degrees();
+        final S1Interval lng = rect.lng();
+        if (lng.isFull() || lng.isInverted()) {
+            return new BoundingRect(-180.0, minLat, 180.0, maxLat);
+        }
+        return new BoundingRect(rect.lngLo().degrees(), minLat, rect.lngHi().degrees(), maxLat);
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright (C) 2015 Brockmann Consult GmbH
+ * This code was developed for the EC project "Fidelity and Uncertainty in
+ * Climate Data Records from Earth Observations (FIDUCEO)".
+ * Grant Agreement: 638822
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * A copy of the GNU General Public License should have been supplied along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ *
+ */
+
+package com.bc.fiduceo.db;
+
+import com.bc.fiduceo.geometry.Geometry;
+import com.bc.fiduceo.geometry.GeometryCollection;
+import com.bc.fiduceo.geometry.GeometryUtil;
+import com.google.common.geometry.S2Cell;
+import com.google.common.geometry.S2CellId;
+import com.google.common.geometry.S2CellUnion;
+import com.google.common.geometry.S2LatLng;
+import com.google.common.geometry.S2LatLngRect;
+import com.google.common.geometry.S2Polygon;
+import com.google.common.geometry.S2Polyline;
+import com.google.common.geometry.S2Region;
+import com.google.common.geometry.S2RegionCoverer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * S2 cell covering of an observation footprint as persisted in the database. Each cell is stored as the range of
+ * leaf cell IDs it contains, two coverings intersect when any of their ranges overlap. This reduces the spatial
+ * search to integer range comparisons every database can index.
+ * <p>
+ * S2 cell IDs are unsigned 64 bit values, the range bounds are stored with flipped sign bit so that the signed
+ * comparison of the databases keeps the unsigned order.
+ */
+class CellCovering {
+
+    static final int MAX_CELLS = 8;
+
+    final long[] rangeMin;
+    final long[] rangeMax;
+
+    private CellCovering(List<S2CellId> cellIds) {
+        rangeMin = new long[cellIds.size()];
+        rangeMax = new long[cellIds.size()];
+        for (int i = 0; i < rangeMin.length; i++) {
+            final S2CellId cellId = cellIds.get(i);
+            rangeMin[i] = toSortable(cellId.rangeMin().id());
+            rangeMax[i] = toSortable(cellId.rangeMax().id());
+        }
+    }
+
+    int size() {
+        return rangeMin.length;
+    }
+
+    /**
+     * Calculates the covering of the geometry with at most MAX_CELLS cells.
+     *
+     * @param geometry the geometry
+     * @return the covering or null for null and empty geometries
+     */
+    static CellCovering create(Geometry geometry) {
+        if (geometry == null || geometry.isEmpty()) {
+            return null;
+        }
+
+        final List<S2Region> regions = new ArrayList<>();
+        collectRegions(geometry, regions);
+
+        final S2RegionCoverer coverer = new S2RegionCoverer();
+        coverer.setMaxCells(MAX_CELLS);
+        final ArrayList<S2CellId> cellIds = new ArrayList<>();
+        for (final S2Region region : regions) {
+            cellIds.addAll(coverer.getCovering(region).cellIds());
+        }
+        if (cellIds.isEmpty()) {
+            return null;
+        }
+
+        return new CellCovering(coarsen(cellIds));
+    }
+
+    // package access for testing only
+    static long toSortable(long cellId) {
+        return cellId ^ Long.MIN_VALUE;
+    }
+
+    private static void collectRegions(Geometry geometry, List<S2Region> regions) {
+        if (geometry instanceof GeometryCollection) {
+            for (final Geometry child : ((GeometryCollection) geometry).getGeometries()) {
+                collectRegions(child, regions);
+            }
+            return;
+        }
+
+        final Object inner = geometry.getInner();
+        if (inner instanceof List) {
+            for (final Object element : (List) inner) {
+                if (element instanceof Geometry) {
+                    collectRegions((Geometry) element, regions);
+                } else {
+                    regions.add(toRegion(element));
+                }
+            }
+        } else if (inner instanceof S2Polygon || inner instanceof S2Polyline || inner instanceof S2LatLng) {
+            regions.add(toRegion(inner));
+        } else {
+            // non-S2 geometries are covered by their bounding rectangle
+            final S2LatLngRect boundingRect = GeometryUtil.getBoundingRect(geometry);
+            if (!boundingRect.isEmpty()) {
+                regions.add(boundingRect);
+            }
+        }
+    }
+
+    private static S2Region toRegion(Object s2Geometry) {
+        if (s2Geometry instanceof S2LatLng) {
+            return new S2Cell(S2CellId.fromLatLng((S2LatLng) s2Geometry));
+        } else if (s2Geometry instanceof S2Region) {
+            return (S2Region) s2Geometry;
+        }
+        throw new IllegalArgumentException("Unsupported geometry type: " + s2Geometry.getClass().getName());
+    }
+
+    // the parts of a multi-geometry are covered one by one, replace the finest cells by their parents until the
+    // union is within the cell limit again
+    private static List<S2CellId> coarsen(ArrayList<S2CellId> cellIds) {
+        final S2CellUnion cellUnion = new S2CellUnion();
+        cellUnion.initFromCellIds(cellIds);
+        while (cellUnion.size() > MAX_CELLS) {
+            int maxLevel = 0;
+            for (final S2CellId cellId : cellUnion) {
+                maxLevel = Math.max(maxLevel, cellId.level());
+            }
+
+            final ArrayList<S2CellId> coarsened = new ArrayList<>(cellUnion.size());
+            for (final S2CellId cellId : cellUnion) {
+                coarsened.add(cellId.level() == maxLevel ? cellId.parent() : cellId);
+            }
+            cellUnion.initFromCellIds(coarsened);
+        }
+        return cellUnion.cellIds();
+    }
+}
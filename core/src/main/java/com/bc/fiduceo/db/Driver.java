@@ -29,6 +29,7 @@ import org.apache.commons.dbcp2.BasicDataSource;
 
 import java.sql.SQLException;
 import java.util.List;
+import java.util.Set;
 
 public interface Driver {
 
@@ -54,10 +55,27 @@ public interface Driver {
 
     void insert(SatelliteObservation satelliteObservation) throws SQLException;
 
+    /**
+     * Inserts a list of observations. Drivers supporting transactions store either all observations or none.
+     *
+     * @param satelliteObservations the observations
+     * @throws SQLException on database errors
+     */
+    void insert(List<SatelliteObservation> satelliteObservations) throws SQLException;
+
     List<SatelliteObservation> get() throws SQLException;
 
     List<SatelliteObservation> get(QueryParameter parameter) throws SQLException;
 
+    /**
+     * Retrieves the data file paths of all observations of a sensor, without reading geometries and time axes.
+     *
+     * @param sensorName the sensor name
+     * @return the paths as stored
+     * @throws SQLException on database errors
+     */
+    Set<String> getDataFilePaths(String sensorName) throws SQLException;
+
     int insert(Sensor sensor) throws SQLException;
 
 }
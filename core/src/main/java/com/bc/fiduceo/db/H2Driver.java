@@ -20,27 +20,24 @@
 
 package com.bc.fiduceo.db;
 
-import com.bc.fiduceo.core.NodeType;
 import com.bc.fiduceo.core.SatelliteObservation;
-import com.bc.fiduceo.core.Sensor;
 import com.bc.fiduceo.geometry.GeometryFactory;
-import com.bc.fiduceo.geometry.LineString;
-import com.bc.fiduceo.geometry.TimeAxis;
-import com.bc.fiduceo.util.TimeUtils;
-import com.vividsolutions.jts.geom.Geometry;
-import com.vividsolutions.jts.io.WKTWriter;
 
 import java.sql.*;
-import java.util.ArrayList;
-import java.util.Date;
 import java.util.List;
 
 
 @SuppressWarnings({"SqlDialectInspection", "SqlNoDataSourceInspection"})
 public class H2Driver extends AbstractDriver {
 
+    // H2 converts between WKB and the GEOMETRY columns on its own, no need to go through a function
+    private static final String QUERY_COLUMNS = "obs.ID, obs.StartDate, obs.StopDate, obs.NodeType, obs.GeoBounds, obs.SensorId, " +
+            "obs.Version, obs.DataFile, axis.Axis, axis.StartTime, axis.StopTime";
+
+    private static final String INSERT_OBSERVATION = "INSERT INTO SATELLITE_OBSERVATION VALUES(default, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_TIME_AXIS = "INSERT INTO TIMEAXIS VALUES(default, ?, ?, ?, ?)";
+
     private GeometryFactory geometryFactory;
-    private WKTWriter wktWriter;
 
     @Override
     public String getUrlPattern() {
@@ -50,66 +47,16 @@ public class H2Driver extends AbstractDriver {
     @Override
     public void setGeometryFactory(GeometryFactory geometryFactory) {
         this.geometryFactory = geometryFactory;
-        wktWriter = new WKTWriter();
     }
 
     @Override
     public boolean isInitialized() throws SQLException {
-        final ResultSet tables = connection.getMetaData().getTables(null, null, "SATELLITE_OBSERVATION", null);
-        return tables.next();
+        return hasTable("SATELLITE_OBSERVATION");
     }
 
     @Override
-    public void insert(SatelliteObservation observation) throws SQLException {
-        final Sensor sensor = observation.getSensor();
-        Integer sensorId = getSensorId(sensor.getName());
-        if (sensorId == null) {
-            sensorId = insert(sensor);
-        }
-
-        PreparedStatement preparedStatement = connection.prepareStatement("INSERT INTO SATELLITE_OBSERVATION VALUES(default, ?, ?, ?, ?, ?, ?, ?)");
-        preparedStatement.setTimestamp(1, TimeUtils.toTimestamp(observation.getStartTime()));
-        preparedStatement.setTimestamp(2, TimeUtils.toTimestamp(observation.getStopTime()));
-        preparedStatement.setByte(3, (byte) observation.getNodeType().toId());
-        final com.bc.fiduceo.geometry.Geometry geoBounds = observation.getGeoBounds();
-        if (geoBounds != null) {
-            final String wkt = geometryFactory.format(geoBounds);
-            preparedStatement.setString(4, wkt);
-        } else {
-            preparedStatement.setNull(4, Types.VARCHAR);
-        }
-        preparedStatement.setInt(5, sensorId);
-        preparedStatement.setString(6, observation.getVersion());
-        preparedStatement.setString(7, observation.getDataFilePath().toString());
-        preparedStatement.executeUpdate();
-
-        final ResultSet generatedKeys = preparedStatement.getGeneratedKeys();
-        final int observationId;
-        if (generatedKeys.next()) {
-            observationId = generatedKeys.getInt(1);
-        } else {
-            throw new SQLException("Internal driver error: no ID generated for SATELLITE_OBSERVATION");
-        }
-
-        final TimeAxis[] timeAxes = observation.getTimeAxes();
-        if (timeAxes != null) {
-            for (final TimeAxis timeAxis : timeAxes) {
-                preparedStatement = connection.prepareStatement("INSERT INTO TIMEAXIS VALUES(default, ?, ?, ?, ?)");
-                preparedStatement.setInt(1, observationId);
-                final String wkt = geometryFactory.format(timeAxis.getGeometry());
-                preparedStatement.setString(2, wkt);
-                preparedStatement.setTimestamp(3, TimeUtils.toTimestamp(timeAxis.getStartTime()));
-                preparedStatement.setTimestamp(4, TimeUtils.toTimestamp(timeAxis.getEndTime()));
-                preparedStatement.executeUpdate();
-            }
-        } else {
-            preparedStatement = connection.prepareStatement("INSERT INTO TIMEAXIS VALUES(default, ?, ?, ?, ?)");
-            preparedStatement.setInt(1, observationId);
-            preparedStatement.setNull(2, Types.VARCHAR);
-            preparedStatement.setTimestamp(3, TimeUtils.toTimestamp(observation.getStartTime()));
-            preparedStatement.setTimestamp(4, TimeUtils.toTimestamp(observation.getStopTime()));
-            preparedStatement.executeUpdate();
-        }
+    void insertBatch(Connection connection, List<SatelliteObservation> observations) throws SQLException {
+        insertBatch(connection, observations, INSERT_OBSERVATION, INSERT_TIME_AXIS, geometryFactory);
     }
 
     @Override
@@ -119,83 +66,13 @@ public class H2Driver extends AbstractDriver {
 
     @Override
     public List<SatelliteObservation> get(QueryParameter parameter) throws SQLException {
+        try (Connection connection = getConnection();
+             PreparedStatement preparedStatement = prepareQuery(connection, QUERY_COLUMNS, parameter);
+             ResultSet resultSet = preparedStatement.executeQuery()) {
 
-        //org.h2.tools.Server.startWebServer(connection);
-
-        final Statement statement = connection.createStatement(ResultSet.TYPE_SCROLL_INSENSITIVE, ResultSet.CONCUR_UPDATABLE);
-        final String sql = createSql(parameter);
-        final ResultSet resultSet = statement.executeQuery(sql);
-        resultSet.last();
-        final int numValues = resultSet.getRow();
-        resultSet.beforeFirst();
-
-        final List<SatelliteObservation> resultList = new ArrayList<>(numValues);
-        while (resultSet.next()) {
-            final SatelliteObservation observation = new SatelliteObservation();
-
-            final int observationId = resultSet.getInt("id");
-
-            final Timestamp startDate = resultSet.getTimestamp("StartDate");
-            observation.setStartTime(TimeUtils.toDate(startDate));
-
-            final Timestamp stopDate = resultSet.getTimestamp("StopDate");
-            observation.setStopTime(TimeUtils.toDate(stopDate));
-
-            final int nodeTypeId = resultSet.getInt("NodeType");
-            observation.setNodeType(NodeType.fromId(nodeTypeId));
-
-            final Geometry geoBounds = (Geometry) resultSet.getObject("GeoBounds");
-            if (geoBounds != null) {
-                final String geoBoundsWkt = wktWriter.write(geoBounds);
-                final com.bc.fiduceo.geometry.Geometry geometry = geometryFactory.fromStorageFormat(geoBoundsWkt.getBytes());
-                observation.setGeoBounds(geometry);
-            }
-
-            final int sensorId = resultSet.getInt("SensorId");
-            final Sensor sensor = getSensor(sensorId);
-            observation.setSensor(sensor);
-
-            final String version = resultSet.getString("Version");
-            observation.setVersion(version);
-
-            final String dataFile = resultSet.getString("DataFile");
-            observation.setDataFilePath(dataFile);
-
-            final List<TimeAxis> timeAxesList = new ArrayList<>();
-            while (observationId == resultSet.getInt("id")) {
-                final TimeAxis timeAxis = getTimeAxis(resultSet);
-                if (timeAxis != null) {
-                    timeAxesList.add(timeAxis);
-                }
-
-                if (!resultSet.next()) {
-                    break;
-                }
-            }
-            resultSet.previous();   // need to rewind one result because the while loop runs one result too far tb 2016-09-23
-
-            observation.setTimeAxes(timeAxesList.toArray(new TimeAxis[timeAxesList.size()]));
-
-            resultList.add(observation);
-        }
-
-        //org.h2.tools.Server.startWebServer(connection);
-
-        return resultList;
-    }
+            //org.h2.tools.Server.startWebServer(connection);
 
-    private TimeAxis getTimeAxis(ResultSet resultSet) throws SQLException {
-        final Geometry axis = (Geometry) resultSet.getObject("Axis");
-        if (axis == null) {
-            return null;
+            return getObservations(connection, resultSet, geometryFactory);
         }
-        final String axisWkt = wktWriter.write(axis);
-        final LineString axisGeometry = (LineString) geometryFactory.fromStorageFormat(axisWkt.getBytes());
-
-        final Timestamp startTime = resultSet.getTimestamp("StartTime");
-        final Date axisStartTime = TimeUtils.toDate(startTime);
-        final Timestamp endTime = resultSet.getTimestamp("StopTime");
-        final Date axisEndTime = TimeUtils.toDate(endTime);
-        return geometryFactory.createTimeAxis(axisGeometry, axisStartTime, axisEndTime);
     }
 }
@@ -38,10 +38,13 @@ import org.apache.commons.dbcp2.BasicDataSource;
 import org.bson.Document;
 import org.esa.snap.core.util.StringUtils;
 
+import java.sql.Connection;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 @SuppressWarnings("unchecked")
 public class MongoDbDriver extends AbstractDriver {
@@ -51,6 +54,8 @@ public class MongoDbDriver extends AbstractDriver {
     private static final String STOP_TIME_KEY = "stopTime";
     private static final String NODE_TYPE_KEY = "nodeType";
     private static final String GEO_BOUNDS_KEY = "geoBounds";
+    private static final String GEO_RECT_KEY = "geoRect";
+    private static final String GEO_CELLS_KEY = "geoCells";
     private static final String SENSOR_KEY = "sensor";
     private static final String SATELLITE_DATA_COLLECTION = "SATELLITE_OBSERVATION";
     private static final String TIME_AXES_KEY = "timeAxes";
@@ -111,6 +116,9 @@ public class MongoDbDriver extends AbstractDriver {
         satelliteObservations.createIndex(new BasicDBObject(START_TIME_KEY, 1));
         satelliteObservations.createIndex(new BasicDBObject(STOP_TIME_KEY, 1));
         satelliteObservations.createIndex(new BasicDBObject(SENSOR_KEY + ".name", 1));
+        satelliteObservations.createIndex(new BasicDBObject(GEO_RECT_KEY + ".minLat", 1));
+        satelliteObservations.createIndex(new BasicDBObject(GEO_RECT_KEY + ".maxLat", 1));
+        satelliteObservations.createIndex(new BasicDBObject(GEO_CELLS_KEY + ".min", 1));
     }
 
     @Override
@@ -127,31 +135,28 @@ public class MongoDbDriver extends AbstractDriver {
     @Override
     public void insert(SatelliteObservation satelliteObservation) throws SQLException {
         final MongoCollection<Document> observationCollection = database.getCollection(SATELLITE_DATA_COLLECTION);
+        observationCollection.insertOne(createDocument(satelliteObservation));
+    }
 
-        final Document document = new Document(DATA_FILE_KEY, satelliteObservation.getDataFilePath().toString());
-        document.append(START_TIME_KEY, satelliteObservation.getStartTime());
-        document.append(STOP_TIME_KEY, satelliteObservation.getStopTime());
-        document.append(NODE_TYPE_KEY, satelliteObservation.getNodeType().toId());
-
-        final Geometry geoBounds = satelliteObservation.getGeoBounds();
-        if (geoBounds != null) {
-            document.append(GEO_BOUNDS_KEY, convertToGeoJSON(geoBounds));
+    @Override
+    public void insert(List<SatelliteObservation> satelliteObservations) throws SQLException {
+        // no JDBC connection to run a transaction on
+        if (!satelliteObservations.isEmpty()) {
+            insertBatch(null, satelliteObservations);
         }
+    }
 
-        // @todo 2 tb/tb does not work correctly when we extend the sensor class, improve here 2016-02-09
-        document.append(SENSOR_KEY, new Document("name", satelliteObservation.getSensor().getName()));
-
-        final TimeAxis[] timeAxes = satelliteObservation.getTimeAxes();
-        if (timeAxes != null) {
-            document.append(TIME_AXES_KEY, convertToDocument(timeAxes));
+    @Override
+    void insertBatch(Connection connection, List<SatelliteObservation> satelliteObservations) throws SQLException {
+        final List<Document> documents = new ArrayList<>(satelliteObservations.size());
+        for (final SatelliteObservation satelliteObservation : satelliteObservations) {
+            documents.add(createDocument(satelliteObservation));
         }
 
-        document.append(VERSION_KEY, satelliteObservation.getVersion());
-
-        observationCollection.insertOne(document);
+        final MongoCollection<Document> observationCollection = database.getCollection(SATELLITE_DATA_COLLECTION);
+        observationCollection.insertMany(documents);
     }
 
-
     @Override
     public int insert(Sensor sensor) throws SQLException {
         // we use embedded storage at the moment, no need to separately ingest the sensor tb 2016-02-09
@@ -177,6 +182,19 @@ public class MongoDbDriver extends AbstractDriver {
         return resultList;
     }
 
+    @Override
+    public Set<String> getDataFilePaths(String sensorName) throws SQLException {
+        final MongoCollection<Document> observationCollection = database.getCollection(SATELLITE_DATA_COLLECTION);
+        final Document queryDocument = new Document(SENSOR_KEY + ".name", new Document("$eq", sensorName));
+        final FindIterable<Document> documents = observationCollection.find(queryDocument).projection(new Document(DATA_FILE_KEY, 1));
+
+        final Set<String> dataFilePaths = new HashSet<>();
+        for (Document document : documents) {
+            dataFilePaths.add(document.getString(DATA_FILE_KEY));
+        }
+        return dataFilePaths;
+    }
+
     private SatelliteObservation getSatelliteObservation(Document document) {
         final SatelliteObservation satelliteObservation = new SatelliteObservation();
 
@@ -195,10 +213,11 @@ public class MongoDbDriver extends AbstractDriver {
         final Integer nodeTypeId = document.getInteger(NODE_TYPE_KEY);
         satelliteObservation.setNodeType(NodeType.fromId(nodeTypeId));
 
+        // the GeoJSON stays in the collection for the spatial queries, but it is only converted when the
+        // observation is actually used
         final Document geoBounds = (Document) document.get(GEO_BOUNDS_KEY);
         if (geoBounds != null) {
-            final Geometry geometry = convertToGeometry(geoBounds);
-            satelliteObservation.setGeoBounds(geometry);
+            satelliteObservation.setGeoBoundsDecoder(() -> convertToGeometry(geoBounds));
         }
 
         // @todo 2 tb/tb does not work correctly when we extend the sensor class, improve here 2016-02-09
@@ -208,8 +227,7 @@ public class MongoDbDriver extends AbstractDriver {
 
         final Document jsonTimeAxes = (Document) document.get(TIME_AXES_KEY);
         if (jsonTimeAxes != null) {
-            final TimeAxis[] timeAxes = convertToTimeAxes(jsonTimeAxes);
-            satelliteObservation.setTimeAxes(timeAxes);
+            satelliteObservation.setTimeAxesDecoder(() -> convertToTimeAxes(jsonTimeAxes));
         }
 
         return satelliteObservation;
@@ -296,6 +314,39 @@ public class MongoDbDriver extends AbstractDriver {
         return timeAxes;
     }
 
+    private Document createDocument(SatelliteObservation satelliteObservation) {
+        final Document document = new Document(DATA_FILE_KEY, satelliteObservation.getDataFilePath().toString());
+        document.append(START_TIME_KEY, satelliteObservation.getStartTime());
+        document.append(STOP_TIME_KEY, satelliteObservation.getStopTime());
+        document.append(NODE_TYPE_KEY, satelliteObservation.getNodeType().toId());
+
+        final Geometry geoBounds = satelliteObservation.getGeoBounds();
+        if (geoBounds != null) {
+            document.append(GEO_BOUNDS_KEY, convertToGeoJSON(geoBounds));
+
+            final BoundingRect boundingRect = BoundingRect.create(geoBounds);
+            if (boundingRect != null) {
+                document.append(GEO_RECT_KEY, convertToDocument(boundingRect));
+            }
+
+            final CellCovering cellCovering = CellCovering.create(geoBounds);
+            if (cellCovering != null) {
+                document.append(GEO_CELLS_KEY, convertToDocuments(cellCovering));
+            }
+        }
+
+        // @todo 2 tb/tb does not work correctly when we extend the sensor class, improve here 2016-02-09
+        document.append(SENSOR_KEY, new Document("name", satelliteObservation.getSensor().getName()));
+
+        final TimeAxis[] timeAxes = satelliteObservation.getTimeAxes();
+        if (timeAxes != null) {
+            document.append(TIME_AXES_KEY, convertToDocument(timeAxes));
+        }
+
+        document.append(VERSION_KEY, satelliteObservation.getVersion());
+        return document;
+    }
+
     // package access for testing only tb 2016-04-20
     @SuppressWarnings("unchecked")
     static List<PolygonCoordinates> gePolygonCoordinates(MultiPolygon multiPolygon) {
@@ -344,9 +395,48 @@ public class MongoDbDriver extends AbstractDriver {
             queryConstraints.append(DATA_FILE_KEY, new Document("$eq", path));
         }
 
+        final BoundingRect searchRect = BoundingRect.create(parameter.getGeometry());
+        if (searchRect != null) {
+            final Document rectOverlap = new Document(GEO_RECT_KEY + ".maxLat", new Document("$gte", searchRect.minLat))
+                    .append(GEO_RECT_KEY + ".minLat", new Document("$lte", searchRect.maxLat))
+                    .append(GEO_RECT_KEY + ".maxLon", new Document("$gte", searchRect.minLon))
+                    .append(GEO_RECT_KEY + ".minLon", new Document("$lte", searchRect.maxLon));
+
+            final CellCovering searchCovering = CellCovering.create(parameter.getGeometry());
+            if (searchCovering != null) {
+                final List<Document> cellOverlaps = new ArrayList<>();
+                for (int i = 0; i < searchCovering.size(); i++) {
+                    cellOverlaps.add(new Document("min", new Document("$lte", searchCovering.rangeMax[i]))
+                            .append("max", new Document("$gte", searchCovering.rangeMin[i])));
+                }
+                rectOverlap.append(GEO_CELLS_KEY, new Document("$elemMatch", new Document("$or", cellOverlaps)));
+            }
+            final List<Document> alternatives = new ArrayList<>();
+            alternatives.add(new Document(GEO_RECT_KEY, new Document("$exists", false)));
+            alternatives.add(rectOverlap);
+            queryConstraints.append("$or", alternatives);
+        }
+
         return queryConstraints;
     }
 
+    // package access for testing only
+    static Document convertToDocument(BoundingRect boundingRect) {
+        return new Document("minLat", boundingRect.minLat)
+                .append("maxLat", boundingRect.maxLat)
+                .append("minLon", boundingRect.minLon)
+                .append("maxLon", boundingRect.maxLon);
+    }
+
+    // package access for testing only
+    static List<Document> convertToDocuments(CellCovering cellCovering) {
+        final List<Document> documents = new ArrayList<>(cellCovering.size());
+        for (int i = 0; i < cellCovering.size(); i++) {
+            documents.add(new Document("min", cellCovering.rangeMin[i]).append("max", cellCovering.rangeMax[i]));
+        }
+        return documents;
+    }
+
     // static access for testing only tb 2016-02-09
     @SuppressWarnings("unchecked")
     static com.mongodb.client.model.geojson.Geometry convertToGeoJSON(Geometry geometry) {
@@ -29,6 +29,7 @@ import com.bc.fiduceo.geometry.Geometry;
 import com.bc.fiduceo.geometry.GeometryFactory;
 import com.bc.fiduceo.util.TimeUtils;
 
+import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
@@ -57,63 +58,64 @@ public class MySQLDriver extends AbstractDriver {
     }
 
     @Override
-    public void insert(SatelliteObservation observation) throws SQLException {
-        final Sensor sensor = observation.getSensor();
-        Integer sensorId = getSensorId(sensor.getName());
-        if (sensorId == null) {
-            sensorId = insert(sensor);
+    void insertBatch(Connection connection, List<SatelliteObservation> observations) throws SQLException {
+        try (PreparedStatement preparedStatement = connection.prepareStatement("INSERT INTO SATELLITE_OBSERVATION VALUES(default, ?, ?, ?, GeomFromWKB(?), ?, ?, ?, ?)")) {
+            for (final SatelliteObservation observation : observations) {
+                final int sensorId = getOrInsertSensorId(observation.getSensor());
+
+                preparedStatement.setTimestamp(1, TimeUtils.toTimestamp(observation.getStartTime()));
+                preparedStatement.setTimestamp(2, TimeUtils.toTimestamp(observation.getStopTime()));
+                preparedStatement.setByte(3, (byte) observation.getNodeType().toId());
+                preparedStatement.setObject(4, geometryFactory.toStorageFormat(observation.getGeoBounds()));
+                preparedStatement.setInt(5, sensorId);
+                preparedStatement.setString(6, observation.getDataFilePath().toString());
+                // @todo 2 tb/tb insert TimeAxes here 2013-03-07
+                preparedStatement.addBatch();
+            }
+            preparedStatement.executeBatch();
         }
-
-        final PreparedStatement preparedStatement = connection.prepareStatement("INSERT INTO SATELLITE_OBSERVATION VALUES(default, ?, ?, ?, GeomFromWKB(?), ?, ?, ?, ?)");
-        preparedStatement.setTimestamp(1, TimeUtils.toTimestamp(observation.getStartTime()));
-        preparedStatement.setTimestamp(2, TimeUtils.toTimestamp(observation.getStopTime()));
-        preparedStatement.setByte(3, (byte) observation.getNodeType().toId());
-        preparedStatement.setObject(4, geometryFactory.toStorageFormat(observation.getGeoBounds()));
-        preparedStatement.setInt(5, sensorId);
-        preparedStatement.setString(6, observation.getDataFilePath().toString());
-        // @todo 2 tb/tb insert TimeAxes here 2013-03-07
-
-        preparedStatement.executeUpdate();
     }
 
     @Override
     public List<SatelliteObservation> get() throws SQLException {
-        final Statement statement = connection.createStatement(ResultSet.TYPE_SCROLL_INSENSITIVE, ResultSet.CONCUR_UPDATABLE);
-        final ResultSet resultSet = statement.executeQuery("SELECT StartDate, StopDate,NodeType, AsWKB(GeoBounds), SensorId, DataFile, TimeAxisStartIndex, TimeAxisEndIndex FROM SATELLITE_OBSERVATION");
-        resultSet.last();
-        final int numValues = resultSet.getRow();
-        resultSet.beforeFirst();
+        try (Connection connection = getConnection();
+             Statement statement = connection.createStatement(ResultSet.TYPE_SCROLL_INSENSITIVE, ResultSet.CONCUR_READ_ONLY);
+             ResultSet resultSet = statement.executeQuery("SELECT StartDate, StopDate,NodeType, AsWKB(GeoBounds), SensorId, DataFile, TimeAxisStartIndex, TimeAxisEndIndex FROM SATELLITE_OBSERVATION")) {
+            resultSet.last();
+            final int numValues = resultSet.getRow();
+            resultSet.beforeFirst();
 
-        final List<SatelliteObservation> resultList = new ArrayList<>(numValues);
-        while (resultSet.next()) {
-            final SatelliteObservation observation = new SatelliteObservation();
+            final List<SatelliteObservation> resultList = new ArrayList<>(numValues);
+            while (resultSet.next()) {
+                final SatelliteObservation observation = new SatelliteObservation();
 
-            final Timestamp startDate = resultSet.getTimestamp("StartDate");
-            observation.setStartTime(TimeUtils.toDate(startDate));
+                final Timestamp startDate = resultSet.getTimestamp("StartDate");
+                observation.setStartTime(TimeUtils.toDate(startDate));
 
-            final Timestamp stopDate = resultSet.getTimestamp("StopDate");
-            observation.setStopTime(TimeUtils.toDate(stopDate));
+                final Timestamp stopDate = resultSet.getTimestamp("StopDate");
+                observation.setStopTime(TimeUtils.toDate(stopDate));
 
-            final int nodeTypeId = resultSet.getInt("NodeType");
-            observation.setNodeType(NodeType.fromId(nodeTypeId));
+                final int nodeTypeId = resultSet.getInt("NodeType");
+                observation.setNodeType(NodeType.fromId(nodeTypeId));
 
-            final byte[] geoBoundsBytes = resultSet.getBytes("AsWKB(GeoBounds)");
-            final Geometry geometry = geometryFactory.fromStorageFormat(geoBoundsBytes);
-            observation.setGeoBounds(geometry);
+                final byte[] geoBoundsBytes = resultSet.getBytes("AsWKB(GeoBounds)");
+                final Geometry geometry = geometryFactory.fromStorageFormat(geoBoundsBytes);
+                observation.setGeoBounds(geometry);
 
-            final int sensorId = resultSet.getInt("SensorId");
-            final Sensor sensor = getSensor(sensorId);
-            observation.setSensor(sensor);
+                final int sensorId = resultSet.getInt("SensorId");
+                final Sensor sensor = getSensor(connection, sensorId);
+                observation.setSensor(sensor);
 
-            final String dataFile = resultSet.getString("DataFile");
-            observation.setDataFilePath(dataFile);
+                final String dataFile = resultSet.getString("DataFile");
+                observation.setDataFilePath(dataFile);
 
-            // @todo 2 tb/tb insert TimeAxes here 2013-03-07
+                // @todo 2 tb/tb insert TimeAxes here 2013-03-07
 
-            resultList.add(observation);
-        }
+                resultList.add(observation);
+            }
 
-        return resultList;
+            return resultList;
+        }
     }
 
     @Override
@@ -21,27 +21,26 @@
 
 package com.bc.fiduceo.db;
 
-import com.bc.fiduceo.core.NodeType;
 import com.bc.fiduceo.core.SatelliteObservation;
-import com.bc.fiduceo.core.Sensor;
-import com.bc.fiduceo.geometry.Geometry;
 import com.bc.fiduceo.geometry.GeometryFactory;
-import com.bc.fiduceo.geometry.LineString;
-import com.bc.fiduceo.geometry.TimeAxis;
-import com.bc.fiduceo.util.TimeUtils;
-import org.postgis.PGgeometry;
 
+import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
-import java.sql.Timestamp;
-import java.sql.Types;
-import java.util.ArrayList;
 import java.util.List;
 
 public class PostGISDriver extends AbstractDriver {
 
+    // geometries travel as WKB in both directions, this saves formatting and parsing text on either side
+    private static final String QUERY_COLUMNS = "obs.ID, obs.StartDate, obs.StopDate, obs.NodeType, ST_AsBinary(obs.GeoBounds) AS GeoBounds, " +
+            "obs.SensorId, obs.Version, obs.DataFile, ST_AsBinary(axis.Axis) AS Axis, axis.StartTime, axis.StopTime";
+
+    // ST_GeomFromWKB(NULL) yields NULL
+    private static final String INSERT_OBSERVATION = "INSERT INTO SATELLITE_OBSERVATION VALUES(default, ?, ?, ?, ST_GeomFromWKB(?), ?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_TIME_AXIS = "INSERT INTO TIMEAXIS VALUES(default, ?, ST_GeomFromWKB(?), ?, ?)";
+
     private GeometryFactory geometryFactory;
 
     @Override
@@ -56,169 +55,68 @@ public class PostGISDriver extends AbstractDriver {
 
     @Override
     public boolean isInitialized() throws SQLException {
-        final ResultSet tables = connection.getMetaData().getTables(null, null, "satellite_observation", null);
-        return tables.next();
+        return hasTable("satellite_observation");
     }
 
     @Override
     public void initialize() throws SQLException {
-        Statement statement = connection.createStatement();
-        statement.executeUpdate("CREATE TABLE SATELLITE_OBSERVATION (ID SERIAL PRIMARY KEY, " +
-                "StartDate TIMESTAMP," +
-                "StopDate TIMESTAMP," +
-                "NodeType SMALLINT," +
-                "GeoBounds GEOMETRY, " +
-                "SensorId INT," +
-                "Version VARCHAR(16)," +
-                "DataFile VARCHAR(256))");
-
-        statement = connection.createStatement();
-        statement.executeUpdate("CREATE TABLE SENSOR (ID SERIAL PRIMARY KEY, " +
-                "Name VARCHAR(64))");
-
-        statement = connection.createStatement();
-        statement.executeUpdate("CREATE TABLE TIMEAXIS (ID SERIAL PRIMARY KEY, " +
-                "ObservationId INT," +
-                "Axis GEOMETRY," +
-                "StartTime TIMESTAMP, " +
-                "StopTime TIMESTAMP, " +
-                "FOREIGN KEY (ObservationId) REFERENCES SATELLITE_OBSERVATION(ID))");
-
-        statement = connection.createStatement();
-        statement.execute("CREATE INDEX START_TIME ON SATELLITE_OBSERVATION(StartDate)");
-
-        statement = connection.createStatement();
-        statement.execute("CREATE INDEX STOP_TIME ON SATELLITE_OBSERVATION(StopDate)");
-
-        statement = connection.createStatement();
-        statement.execute("CREATE INDEX OBSERVATION_ID ON TIMEAXIS(ObservationId)");
-    }
-
-    @Override
-    public void insert(SatelliteObservation observation) throws SQLException {
-        final Sensor sensor = observation.getSensor();
-        Integer sensorId = getSensorId(sensor.getName());
-        if (sensorId == null) {
-            sensorId = insert(sensor);
-        }
-
-        PreparedStatement preparedStatement = connection.prepareStatement("INSERT INTO SATELLITE_OBSERVATION VALUES(default, ?, ?, ?, ST_GeomFromText(?), ?, ?, ?) RETURNING ID");
-        preparedStatement.setTimestamp(1, TimeUtils.toTimestamp(observation.getStartTime()));
-        preparedStatement.setTimestamp(2, TimeUtils.toTimestamp(observation.getStopTime()));
-        preparedStatement.setByte(3, (byte) observation.getNodeType().toId());
-        final Geometry geoBounds = observation.getGeoBounds();
-        if (geoBounds != null) {
-            preparedStatement.setString(4, new String(geometryFactory.toStorageFormat(geoBounds)));
-        } else {
-            preparedStatement.setNull(4, Types.OTHER);
-        }
-        preparedStatement.setInt(5, sensorId);
-        preparedStatement.setString(6, observation.getVersion());
-        preparedStatement.setString(7, observation.getDataFilePath().toString());
-
-        final ResultSet resultSet = preparedStatement.executeQuery();
-        resultSet.next();
-        final int observationId = resultSet.getInt(1);
-        final TimeAxis[] timeAxes = observation.getTimeAxes();
-        if (timeAxes != null) {
-            for (final TimeAxis timeAxis : timeAxes) {
-                preparedStatement = connection.prepareStatement("INSERT INTO TIMEAXIS VALUES(default, ?, ST_GeomFromText(?), ?, ?)");
-                preparedStatement.setInt(1, observationId);
-                final String wkt = geometryFactory.format(timeAxis.getGeometry());
-                preparedStatement.setString(2, wkt);
-                preparedStatement.setTimestamp(3, TimeUtils.toTimestamp(timeAxis.getStartTime()));
-                preparedStatement.setTimestamp(4, TimeUtils.toTimestamp(timeAxis.getEndTime()));
-                preparedStatement.executeUpdate();
-            }
-        } else {
-            preparedStatement = connection.prepareStatement("INSERT INTO TIMEAXIS VALUES(default, ?, ?, ?, ?)");
-            preparedStatement.setInt(1, observationId);
-            preparedStatement.setNull(2, Types.OTHER);
-            preparedStatement.setTimestamp(3, TimeUtils.toTimestamp(observation.getStartTime()));
-            preparedStatement.setTimestamp(4, TimeUtils.toTimestamp(observation.getStopTime()));
-            preparedStatement.executeUpdate();
-        }
-    }
-
-    @Override
-    public List<SatelliteObservation> get() throws SQLException {
-        return get(null);
-    }
+        try (Connection connection = getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.executeUpdate("CREATE TABLE SATELLITE_OBSERVATION (ID SERIAL PRIMARY KEY, " +
+                    "StartDate TIMESTAMP," +
+                    "StopDate TIMESTAMP," +
+                    "NodeType SMALLINT," +
+                    "GeoBounds GEOMETRY, " +
+                    "SensorId INT," +
+                    "Version VARCHAR(16)," +
+                    "DataFile VARCHAR(256)," +
+                    "MinLat DOUBLE PRECISION," +
+                    "MaxLat DOUBLE PRECISION," +
+                    "MinLon DOUBLE PRECISION," +
+                    "MaxLon DOUBLE PRECISION)");
 
-    @Override
-    public List<SatelliteObservation> get(QueryParameter parameter) throws SQLException {
-        final Statement statement = connection.createStatement(ResultSet.TYPE_SCROLL_INSENSITIVE, ResultSet.CONCUR_UPDATABLE);
-        final String sql = createSql(parameter);
-        final ResultSet resultSet = statement.executeQuery(sql);
-        resultSet.last();
-        final int numValues = resultSet.getRow();
-        resultSet.beforeFirst();
-
-        final List<SatelliteObservation> resultList = new ArrayList<>(numValues);
-        while (resultSet.next()) {
-            final SatelliteObservation observation = new SatelliteObservation();
-
-            final int observationId = resultSet.getInt("id");
+            statement.executeUpdate("CREATE TABLE SENSOR (ID SERIAL PRIMARY KEY, " +
+                    "Name VARCHAR(64))");
 
-            final Timestamp startDate = resultSet.getTimestamp("StartDate");
-            observation.setStartTime(TimeUtils.toDate(startDate));
+            statement.executeUpdate("CREATE TABLE TIMEAXIS (ID SERIAL PRIMARY KEY, " +
+                    "ObservationId INT," +
+                    "Axis GEOMETRY," +
+                    "StartTime TIMESTAMP, " +
+                    "StopTime TIMESTAMP, " +
+                    "FOREIGN KEY (ObservationId) REFERENCES SATELLITE_OBSERVATION(ID))");
 
-            final Timestamp stopDate = resultSet.getTimestamp("StopDate");
-            observation.setStopTime(TimeUtils.toDate(stopDate));
+            statement.executeUpdate(CREATE_CELL_COVERING_TABLE);
 
-            final int nodeTypeId = resultSet.getInt("NodeType");
-            observation.setNodeType(NodeType.fromId(nodeTypeId));
+            statement.execute("CREATE INDEX START_TIME ON SATELLITE_OBSERVATION(StartDate)");
 
-            final PGgeometry geoBounds = (PGgeometry) resultSet.getObject("GeoBounds");
-            if (geoBounds != null) {
-                final Geometry geometry = geometryFactory.fromStorageFormat(geoBounds.getValue().getBytes());
-                observation.setGeoBounds(geometry);
-            }
+            statement.execute("CREATE INDEX STOP_TIME ON SATELLITE_OBSERVATION(StopDate)");
 
-            final int sensorId = resultSet.getInt("SensorId");
-            final Sensor sensor = getSensor(sensorId);
-            observation.setSensor(sensor);
+            statement.execute("CREATE INDEX MIN_LAT ON SATELLITE_OBSERVATION(MinLat)");
 
-            final String version = resultSet.getString("Version");
-            observation.setVersion(version);
+            statement.execute("CREATE INDEX MAX_LAT ON SATELLITE_OBSERVATION(MaxLat)");
 
-            final String dataFile = resultSet.getString("DataFile");
-            observation.setDataFilePath(dataFile);
+            statement.execute("CREATE INDEX OBSERVATION_ID ON TIMEAXIS(ObservationId)");
 
-            final List<TimeAxis> timeAxesList = new ArrayList<>();
-            while (observationId == resultSet.getInt("id")) {
-                final TimeAxis timeAxis = getTimeAxis(resultSet);
-                if (timeAxis != null) {
-                    timeAxesList.add(timeAxis);
-                }
-
-                if (!resultSet.next()) {
-                    break;
-                }
-            }
-            resultSet.previous();   // need to rewind one result because the while loop runs one result too far tb 2016-11-29
-
-            observation.setTimeAxes(timeAxesList.toArray(new TimeAxis[timeAxesList.size()]));
-
-            resultList.add(observation);
+            statement.execute(CREATE_CELL_COVERING_INDEX);
         }
+    }
 
-        return resultList;
+    @Override
+    void insertBatch(Connection connection, List<SatelliteObservation> observations) throws SQLException {
+        insertBatch(connection, observations, INSERT_OBSERVATION, INSERT_TIME_AXIS, geometryFactory);
     }
 
+    @Override
+    public List<SatelliteObservation> get() throws SQLException {
+        return get(null);
+    }
 
-    private TimeAxis getTimeAxis(ResultSet resultSet) throws SQLException {
-        final PGgeometry axis = (PGgeometry) resultSet.getObject("Axis");
-        if (axis == null) {
-            return null;
+    @Override
+    public List<SatelliteObservation> get(QueryParameter parameter) throws SQLException {
+        try (Connection connection = getConnection();
+             PreparedStatement preparedStatement = prepareQuery(connection, QUERY_COLUMNS, parameter);
+             ResultSet resultSet = preparedStatement.executeQuery()) {
+            return getObservations(connection, resultSet, geometryFactory);
         }
-        final String axisWkt = axis.getValue();
-        final LineString axisGeometry = (LineString) geometryFactory.fromStorageFormat(axisWkt.getBytes());
-
-        final Timestamp startTime = resultSet.getTimestamp("StartTime");
-        final java.util.Date axisStartTime = TimeUtils.toDate(startTime);
-        final Timestamp endTime = resultSet.getTimestamp("StopTime");
-        final java.util.Date axisEndTime = TimeUtils.toDate(endTime);
-        return geometryFactory.createTimeAxis(axisGeometry, axisStartTime, axisEndTime);
     }
 }
@@ -28,6 +28,7 @@ import org.apache.commons.dbcp2.BasicDataSource;
 
 import java.sql.SQLException;
 import java.util.List;
+import java.util.Set;
 import java.util.TimeZone;
 
 public class Storage {
@@ -64,6 +65,10 @@ public class Storage {
         driver.insert(satelliteObservation);
     }
 
+    public void insert(List<SatelliteObservation> satelliteObservations) throws SQLException {
+        driver.insert(satelliteObservations);
+    }
+
     public List<SatelliteObservation> get() throws SQLException {
         return driver.get();
     }
@@ -76,6 +81,10 @@ public class Storage {
         return driver.insert(sensor);
     }
 
+    public Set<String> getDataFilePaths(String sensorName) throws SQLException {
+        return driver.getDataFilePaths(sensorName);
+    }
+
     private Storage(BasicDataSource dataSource, GeometryFactory geometryFactory) throws SQLException {
         driver = createDriver(dataSource);
         driver.setGeometryFactory(geometryFactory);
@@ -21,8 +21,83 @@
 package com.bc.fiduceo.geometry;
 
 
+import com.google.common.geometry.S2LatLng;
+import com.google.common.geometry.S2LatLngRect;
+import com.google.common.geometry.S2Polygon;
+import com.google.common.geometry.S2Polyline;
+
+import java.util.List;
+
 public class GeometryUtil {
 
+    /**
+     * Calculates the latitude/longitude bounding rectangle of the geometry passed in. For S2 geometries the
+     * spherical bound is used, which correctly handles polar areas and anti-meridian crossings. All other geometries
+     * are bounded by the min/max values of their coordinates.
+     *
+     * @param geometry the geometry
+     * @return the bounding rectangle, empty for empty geometries
+     */
+    public static S2LatLngRect getBoundingRect(Geometry geometry) {
+        if (geometry == null || geometry.isEmpty()) {
+            return S2LatLngRect.empty();
+        }
+
+        if (geometry instanceof GeometryCollection) {
+            S2LatLngRect rect = S2LatLngRect.empty();
+            for (final Geometry child : ((GeometryCollection) geometry).getGeometries()) {
+                rect = rect.union(getBoundingRect(child));
+            }
+            return rect;
+        }
+
+        final Object inner = geometry.getInner();
+        if (inner instanceof S2Polygon || inner instanceof S2Polyline || inner instanceof S2LatLng) {
+            return getBoundingRect(inner);
+        } else if (inner instanceof List) {
+            S2LatLngRect rect = S2LatLngRect.empty();
+            for (final Object element : (List) inner) {
+                if (element instanceof Geometry) {
+                    rect = rect.union(getBoundingRect((Geometry) element));
+                } else {
+                    rect = rect.union(getBoundingRect(element));
+                }
+            }
+            return rect;
+        }
+
+        return getCoordinateBounds(geometry.getCoordinates());
+    }
+
+    private static S2LatLngRect getBoundingRect(Object s2Geometry) {
+        if (s2Geometry instanceof S2Polygon) {
+            return ((S2Polygon) s2Geometry).getRectBound();
+        } else if (s2Geometry instanceof S2Polyline) {
+            return ((S2Polyline) s2Geometry).getRectBound();
+        } else if (s2Geometry instanceof S2LatLng) {
+            return S2LatLngRect.fromPoint((S2LatLng) s2Geometry);
+        }
+        throw new IllegalArgumentException("Unsupported geometry type: " + s2Geometry.getClass().getName());
+    }
+
+    private static S2LatLngRect getCoordinateBounds(Point[] coordinates) {
+        if (coordinates == null || coordinates.length == 0) {
+            return S2LatLngRect.empty();
+        }
+
+        double minLon = Double.MAX_VALUE;
+        double maxLon = -Double.MAX_VALUE;
+        double minLat = Double.MAX_VALUE;
+        double maxLat = -Double.MAX_VALUE;
+        for (final Point coordinate : coordinates) {
+            minLon = Math.min(minLon, coordinate.getLon());
+            maxLon = Math.max(maxLon, coordinate.getLon());
+            minLat = Math.min(minLat, coordinate.getLat());
+            maxLat = Math.max(maxLat, coordinate.getLat());
+        }
+        return new S2LatLngRect(S2LatLng.fromDegrees(minLat, minLon), S2LatLng.fromDegrees(maxLat, maxLon));
+    }
+
     public static String toKml(Polygon polygon) {
         final StringBuilder builder = new StringBuilder();
 
@@ -40,6 +40,8 @@ class JTSTimeAxis implements TimeAxis {
     private final double inverseAxisLength;
     private final LengthIndexedLine lengthIndexedLine;
     private final long timeInterval;
+    private final Coordinate[] coordinates;
+    private final double[] cumulativeLengths;
 
     JTSTimeAxis(com.vividsolutions.jts.geom.LineString lineString, Date startTime, Date endTime) {
         this.startTime = startTime;
@@ -47,6 +49,15 @@ class JTSTimeAxis implements TimeAxis {
         this.inverseAxisLength = 1.0 / lineString.getLength();
         lengthIndexedLine = new LengthIndexedLine(lineString);
         timeInterval = endTime.getTime() - startTime.getTime();
+
+        // summed segment by segment as in LengthIndexedLine, the lengths equal the ones of indexOf()
+        coordinates = lineString.getCoordinates();
+        cumulativeLengths = new double[coordinates.length];
+        double lengthSum = 0.0;
+        for (int i = 1; i < coordinates.length; i++) {
+            lengthSum += coordinates[i - 1].distance(coordinates[i]);
+            cumulativeLengths[i] = lengthSum;
+        }
     }
 
     @Override
@@ -76,15 +87,14 @@ class JTSTimeAxis implements TimeAxis {
         final com.vividsolutions.jts.geom.LineString inner = (com.vividsolutions.jts.geom.LineString) polygonSide.getInner();
         final int numPoints = inner.getNumPoints();
 
-        Coordinate startProjection;
         final com.vividsolutions.jts.geom.Point startPoint = inner.getPointN(0);
-        startProjection = findProjection(startPoint.getCoordinate());
+        final double startOffset = getProjectionLength(startPoint.getCoordinate());
 
         final com.vividsolutions.jts.geom.Point endPoint = inner.getPointN(numPoints - 1);
-        final Coordinate endProjection = findProjection(endPoint.getCoordinate());
-
-        final double startOffset = lengthIndexedLine.indexOf(startProjection);
-        final double endOffset = lengthIndexedLine.indexOf(endProjection);
+        final double endOffset = getProjectionLength(endPoint.getCoordinate());
+        if (Double.isNaN(startOffset) || Double.isNaN(endOffset)) {
+            throw new RuntimeException("Polygon side projects outside of the time axis");
+        }
 
         final double relativeStartOffset;
         final double relativeEndOffset;
@@ -108,12 +118,11 @@ class JTSTimeAxis implements TimeAxis {
     @Override
     public Date getTime(Point coordinate) {
         final com.vividsolutions.jts.geom.Coordinate inner = (Coordinate) coordinate.getInner();
-        final Coordinate projection = findProjection(inner);
-        if (projection == null) {
+        final double pointLength = getProjectionLength(inner);
+        if (Double.isNaN(pointLength)) {
             return null;
         }
 
-        final double pointLength = lengthIndexedLine.indexOf(projection);
         final double relativeOffset = pointLength * inverseAxisLength;
         final long offsetTime = (long) (timeInterval * relativeOffset);
         final long startMillis = startTime.getTime() + offsetTime;
@@ -141,23 +150,40 @@ class JTSTimeAxis implements TimeAxis {
         throw new RuntimeException("not implemented");
     }
 
-    private Coordinate findProjection(Coordinate coordinate) {
+    // Length along the axis up to the projection of the coordinate, NaN if the coordinate does not project onto a
+    // segment. The measure is calculated as LengthIndexedLine.indexOf() does for the projected point, but taken from the
+    // cumulative lengths instead of walking the line again
+    private double getProjectionLength(Coordinate coordinate) {
+        final LineSegment segment = new LineSegment();
+        final int segmentIndex = findProjectionSegment(coordinate, segment);
+        if (segmentIndex < 0) {
+            return Double.NaN;
+        }
+
+        final Coordinate projection = segment.project(coordinate);
+        final double projectionFactor = segment.projectionFactor(projection);
+        if (projectionFactor <= 0.0) {
+            return cumulativeLengths[segmentIndex];
+        }
+        if (projectionFactor <= 1.0) {
+            return cumulativeLengths[segmentIndex] + projectionFactor * segment.getLength();
+        }
+        return cumulativeLengths[segmentIndex] + segment.getLength();
+    }
+
+    private int findProjectionSegment(Coordinate coordinate, LineSegment segment) {
         // @todo 2 tb/tb we can speed up this routine by starting searching in the middle of the line
         // go to one direction, if the abs-value of the projectionFactor increases, search in the other direction
         // projectionFactor abs-value should decrease if we`re going in the right direction 2015-08-14
 
-        final int numPoints = lineString.getNumPoints();
-
-        for (int n = 0; n < numPoints - 1; n++) {
-            final com.vividsolutions.jts.geom.Point point1 = lineString.getPointN(n);
-            final com.vividsolutions.jts.geom.Point point2 = lineString.getPointN(n + 1);
-            final LineSegment lineSegment = new LineSegment(point1.getCoordinate(), point2.getCoordinate());
-            final double projectionFactor = lineSegment.projectionFactor(coordinate);
+        for (int n = 0; n < coordinates.length - 1; n++) {
+            segment.setCoordinates(coordinates[n], coordinates[n + 1]);
+            final double projectionFactor = segment.projectionFactor(coordinate);
             if (projectionFactor >= 0.0 && projectionFactor <= 1.0) {
-                return lineSegment.project(coordinate);
+                return n;
             }
         }
 
-        return null;
+        return -1;
     }
 }
@@ -0,0 +1,184 @@
+/*
+ * Copyright (C) 2016 Brockmann Consult GmbH
+ * This code was developed for the EC project "Fidelity and Uncertainty in
+ * Climate Data Records from Earth Observations (FIDUCEO)".
+ * Grant Agreement: 638822
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * A copy of the GNU General Public License should have been supplied along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ *
+ */
+
+package com.bc.fiduceo.geometry.s2;
+
+import com.google.common.geometry.S2;
+import com.google.common.geometry.S2EdgeUtil;
+import com.google.common.geometry.S2Point;
+import com.google.common.geometry.S2Polyline;
+
+/**
+ * Nearest edge index for a polyline. The edges are organized in a binary tree of bounding caps over consecutive
+ * edge ranges, the search descends into the nearer cap first and skips all caps farther away than the best edge
+ * found so far. For the satellite tracks used as time axes this needs O(log n) distance calculations.
+ * <p>
+ * The distances are calculated with S2EdgeUtil.getDistance() as in S2Polyline.getNearestEdgeIndex(), and ties are
+ * resolved to the lower edge index. The result is identical to the sequential search.
+ */
+class BcS2EdgeIndex {
+
+    private static final int LEAF_SIZE = 8;
+
+    // covers the rounding in the cap bounds, a cap is only skipped when it is clearly farther away
+    private static final double EPSILON = 1e-9;
+
+    private final S2Point[] vertices;
+    private final S2Point[] crossProducts;
+    private final int numEdges;
+
+    private final S2Point[] centers;
+    private final double[] radii;
+    private final int[] firstEdges;
+    private final int[] lastEdges;
+    private final int[] leftChildren;
+    private final int[] rightChildren;
+    private int numNodes;
+
+    BcS2EdgeIndex(S2Polyline polyline) {
+        final int numVertices = polyline.numVertices();
+        vertices = new S2Point[numVertices];
+        for (int i = 0; i < numVertices; i++) {
+            vertices[i] = polyline.vertex(i);
+        }
+
+        numEdges = Math.max(0, numVertices - 1);
+        crossProducts = new S2Point[numEdges];
+        for (int i = 0; i < numEdges; i++) {
+            crossProducts[i] = S2.robustCrossProd(vertices[i], vertices[i + 1]);
+        }
+
+        final int maxNodes = Math.max(1, 2 * numEdges);
+        centers = new S2Point[maxNodes];
+        radii = new double[maxNodes];
+        firstEdges = new int[maxNodes];
+        lastEdges = new int[maxNodes];
+        leftChildren = new int[maxNodes];
+        rightChildren = new int[maxNodes];
+        if (numEdges > 0) {
+            createNode(0, numEdges - 1);
+        }
+    }
+
+    /**
+     * Retrieves the index of the polyline edge nearest to the point.
+     *
+     * @param point the point, unit length
+     * @return the edge index, 0 for a polyline with a single vertex, -1 if no edge could be found
+     */
+    int getNearestEdgeIndex(S2Point point) {
+        if (vertices.length == 1) {
+            return 0;
+        }
+        if (numEdges == 0) {
+            return -1;
+        }
+
+        final SearchState state = new SearchState();
+        search(0, point, state);
+        return state.edgeIndex;
+    }
+
+    private void search(int node, S2Point point, SearchState state) {
+        if (leftChildren[node] < 0) {
+            for (int i = firstEdges[node]; i <= lastEdges[node]; i++) {
+                final double distance = S2EdgeUtil.getDistance(point, vertices[i], vertices[i + 1], crossProducts[i]).radians();
+                if (distance < state.distance || (distance == state.distance && i < state.edgeIndex)) {
+                    state.distance = distance;
+                    state.edgeIndex = i;
+                }
+            }
+            return;
+        }
+
+        final int left = leftChildren[node];
+        final int right = rightChildren[node];
+        final double leftBound = getLowerBound(left, point);
+        final double rightBound = getLowerBound(right, point);
+        if (leftBound <= rightBound) {
+            searchIfNear(left, leftBound, point, state);
+            searchIfNear(right, rightBound, point, state);
+        } else {
+            searchIfNear(right, rightBound, point, state);
+            searchIfNear(left, leftBound, point, state);
+        }
+    }
+
+    private void searchIfNear(int node, double lowerBound, S2Point point, SearchState state) {
+        if (lowerBound <= state.distance) {
+            search(node, point, state);
+        }
+    }
+
+    // Lower bound of the distances S2EdgeUtil.getDistance() calculates for the edges in the cap. Beyond 90 degrees
+    // the distance to the great circle is mirrored to 180 degrees minus the distance, this is bounded from below
+    // using the maximal distance to the cap
+    private double getLowerBound(int node, S2Point point) {
+        final double angle = point.angle(centers[node]);
+        final double radius = radii[node];
+        final double nearBound = Math.max(0.0, angle - radius);
+        final double mirroredBound = Math.max(0.0, Math.PI - angle - radius);
+        return Math.min(nearBound, mirroredBound) - EPSILON;
+    }
+
+    private int createNode(int firstEdge, int lastEdge) {
+        final int node = numNodes++;
+        firstEdges[node] = firstEdge;
+        lastEdges[node] = lastEdge;
+        setBoundingCap(node, firstEdge, lastEdge + 1);
+
+        if (lastEdge - firstEdge < LEAF_SIZE) {
+            leftChildren[node] = -1;
+            rightChildren[node] = -1;
+        } else {
+            final int splitEdge = (firstEdge + lastEdge) >>> 1;
+            leftChildren[node] = createNode(firstEdge, splitEdge);
+            rightChildren[node] = createNode(splitEdge + 1, lastEdge);
+        }
+        return node;
+    }
+
+    // The cap contains all vertices of the range. It contains the great circle edges between the vertices only
+    // while it is convex, i.e. up to 90 degrees radius. Larger caps are widened to the full sphere
+    private void setBoundingCap(int node, int firstVertex, int lastVertex) {
+        S2Point sum = new S2Point(0.0, 0.0, 0.0);
+        for (int i = firstVertex; i <= lastVertex; i++) {
+            sum = S2Point.add(sum, vertices[i]);
+        }
+        final S2Point center = sum.norm() > 1e-6 ? S2Point.normalize(sum) : vertices[firstVertex];
+
+        double radius = 0.0;
+        for (int i = firstVertex; i <= lastVertex; i++) {
+            radius = Math.max(radius, center.angle(vertices[i]));
+        }
+        if (radius > 0.5 * Math.PI) {
+            radius = Math.PI;
+        }
+
+        centers[node] = center;
+        radii[node] = radius;
+    }
+
+    private static class SearchState {
+
+        private double distance = Double.MAX_VALUE;
+        private int edgeIndex = -1;
+    }
+}
@@ -21,6 +21,8 @@
 package com.bc.fiduceo.geometry.s2;
 
 import com.bc.fiduceo.geometry.*;
+import com.bc.geometry.s2.S2WKBReader;
+import com.bc.geometry.s2.S2WKBWriter;
 import com.bc.geometry.s2.S2WKTReader;
 import com.bc.geometry.s2.S2WKTWriter;
 import com.google.common.geometry.*;
@@ -37,25 +39,9 @@ public class BcS2GeometryFactory extends AbstractGeometryFactory {
         s2WKTReader = new S2WKTReader();
     }
 
-    @SuppressWarnings("unchecked")
     @Override
     public Geometry parse(String wkt) {
-        final Object geometry = s2WKTReader.read(wkt);
-        if (geometry instanceof S2Polygon) {
-            return new BcS2Polygon(geometry);
-        } else if (geometry instanceof S2Polyline) {
-            return new BcS2LineString((S2Polyline) geometry);
-        } else if (geometry instanceof S2Point) {
-            return BcS2Point.createFrom((S2Point) geometry);
-        } else if (geometry instanceof List) {
-            final ArrayList<Polygon> polygonList = new ArrayList<>();
-            List<S2Polygon> googlePolygonList = (List<S2Polygon>) geometry;
-            for (S2Polygon googlePolygon : googlePolygonList) {
-                polygonList.add(new BcS2Polygon(googlePolygon));
-            }
-            return new BcS2MultiPolygon(polygonList);
-        }
-        throw new RuntimeException("Unsupported geometry type");
+        return wrap(s2WKTReader.read(wkt));
     }
 
     @Override
@@ -63,16 +49,30 @@ public class BcS2GeometryFactory extends AbstractGeometryFactory {
         return S2WKTWriter.write(geometry.getInner());
     }
 
+    /**
+     * Encodes the geometry as well-known binary, about a third of the size of the WKT and decoded without any text
+     * parsing.
+     *
+     * @param geometry the geometry
+     * @return the WKB
+     */
+    @SuppressWarnings("unchecked")
     @Override
     public byte[] toStorageFormat(Geometry geometry) {
-        final String wkt = S2WKTWriter.write(geometry.getInner());
-        return wkt.getBytes();
+        if (geometry instanceof BcS2MultiPolygon) {
+            final List<Polygon> polygonList = (List<Polygon>) geometry.getInner();
+            final List<S2Polygon> googlePolygonList = new ArrayList<>(polygonList.size());
+            for (final Polygon polygon : polygonList) {
+                googlePolygonList.add((S2Polygon) polygon.getInner());
+            }
+            return S2WKBWriter.write(googlePolygonList);
+        }
+        return S2WKBWriter.write(geometry.getInner());
     }
 
     @Override
     public Geometry fromStorageFormat(byte[] rawData) {
-        final String geometryWkt = new String(rawData);
-        return parse(geometryWkt);
+        return wrap(new S2WKBReader().read(rawData));
     }
 
     @Override
@@ -117,6 +117,30 @@ public class BcS2GeometryFactory extends AbstractGeometryFactory {
         return new BcS2TimeAxis(lineString, startTime, endTime);
     }
 
+    @SuppressWarnings("unchecked")
+    private static Geometry wrap(Object geometry) {
+        if (geometry instanceof S2Polygon) {
+            return new BcS2Polygon(geometry);
+        } else if (geometry instanceof S2Polyline) {
+            return new BcS2LineString((S2Polyline) geometry);
+        } else if (geometry instanceof S2Point) {
+            return BcS2Point.createFrom((S2Point) geometry);
+        } else if (geometry instanceof List) {
+            final List geometryList = (List) geometry;
+            if (!geometryList.isEmpty() && geometryList.get(0) instanceof S2Polyline) {
+                return new BcS2MultiLineString((List<S2Polyline>) geometry);
+            }
+
+            final ArrayList<Polygon> polygonList = new ArrayList<>();
+            List<S2Polygon> googlePolygonList = (List<S2Polygon>) geometry;
+            for (S2Polygon googlePolygon : googlePolygonList) {
+                polygonList.add(new BcS2Polygon(googlePolygon));
+            }
+            return new BcS2MultiPolygon(polygonList);
+        }
+        throw new RuntimeException("Unsupported geometry type");
+    }
+
     static List<S2Point> extractS2Points(List<Point> points) {
         final ArrayList<S2Point> loopPoints = new ArrayList<>();
 
@@ -33,16 +33,25 @@ class BcS2TimeAxis implements TimeAxis {
 
     private final S2Polyline polyline;
     private LineString originalGeometry;
+    private final double[] cumulativeLengths;
     private final double invLength;
     private final Date startTime;
     private final long timeInterval;
+    private BcS2EdgeIndex edgeIndex;
 
     BcS2TimeAxis(LineString lineString, Date startTime, Date endTime) {
         originalGeometry = lineString;
         this.polyline = (S2Polyline) lineString.getInner();
 
-        final S1Angle arclengthAngle = polyline.getArclengthAngle();
-        this.invLength = 1.0 / arclengthAngle.radians();
+        // summed in the same order as S2Polyline.getArclengthAngle(), the lengths equal the ones of the sub-lines
+        final int numVertices = polyline.numVertices();
+        cumulativeLengths = new double[numVertices];
+        double lengthSum = 0;
+        for (int i = 1; i < numVertices; i++) {
+            lengthSum += polyline.vertex(i - 1).angle(polyline.vertex(i));
+            cumulativeLengths[i] = lengthSum;
+        }
+        this.invLength = 1.0 / lengthSum;
 
         this.startTime = startTime;
         this.timeInterval = endTime.getTime() - startTime.getTime();
@@ -88,12 +97,12 @@ class BcS2TimeAxis implements TimeAxis {
     @Override
     public Date getTime(Point coordinate) {
         final S2Point searchPoint = ((S2LatLng) coordinate.getInner()).toPoint();
-        final int nearestEdgeIndex = polyline.getNearestEdgeIndex(searchPoint);
+        final int nearestEdgeIndex = getEdgeIndex().getNearestEdgeIndex(searchPoint);
         if (nearestEdgeIndex < 0) {
             return null;
         }
 
-        final long offsetTime = calculateLineDuration(searchPoint);
+        final long offsetTime = calculateLineDuration(searchPoint, nearestEdgeIndex);
         final long startMillis = startTime.getTime() + offsetTime;
 
         if (offsetTime > timeInterval) {
@@ -127,7 +136,7 @@ class BcS2TimeAxis implements TimeAxis {
     S2Polyline createSubLineTo(S2Point intersectionStartPoint) {
         final List<S2Point> vertices = new ArrayList<>();
 
-        final int nearestEdgeIndex = polyline.getNearestEdgeIndex(intersectionStartPoint);
+        final int nearestEdgeIndex = getEdgeIndex().getNearestEdgeIndex(intersectionStartPoint);
         final S2Point projectedIntersection = polyline.projectToEdge(intersectionStartPoint, nearestEdgeIndex);
         if (nearestEdgeIndex == 0) {
             vertices.add(polyline.vertex(0));
@@ -143,8 +152,22 @@ class BcS2TimeAxis implements TimeAxis {
     }
 
     private long calculateLineDuration(S2Point intersectionStartPoint) {
-        final S2Polyline offsetGeometry = createSubLineTo(intersectionStartPoint);
-        final S1Angle offsetAngle = offsetGeometry.getArclengthAngle();
-        return (long) (timeInterval * offsetAngle.radians() * invLength);
+        final int nearestEdgeIndex = getEdgeIndex().getNearestEdgeIndex(intersectionStartPoint);
+        return calculateLineDuration(intersectionStartPoint, nearestEdgeIndex);
+    }
+
+    // the length of the sub-line up to the point, taken from the cumulative lengths without creating the sub-line
+    private long calculateLineDuration(S2Point point, int nearestEdgeIndex) {
+        final S2Point projectedPoint = polyline.projectToEdge(point, nearestEdgeIndex);
+        final double offsetLength = cumulativeLengths[nearestEdgeIndex] + polyline.vertex(nearestEdgeIndex).angle(projectedPoint);
+        return (long) (timeInterval * offsetLength * invLength);
+    }
+
+    // the index is created on first use, this keeps the construction of the time axis cheap
+    private synchronized BcS2EdgeIndex getEdgeIndex() {
+        if (edgeIndex == null) {
+            edgeIndex = new BcS2EdgeIndex(polyline);
+        }
+        return edgeIndex;
     }
 }
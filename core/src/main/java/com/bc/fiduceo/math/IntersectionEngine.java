@@ -27,6 +27,7 @@ import com.bc.fiduceo.geometry.Geometry;
 import com.bc.fiduceo.geometry.GeometryCollection;
 import com.bc.fiduceo.geometry.Point;
 import com.bc.fiduceo.geometry.TimeAxis;
+import com.google.common.geometry.S2LatLngRect;
 
 import java.util.ArrayList;
 import java.util.Date;
@@ -35,15 +36,41 @@ import java.util.List;
 public class IntersectionEngine {
 
     public static Intersection[] getIntersectingIntervals(SatelliteObservation primaryObservation, SatelliteObservation secondaryObservation) {
+        return getIntersectingIntervals(primaryObservation, secondaryObservation, null);
+    }
+
+    /**
+     * Calculates the intersections of all geometry pairs of the two observations. Pairs with disjoint bounding
+     * rectangles are rejected before the geometric intersection is calculated. The rectangles are cached by the
+     * observations, so a primary observation tested against many secondaries calculates them once.
+     *
+     * @param primaryObservation   the primary observation
+     * @param secondaryObservation the secondary observation
+     * @param statistics           counts the pairs tested and rejected, may be null
+     * @return the intersections
+     */
+    public static Intersection[] getIntersectingIntervals(SatelliteObservation primaryObservation, SatelliteObservation secondaryObservation,
+                                                          IntersectionStatistics statistics) {
         final Geometry[] primaryGeometries = getGeometryArray(primaryObservation);
         final Geometry[] secondaryGeometries = getGeometryArray(secondaryObservation);
 
+        final S2LatLngRect[] primaryRects = primaryObservation.getBoundingRects();
+        final S2LatLngRect[] secondaryRects = secondaryObservation.getBoundingRects();
+
         final TimeAxis[] primaryTimeAxes = primaryObservation.getTimeAxes();
         final TimeAxis[] secondaryTimeAxes = secondaryObservation.getTimeAxes();
 
         final List<Intersection> intersectionList = new ArrayList<>();
         for (int primaryIndex = 0; primaryIndex < primaryGeometries.length; primaryIndex++) {
             for (int secondaryIndex = 0; secondaryIndex < secondaryGeometries.length; secondaryIndex++) {
+                final boolean disjoint = isDisjoint(primaryRects[primaryIndex], secondaryRects[secondaryIndex]);
+                if (statistics != null) {
+                    statistics.countPair(disjoint);
+                }
+                if (disjoint) {
+                    continue;
+                }
+
                 final Geometry primaryGeometry = primaryGeometries[primaryIndex];
                 final Geometry secondaryGeometry = secondaryGeometries[secondaryIndex];
                 final Intersection intersection = getIntersection(primaryGeometry, secondaryGeometry, primaryTimeAxes[primaryIndex], secondaryTimeAxes[secondaryIndex]);
@@ -57,6 +84,16 @@ public class IntersectionEngine {
         return intersectionList.toArray(new Intersection[intersectionList.size()]);
     }
 
+    // Disjoint rectangles guarantee an empty intersection, S2Polygon does the same test on the same bounds internally.
+    // Empty rectangles (missing geometries) and invalid ones (coordinates outside the lon/lat range) do not reject
+    // a pair. Package access for testing only
+    static boolean isDisjoint(S2LatLngRect primaryRect, S2LatLngRect secondaryRect) {
+        if (primaryRect.isEmpty() || secondaryRect.isEmpty() || !primaryRect.isValid() || !secondaryRect.isValid()) {
+            return false;
+        }
+        return !primaryRect.intersects(secondaryRect);
+    }
+
     private static Geometry[] getGeometryArray(SatelliteObservation observation) {
         Geometry[] geometries;
         final Geometry primaryGeometry = observation.getGeoBounds();
@@ -0,0 +1,53 @@
+/*
+ * Copyright (C) 2016 Brockmann Consult GmbH
+ * This code was developed for the EC project "Fidelity and Uncertainty in
+ * Climate Data Records from Earth Observations (FIDUCEO)".
+ * Grant Agreement: 638822
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * A copy of the GNU General Public License should have been supplied along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ *
+ */
+
+package com.bc.fiduceo.math;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts the geometry pairs handled by the IntersectionEngine, and how many of them were rejected by the bounding
+ * rectangle test without calculating the geometric intersection. Safe for use from multiple threads.
+ */
+public class IntersectionStatistics {
+
+    private final AtomicLong numPairs;
+    private final AtomicLong numRejected;
+
+    public IntersectionStatistics() {
+        numPairs = new AtomicLong();
+        numRejected = new AtomicLong();
+    }
+
+    void countPair(boolean rejected) {
+        numPairs.incrementAndGet();
+        if (rejected) {
+            numRejected.incrementAndGet();
+        }
+    }
+
+    public long getNumPairs() {
+        return numPairs.get();
+    }
+
+    public long getNumRejected() {
+        return numRejected.get();
+    }
+}
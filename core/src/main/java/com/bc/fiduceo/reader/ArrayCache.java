@@ -20,8 +20,10 @@
 
 package com.bc.fiduceo.reader;
 
+import com.bc.fiduceo.core.Interval;
 import org.esa.snap.core.util.StringUtils;
 import ucar.ma2.Array;
+import ucar.ma2.InvalidRangeException;
 import ucar.ma2.MAMath;
 import ucar.nc2.Attribute;
 import ucar.nc2.Group;
@@ -32,56 +34,100 @@ import java.io.IOException;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Caches the arrays and attributes of the variables of a NetcdfFile. The cache may be used by concurrent threads,
+ * each variable is read once; threads requesting a variable that is being read wait for the result. Reading from
+ * the NetcdfFile is serialized.
+ */
 public class ArrayCache {
 
     private final NetcdfFile netcdfFile;
-    private final HashMap<String, ArrayContainer> cache;
-    private final HashMap<String, ArrayContainer> scaledCache;
-    private final HashMap<String, Variable> injectedVariables;
+    private final ConcurrentHashMap<String, ArrayContainer> cache;
+    private final ConcurrentHashMap<String, ArrayContainer> scaledCache;
+    private final ConcurrentHashMap<String, Variable> injectedVariables;
+    private final ConcurrentHashMap<String, ArrayContainer> tileCache;
+    private final ConcurrentHashMap<String, Object> locks;
+    private final ArrayCacheMemory memory;
 
     public ArrayCache(NetcdfFile netcdfFile) {
+        this(netcdfFile, ArrayCacheMemory.get());
+    }
+
+    // package access for testing only
+    ArrayCache(NetcdfFile netcdfFile, ArrayCacheMemory memory) {
         this.netcdfFile = netcdfFile;
+        this.memory = memory;
 
-        cache = new HashMap<>();
-        scaledCache = new HashMap<>();
-        injectedVariables = new HashMap<>();
+        cache = new ConcurrentHashMap<>();
+        scaledCache = new ConcurrentHashMap<>();
+        injectedVariables = new ConcurrentHashMap<>();
+        tileCache = new ConcurrentHashMap<>();
+        locks = new ConcurrentHashMap<>();
     }
 
     public Array get(String variableName) throws IOException {
-        ArrayContainer container = cache.get(variableName);
-        if (container == null) {
+        Array array = getCached(cache, variableName);
+        if (array != null) {
+            return array;
+        }
+
+        synchronized (getLock(variableName)) {
+            array = getCached(cache, variableName);
+            if (array != null) {
+                return array;
+            }
+
+            final ArrayContainer container;
             synchronized (netcdfFile) {
                 container = readArrayAndAttributes(variableName, null);
             }
-            cache.put(variableName, container);
+            return add(variableName, container);
         }
-
-        return container.array;
     }
 
     public Array get(String groupName, String variableName) throws IOException {
         final String groupedVariableName = createGroupedName(groupName, variableName);
-        ArrayContainer container = cache.get(groupedVariableName);
-        if (container == null) {
+        Array array = getCached(cache, groupedVariableName);
+        if (array != null) {
+            return array;
+        }
+
+        synchronized (getLock(groupedVariableName)) {
+            array = getCached(cache, groupedVariableName);
+            if (array != null) {
+                return array;
+            }
+
+            final ArrayContainer container;
             synchronized (netcdfFile) {
                 container = readArrayAndAttributesFromGroup(variableName, groupName);
             }
-            cache.put(groupedVariableName, container);
+            return add(groupedVariableName, container);
         }
-        return container.array;
     }
 
     public Array getScaled(String groupName, String variableName, String scaleAttributeName, String offsetAttributeName) throws IOException {
         final String groupedVariableName = createGroupedName(groupName, variableName);
-        ArrayContainer arrayContainer = scaledCache.get(groupedVariableName);
-        if (arrayContainer == null) {
-            arrayContainer = cache.get(groupedVariableName);
-            if (arrayContainer == null) {
+        Array cached = getCached(scaledCache, groupedVariableName);
+        if (cached != null) {
+            return cached;
+        }
+
+        synchronized (getLock(groupedVariableName)) {
+            cached = getCached(scaledCache, groupedVariableName);
+            if (cached != null) {
+                return cached;
+            }
+
+            ArrayContainer arrayContainer = cache.get(groupedVariableName);
+            Array unscaled = arrayContainer == null ? null : arrayContainer.array;
+            if (unscaled == null) {
                 synchronized (netcdfFile) {
                     arrayContainer = readArrayAndAttributesFromGroup(variableName, groupName);
                 }
-                cache.put(groupedVariableName, arrayContainer);
+                unscaled = add(groupedVariableName, arrayContainer);
             }
 
             float scale = 1.f;
@@ -101,23 +147,33 @@ public class ArrayCache {
                 }
             }
 
-            scaleIfNecessary(arrayContainer, scale, offset);
+            final Array array = scaleIfNecessary(arrayContainer, unscaled, scale, offset);
 
             scaledCache.put(groupedVariableName, arrayContainer);
+            return array;
         }
-        return arrayContainer.array;
     }
 
     // @todo tb/** this is only used in tests - do we really need it? tb 2016-12-16
     public Array getScaled(String variableName, String scaleAttributeName, String offsetAttributeName) throws IOException {
-        ArrayContainer arrayContainer = scaledCache.get(variableName);
-        if (arrayContainer == null) {
-            arrayContainer = cache.get(variableName);
-            if (arrayContainer == null) {
+        Array cached = getCached(scaledCache, variableName);
+        if (cached != null) {
+            return cached;
+        }
+
+        synchronized (getLock(variableName)) {
+            cached = getCached(scaledCache, variableName);
+            if (cached != null) {
+                return cached;
+            }
+
+            ArrayContainer arrayContainer = cache.get(variableName);
+            Array unscaled = arrayContainer == null ? null : arrayContainer.array;
+            if (unscaled == null) {
                 synchronized (netcdfFile) {
                     arrayContainer = readArrayAndAttributes(variableName, null);
                 }
-                cache.put(variableName, arrayContainer);
+                unscaled = add(variableName, arrayContainer);
             }
 
             float scale = 1.f;
@@ -141,12 +197,11 @@ public class ArrayCache {
                 }
             }
 
-            scaleIfNecessary(arrayContainer, scale, offset);
+            final Array array = scaleIfNecessary(arrayContainer, unscaled, scale, offset);
 
             scaledCache.put(variableName, arrayContainer);
-
+            return array;
         }
-        return arrayContainer.array;
     }
 
     /**
@@ -158,12 +213,8 @@ public class ArrayCache {
      * @throws IOException
      */
     public String getStringAttributeValue(String attributeName, String variableName) throws IOException {
-        final Array array = get(variableName);
-        if (array != null) {
-            return getAttributeStringValue(attributeName, variableName);
-        }
-
-        return null;
+        ensureAttributes(variableName, variableName, null);
+        return getAttributeStringValue(attributeName, variableName);
     }
 
     /**
@@ -176,13 +227,9 @@ public class ArrayCache {
      * @throws IOException
      */
     public String getStringAttributeValue(String attributeName, String groupName, String variableName) throws IOException {
-        final Array array = get(groupName, variableName);
-        if (array != null) {
-            final String groupedName = createGroupedName(groupName, variableName);
-            return getAttributeStringValue(attributeName, groupedName);
-        }
-
-        return null;
+        final String groupedName = createGroupedName(groupName, variableName);
+        ensureAttributes(groupedName, variableName, groupName);
+        return getAttributeStringValue(attributeName, groupedName);
     }
 
     /**
@@ -194,12 +241,8 @@ public class ArrayCache {
      * @throws IOException
      */
     public Number getNumberAttributeValue(String attributeName, String variableName) throws IOException {
-        final Array array = get(variableName);
-        if (array != null) {
-            return getAttributeNumberValue(attributeName, variableName);
-        }
-
-        return null;
+        ensureAttributes(variableName, variableName, null);
+        return getAttributeNumberValue(attributeName, variableName);
     }
 
     /**
@@ -212,13 +255,89 @@ public class ArrayCache {
      * @throws IOException
      */
     public Number getNumberAttributeValue(String attributeName, String groupName, String variableName) throws IOException {
-        final Array array = get(groupName, variableName);
-        if (array != null) {
-            final String groupedName = createGroupedName(groupName, variableName);
-            return getAttributeNumberValue(attributeName, groupedName);
+        final String groupedName = createGroupedName(groupName, variableName);
+        ensureAttributes(groupedName, variableName, groupName);
+        return getAttributeNumberValue(attributeName, groupedName);
+    }
+
+    /**
+     * Reads a subset window of a variable, see RawDataReader for the window layout and border handling. When the
+     * ArrayCacheMemory defines a tile height, only the blocks of scan lines touched by the window are read and
+     * cached, instead of the complete variable.
+     *
+     * @param variableName the variable name
+     * @param centerX      the center x position
+     * @param centerY      the center y position
+     * @param interval     the window sizes
+     * @param fillValue    the value for window positions outside the data
+     * @param defaultWidth the width used for one dimensional data
+     * @return the window data
+     * @throws IOException           on disk access errors
+     * @throws InvalidRangeException on invalid window definitions
+     */
+    public Array readRaw(String variableName, int centerX, int centerY, Interval interval, Number fillValue, int defaultWidth) throws IOException, InvalidRangeException {
+        return readRaw(null, variableName, centerX, centerY, interval, fillValue, defaultWidth);
+    }
+
+    public Array readRaw(String groupName, String variableName, int centerX, int centerY, Interval interval, Number fillValue, int defaultWidth) throws IOException, InvalidRangeException {
+        final int halfHeight = interval.getY() / 2;
+        final LineBlock lineBlock = getLineBlock(groupName, variableName, centerY - halfHeight, centerY + halfHeight);
+        return RawDataReader.read(centerX, centerY - lineBlock.firstLine, interval, fillValue, lineBlock.array, defaultWidth);
+    }
+
+    /**
+     * Reads the subset windows of a number of center positions into a target array, see
+     * {@link Reader#readRaw(int[], int[], Interval, String, Array, int)}. Scan line tiles are handled as for the single
+     * window variant.
+     *
+     * @param variableName the variable name
+     * @param centerX      the center x positions
+     * @param centerY      the center y positions, same length as centerX
+     * @param interval     the window sizes
+     * @param fillValue    the value for window positions outside the data
+     * @param defaultWidth the width used for one dimensional data
+     * @param target       the target array
+     * @param targetZ      the target position of the first window
+     * @throws IOException           on disk access errors
+     * @throws InvalidRangeException on invalid window definitions
+     */
+    public void readRaw(String variableName, int[] centerX, int[] centerY, Interval interval, Number fillValue, int defaultWidth,
+                        Array target, int targetZ) throws IOException, InvalidRangeException {
+        readRaw(null, variableName, centerX, centerY, interval, fillValue, defaultWidth, target, targetZ);
+    }
+
+    public void readRaw(String groupName, String variableName, int[] centerX, int[] centerY, Interval interval, Number fillValue, int defaultWidth,
+                        Array target, int targetZ) throws IOException, InvalidRangeException {
+        if (centerY.length == 0) {
+            return;
         }
 
-        return null;
+        int minY = Integer.MAX_VALUE;
+        int maxY = Integer.MIN_VALUE;
+        for (final int y : centerY) {
+            minY = Math.min(minY, y);
+            maxY = Math.max(maxY, y);
+        }
+        final int halfHeight = interval.getY() / 2;
+        final LineBlock lineBlock = getLineBlock(groupName, variableName, minY - halfHeight, maxY + halfHeight);
+
+        int[] blockCenterY = centerY;
+        if (lineBlock.firstLine != 0) {
+            blockCenterY = new int[centerY.length];
+            for (int i = 0; i < centerY.length; i++) {
+                blockCenterY[i] = centerY[i] - lineBlock.firstLine;
+            }
+        }
+        RawDataReader.read(centerX, blockCenterY, interval, fillValue, lineBlock.array, defaultWidth, target, targetZ);
+    }
+
+    /**
+     * Releases all arrays held and removes them from the shared memory budget. To be called when the reader is closed.
+     */
+    public void release() {
+        releaseAll(cache);
+        releaseAll(scaledCache);
+        releaseAll(tileCache);
     }
 
     public void inject(Variable variable) {
@@ -254,8 +373,147 @@ public class ArrayCache {
         return groupName + "_" + variableName;
     }
 
-    private ArrayContainer readArrayAndAttributes(String variableName, Group group) throws IOException {
-        ArrayContainer container;
+    // package access for testing only
+    static int getLineDimension(int[] shape) {
+        for (int i = 0; i < shape.length; i++) {
+            if (shape[i] > 1) {
+                return i;
+            }
+        }
+        return 0;
+    }
+
+    private LineBlock getLineBlock(String groupName, String variableName, int firstWindowLine, int lastWindowLine) throws IOException, InvalidRangeException {
+        final int tileHeight = memory.getTileHeight();
+        if (tileHeight <= 0 || injectedVariables.containsKey(variableName)) {
+            return new LineBlock(getComplete(groupName, variableName), 0);
+        }
+
+        final Group group = groupName == null ? null : findGroup(groupName);
+        final Variable variable = findVariable(variableName, group);
+        final int[] shape = variable.getShape();
+        final int lineDimension = getLineDimension(shape);
+        final int numLines = shape[lineDimension];
+        if (numLines <= tileHeight) {
+            return new LineBlock(getComplete(groupName, variableName), 0);
+        }
+
+        // the block needs at least two lines, a single line would be taken as a degenerated dimension
+        int firstLine = Math.min(Math.max(firstWindowLine, 0), numLines - 1);
+        int lastLine = Math.min(Math.max(lastWindowLine, 0), numLines - 1);
+        if (firstLine == lastLine) {
+            if (lastLine < numLines - 1) {
+                lastLine++;
+            } else {
+                firstLine--;
+            }
+        }
+
+        final String key = groupName == null ? variableName : createGroupedName(groupName, variableName);
+        final int firstTile = firstLine / tileHeight;
+        final int lastTile = lastLine / tileHeight;
+        final int numBlockLines = lastLine - firstLine + 1;
+        if (firstTile == lastTile) {
+            final Array tile = getTile(key, variable, lineDimension, firstTile, tileHeight);
+            final Array lines = sectionLines(tile, lineDimension, firstLine - firstTile * tileHeight, numBlockLines);
+            return new LineBlock(lines, firstLine);
+        }
+
+        Array block = null;
+        for (int tileIndex = firstTile; tileIndex <= lastTile; tileIndex++) {
+            final Array tile = getTile(key, variable, lineDimension, tileIndex, tileHeight);
+            if (block == null) {
+                final int[] blockShape = tile.getShape();
+                blockShape[lineDimension] = numBlockLines;
+                block = Array.factory(tile.getDataType(), blockShape);
+                block.setUnsigned(tile.isUnsigned());
+            }
+            final int tileStart = tileIndex * tileHeight;
+            final int from = Math.max(firstLine, tileStart);
+            final int to = Math.min(lastLine, tileStart + tile.getShape()[lineDimension] - 1);
+            final int numLinesToCopy = to - from + 1;
+            MAMath.copy(sectionLines(block, lineDimension, from - firstLine, numLinesToCopy),
+                        sectionLines(tile, lineDimension, from - tileStart, numLinesToCopy));
+        }
+        return new LineBlock(block, firstLine);
+    }
+
+    private Array getTile(String key, Variable variable, int lineDimension, int tileIndex, int tileHeight) throws IOException, InvalidRangeException {
+        final String tileKey = key + "#" + tileHeight + "#" + tileIndex;
+        Array array = getCached(tileCache, tileKey);
+        if (array != null) {
+            return array;
+        }
+
+        synchronized (getLock(key)) {
+            array = getCached(tileCache, tileKey);
+            if (array != null) {
+                return array;
+            }
+
+            final int[] shape = variable.getShape();
+            final int[] origin = new int[shape.length];
+            origin[lineDimension] = tileIndex * tileHeight;
+            shape[lineDimension] = Math.min(tileHeight, shape[lineDimension] - origin[lineDimension]);
+
+            final ArrayContainer container = new ArrayContainer();
+            synchronized (netcdfFile) {
+                array = variable.read(origin, shape);
+            }
+            container.array = array;
+
+            final ArrayContainer previous = tileCache.put(tileKey, container);
+            if (previous != null) {
+                memory.removed(previous);
+            }
+            memory.added(container);
+            return array;
+        }
+    }
+
+    private Array getCached(Map<String, ArrayContainer> containers, String key) {
+        final ArrayContainer container = containers.get(key);
+        if (container == null) {
+            return null;
+        }
+
+        // read once, the memory budget may release the data concurrently
+        final Array array = container.array;
+        if (array != null) {
+            memory.hit(container);
+        }
+        return array;
+    }
+
+    // one lock per variable, concurrent requests for the same variable wait for a single read
+    private Object getLock(String key) {
+        return locks.computeIfAbsent(key, k -> new Object());
+    }
+
+    private static Array sectionLines(Array array, int lineDimension, int firstLine, int numLines) throws InvalidRangeException {
+        final int[] origin = new int[array.getRank()];
+        origin[lineDimension] = firstLine;
+        final int[] shape = array.getShape();
+        shape[lineDimension] = numLines;
+        return array.sectionNoReduce(origin, shape, null);
+    }
+
+    private Array getComplete(String groupName, String variableName) throws IOException {
+        if (groupName == null) {
+            return get(variableName);
+        }
+        return get(groupName, variableName);
+    }
+
+    private void releaseAll(Map<String, ArrayContainer> containers) {
+        for (final ArrayContainer container : containers.values()) {
+            memory.removed(container);
+            container.release();
+        }
+        containers.clear();
+    }
+
+    private Variable findVariable(String variableName, Group group) throws IOException {
         Variable variable = netcdfFile.findVariable(group, variableName);
         if (variable == null) {
             variable = injectedVariables.get(variableName);
@@ -263,35 +521,85 @@ public class ArrayCache {
                 throw new IOException("requested variable '" + variableName + "' not present in file: " + netcdfFile.getLocation());
             }
         }
-        container = new ArrayContainer();
+        return variable;
+    }
+
+    private Group findGroup(String groupName) throws IOException {
+        final Group group = netcdfFile.findGroup(groupName);
+        if (group == null) {
+            throw new IOException("requested group '" + groupName + "' not present in file: " + netcdfFile.getLocation());
+        }
+        return group;
+    }
+
+    private ArrayContainer readArrayAndAttributes(String variableName, Group group) throws IOException {
+        final Variable variable = findVariable(variableName, group);
+        final ArrayContainer container = new ArrayContainer();
         container.array = variable.read();
+        addAttributes(container, variable);
+        return container;
+    }
 
+    // attributes are read without the data, a container without array is loaded on the next get()
+    private void ensureAttributes(String key, String variableName, String groupName) throws IOException {
+        if (cache.containsKey(key)) {
+            return;
+        }
+
+        final Group group = groupName == null ? null : findGroup(groupName);
+        final Variable variable = findVariable(variableName, group);
+        final ArrayContainer container = new ArrayContainer();
+        addAttributes(container, variable);
+        cache.putIfAbsent(key, container);
+    }
+
+    private static void addAttributes(ArrayContainer container, Variable variable) {
         final List<Attribute> attributes = variable.getAttributes();
         for (final Attribute attribute : attributes) {
             container.attributes.put(attribute.getFullName(), attribute);
         }
-        return container;
     }
 
     private ArrayContainer readArrayAndAttributesFromGroup(String variableName, String groupName) throws IOException {
-        ArrayContainer container;
-        final Group group = netcdfFile.findGroup(groupName);
-        if (group == null) {
-            throw new IOException("requested group '" + groupName + "' not present in file: " + netcdfFile.getLocation());
-        }
-        container = readArrayAndAttributes(variableName, group);
-        return container;
+        final Group group = findGroup(groupName);
+        return readArrayAndAttributes(variableName, group);
     }
 
-    private void scaleIfNecessary(ArrayContainer arrayContainer, float scale, float offset) {
+    private Array scaleIfNecessary(ArrayContainer arrayContainer, Array array, float scale, float offset) {
         if (scale != 1.f || offset != 0.f) {
             final MAMath.ScaleOffset scaleOffset = new MAMath.ScaleOffset(scale, offset);
-            arrayContainer.array = MAMath.convert2Unpacked(arrayContainer.array, scaleOffset);
+            final Array scaled = MAMath.convert2Unpacked(array, scaleOffset);
+            arrayContainer.array = scaled;
+            memory.resized(arrayContainer);
+            return scaled;
+        }
+        return array;
+    }
+
+
+    private Array add(String key, ArrayContainer container) {
+        final Array array = container.array;
+        final ArrayContainer previous = cache.put(key, container);
+        if (previous != null) {
+            memory.removed(previous);
         }
+        memory.added(container);
+        return array;
     }
 
-    private class ArrayContainer {
-        Array array;
+    private static class LineBlock {
+        final Array array;
+        final int firstLine;
+
+        LineBlock(Array array, int firstLine) {
+            this.array = array;
+            this.firstLine = firstLine;
+        }
+    }
+
+    private static class ArrayContainer implements ArrayCacheMemory.Resident {
+        // volatile, the memory budget releases the data from other threads
+        volatile Array array;
         Map<String, Attribute> attributes;
 
         ArrayContainer() {
@@ -301,5 +609,16 @@ public class ArrayCache {
         Attribute get(String name) {
             return attributes.get(name);
         }
+
+        @Override
+        public long getSizeInBytes() {
+            final Array data = array;
+            return data == null ? 0 : data.getSizeBytes();
+        }
+
+        @Override
+        public void release() {
+            array = null;
+        }
     }
 }
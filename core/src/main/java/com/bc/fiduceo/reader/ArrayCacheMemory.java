@@ -0,0 +1,204 @@
+/*
+ * Copyright (C) 2016 Brockmann Consult GmbH
+ * This code was developed for the EC project "Fidelity and Uncertainty in
+ * Climate Data Records from Earth Observations (FIDUCEO)".
+ * Grant Agreement: 638822
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * A copy of the GNU General Public License should have been supplied along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ *
+ */
+
+package com.bc.fiduceo.reader;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Memory budget shared by all ArrayCache instances of the process. When a maximal size is configured, the arrays
+ * held by the caches are tracked in least-recently-used order and the oldest ones are released when the budget is
+ * exceeded; a cache re-reads a released array on the next access. Without a maximal size (the default), arrays are
+ * kept until the reader is closed.
+ * <p>
+ * Also holds the tile height used by the caches for reading subset windows scan-line block wise, and the cache
+ * statistics.
+ */
+public class ArrayCacheMemory {
+
+    private static final ArrayCacheMemory INSTANCE = new ArrayCacheMemory();
+
+    private final LinkedHashMap<Resident, Long> residents;
+    private final AtomicLong hits;
+    private final AtomicLong misses;
+    private final AtomicLong evictions;
+
+    // volatile, the caches check for a budget without locking
+    private volatile long maxBytes;
+    private volatile int tileHeight;
+    private long residentBytes;
+    private long peakResidentBytes;
+
+    public static ArrayCacheMemory get() {
+        return INSTANCE;
+    }
+
+    // package access for testing only
+    ArrayCacheMemory() {
+        residents = new LinkedHashMap<>(64, 0.75f, true);
+        hits = new AtomicLong();
+        misses = new AtomicLong();
+        evictions = new AtomicLong();
+    }
+
+    /**
+     * Configures the memory budget.
+     *
+     * @param maxBytes   the maximal number of bytes held by all caches, zero or less for no limit
+     * @param tileHeight the number of scan lines read at once for subset windows, zero or less to read complete
+     *                   variables
+     */
+    public synchronized void configure(long maxBytes, int tileHeight) {
+        this.maxBytes = maxBytes;
+        this.tileHeight = Math.max(0, tileHeight);
+        if (isBounded()) {
+            evictIfNecessary(null);
+        } else {
+            residents.clear();
+            residentBytes = 0;
+        }
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    public int getTileHeight() {
+        return tileHeight;
+    }
+
+    public synchronized long getResidentBytes() {
+        return residentBytes;
+    }
+
+    public synchronized long getPeakResidentBytes() {
+        return peakResidentBytes;
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    public double getHitRate() {
+        final long numHits = hits.get();
+        final long numRequests = numHits + misses.get();
+        if (numRequests == 0) {
+            return 0.0;
+        }
+        return (double) numHits / numRequests;
+    }
+
+    public synchronized void resetStatistics() {
+        hits.set(0);
+        misses.set(0);
+        evictions.set(0);
+        peakResidentBytes = residentBytes;
+    }
+
+    void hit(Resident resident) {
+        hits.incrementAndGet();
+        if (!isBounded()) {
+            return;
+        }
+        synchronized (this) {
+            if (isBounded()) {
+                // moves the entry to the end of the access order
+                residents.get(resident);
+            }
+        }
+    }
+
+    void added(Resident resident) {
+        misses.incrementAndGet();
+        synchronized (this) {
+            if (!isBounded()) {
+                return;
+            }
+            final long sizeInBytes = resident.getSizeInBytes();
+            final Long previous = residents.put(resident, sizeInBytes);
+            if (previous != null) {
+                residentBytes -= previous;
+            }
+            residentBytes += sizeInBytes;
+            peakResidentBytes = Math.max(peakResidentBytes, residentBytes);
+            evictIfNecessary(resident);
+        }
+    }
+
+    synchronized void resized(Resident resident) {
+        final Long previous = residents.get(resident);
+        if (previous == null) {
+            return;
+        }
+        final long sizeInBytes = resident.getSizeInBytes();
+        residents.put(resident, sizeInBytes);
+        residentBytes += sizeInBytes - previous;
+        peakResidentBytes = Math.max(peakResidentBytes, residentBytes);
+        evictIfNecessary(resident);
+    }
+
+    synchronized void removed(Resident resident) {
+        final Long sizeInBytes = residents.remove(resident);
+        if (sizeInBytes != null) {
+            residentBytes -= sizeInBytes;
+        }
+    }
+
+    private boolean isBounded() {
+        return maxBytes > 0;
+    }
+
+    // the resident just requested is never released, it is in use by the caller
+    private void evictIfNecessary(Resident inUse) {
+        final Iterator<Map.Entry<Resident, Long>> iterator = residents.entrySet().iterator();
+        while (residentBytes > maxBytes && iterator.hasNext()) {
+            final Map.Entry<Resident, Long> entry = iterator.next();
+            final Resident resident = entry.getKey();
+            if (resident == inUse) {
+                continue;
+            }
+            iterator.remove();
+            residentBytes -= entry.getValue();
+            resident.release();
+            evictions.incrementAndGet();
+        }
+    }
+
+    interface Resident {
+
+        long getSizeInBytes();
+
+        /**
+         * Drops the data held. Called by the memory budget, possibly from a thread not owning the cache.
+         */
+        void release();
+    }
+}
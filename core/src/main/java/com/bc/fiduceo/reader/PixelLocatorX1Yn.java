@@ -22,16 +22,28 @@ import org.esa.snap.core.util.math.RsMathUtils;
 import ucar.ma2.Array;
 
 import java.awt.geom.Point2D;
-import java.util.ArrayList;
 
+/**
+ * Pixel locator for one dimensional tracks (e.g. CALIOP). The track points are indexed by latitude bands with a
+ * height of the maximal search distance, so a lookup only compares the points of the bands touching the search
+ * radius instead of the complete track.
+ */
 public class PixelLocatorX1Yn implements PixelLocator {
 
     private static final double MEAN_EARTH_RADIUS_IN_KM = RsMathUtils.MEAN_EARTH_RADIUS * 0.001;
+    private static final double MIN_BAND_HEIGHT = 0.01;
+
     private final int maxY;
     private final double maxDistanceKm;
+    private final double maxDistDegree;
     private final Array lons;
     private final Array lats;
 
+    private final double bandHeight;
+    private final int numBands;
+    private final int[] bandStart;
+    private final int[] bandIndices;
+
     public PixelLocatorX1Yn(double maxDistanceKm, Array lons, Array lats) {
         this.maxDistanceKm = maxDistanceKm;
         final long size = lons.getSize();
@@ -44,6 +56,37 @@ public class PixelLocatorX1Yn implements PixelLocator {
         this.maxY = (int) size;
         this.lons = lons;
         this.lats = lats;
+
+        maxDistDegree = Math.toDegrees(maxDistanceKm / MEAN_EARTH_RADIUS_IN_KM);
+        bandHeight = Math.max(maxDistDegree, MIN_BAND_HEIGHT);
+        numBands = (int) Math.floor(180.0 / bandHeight) + 1;
+
+        // counting sort of the point indices by band, within a band the indices stay ascending
+        final int[] pointBands = new int[maxY];
+        bandStart = new int[numBands + 1];
+        for (int i = 0; i < maxY; i++) {
+            final double lat = lats.getDouble(i);
+            if (Double.isNaN(lat)) {
+                pointBands[i] = -1;
+                continue;
+            }
+            final int band = getBand(lat);
+            pointBands[i] = band;
+            bandStart[band + 1]++;
+        }
+        for (int band = 0; band < numBands; band++) {
+            bandStart[band + 1] += bandStart[band];
+        }
+
+        bandIndices = new int[bandStart[numBands]];
+        final int[] fillPosition = new int[numBands];
+        System.arraycopy(bandStart, 0, fillPosition, 0, numBands);
+        for (int i = 0; i < maxY; i++) {
+            final int band = pointBands[i];
+            if (band >= 0) {
+                bandIndices[fillPosition[band]++] = i;
+            }
+        }
     }
 
     @Override
@@ -61,24 +104,26 @@ public class PixelLocatorX1Yn implements PixelLocator {
     @Override
     public Point2D[] getPixelLocation(double lon, double lat) {
         final SphericalDistance sphericalDistance = new SphericalDistance(lon, lat);
-        final double maxDistRadian = maxDistanceKm / MEAN_EARTH_RADIUS_IN_KM;
-        final double maxDistDegree = Math.toDegrees(maxDistRadian);
         final double latMax = Math.min(lat + maxDistDegree, 90);
         final double latMin = Math.max(lat - maxDistDegree, -90);
-        final ArrayList<Integer> feasible = new ArrayList<>();
-        for (int i = 0; i < maxY; i++) {
-            final double iLat = lats.getDouble(i);
-            if (iLat >= latMin && iLat <= latMax) {
-                feasible.add(i);
-            }
+        if (Double.isNaN(latMin) || Double.isNaN(latMax)) {
+            return null;
         }
+
+        final int start = bandStart[getBand(latMin)];
+        final int end = bandStart[getBand(latMax) + 1];
         int smallestIDX = -1;
         double smallestDistKm = Double.MAX_VALUE;
-        for (int idx : feasible) {
-            final double iLon = lons.getDouble(idx);
+        for (int i = start; i < end; i++) {
+            final int idx = bandIndices[i];
             final double iLat = lats.getDouble(idx);
+            if (iLat < latMin || iLat > latMax) {
+                continue;
+            }
+            final double iLon = lons.getDouble(idx);
             final double distKm = sphericalDistance.distance(iLon, iLat) * MEAN_EARTH_RADIUS_IN_KM;
-            if (distKm < smallestDistKm) {
+            // on equal distances the first point of the track wins, as for a sequential scan
+            if (distKm < smallestDistKm || (distKm == smallestDistKm && idx < smallestIDX)) {
                 smallestDistKm = distKm;
                 smallestIDX = idx;
             }
@@ -88,4 +133,9 @@ public class PixelLocatorX1Yn implements PixelLocator {
         }
         return null;
     }
+
+    private int getBand(double lat) {
+        final int band = (int) Math.floor((lat + 90.0) / bandHeight);
+        return Math.min(Math.max(band, 0), numBands - 1);
+    }
 }
@@ -27,9 +27,12 @@ import ucar.ma2.ArrayFloat;
 import ucar.ma2.ArrayInt;
 import ucar.ma2.ArrayLong;
 import ucar.ma2.ArrayShort;
+import ucar.ma2.Index;
+import ucar.ma2.IndexIterator;
 import ucar.ma2.InvalidRangeException;
 
 import java.awt.*;
+import java.util.Arrays;
 
 /**
  * @author muhammad.bc
@@ -81,6 +84,151 @@ public class RawDataReader {
         }
     }
 
+    /**
+     * Reads the windows of a number of center pixel positions into a caller supplied target array. The windows are
+     * stored consecutively along the first dimension of the target, starting at <code>targetZ</code>. The target must
+     * be stored in canonical order, as arrays created by <code>Array.factory()</code> are.
+     * <p>
+     * When raw and target data type match, the windows are copied row by row from the raw data storage without
+     * allocating anything per window. Raw arrays that are sections of a larger array, e.g. one channel of a three
+     * dimensional variable, are read in place. Otherwise each window is read using <code>read()</code> and converted element by
+     * element.
+     *
+     * @param centerX      the center x positions.
+     * @param centerY      the center y positions, same length as centerX.
+     * @param interval     the window sizes.
+     * @param fillValue    the value for window positions outside the raw data.
+     * @param rawArray     the raw data.
+     * @param defaultWidth the width used for one dimensional raw data.
+     * @param target       the target array.
+     * @param targetZ      the target position of the first window.
+     * @throws InvalidRangeException on invalid window definitions
+     */
+    public static void read(int[] centerX, int[] centerY, Interval interval, Number fillValue, Array rawArray, final int defaultWidth,
+                            Array target, int targetZ) throws InvalidRangeException {
+        final int windowWidth = interval.getX();
+        final int windowHeight = interval.getY();
+        final int windowSize = windowWidth * windowHeight;
+        final Class elementType = rawArray.getElementType();
+        if (target.getElementType() != elementType) {
+            for (int i = 0; i < centerX.length; i++) {
+                final Array window = read(centerX[i], centerY[i], interval, fillValue, rawArray, defaultWidth);
+                final IndexIterator iterator = window.getIndexIterator();
+                int targetPos = (targetZ + i) * windowSize;
+                while (iterator.hasNext()) {
+                    target.setObject(targetPos++, iterator.getObjectNext());
+                }
+            }
+            return;
+        }
+
+        int[] shape = rawArray.getShape();
+        final InputDimension inputDimension = getInputDimension(rawArray.getRank(), shape);
+        if (inputDimension == InputDimension.THREE_D_FALSE_DIMENSION) {
+            rawArray = rawArray.reduce();
+            shape = rawArray.getShape();
+        } else if (inputDimension == InputDimension.TWO_D_FALSE_DIMENSION) {
+            shape = new int[]{shape[1], defaultWidth};
+            rawArray = rawArray.reduce();
+        } else if (inputDimension == InputDimension.ONE_D) {
+            shape = new int[]{shape[0], defaultWidth};
+        }
+        final int rawHeight = shape[0];
+        final int rawWidth = shape[1];
+        final boolean columnData = inputDimension == InputDimension.ONE_D || inputDimension == InputDimension.TWO_D_FALSE_DIMENSION;
+
+        // The raw values are addressed in the backing storage through the index of the array. Channel sections of
+        // three dimensional variables are views with a column stride, these are read in place and not copied.
+        final Index rawIndex = rawArray.getIndex();
+        final Object rawStorage = rawArray.getStorage();
+        final int origin = getStoragePosition(rawIndex, 0, 0);
+        final int rowStride = rawHeight > 1 ? getStoragePosition(rawIndex, 1, 0) - origin : 0;
+        final int columnStride = !columnData && rawWidth > 1 ? getStoragePosition(rawIndex, 0, 1) - origin : 1;
+        final Object targetStorage = target.getStorage();
+        final Object fillRow = createFillRow(elementType, fillValue, windowWidth);
+
+        for (int i = 0; i < centerX.length; i++) {
+            final int offsetX = centerX[i] - windowWidth / 2;
+            final int offsetY = centerY[i] - windowHeight / 2;
+            final int xStart = Math.max(0, -offsetX);
+            final int xEnd = Math.min(windowWidth, rawWidth - offsetX);
+
+            int targetPos = (targetZ + i) * windowSize;
+            for (int y = 0; y < windowHeight; y++, targetPos += windowWidth) {
+                final int yRaw = offsetY + y;
+                if (yRaw < 0 || yRaw >= rawHeight || xStart >= xEnd) {
+                    System.arraycopy(fillRow, 0, targetStorage, targetPos, windowWidth);
+                    continue;
+                }
+
+                if (xStart > 0) {
+                    System.arraycopy(fillRow, 0, targetStorage, targetPos, xStart);
+                }
+                if (columnData) {
+                    final int rawPos = origin + yRaw * rowStride;
+                    for (int x = xStart; x < xEnd; x++) {
+                        System.arraycopy(rawStorage, rawPos, targetStorage, targetPos + x, 1);
+                    }
+                } else if (columnStride == 1) {
+                    System.arraycopy(rawStorage, origin + yRaw * rowStride + offsetX + xStart, targetStorage, targetPos + xStart, xEnd - xStart);
+                } else {
+                    int rawPos = origin + yRaw * rowStride + (offsetX + xStart) * columnStride;
+                    for (int x = xStart; x < xEnd; x++, rawPos += columnStride) {
+                        System.arraycopy(rawStorage, rawPos, targetStorage, targetPos + x, 1);
+                    }
+                }
+                if (xEnd < windowWidth) {
+                    System.arraycopy(fillRow, xEnd, targetStorage, targetPos + xEnd, windowWidth - xEnd);
+                }
+            }
+        }
+    }
+
+    // position of the element (y, x) in the backing storage, x is ignored for one dimensional arrays
+    private static int getStoragePosition(Index index, int y, int x) {
+        final int rank = index.getRank();
+        if (rank == 0) {
+            return index.currentElement();
+        } else if (rank == 1) {
+            return index.set(y).currentElement();
+        }
+        return index.set(y, x).currentElement();
+    }
+
+    private static Object createFillRow(Class elementType, Number fillValue, int width) {
+        if (fillValue == null) {
+            fillValue = 0;
+        }
+
+        if (elementType == double.class) {
+            final double[] row = new double[width];
+            Arrays.fill(row, fillValue.doubleValue());
+            return row;
+        } else if (elementType == float.class) {
+            final float[] row = new float[width];
+            Arrays.fill(row, fillValue.floatValue());
+            return row;
+        } else if (elementType == long.class) {
+            final long[] row = new long[width];
+            Arrays.fill(row, fillValue.longValue());
+            return row;
+        } else if (elementType == int.class) {
+            final int[] row = new int[width];
+            Arrays.fill(row, fillValue.intValue());
+            return row;
+        } else if (elementType == short.class) {
+            final short[] row = new short[width];
+            Arrays.fill(row, fillValue.shortValue());
+            return row;
+        } else if (elementType == byte.class) {
+            final byte[] row = new byte[width];
+            Arrays.fill(row, fillValue.byteValue());
+            return row;
+        } else {
+            throw new RuntimeException("Datatype not implemented");
+        }
+    }
+
     private static Array readFrom2DArray(int offsetX, int offsetY, int windowWidth, int windowHeight, Number fillValue, Array rawArray, int rawWidth, int rawHeight) {
         final Class elementType = rawArray.getElementType();
         if (elementType == double.class) {
@@ -70,6 +70,33 @@ public interface Reader extends AutoCloseable {
      */
     Array readRaw(int centerX, int centerY, Interval interval, String variableName) throws IOException, InvalidRangeException;
 
+    /**
+     * Reads raw data windows for a number of center pixel positions into a caller supplied target array. The windows
+     * are stored consecutively along the first dimension of the target, beginning at <code>targetZ</code>, the
+     * target must be stored in canonical order (as created by <code>Array.factory()</code>). Window size and border
+     * handling are the same as for the single window readRaw().
+     * <p>
+     * The default implementation reads window by window. Readers holding the variable data in memory should
+     * override this method with a copy loop that does not allocate per window.
+     *
+     * @param centerX      the center x positions.
+     * @param centerY      the center y positions, same length as centerX.
+     * @param interval     the window sizes.
+     * @param variableName the name of the data variable.
+     * @param target       the target array.
+     * @param targetZ      the target position of the first window.
+     *
+     * @throws IOException
+     * @throws InvalidRangeException
+     */
+    default void readRaw(int[] centerX, int[] centerY, Interval interval, String variableName, Array target, int targetZ) throws IOException, InvalidRangeException {
+        final int windowSize = interval.getX() * interval.getY();
+        for (int i = 0; i < centerX.length; i++) {
+            final Array window = readRaw(centerX[i], centerY[i], interval, variableName);
+            Array.arraycopy(window, 0, target, (targetZ + i) * windowSize, windowSize);
+        }
+    }
+
     /**
      * Reads data of a window defined by a center pixel position and a defined window size.
      * Scaling factor and offset are applied, if present. If not, this method returns the same data as readRaw().
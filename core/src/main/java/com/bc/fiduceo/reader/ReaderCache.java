@@ -39,6 +39,7 @@ public class ReaderCache extends LinkedHashMap<Path, Reader> {
     private final int cacheSize;
     private final ReaderFactory readerFactory;
     private final FileServer fileServer;
+    private int numReadersOpened;
 
     public ReaderCache(int cacheSize, ReaderFactory readerFactory, Archive archive) {
         super(DEFAULT_INITIAL_CAPACITY, DEFAULT_LOAD_FACTOR, true);
@@ -73,10 +74,21 @@ public class ReaderCache extends LinkedHashMap<Path, Reader> {
             final File observationFile = fileServer.getFile(reader, observationPath, sensorName, processingVersion);
             reader.open(observationFile);
             add(reader, observationPath);
+            ++numReadersOpened;
             return reader;
         }
     }
 
+    /**
+     * Retrieves the number of readers opened by this cache, i.e. the number of cache misses of
+     * <code>getReaderFor()</code>.
+     *
+     * @return the number of readers opened
+     */
+    public int getNumReadersOpened() {
+        return numReadersOpened;
+    }
+
     @Override
     protected boolean removeEldestEntry(Map.Entry<Path, Reader> eldest) {
         final boolean remove = size() > cacheSize;
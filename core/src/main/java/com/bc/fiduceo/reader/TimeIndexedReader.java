@@ -0,0 +1,42 @@
+/*
+ * Copyright (C) 2016 Brockmann Consult GmbH
+ * This code was developed for the EC project "Fidelity and Uncertainty in
+ * Climate Data Records from Earth Observations (FIDUCEO)".
+ * Grant Agreement: 638822
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * A copy of the GNU General Public License should have been supplied along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ *
+ */
+
+package com.bc.fiduceo.reader;
+
+import java.io.IOException;
+import java.util.Date;
+
+/**
+ * Implemented by readers of point data (in-situ) where each y position is one measurement. Allows to look up the
+ * measurements of a time range without scanning the whole product.
+ */
+public interface TimeIndexedReader extends Reader {
+
+    /**
+     * Retrieves the y positions of all measurements acquired within the time range, including both limits. The
+     * positions are returned in ascending order of acquisition time.
+     *
+     * @param startTime the start of the time range
+     * @param stopTime  the end of the time range
+     * @return the y positions, an empty array if there are none
+     * @throws IOException on disk access failures
+     */
+    int[] getYIndicesInTimeRange(Date startTime, Date stopTime) throws IOException;
+}
@@ -80,6 +80,9 @@ class AMSRE_Reader implements Reader {
 
     @Override
     public void close() throws IOException {
+        if (arrayCache != null) {
+            arrayCache.release();
+        }
         pixelLocator = null;
         boundingPolygonCreator = null;
         if (netcdfFile != null) {
@@ -115,7 +118,7 @@ class AMSRE_Reader implements Reader {
     }
 
     @Override
-    public PixelLocator getPixelLocator() throws IOException {
+    public synchronized PixelLocator getPixelLocator() throws IOException {
         if (pixelLocator == null) {
             final Array latitudes = arrayCache.get(LO_RES_SWATH_GEO_GROUP, "Latitude");
             final Array longitudes = arrayCache.get(LO_RES_SWATH_GEO_GROUP, "Longitude");
@@ -155,11 +158,25 @@ class AMSRE_Reader implements Reader {
 
         final String hdfVariableName = namesConverter.toHdf(variableName);
         final String groupName = getGroupNameForVariable(hdfVariableName);
-        final Array rawArray = arrayCache.get(groupName, hdfVariableName);
         final Number fillValue = getFillValue(groupName, hdfVariableName);
 
         final Dimension productSize = getProductSize();
-        return RawDataReader.read(centerX, centerY, interval, fillValue, rawArray, productSize.getNx());
+        return arrayCache.readRaw(groupName, hdfVariableName, centerX, centerY, interval, fillValue, productSize.getNx());
+    }
+
+    @Override
+    public void readRaw(int[] centerX, int[] centerY, Interval interval, String variableName, Array target, int targetZ) throws IOException, InvalidRangeException {
+        if (variableName.equals("Land_Ocean_Flag_6") || variableName.contains("Channel_Quality_Flag_")) {
+            Reader.super.readRaw(centerX, centerY, interval, variableName, target, targetZ);
+            return;
+        }
+
+        final String hdfVariableName = namesConverter.toHdf(variableName);
+        final String groupName = getGroupNameForVariable(hdfVariableName);
+        final Number fillValue = getFillValue(groupName, hdfVariableName);
+
+        final Dimension productSize = getProductSize();
+        arrayCache.readRaw(groupName, hdfVariableName, centerX, centerY, interval, fillValue, productSize.getNx(), target, targetZ);
     }
 
     private Array readChannelQualityFlag(String variableName, int centerX, int centerY, Interval interval) throws IOException, InvalidRangeException {
@@ -95,6 +95,9 @@ class AMSUB_MHS_L1C_Reader implements Reader {
 
     @Override
     public void close() throws IOException {
+        if (arrayCache != null) {
+            arrayCache.release();
+        }
         timeLocator = null;
         pixelLocator = null;
         boundingPolygonCreator = null;
@@ -147,7 +150,7 @@ class AMSUB_MHS_L1C_Reader implements Reader {
     }
 
     @Override
-    public PixelLocator getPixelLocator() throws IOException {
+    public synchronized PixelLocator getPixelLocator() throws IOException {
         if (pixelLocator == null) {
             final Array longitudes = arrayCache.getScaled(GEOLOCATION_GROUP_NAME, "Longitude", "Scale", null);
             final Array latitudes = arrayCache.getScaled(GEOLOCATION_GROUP_NAME, "Latitude", "Scale", null);
@@ -191,31 +194,22 @@ class AMSUB_MHS_L1C_Reader implements Reader {
 
     @Override
     public Array readRaw(int centerX, int centerY, Interval interval, String variableName) throws IOException, InvalidRangeException {
-        String rawVariableName = ReaderUtils.stripChannelSuffix(variableName);
-        if (rawVariableName.contains("azimuth")) {
-            rawVariableName = falsifyAzimuth(rawVariableName);
-        }
+        final String rawVariableName = getRawVariableName(variableName);
         final String groupName = getGroupName(rawVariableName);
-        Array array = arrayCache.get(groupName, rawVariableName);
+        final Array array = getChannelArray(variableName, rawVariableName, groupName);
+        final Number fillValue = getFillValue(rawVariableName, groupName, array);
 
-        final int rank = array.getRank();
-        if (rank == 3) {
-            final int channelLayer = getChannelLayer(variableName);
-            final int[] shape = array.getShape();
-            shape[2] = 1;   // we only want one z-layer
-            final int[] offsets = {0, 0, channelLayer};
-            array = array.section(offsets, shape);
-        } else if (rawVariableName.equals("chanqual")) {
-            final int channelLayer = getChannelLayer(variableName);
-            final int[] shape = array.getShape();
-            shape[1] = 1;   // we only want one channel
-            final int[] offsets = {0, channelLayer};
-            array = array.section(offsets, shape);
-        }
+        return RawDataReader.read(centerX, centerY, interval, fillValue, array, 90);
+    }
 
+    @Override
+    public void readRaw(int[] centerX, int[] centerY, Interval interval, String variableName, Array target, int targetZ) throws IOException, InvalidRangeException {
+        final String rawVariableName = getRawVariableName(variableName);
+        final String groupName = getGroupName(rawVariableName);
+        final Array array = getChannelArray(variableName, rawVariableName, groupName);
         final Number fillValue = getFillValue(rawVariableName, groupName, array);
 
-        return RawDataReader.read(centerX, centerY, interval, fillValue, array, 90);
+        RawDataReader.read(centerX, centerY, interval, fillValue, array, 90, target, targetZ);
     }
 
     @Override
@@ -402,6 +396,34 @@ class AMSUB_MHS_L1C_Reader implements Reader {
         return geometries;
     }
 
+    private String getRawVariableName(String variableName) {
+        final String rawVariableName = ReaderUtils.stripChannelSuffix(variableName);
+        if (rawVariableName.contains("azimuth")) {
+            return falsifyAzimuth(rawVariableName);
+        }
+        return rawVariableName;
+    }
+
+    private Array getChannelArray(String variableName, String rawVariableName, String groupName) throws IOException, InvalidRangeException {
+        final Array array = arrayCache.get(groupName, rawVariableName);
+
+        final int rank = array.getRank();
+        if (rank == 3) {
+            final int channelLayer = getChannelLayer(variableName);
+            final int[] shape = array.getShape();
+            shape[2] = 1;   // we only want one z-layer
+            final int[] offsets = {0, 0, channelLayer};
+            return array.section(offsets, shape);
+        } else if (rawVariableName.equals("chanqual")) {
+            final int channelLayer = getChannelLayer(variableName);
+            final int[] shape = array.getShape();
+            shape[1] = 1;   // we only want one channel
+            final int[] offsets = {0, channelLayer};
+            return array.section(offsets, shape);
+        }
+        return array;
+    }
+
     private Number getFillValue(String rawVariableName, String groupName, Array array) throws IOException {
         final String fillValueString = arrayCache.getStringAttributeValue("FillValue", groupName, rawVariableName);
         final Number fillValue;
@@ -57,6 +57,7 @@ import java.awt.*;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import static ucar.ma2.DataType.FLOAT;
@@ -67,11 +68,15 @@ class ATSR_L1B_Reader implements Reader {
 
     private static final Interval INTERVAL = new Interval(5, 20);
     private static final String REG_EX = "AT(1|2|S)_TOA_1P[A-Z0-9]{4}\\d{8}_\\d{6}_\\d{12}_\\d{5}_\\d{5}_\\d{4}.(N|E)(1|2)";
+    // 64 lines of 512 pixels, 128 kB per float tile
+    private static final int TILE_HEIGHT = 64;
+    private static final int TILE_CACHE_CAPACITY = 48;
 
     private final GeometryFactory geometryFactory;
 
     private Product product;
     private ATSR_PixelLocator pixelLocator;
+    private RasterTileCache tileCache;
 
     ATSR_L1B_Reader(GeometryFactory geometryFactory) {
         this.geometryFactory = geometryFactory;
@@ -84,11 +89,16 @@ class ATSR_L1B_Reader implements Reader {
             throw new IOException("Unable to read ATSR product: " + file.getAbsolutePath());
         }
         pixelLocator = null;
+        tileCache = new RasterTileCache(TILE_HEIGHT, product.getSceneRasterHeight(), TILE_CACHE_CAPACITY, this::readRawTile);
     }
 
     @Override
     public void close() throws IOException {
         pixelLocator = null;
+        if (tileCache != null) {
+            tileCache.clear();
+            tileCache = null;
+        }
         if (product != null) {
             product.dispose();
             product = null;
@@ -126,7 +136,7 @@ class ATSR_L1B_Reader implements Reader {
     }
 
     @Override
-    public PixelLocator getPixelLocator() throws IOException {
+    public synchronized PixelLocator getPixelLocator() throws IOException {
         if (pixelLocator == null) {
             final GeoCoding geoCoding = product.getSceneGeoCoding();
 
@@ -163,7 +173,6 @@ class ATSR_L1B_Reader implements Reader {
         final double noDataValue = getNoDataValue(dataNode);
         final DataType targetDataType = NetCDFUtils.getNetcdfDataType(dataNode.getDataType());
         final int[] shape = getShape(interval);
-        final Array readArray = Array.factory(targetDataType, shape);
         final Array targetArray = Array.factory(targetDataType, shape);
 
         final int width = interval.getX();
@@ -172,27 +181,19 @@ class ATSR_L1B_Reader implements Reader {
         final int xOffset = centerX - width / 2;
         final int yOffset = centerY - height / 2;
 
-        //System.out.println("node = " + dataNode.getName() + " x: " + xOffset + " y: " + yOffset + " w: " + width + " h: " + height);
-        readRawProductData(dataNode, readArray, width, height, xOffset, yOffset);
-
-        final int sceneRasterWidth = product.getSceneRasterWidth();
-        final int sceneRasterHeight = product.getSceneRasterHeight();
+        final Rectangle windowRectangle = new Rectangle(xOffset, yOffset, width, height);
+        final Rectangle productRectangle = new Rectangle(0, 0, product.getSceneRasterWidth(), product.getSceneRasterHeight());
+        final Rectangle intersection = productRectangle.intersection(windowRectangle);
 
-        final Index index = targetArray.getIndex();
-        int readIndex = 0;
-        for (int y = 0; y < width; y++) {
-            final int currentY = yOffset + y;
-            for (int x = 0; x < height; x++) {
-                final int currentX = xOffset + x;
-                index.set(y, x);
-                if (currentX >= 0 && currentX < sceneRasterWidth && currentY >= 0 && currentY < sceneRasterHeight) {
-                    targetArray.setObject(index, readArray.getObject(readIndex));
-                    ++readIndex;
-                } else {
-                    targetArray.setObject(index, noDataValue);
-                }
-            }
+        final Object targetStorage = targetArray.getStorage();
+        if (!intersection.equals(windowRectangle)) {
+            fill(targetStorage, noDataValue);
         }
+        if (intersection.isEmpty()) {
+            return targetArray;
+        }
+
+        copyWindow(variableName, targetStorage, windowRectangle, intersection);
 
         return targetArray;
     }
@@ -400,19 +401,44 @@ class ATSR_L1B_Reader implements Reader {
         }
     }
 
-    private void readRawProductData(RasterDataNode dataNode, Array readArray, int width, int height, int xOffset, int yOffset) throws IOException {
-        final DataType dataType = readArray.getDataType();
+    private void copyWindow(String variableName, Object targetStorage, Rectangle window, Rectangle intersection) throws IOException {
+        final int sceneRasterWidth = product.getSceneRasterWidth();
+        final int tileHeight = tileCache.getTileHeight();
+
+        final int xStart = intersection.x - window.x;
+        final int yEnd = intersection.y + intersection.height;
+        for (int line = intersection.y; line < yEnd; line++) {
+            final Object tile = tileCache.getTile(variableName, line);
+            final int sourcePos = (line % tileHeight) * sceneRasterWidth + intersection.x;
+            final int targetPos = (line - window.y) * window.width + xStart;
+            System.arraycopy(tile, sourcePos, targetStorage, targetPos, intersection.width);
+        }
+    }
 
-        final Rectangle subsetRectangle = new Rectangle(xOffset, yOffset, width, height);
-        final Rectangle productRectangle = new Rectangle(0, 0, product.getSceneRasterWidth(), product.getSceneRasterHeight());
-        final Rectangle intersection = productRectangle.intersection(subsetRectangle);
+    private Object readRawTile(String variableName, int y, int height) throws IOException {
+        final RasterDataNode dataNode = getRasterDataNode(variableName);
+        final DataType dataType = NetCDFUtils.getNetcdfDataType(dataNode.getDataType());
+        final int width = product.getSceneRasterWidth();
 
-        final int rasterSize = intersection.width * intersection.height;
-        final ProductData productData = createProductData(dataType, rasterSize);
+        final ProductData productData = createProductData(dataType, width * height);
+        dataNode.readRasterData(0, y, width, height, productData);
+        return productData.getElems();
+    }
 
-        dataNode.readRasterData(intersection.x, intersection.y, intersection.width, intersection.height, productData);
-        for (int i = 0; i < rasterSize; i++) {
-            readArray.setObject(i, productData.getElemDoubleAt(i));
+    // package access for testing only
+    static void fill(Object storage, double value) {
+        if (storage instanceof float[]) {
+            Arrays.fill((float[]) storage, (float) value);
+        } else if (storage instanceof int[]) {
+            Arrays.fill((int[]) storage, (int) value);
+        } else if (storage instanceof short[]) {
+            Arrays.fill((short[]) storage, (short) value);
+        } else if (storage instanceof byte[]) {
+            Arrays.fill((byte[]) storage, (byte) value);
+        } else if (storage instanceof double[]) {
+            Arrays.fill((double[]) storage, value);
+        } else {
+            throw new RuntimeException("Data type not supported");
         }
     }
 
@@ -31,18 +31,14 @@ import java.awt.geom.Point2D;
 class ATSR_PixelLocator implements PixelLocator {
 
     private final GeoCoding geoCoding;
-    private final PixelPos pixelPos;
-    private final GeoPos geoPos;
 
     ATSR_PixelLocator(GeoCoding geoCoding) {
         this.geoCoding = geoCoding;
-        this.pixelPos = new PixelPos();
-        this.geoPos = new GeoPos();
     }
 
     @Override
     public Point2D getGeoLocation(double x, double y, Point2D point) {
-        pixelPos.setLocation(x, y);
+        final PixelPos pixelPos = new PixelPos(x, y);
         final GeoPos geoPos = new GeoPos();
         final GeoPos geoCodingGeoPos = geoCoding.getGeoPos(pixelPos, geoPos);
 
@@ -56,8 +52,8 @@ class ATSR_PixelLocator implements PixelLocator {
 
     @Override
     public Point2D[] getPixelLocation(double lon, double lat) {
-        geoPos.setLocation(lat, lon);
-        final PixelPos newPos = geoCoding.getPixelPos(geoPos, pixelPos);
+        final GeoPos geoPos = new GeoPos(lat, lon);
+        final PixelPos newPos = geoCoding.getPixelPos(geoPos, new PixelPos());
         if (Double.isNaN(newPos.getX()) || Double.isNaN(newPos.getY())) {
             return new Point2D[0];
         }
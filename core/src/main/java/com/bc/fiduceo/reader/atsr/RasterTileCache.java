@@ -0,0 +1,93 @@
+/*
+ * Copyright (C) 2016 Brockmann Consult GmbH
+ * This code was developed for the EC project "Fidelity and Uncertainty in
+ * Climate Data Records from Earth Observations (FIDUCEO)".
+ * Grant Agreement: 638822
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * A copy of the GNU General Public License should have been supplied along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ *
+ */
+
+package com.bc.fiduceo.reader.atsr;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * LRU cache of full-width raster tiles of one product. A tile covers a block of consecutive scan lines and holds the
+ * raw data as primitive array in scan-line order, so windows can be copied out with System.arraycopy.
+ */
+class RasterTileCache {
+
+    private final int tileHeight;
+    private final int rasterHeight;
+    private final TileLoader loader;
+    private final Map<String, Object> tiles;
+
+    RasterTileCache(int tileHeight, int rasterHeight, int capacity, TileLoader loader) {
+        this.tileHeight = tileHeight;
+        this.rasterHeight = rasterHeight;
+        this.loader = loader;
+        tiles = new LinkedHashMap<String, Object>(capacity + 1, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Object> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    int getTileHeight() {
+        return tileHeight;
+    }
+
+    /**
+     * Retrieves the tile containing the scan line passed in, loads it if necessary.
+     *
+     * @param variableName the variable
+     * @param line         the scan line
+     * @return the primitive data array of the tile, the first element is the first pixel of line (line / tileHeight) * tileHeight
+     * @throws IOException on disk access failures
+     */
+    synchronized Object getTile(String variableName, int line) throws IOException {
+        final int tileIndex = line / tileHeight;
+        final String key = variableName + '#' + tileIndex;
+
+        Object tile = tiles.get(key);
+        if (tile == null) {
+            final int tileY = tileIndex * tileHeight;
+            final int height = Math.min(tileHeight, rasterHeight - tileY);
+            tile = loader.load(variableName, tileY, height);
+            tiles.put(key, tile);
+        }
+        return tile;
+    }
+
+    synchronized void clear() {
+        tiles.clear();
+    }
+
+    interface TileLoader {
+
+        /**
+         * Reads the raw data of the full-width raster block.
+         *
+         * @param variableName the variable
+         * @param y            the first scan line
+         * @param height       the number of scan lines
+         * @return the primitive data array
+         * @throws IOException on disk access failures
+         */
+        Object load(String variableName, int y, int height) throws IOException;
+    }
+}
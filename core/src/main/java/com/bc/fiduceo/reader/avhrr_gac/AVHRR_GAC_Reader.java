@@ -31,7 +31,6 @@ import com.bc.fiduceo.reader.AcquisitionInfo;
 import com.bc.fiduceo.reader.ArrayCache;
 import com.bc.fiduceo.reader.BoundingPolygonCreator;
 import com.bc.fiduceo.reader.Geometries;
-import com.bc.fiduceo.reader.RawDataReader;
 import com.bc.fiduceo.reader.Reader;
 import com.bc.fiduceo.reader.ReaderUtils;
 import com.bc.fiduceo.reader.TimeLocator;
@@ -90,6 +89,9 @@ public class AVHRR_GAC_Reader implements Reader {
 
     @Override
     public void close() throws IOException {
+        if (arrayCache != null) {
+            arrayCache.release();
+        }
         timeLocator = null;
         pixelLocator = null;
         boundingPolygonCreator = null;
@@ -135,7 +137,7 @@ public class AVHRR_GAC_Reader implements Reader {
     }
 
     @Override
-    public PixelLocator getPixelLocator() throws IOException {
+    public synchronized PixelLocator getPixelLocator() throws IOException {
         if (pixelLocator == null) {
             final ArrayFloat lonStorage = (ArrayFloat) arrayCache.get("lon");
             final ArrayFloat latStorage = (ArrayFloat) arrayCache.get("lat");
@@ -178,11 +180,18 @@ public class AVHRR_GAC_Reader implements Reader {
 
     @Override
     public Array readRaw(int centerX, int centerY, Interval interval, String variableName) throws InvalidRangeException, IOException {
-        final Array rawArray = arrayCache.get(variableName);
         final Number fillValue = getFillValue(variableName);
 
         final int defaultWidth = getProductWidth(netcdfFile);
-        return RawDataReader.read(centerX, centerY, interval, fillValue, rawArray, defaultWidth);
+        return arrayCache.readRaw(variableName, centerX, centerY, interval, fillValue, defaultWidth);
+    }
+
+    @Override
+    public void readRaw(int[] centerX, int[] centerY, Interval interval, String variableName, Array target, int targetZ) throws IOException, InvalidRangeException {
+        final Number fillValue = getFillValue(variableName);
+
+        final int defaultWidth = getProductWidth(netcdfFile);
+        arrayCache.readRaw(variableName, centerX, centerY, interval, fillValue, defaultWidth, target, targetZ);
     }
 
     @Override
@@ -96,6 +96,9 @@ public class CALIOP_L2_VFM_Reader implements Reader {
 
     @Override
     public void close() throws IOException {
+        if (arrayCache != null) {
+            arrayCache.release();
+        }
         if (netcdfFile != null) {
             netcdfFile.close();
         }
@@ -160,7 +163,7 @@ public class CALIOP_L2_VFM_Reader implements Reader {
     }
 
     @Override
-    public PixelLocator getPixelLocator() throws IOException {
+    public synchronized PixelLocator getPixelLocator() throws IOException {
         if (pixelLocator == null) {
             final Array lons = arrayCache.get("Longitude");
             final Array lats = arrayCache.get("Latitude");
@@ -81,7 +81,10 @@ class HIRS_L1C_Reader implements Reader {
 
     @Override
     public void close() throws IOException {
-        arrayCache = null;
+        if (arrayCache != null) {
+            arrayCache.release();
+            arrayCache = null;
+        }
         fillValueCache.clear();
         pixelLocator = null;
         if (netcdfFile != null) {
@@ -121,7 +124,7 @@ class HIRS_L1C_Reader implements Reader {
     }
 
     @Override
-    public PixelLocator getPixelLocator() throws IOException {
+    public synchronized PixelLocator getPixelLocator() throws IOException {
         if (pixelLocator == null) {
             final Array lonArray = arrayCache.get("lon");
             final Array latArray = arrayCache.get("lat");
@@ -172,22 +175,25 @@ class HIRS_L1C_Reader implements Reader {
             return readScanPos(centerX, interval);
         }
         final String fullVariableName = ReaderUtils.stripChannelSuffix(variableName);
+        final Array array = getChannelArray(variableName, fullVariableName);
+        final Number fillValue = getFillValue(fullVariableName);
 
-        Array array = arrayCache.get(fullVariableName);
-        final int rank = array.getRank();
+        final Dimension productSize = getProductSize();
+        return RawDataReader.read(centerX, centerY, interval, fillValue, array, productSize.getNx());
+    }
 
-        if (rank == 3) {
-            final int channelIndex = ReaderUtils.getChannelIndex(variableName);
-            final int[] shape = array.getShape();
-            shape[2] = 1;   // we only want one z-layer
-            final int[] offsets = {0, 0, channelIndex};
-            array = array.section(offsets, shape);
+    @Override
+    public void readRaw(int[] centerX, int[] centerY, Interval interval, String variableName, Array target, int targetZ) throws IOException, InvalidRangeException {
+        if (variableName.equals("scanpos")) {
+            Reader.super.readRaw(centerX, centerY, interval, variableName, target, targetZ);
+            return;
         }
-
+        final String fullVariableName = ReaderUtils.stripChannelSuffix(variableName);
+        final Array array = getChannelArray(variableName, fullVariableName);
         final Number fillValue = getFillValue(fullVariableName);
 
         final Dimension productSize = getProductSize();
-        return RawDataReader.read(centerX, centerY, interval, fillValue, array, productSize.getNx());
+        RawDataReader.read(centerX, centerY, interval, fillValue, array, productSize.getNx(), target, targetZ);
     }
 
     @Override
@@ -230,6 +236,18 @@ class HIRS_L1C_Reader implements Reader {
         return new Dimension("lon", shape[1], shape[0]);
     }
 
+    private Array getChannelArray(String variableName, String fullVariableName) throws IOException, InvalidRangeException {
+        final Array array = arrayCache.get(fullVariableName);
+        if (array.getRank() == 3) {
+            final int channelIndex = ReaderUtils.getChannelIndex(variableName);
+            final int[] shape = array.getShape();
+            shape[2] = 1;   // we only want one z-layer
+            final int[] offsets = {0, 0, channelIndex};
+            return array.section(offsets, shape);
+        }
+        return array;
+    }
+
     private Number getFillValue(String fullVariableName) {
         if (!fillValueCache.containsKey(fullVariableName)) {
             final Variable variable = NetCDFUtils.getVariable(netcdfFile, fullVariableName);
@@ -24,9 +24,13 @@ import org.esa.snap.core.datamodel.ProductData;
 
 import javax.imageio.stream.ImageInputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
 class EpsMetopUtil {
 
+    private static final long MILLIS_1970_TO_2000 = 946684800000L;
+    private static final long MILLIS_PER_DAY = 86400000L;
+
     static ProductData.UTC readShortCdsTime(ImageInputStream iis) throws IOException {
         final int day = iis.readUnsignedShort();
         final long millis = iis.readUnsignedInt();
@@ -50,4 +54,25 @@ class EpsMetopUtil {
 
         return (float) (value * Math.pow(10.0, -scaleFactor));
     }
+
+    static long readShortCdsTimeMillis(ByteBuffer buffer, int index) {
+        final int day = buffer.getShort(index) & 0xFFFF;
+        final long millis = buffer.getInt(index + 2) & 0xFFFFFFFFL;
+
+        return MILLIS_1970_TO_2000 + day * MILLIS_PER_DAY + millis;
+    }
+
+    static long readOBT(ByteBuffer buffer, int index) {
+        final int upper = buffer.getShort(index) & 0xFFFF;
+        final long lower = buffer.getInt(index + 2) & 0xFFFFFFFFL;
+
+        return lower | ((long) upper << 32);
+    }
+
+    static float readVInt4(ByteBuffer buffer, int index) {
+        final byte scaleFactor = buffer.get(index);
+        final int value = buffer.getInt(index + 1);
+
+        return (float) (value * Math.pow(10.0, -scaleFactor));
+    }
 }
@@ -19,8 +19,6 @@ class IASI_PixelLocator implements PixelLocator {
     private final Array latitudes;
     private final int width;
     private final int height;
-    private final Index longitudesIndex;
-    private final Index latitudesIndex;
     private final Polygon upperPolygon;
     private final Polygon lowerPolygon;
     private final GeometryFactory geometryFactory;
@@ -34,9 +32,6 @@ class IASI_PixelLocator implements PixelLocator {
         width = shape[1];
         height = shape[0];
 
-        longitudesIndex = longitudes.getIndex();
-        latitudesIndex = latitudes.getIndex();
-
         final BoundingPolygonCreator polygonCreator = new BoundingPolygonCreator(new Interval(6, 24), geometryFactory);
         final Geometry boundingGeometry = polygonCreator.createBoundingGeometrySplitted(geolocationData.longitudes, geolocationData.latitudes, 2, true);
         if (!boundingGeometry.isValid()) {
@@ -59,6 +54,8 @@ class IASI_PixelLocator implements PixelLocator {
         if (point == null) {
             point = new Point2D.Double();
         }
+        final Index longitudesIndex = longitudes.getIndex();
+        final Index latitudesIndex = latitudes.getIndex();
         latitudesIndex.set(y_pos, x_pos);
         longitudesIndex.set(y_pos, x_pos);
         point.setLocation(longitudes.getDouble(longitudesIndex), latitudes.getDouble(latitudesIndex));
@@ -108,6 +105,9 @@ class IASI_PixelLocator implements PixelLocator {
         final int offsetLeft = center - 14;
         final int offsetRight = center + 14;
 
+        // the Index objects are local, the locator keeps no per-call state in fields
+        final Index longitudesIndex = longitudes.getIndex();
+        final Index latitudesIndex = latitudes.getIndex();
         int lineIndex = 0;
         for (int i = start; i < stop; i++) {
             longitudesIndex.set(i, offsetLeft);
@@ -141,6 +141,8 @@ class IASI_PixelLocator implements PixelLocator {
     private int getPixelIndex(SphericalDistance sphericalDistance, int lineNumber) {
         double minDistance = Double.MAX_VALUE;
 
+        final Index longitudesIndex = longitudes.getIndex();
+        final Index latitudesIndex = latitudes.getIndex();
         int pixelIndex = 0;
         for (int i = 0; i < width; i++) {
             longitudesIndex.set(lineNumber, i);
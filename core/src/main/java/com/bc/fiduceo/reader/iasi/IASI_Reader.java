@@ -57,6 +57,9 @@ import javax.imageio.stream.FileImageInputStream;
 import javax.imageio.stream.ImageInputStream;
 import java.io.File;
 import java.io.IOException;
+import java.nio.ShortBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -73,6 +76,7 @@ public class IASI_Reader implements Reader {
     private static final int LAT = 1;
 
     private ImageInputStream iis;
+    private FileChannel channel;
     private GenericRecordHeader mphrHeader;
     private MainProductHeaderRecord mainProductHeaderRecord;
     private GiadrScaleFactors giadrScaleFactors;
@@ -107,7 +111,8 @@ public class IASI_Reader implements Reader {
 
         readHeader();
 
-        mdrCache = new MDRCache(iis, firstMdrOffset, mdrVersion);
+        channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        mdrCache = new MDRCache(channel, firstMdrOffset, mdrVersion);
         proxiesMap = mdrCache.getReadProxies();
     }
 
@@ -116,6 +121,11 @@ public class IASI_Reader implements Reader {
         timeLocator = null;
         geolocationData = null;
         pixelLocator = null;
+        mdrCache = null;
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
         if (iis != null) {
             iis.close();
             iis = null;
@@ -199,20 +209,18 @@ public class IASI_Reader implements Reader {
         final Number fillValue = NetCDFUtils.getDefaultFillValue(readProxy.getDataType());
         final Array array = Array.factory(readProxy.getDataType(), shape);
 
-        final Index index = array.getIndex();
+        int index = 0;
         for (int y = 0; y < interval.getY(); y++) {
             final int line = yOffset + y;
 
             for (int x = 0; x < interval.getX(); x++) {
-                index.set(y, x);
                 final int xPosition = xOffset + x;
-                final Object data;
                 if (line < 0 || line >= productSize.getNy() || xPosition < 0 || xPosition >= productSize.getNx()) {
-                    data = fillValue;
+                    array.setObject(index, fillValue);
                 } else {
-                    data = readProxy.read(xPosition, line % 2, mdRs[y]);
+                    readProxy.read(xPosition, line % 2, mdRs[y], array, index);
                 }
-                array.setObject(index, data);
+                ++index;
             }
         }
 
@@ -267,7 +275,7 @@ public class IASI_Reader implements Reader {
         final MDR_1C[] mdRs = getMDRs(y, 1);
         final int[] shape = new int[]{EpsMetopConstants.SS};
 
-        final short[] gs1cSpect = mdRs[0].get_GS1cSpect(x, y % 2);
+        final ShortBuffer gs1cSpect = mdRs[0].get_GS1cSpectBuffer(x, y % 2);
         final int iDefNsfirst = mdRs[0].readPerScan_int(mdRs[0].getFirst1BOffset());
 
         final float[] gs1cSpectDecoded = scaleSpectrum(gs1cSpect, iDefNsfirst);
@@ -275,7 +283,7 @@ public class IASI_Reader implements Reader {
         return Array.factory(DataType.FLOAT, shape, gs1cSpectDecoded);
     }
 
-    private float[] scaleSpectrum(short[] gs1cSpect, int iDefNsfirst) {
+    private float[] scaleSpectrum(ShortBuffer gs1cSpect, int iDefNsfirst) {
         final float[] gs1cSpectDecoded = getDefaultFloatSpect();
 
         for (int numScale = 0; numScale < giadrScaleFactors.defScaleSondNbScale; numScale++) {
@@ -287,7 +295,7 @@ public class IASI_Reader implements Reader {
 
             for (int chanNb = startChan; chanNb < stopChan; chanNb++) {
                 final int w = chanNb - iDefNsfirst;
-                gs1cSpectDecoded[w] = gs1cSpect[w] * powScale;
+                gs1cSpectDecoded[w] = gs1cSpect.get(w) * powScale;
             }
         }
         return gs1cSpectDecoded;
@@ -303,7 +311,7 @@ public class IASI_Reader implements Reader {
         return gs1cSpectDecoded;
     }
 
-    private PixelLocator getPixelLocator_internal() throws IOException {
+    private synchronized PixelLocator getPixelLocator_internal() throws IOException {
         if (pixelLocator == null) {
             final GeolocationData geolocationData = getGeolocationData();
 
@@ -464,9 +472,13 @@ public class IASI_Reader implements Reader {
         final int lineEnd = centerY + windowHeight / 2;
 
         final MDR_1C[] mdrs = mdrCache.getMDRArray(windowHeight);
+        final int numLines = 2 * mdrCount;
         int index = 0;
         for (int line = lineStart; line <= lineEnd; line++) {
-            mdrs[index] = mdrCache.getRecord(line);
+            // lines outside the product are filled by the callers, there is no record to map
+            if (line >= 0 && line < numLines) {
+                mdrs[index] = mdrCache.getRecord(line);
+            }
             ++index;
         }
 
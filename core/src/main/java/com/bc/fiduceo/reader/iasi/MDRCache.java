@@ -22,6 +22,8 @@ package com.bc.fiduceo.reader.iasi;
 
 import javax.imageio.stream.ImageInputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.Map;
@@ -31,6 +33,7 @@ class MDRCache {
     static final int CAPACITY = 64;
 
     private final ImageInputStream iis;
+    private final FileChannel channel;
     private final long firstMdrOffset;
     private final int recordVersion;
 
@@ -38,11 +41,27 @@ class MDRCache {
 
     MDRCache(ImageInputStream iis, long firstMdrOffset, int recordVersion) {
         this.iis = iis;
+        this.channel = null;
         this.firstMdrOffset = firstMdrOffset;
         this.recordVersion = recordVersion;
     }
 
-    MDR_1C getRecord(long line) throws IOException {
+    /**
+     * Creates a cache that maps the records into memory instead of copying them to the heap. Each record is mapped
+     * separately, a single mapping is limited to 2 GB which the larger products exceed.
+     *
+     * @param channel        the channel of the product file
+     * @param firstMdrOffset the file offset of the first MDR
+     * @param recordVersion  the MDR version
+     */
+    MDRCache(FileChannel channel, long firstMdrOffset, int recordVersion) {
+        this.iis = null;
+        this.channel = channel;
+        this.firstMdrOffset = firstMdrOffset;
+        this.recordVersion = recordVersion;
+    }
+
+    synchronized MDR_1C getRecord(long line) throws IOException {
         MDR_1C mdr = cache.get(line);
         if (mdr != null) {
             return mdr;
@@ -73,6 +92,12 @@ class MDRCache {
     private MDR_1C readMdr(long line) throws IOException {
         final long mdrIndex = getMdrIndex(line);
 
+        if (channel != null) {
+            final long recordSize = getRecordSize();
+            final ByteBuffer record = channel.map(FileChannel.MapMode.READ_ONLY, firstMdrOffset + mdrIndex * recordSize, recordSize);
+            return createRecord(record);
+        }
+
         final MDR_1C mdr_1C = createRecord();
 
         iis.seek(firstMdrOffset + mdrIndex * mdr_1C.getMdrSize());
@@ -100,6 +125,26 @@ class MDRCache {
         throw new RuntimeException("Requested unsupported MDR_1C version");
     }
 
+    private MDR_1C createRecord(ByteBuffer record) {
+        if (recordVersion == 4) {
+            return new MDR_1C_v4(record);
+        } else if (recordVersion == 5) {
+            return new MDR_1C_v5(record);
+        }
+
+        throw new RuntimeException("Requested unsupported MDR_1C version");
+    }
+
+    private long getRecordSize() {
+        if (recordVersion == 4) {
+            return MDR_1C_v4.RECORD_SIZE;
+        } else if (recordVersion == 5) {
+            return MDR_1C_v5.RECORD_SIZE;
+        }
+
+        throw new RuntimeException("Requested unsupported MDR_1C version");
+    }
+
      long getGeolocationOffset() {
         if (recordVersion == 4) {
             return MDR_1C_v4.getGeolocationOffset();
@@ -20,13 +20,18 @@
 
 package com.bc.fiduceo.reader.iasi;
 
-import javax.imageio.stream.ImageInputStream;
-import javax.imageio.stream.MemoryCacheImageInputStream;
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ShortBuffer;
 
 import static com.bc.fiduceo.reader.iasi.EpsMetopConstants.PN;
+import static com.bc.fiduceo.reader.iasi.EpsMetopConstants.SS;
 
+/**
+ * Access to the fields of one IASI L1C measurement data record. The record is held in a ByteBuffer which is either
+ * a view into the memory mapped product file or a heap copy. All reads use absolute positions, so a record can be
+ * read concurrently and no data is copied before a value is requested.
+ */
 abstract class MDR_1C {
 
     static final long DEGRADED_INST_MDR_OFFSET = 20;
@@ -47,12 +52,16 @@ abstract class MDR_1C {
     private static final long DUAL_INT_SIZE = 8;
     static final long G1S_SPECT_SIZE = 17400;    // 8700 shorts tb 2015-06-15
 
-    private final byte[] raw_record;
-
-    private ImageInputStream iis;
+    private final ByteBuffer record;
 
-    MDR_1C(byte[] raw_record) {
-        this.raw_record = raw_record;
+    /**
+     * Creates a record on the buffer passed in. The buffer must be in big endian byte order, which is the default,
+     * and must start at the first byte of the record.
+     *
+     * @param record the record data
+     */
+    MDR_1C(ByteBuffer record) {
+        this.record = record;
     }
 
     static long getEFOVIndex(int x, int line) {
@@ -63,116 +72,107 @@ abstract class MDR_1C {
         return line;
     }
 
+    // only available for records read into memory, mapped records have no backing array
     byte[] getRaw_record() {
-        return raw_record;
+        return record.array();
     }
 
     abstract long getMdrSize();
 
+    abstract long getG1SSpectOffset();
+
     long get_OBT(int x, int line) throws IOException {
-        final ImageInputStream stream = getStream();
         final long mdrPos = getMdrPos(x);
 
-        stream.seek(OBT_OFFSET + mdrPos * OBT_SIZE);
+        return EpsMetopUtil.readOBT(record, toIndex(OBT_OFFSET + mdrPos * OBT_SIZE));
+    }
 
-        return EpsMetopUtil.readOBT(stream);
+    /**
+     * Retrieves a read-only view on the spectrum of the pixel, no data is copied.
+     *
+     * @param x    the x position
+     * @param line the line within the record, 0 or 1
+     * @return the spectrum, SS values
+     */
+    ShortBuffer get_GS1cSpectBuffer(int x, int line) {
+        final long mdrPos = getMdrPos(x);
+        final long efovIndex = getEFOVIndex(x, line);
+
+        final ByteBuffer spectrumBytes = record.asReadOnlyBuffer();
+        spectrumBytes.position(toIndex(getG1SSpectOffset() + (mdrPos * PN + efovIndex) * G1S_SPECT_SIZE));
+        spectrumBytes.limit(spectrumBytes.position() + SS * (int) SHORT_SIZE);
+        return spectrumBytes.slice().asShortBuffer();
     }
 
-    abstract short[] get_GS1cSpect(int x, int line) throws IOException;
+    short[] get_GS1cSpect(int x, int line) throws IOException {
+        final short[] spectrum = new short[SS];
+        get_GS1cSpectBuffer(x, line).get(spectrum);
+        return spectrum;
+    }
 
     byte readPerScan_byte(long position) throws IOException {
-        final ImageInputStream stream = getStream();
-        stream.seek(position);
-
-        return stream.readByte();
+        return record.get(toIndex(position));
     }
 
     int readPerScan_int(long position) throws IOException {
-        final ImageInputStream stream = getStream();
-        stream.seek(position);
-
-        return stream.readInt();
+        return record.getInt(toIndex(position));
     }
 
     float readPerScan_vInt4(long position) throws IOException {
-        final ImageInputStream stream = getStream();
-        stream.seek(position);
-
-        return EpsMetopUtil.readVInt4(stream);
+        return EpsMetopUtil.readVInt4(record, toIndex(position));
     }
 
     byte readPerEFOV_byte(int x, long position) throws IOException {
-        final ImageInputStream stream = getStream();
         final long mdrPos = getMdrPos(x);
 
-        stream.seek(position + mdrPos);
-        return stream.readByte();
+        return record.get(toIndex(position + mdrPos));
     }
 
     short readPerEFOV_short(int x, long position) throws IOException {
-        final ImageInputStream stream = getStream();
         final long mdrPos = getMdrPos(x);
 
-        stream.seek(position + mdrPos * SHORT_SIZE);
-        return stream.readShort();
+        return record.getShort(toIndex(position + mdrPos * SHORT_SIZE));
     }
 
     int readPerEFOV_int(int x, long position) throws IOException {
-        final ImageInputStream stream = getStream();
         final long mdrPos = getMdrPos(x);
 
-        stream.seek(position + mdrPos * INT_SIZE);
-        return stream.readInt();
+        return record.getInt(toIndex(position + mdrPos * INT_SIZE));
     }
 
     long readPerEFOV_utc(int x, long position) throws IOException {
-        final ImageInputStream stream = getStream();
         final long mdrPos = getMdrPos(x);
 
-        stream.seek(position + mdrPos * UTC_SIZE);
-
-        return EpsMetopUtil.readShortCdsTime(stream).getAsDate().getTime();
+        return EpsMetopUtil.readShortCdsTimeMillis(record, toIndex(position + mdrPos * UTC_SIZE));
     }
 
     float readPerEFOV_vInt4(int x, long position) throws IOException {
-        final ImageInputStream stream = getStream();
         final long mdrPos = getMdrPos(x);
 
-        stream.seek(position + mdrPos * VINT4_SIZE);
-
-        return EpsMetopUtil.readVInt4(stream);
+        return EpsMetopUtil.readVInt4(record, toIndex(position + mdrPos * VINT4_SIZE));
     }
 
     abstract byte readPerPixel_byte(int x, int line, long position) throws IOException;
 
     short readPerPixel_short(int x, int line, long position) throws IOException {
-        final ImageInputStream stream = getStream();
         final long mdrPos = getMdrPos(x);
         final long efovIndex = getEFOVIndex(x, line);
 
-        stream.seek(position + (mdrPos * PN + efovIndex) * SHORT_SIZE);
-
-        return stream.readShort();
+        return record.getShort(toIndex(position + (mdrPos * PN + efovIndex) * SHORT_SIZE));
     }
 
     int readPerPixel_int(int x, int line, long position) throws IOException {
-        final ImageInputStream stream = getStream();
         final long mdrPos = getMdrPos(x);
         final long efovIndex = getEFOVIndex(x, line);
 
-        stream.seek(position + (mdrPos * PN + efovIndex) * INT_SIZE);
-
-        return stream.readInt();
+        return record.getInt(toIndex(position + (mdrPos * PN + efovIndex) * INT_SIZE));
     }
 
     int readPerPixel_oneOfDualInt(int x, int line, long position, int offset) throws IOException {
-        final ImageInputStream stream = getStream();
         final long mdrPos = getMdrPos(x);
         final long efovIndex = getEFOVIndex(x, line);
 
-        stream.seek(position + (mdrPos * PN + efovIndex) * DUAL_INT_SIZE + offset);
-
-        return stream.readInt();
+        return record.getInt(toIndex(position + (mdrPos * PN + efovIndex) * DUAL_INT_SIZE + offset));
     }
 
     long getMdrPos(int x) {
@@ -181,12 +181,12 @@ abstract class MDR_1C {
 
     abstract long getFirst1BOffset();
 
-    ImageInputStream getStream() {
-        if (iis == null) {
-            final ByteArrayInputStream byteArrayInputStream = new ByteArrayInputStream(raw_record);
-            iis = new MemoryCacheImageInputStream(byteArrayInputStream);
-        }
+    ByteBuffer getRecord() {
+        return record;
+    }
 
-        return iis;
+    // records are below 3 MB, all offsets fit into an int
+    static int toIndex(long position) {
+        return (int) position;
     }
 }
@@ -20,16 +20,15 @@
 
 package com.bc.fiduceo.reader.iasi;
 
-import javax.imageio.stream.ImageInputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.HashMap;
 
 import static com.bc.fiduceo.reader.iasi.EpsMetopConstants.PN;
-import static com.bc.fiduceo.reader.iasi.EpsMetopConstants.SS;
 
 class MDR_1C_v4 extends MDR_1C {
 
-    private static final long RECORD_SIZE = 2727768L;
+    static final long RECORD_SIZE = 2727768L;
 
     private static final long GQIS_QUAL_INDEX_OFFSET = 255380;
     private static final long GQIS_QUAL_INDEX_IIS_OFFSET = 255385;
@@ -54,7 +53,11 @@ class MDR_1C_v4 extends MDR_1C {
     private static final long GCS_IMG_CLASS_FIRST_COL_OFFSET = 2727408;
 
     MDR_1C_v4() {
-        super(new byte[(int)RECORD_SIZE]);
+        super(ByteBuffer.allocate((int) RECORD_SIZE));
+    }
+
+    MDR_1C_v4(ByteBuffer record) {
+        super(record);
     }
 
     @Override
@@ -67,18 +70,9 @@ class MDR_1C_v4 extends MDR_1C {
         throw new RuntimeException("not implemented");
     }
 
-    short[] get_GS1cSpect(int x, int line) throws IOException {
-        final ImageInputStream stream = getStream();
-        final long mdrPos = getMdrPos(x);
-        final long efovIndex = getEFOVIndex(x, line);
-
-        stream.seek(G1S_SPECT_OFFSET + (mdrPos * PN + efovIndex) * G1S_SPECT_SIZE);
-
-        final short[] spectrum = new short[SS];
-        for (int i = 0; i < SS; i++) {
-            spectrum[i] = stream.readShort();
-        }
-        return spectrum;
+    @Override
+    long getG1SSpectOffset() {
+        return G1S_SPECT_OFFSET;
     }
 
     static long getGeolocationOffset() {
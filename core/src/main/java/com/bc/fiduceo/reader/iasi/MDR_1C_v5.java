@@ -20,16 +20,15 @@
 
 package com.bc.fiduceo.reader.iasi;
 
-import javax.imageio.stream.ImageInputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.HashMap;
 
 import static com.bc.fiduceo.reader.iasi.EpsMetopConstants.PN;
-import static com.bc.fiduceo.reader.iasi.EpsMetopConstants.SS;
 
 class MDR_1C_v5 extends MDR_1C {
 
-    private static final long RECORD_SIZE = 2728908L;
+    static final long RECORD_SIZE = 2728908L;
 
     private static final long GQIS_FLAG_QUAL_DET_OFFSET = 255620;
     private static final long GQIS_SYS_TEC_IIS_QUAL_OFFSET = 255885;
@@ -60,7 +59,11 @@ class MDR_1C_v5 extends MDR_1C {
     private static final long GEUM_AVHRR_QUAL_OFFSET = 2728788;
 
     MDR_1C_v5() {
-        super(new byte[(int)RECORD_SIZE]);
+        super(ByteBuffer.allocate((int) RECORD_SIZE));
+    }
+
+    MDR_1C_v5(ByteBuffer record) {
+        super(record);
     }
 
     @Override
@@ -68,18 +71,9 @@ class MDR_1C_v5 extends MDR_1C {
         return RECORD_SIZE;
     }
 
-    short[] get_GS1cSpect(int x, int line) throws IOException {
-        final ImageInputStream stream = getStream();
-        final long mdrPos = getMdrPos(x);
-        final long efovIndex = getEFOVIndex(x, line);
-
-        stream.seek(G1S_SPECT_OFFSET + (mdrPos * PN + efovIndex) * G1S_SPECT_SIZE);
-
-        final short[] spectrum = new short[SS];
-        for (int i = 0; i < SS; i++) {
-            spectrum[i] = stream.readShort();
-        }
-        return spectrum;
+    @Override
+    long getG1SSpectOffset() {
+        return G1S_SPECT_OFFSET;
     }
 
     static long getGeolocationOffset() {
@@ -91,13 +85,10 @@ class MDR_1C_v5 extends MDR_1C {
     }
 
     byte readPerPixel_byte(int x, int line, long position) throws IOException {
-        final ImageInputStream stream = getStream();
         final long mdrPos = getMdrPos(x);
         final long efovIndex = getEFOVIndex(x, line);
 
-        stream.seek(position + mdrPos * PN + efovIndex);
-
-        return stream.readByte();
+        return getRecord().get(toIndex(position + mdrPos * PN + efovIndex));
     }
 
     static HashMap<String, ReadProxy> getReadProxies() {
@@ -21,6 +21,7 @@
 package com.bc.fiduceo.reader.iasi;
 
 import com.bc.fiduceo.util.NetCDFUtils;
+import ucar.ma2.Array;
 
 import java.io.IOException;
 
@@ -42,6 +43,21 @@ abstract class ReadProxy {
 
     abstract Object read(int x, int line, MDR_1C mdr_1C) throws IOException;
 
+    /**
+     * Reads the value at the pixel location and stores it into the array at the flat index passed in. The typed
+     * proxies override this to avoid boxing the value.
+     *
+     * @param x       the x location
+     * @param line    the line
+     * @param mdr_1C  the record containing the line
+     * @param array   the target array, of the data type of this proxy
+     * @param index   the flat index into the target array
+     * @throws IOException on disk access failures
+     */
+    void read(int x, int line, MDR_1C mdr_1C, Array array, int index) throws IOException {
+        array.setObject(index, read(x, line, mdr_1C));
+    }
+
     double getScaleFactor() {
         return scaleFactor;
     }
@@ -58,6 +74,11 @@ abstract class ReadProxy {
         Object read(int x, int line, MDR_1C mdr_1C) throws IOException {
             return mdr_1C.readPerScan_byte(offset);
         }
+
+        @Override
+        void read(int x, int line, MDR_1C mdr_1C, Array array, int index) throws IOException {
+            array.setByte(index, mdr_1C.readPerScan_byte(offset));
+        }
     }
 
     static class intPerScan extends ReadProxy {
@@ -72,6 +93,11 @@ abstract class ReadProxy {
         Object read(int x, int line, MDR_1C mdr_1C) throws IOException {
             return mdr_1C.readPerScan_int(offset);
         }
+
+        @Override
+        void read(int x, int line, MDR_1C mdr_1C, Array array, int index) throws IOException {
+            array.setInt(index, mdr_1C.readPerScan_int(offset));
+        }
     }
 
     static class vInt4PerScan extends ReadProxy {
@@ -86,6 +112,11 @@ abstract class ReadProxy {
         Object read(int x, int line, MDR_1C mdr_1C) throws IOException {
             return mdr_1C.readPerScan_vInt4(offset);
         }
+
+        @Override
+        void read(int x, int line, MDR_1C mdr_1C, Array array, int index) throws IOException {
+            array.setFloat(index, mdr_1C.readPerScan_vInt4(offset));
+        }
     }
 
     static class obtPerEVOF extends ReadProxy {
@@ -100,6 +131,11 @@ abstract class ReadProxy {
         Object read(int x, int line, MDR_1C mdr_1C) throws IOException {
             return mdr_1C.get_OBT(x, line);
         }
+
+        @Override
+        void read(int x, int line, MDR_1C mdr_1C, Array array, int index) throws IOException {
+            array.setLong(index, mdr_1C.get_OBT(x, line));
+        }
     }
 
     static class utcPerEVOF extends ReadProxy {
@@ -114,6 +150,11 @@ abstract class ReadProxy {
         Object read(int x, int line, MDR_1C mdr_1C) throws IOException {
             return mdr_1C.readPerEFOV_utc(x, offset);
         }
+
+        @Override
+        void read(int x, int line, MDR_1C mdr_1C, Array array, int index) throws IOException {
+            array.setLong(index, mdr_1C.readPerEFOV_utc(x, offset));
+        }
     }
 
     static class bytePerEVOF extends ReadProxy {
@@ -128,6 +169,11 @@ abstract class ReadProxy {
         Object read(int x, int line, MDR_1C mdr_1C) throws IOException {
             return mdr_1C.readPerEFOV_byte(x, offset);
         }
+
+        @Override
+        void read(int x, int line, MDR_1C mdr_1C, Array array, int index) throws IOException {
+            array.setByte(index, mdr_1C.readPerEFOV_byte(x, offset));
+        }
     }
 
     static class shortPerEVOF extends ReadProxy {
@@ -142,6 +188,11 @@ abstract class ReadProxy {
         Object read(int x, int line, MDR_1C mdr_1C) throws IOException {
             return mdr_1C.readPerEFOV_short(x, offset);
         }
+
+        @Override
+        void read(int x, int line, MDR_1C mdr_1C, Array array, int index) throws IOException {
+            array.setShort(index, mdr_1C.readPerEFOV_short(x, offset));
+        }
     }
 
     static class vInt4PerEVOF extends ReadProxy {
@@ -156,6 +207,11 @@ abstract class ReadProxy {
         Object read(int x, int line, MDR_1C mdr_1C) throws IOException {
             return mdr_1C.readPerEFOV_vInt4(x, offset);
         }
+
+        @Override
+        void read(int x, int line, MDR_1C mdr_1C, Array array, int index) throws IOException {
+            array.setFloat(index, mdr_1C.readPerEFOV_vInt4(x, offset));
+        }
     }
 
     static class intPerEVOF extends ReadProxy {
@@ -170,6 +226,11 @@ abstract class ReadProxy {
         Object read(int x, int line, MDR_1C mdr_1C) throws IOException {
             return mdr_1C.readPerEFOV_int(x, offset);
         }
+
+        @Override
+        void read(int x, int line, MDR_1C mdr_1C, Array array, int index) throws IOException {
+            array.setInt(index, mdr_1C.readPerEFOV_int(x, offset));
+        }
     }
 
     static class bytePerPixel extends ReadProxy {
@@ -184,6 +245,11 @@ abstract class ReadProxy {
         Object read(int x, int line, MDR_1C mdr_1C) throws IOException {
             return mdr_1C.readPerPixel_byte(x, line, offset);
         }
+
+        @Override
+        void read(int x, int line, MDR_1C mdr_1C, Array array, int index) throws IOException {
+            array.setByte(index, mdr_1C.readPerPixel_byte(x, line, offset));
+        }
     }
 
     static class bytePerPixel_fillValue extends ReadProxy {
@@ -203,6 +269,11 @@ abstract class ReadProxy {
         Object read(int x, int line, MDR_1C mdr_1C) throws IOException {
             return fillValue;
         }
+
+        @Override
+        void read(int x, int line, MDR_1C mdr_1C, Array array, int index) throws IOException {
+            array.setByte(index, fillValue);
+        }
     }
 
     static class shortPerPixel extends ReadProxy {
@@ -217,6 +288,11 @@ abstract class ReadProxy {
         Object read(int x, int line, MDR_1C mdr_1C) throws IOException {
             return mdr_1C.readPerPixel_short(x, line, offset);
         }
+
+        @Override
+        void read(int x, int line, MDR_1C mdr_1C, Array array, int index) throws IOException {
+            array.setShort(index, mdr_1C.readPerPixel_short(x, line, offset));
+        }
     }
 
     static class intPerPixel extends ReadProxy {
@@ -231,6 +307,11 @@ abstract class ReadProxy {
         Object read(int x, int line, MDR_1C mdr_1C) throws IOException {
             return mdr_1C.readPerPixel_int(x, line, offset);
         }
+
+        @Override
+        void read(int x, int line, MDR_1C mdr_1C, Array array, int index) throws IOException {
+            array.setInt(index, mdr_1C.readPerPixel_int(x, line, offset));
+        }
     }
 
     static class dualIntPerPixel extends ReadProxy {
@@ -248,6 +329,11 @@ abstract class ReadProxy {
         Object read(int x, int line, MDR_1C mdr_1C) throws IOException {
             return mdr_1C.readPerPixel_oneOfDualInt(x, line, offset, fieldOffsetInBytes);
         }
+
+        @Override
+        void read(int x, int line, MDR_1C mdr_1C, Array array, int index) throws IOException {
+            array.setInt(index, mdr_1C.readPerPixel_oneOfDualInt(x, line, offset, fieldOffsetInBytes));
+        }
     }
 
     static class shortPerPixel_fillValue extends ReadProxy {
@@ -266,6 +352,11 @@ abstract class ReadProxy {
         Object read(int x, int line, MDR_1C mdr_1C) throws IOException {
             return fillValue;
         }
+
+        @Override
+        void read(int x, int line, MDR_1C mdr_1C, Array array, int index) throws IOException {
+            array.setShort(index, fillValue);
+        }
     }
 
     static class vInt4PerEVOF_fillValue extends ReadProxy {
@@ -284,5 +375,10 @@ abstract class ReadProxy {
         Object read(int x, int line, MDR_1C mdr_1C) throws IOException {
             return fillValue;
         }
+
+        @Override
+        void read(int x, int line, MDR_1C mdr_1C, Array array, int index) throws IOException {
+            array.setFloat(index, fillValue);
+        }
     }
 }
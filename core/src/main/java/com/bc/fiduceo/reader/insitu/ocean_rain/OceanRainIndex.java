@@ -0,0 +1,299 @@
+/*
+ * Copyright (C) 2017 Brockmann Consult GmbH
+ * This code was developed for the EC project "Fidelity and Uncertainty in
+ * Climate Data Records from Earth Observations (FIDUCEO)".
+ * Grant Agreement: 638822
+ *
+ *  This program is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License as published by the Free
+ *  Software Foundation; either version 3 of the License, or (at your option)
+ *  any later version.
+ *  This program is distributed in the hope that it will be useful, but WITHOUT
+ *  ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ *  FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ *  more details.
+ *
+ *  A copy of the GNU General Public License should have been supplied along
+ *  with this program; if not, see http://www.gnu.org/licenses/
+ *
+ */
+
+package com.bc.fiduceo.reader.insitu.ocean_rain;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Columnar binary copy of the OceanRAIN ASCII file. The sidecar is written once next to the ASCII file (or to the
+ * temp directory if that location is not writable) and memory mapped on subsequent opens. Records keep the line
+ * order of the ASCII file, an additional time-sorted permutation allows to look up the records of a time range
+ * by binary search.
+ * <p>
+ * Layout: header (magic, version, source file size, source last modified, number of records, length of the source
+ * path) and the absolute source path in UTF-8, padded to a multiple of 4 bytes. The header is followed by the
+ * columns time, lat, lon, sst, sorted time and sorted line index, each with one 4 byte value per record.
+ */
+class OceanRainIndex {
+
+    static final String SIDECAR_EXTENSION = ".idx";
+
+    private static final int MAGIC = 0x4F525349;     // "ORSI"
+    private static final int VERSION = 2;
+    private static final int HEADER_SIZE = 32;
+    private static final int LINE_SIZE = 64;
+    private static final int NUM_COLUMNS = 6;
+
+    private final int numRecords;
+    private final IntBuffer time;
+    private final FloatBuffer lat;
+    private final FloatBuffer lon;
+    private final FloatBuffer sst;
+    private final IntBuffer sortedTime;
+    private final IntBuffer sortedLines;
+
+    private OceanRainIndex(ByteBuffer buffer, int dataOffset, int numRecords) {
+        this.numRecords = numRecords;
+        time = column(buffer, dataOffset, 0).asIntBuffer();
+        lat = column(buffer, dataOffset, 1).asFloatBuffer();
+        lon = column(buffer, dataOffset, 2).asFloatBuffer();
+        sst = column(buffer, dataOffset, 3).asFloatBuffer();
+        sortedTime = column(buffer, dataOffset, 4).asIntBuffer();
+        sortedLines = column(buffer, dataOffset, 5).asIntBuffer();
+    }
+
+    /**
+     * Opens the sidecar of the ASCII file passed in, converts the ASCII file if there is no valid sidecar yet.
+     *
+     * @param asciiFile the OceanRAIN ASCII file
+     * @return the index
+     * @throws IOException on disk access failures
+     */
+    static OceanRainIndex open(File asciiFile) throws IOException {
+        File sidecarFile = new File(asciiFile.getPath() + SIDECAR_EXTENSION);
+        if (!isValid(sidecarFile, asciiFile)) {
+            final File tempSidecarFile = getTempSidecarFile(asciiFile);
+            if (isValid(tempSidecarFile, asciiFile)) {
+                sidecarFile = tempSidecarFile;
+            } else {
+                try {
+                    convert(asciiFile, sidecarFile);
+                } catch (IOException e) {
+                    // archive locations are often read-only
+                    convert(asciiFile, tempSidecarFile);
+                    sidecarFile = tempSidecarFile;
+                }
+            }
+        }
+
+        return map(sidecarFile);
+    }
+
+    // the temp directory is shared by all archive directories, the name depends on the full path of the ASCII file
+    static File getTempSidecarFile(File asciiFile) {
+        final byte[] path = getSourcePath(asciiFile);
+        final String pathHash = UUID.nameUUIDFromBytes(path).toString();
+        return new File(System.getProperty("java.io.tmpdir"), asciiFile.getName() + "." + pathHash + SIDECAR_EXTENSION);
+    }
+
+    int getNumRecords() {
+        return numRecords;
+    }
+
+    Line getLine(int index) {
+        return new Line(lon.get(index), lat.get(index), time.get(index), sst.get(index));
+    }
+
+    int getTime(int index) {
+        return time.get(index);
+    }
+
+    int getMinTime() {
+        return sortedTime.get(0);
+    }
+
+    int getMaxTime() {
+        return sortedTime.get(numRecords - 1);
+    }
+
+    /**
+     * Retrieves the line indices of all records with startTime &lt;= time &lt;= stopTime, in ascending time order.
+     *
+     * @param startTime the start time, seconds since 1970
+     * @param stopTime  the stop time, seconds since 1970
+     * @return the line indices
+     */
+    int[] getLinesInTimeRange(int startTime, int stopTime) {
+        final int start = lowerBound(startTime);
+        final int end = stopTime == Integer.MAX_VALUE ? numRecords : lowerBound(stopTime + 1);
+        if (end <= start) {
+            return new int[0];
+        }
+
+        final int[] lines = new int[end - start];
+        for (int i = start; i < end; i++) {
+            lines[i - start] = sortedLines.get(i);
+        }
+        return lines;
+    }
+
+    // package access for testing only
+    static void convert(File asciiFile, File sidecarFile) throws IOException {
+        final int numRecords = (int) (asciiFile.length() / LINE_SIZE);
+        final int[] times = new int[numRecords];
+        final float[] lats = new float[numRecords];
+        final float[] lons = new float[numRecords];
+        final float[] ssts = new float[numRecords];
+
+        final byte[] lineBuffer = new byte[LINE_SIZE];
+        try (InputStream inputStream = new BufferedInputStream(new FileInputStream(asciiFile), 1024 * LINE_SIZE)) {
+            for (int i = 0; i < numRecords; i++) {
+                readFully(inputStream, lineBuffer);
+                final Line line = OceanRainInsituReader.decode(lineBuffer);
+                times[i] = line.getTime();
+                lats[i] = line.getLat();
+                lons[i] = line.getLon();
+                ssts[i] = line.getSst();
+            }
+        }
+
+        // time in the upper, line index in the lower half - records with equal time keep the file order
+        final long[] order = new long[numRecords];
+        for (int i = 0; i < numRecords; i++) {
+            order[i] = ((long) times[i] << 32) | i;
+        }
+        Arrays.sort(order);
+
+        final byte[] sourcePath = getSourcePath(asciiFile);
+        final File tempFile = File.createTempFile(sidecarFile.getName(), ".tmp", sidecarFile.getAbsoluteFile().getParentFile());
+        try {
+            try (DataOutputStream outputStream = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)))) {
+                outputStream.writeInt(MAGIC);
+                outputStream.writeInt(VERSION);
+                outputStream.writeLong(asciiFile.length());
+                outputStream.writeLong(asciiFile.lastModified());
+                outputStream.writeInt(numRecords);
+                outputStream.writeInt(sourcePath.length);
+                outputStream.write(sourcePath);
+                outputStream.write(new byte[getDataOffset(sourcePath.length) - HEADER_SIZE - sourcePath.length]);
+
+                for (final int value : times) {
+                    outputStream.writeInt(value);
+                }
+                for (final float value : lats) {
+                    outputStream.writeFloat(value);
+                }
+                for (final float value : lons) {
+                    outputStream.writeFloat(value);
+                }
+                for (final float value : ssts) {
+                    outputStream.writeFloat(value);
+                }
+                for (final long key : order) {
+                    outputStream.writeInt((int) (key >> 32));
+                }
+                for (final long key : order) {
+                    outputStream.writeInt((int) key);
+                }
+            }
+
+            // concurrent conversions replace each other with identical content
+            Files.move(tempFile.toPath(), sidecarFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tempFile.toPath());
+        }
+    }
+
+    // package access for testing only
+    static boolean isValid(File sidecarFile, File asciiFile) throws IOException {
+        if (!sidecarFile.isFile() || sidecarFile.length() < HEADER_SIZE) {
+            return false;
+        }
+
+        final byte[] sourcePath = getSourcePath(asciiFile);
+        final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE + sourcePath.length);
+        try (FileChannel channel = FileChannel.open(sidecarFile.toPath(), StandardOpenOption.READ)) {
+            while (header.hasRemaining() && channel.read(header) >= 0) {
+                // read complete header
+            }
+        }
+        if (header.hasRemaining()) {
+            return false;
+        }
+
+        final int numRecords = header.getInt(24);
+        final byte[] recordedPath = new byte[sourcePath.length];
+        header.position(HEADER_SIZE);
+        header.get(recordedPath);
+        return header.getInt(0) == MAGIC
+                && header.getInt(4) == VERSION
+                && header.getLong(8) == asciiFile.length()
+                && header.getLong(16) == asciiFile.lastModified()
+                && header.getInt(28) == sourcePath.length
+                && Arrays.equals(recordedPath, sourcePath)
+                && sidecarFile.length() == getDataOffset(sourcePath.length) + (long) NUM_COLUMNS * 4 * numRecords;
+    }
+
+    private static OceanRainIndex map(File sidecarFile) throws IOException {
+        try (FileChannel channel = FileChannel.open(sidecarFile.toPath(), StandardOpenOption.READ)) {
+            final ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            final int numRecords = buffer.getInt(24);
+            return new OceanRainIndex(buffer, getDataOffset(buffer.getInt(28)), numRecords);
+        }
+    }
+
+    private static byte[] getSourcePath(File asciiFile) {
+        return asciiFile.getAbsolutePath().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int getDataOffset(int sourcePathLength) {
+        return HEADER_SIZE + (sourcePathLength + 3) / 4 * 4;
+    }
+
+    private static void readFully(InputStream inputStream, byte[] buffer) throws IOException {
+        int offset = 0;
+        while (offset < buffer.length) {
+            final int numBytes = inputStream.read(buffer, offset, buffer.length - offset);
+            if (numBytes < 0) {
+                throw new IOException("Could not read full buffer!");
+            }
+            offset += numBytes;
+        }
+    }
+
+    private int lowerBound(int value) {
+        int low = 0;
+        int high = numRecords;
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            if (sortedTime.get(mid) < value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private ByteBuffer column(ByteBuffer buffer, int dataOffset, int columnIndex) {
+        final ByteBuffer column = buffer.duplicate();
+        column.position(dataOffset + columnIndex * 4 * numRecords);
+        column.limit(column.position() + 4 * numRecords);
+        return column.slice();
+    }
+}
@@ -26,7 +26,7 @@ import com.bc.fiduceo.core.NodeType;
 import com.bc.fiduceo.geometry.Polygon;
 import com.bc.fiduceo.location.PixelLocator;
 import com.bc.fiduceo.reader.AcquisitionInfo;
-import com.bc.fiduceo.reader.Reader;
+import com.bc.fiduceo.reader.TimeIndexedReader;
 import com.bc.fiduceo.reader.TimeLocator;
 import com.bc.fiduceo.util.NetCDFUtils;
 import com.bc.fiduceo.util.TimeUtils;
@@ -39,25 +39,22 @@ import ucar.nc2.Attribute;
 import ucar.nc2.Variable;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
-import java.nio.channels.FileChannel;
 import java.util.ArrayList;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 
 import static com.bc.fiduceo.util.NetCDFUtils.*;
 import static com.bc.fiduceo.util.TimeUtils.millisSince1978;
 
-public class OceanRainInsituReader implements Reader {
+public class OceanRainInsituReader implements TimeIndexedReader {
 
-    private static final int LINE_SIZE = 64;
     private static final String WHITESPACE_REGEXP = "\\s{1,}";  // means: one or more whitespace characters tb 2017-08-07
 
     private final HashMap<String, LineDecoder> decoder;
-    private FileInputStream inputStream;
+    private OceanRainIndex index;
     private int numLines;
-    private FileChannel channel;
     private List<Variable> variableList;
 
     OceanRainInsituReader() {
@@ -70,31 +67,22 @@ public class OceanRainInsituReader implements Reader {
 
     @Override
     public void open(File file) throws IOException {
-        inputStream = new FileInputStream(file);
-
-        channel = inputStream.getChannel();
-        final long fileSize = channel.size();
-        numLines = (int)(fileSize / LINE_SIZE);
+        index = OceanRainIndex.open(file);
+        numLines = index.getNumRecords();
     }
 
     @Override
     public void close() throws IOException {
-        if (inputStream != null) {
-            channel = null;
-            inputStream.close();
-            inputStream = null;
-        }
+        // the mapping of the index is released by the garbage collector
+        index = null;
     }
 
     @Override
     public AcquisitionInfo read() throws IOException {
         final AcquisitionInfo acquisitionInfo = new AcquisitionInfo();
 
-        Line line = readLine(0);
-        acquisitionInfo.setSensingStart(TimeUtils.create(line.getTime() * 1000L));
-
-        line = readLine(numLines - 1);
-        acquisitionInfo.setSensingStop(TimeUtils.create(line.getTime() * 1000L));
+        acquisitionInfo.setSensingStart(TimeUtils.create(index.getMinTime() * 1000L));
+        acquisitionInfo.setSensingStop(TimeUtils.create(index.getMaxTime() * 1000L));
 
         acquisitionInfo.setNodeType(NodeType.UNDEFINED);
 
@@ -155,7 +143,7 @@ public class OceanRainInsituReader implements Reader {
             }
         }
 
-        final Line line = readLine(centerY);
+        final Line line = index.getLine(centerY);
         windowArray.setObject(windowWidth * windowCenterY + windowCenterX, lineDecoder.get(line));
 
         return windowArray;
@@ -183,6 +171,13 @@ public class OceanRainInsituReader implements Reader {
         return new Dimension("product_size", 1, numLines);
     }
 
+    @Override
+    public int[] getYIndicesInTimeRange(Date startTime, Date stopTime) throws IOException {
+        final int startSeconds = (int) Math.floorDiv(startTime.getTime() + 999L, 1000L);
+        final int stopSeconds = (int) Math.floorDiv(stopTime.getTime(), 1000L);
+        return index.getLinesInTimeRange(startSeconds, stopSeconds);
+    }
+
     // package access for testing only tb 2017-08-07
     static Line decode(byte[] lineBuffer) {
         final String lineString = new String(lineBuffer);
@@ -196,17 +191,6 @@ public class OceanRainInsituReader implements Reader {
         return new Line(lon, lat, time, sst);
     }
 
-    private Line readLine(long lineNumber) throws IOException {
-        final byte[] lineBuffer = new byte[LINE_SIZE];
-        channel.position(lineNumber * LINE_SIZE);
-
-        final int numBytes = inputStream.read(lineBuffer);
-        if (numBytes != LINE_SIZE) {
-            throw new IOException("Could not read full buffer!");
-        }
-        return decode(lineBuffer);
-    }
-
     private Variable findVariable(String name) {
         ensureVariableListExists();
         for (final Variable variable : variableList) {
@@ -25,7 +25,7 @@ import com.bc.fiduceo.core.NodeType;
 import com.bc.fiduceo.geometry.Polygon;
 import com.bc.fiduceo.location.PixelLocator;
 import com.bc.fiduceo.reader.AcquisitionInfo;
-import com.bc.fiduceo.reader.Reader;
+import com.bc.fiduceo.reader.TimeIndexedReader;
 import com.bc.fiduceo.reader.TimeLocator;
 import com.bc.fiduceo.util.NetCDFUtils;
 import com.bc.fiduceo.util.TimeUtils;
@@ -39,6 +39,7 @@ import ucar.nc2.Variable;
 import java.io.File;
 import java.io.IOException;
 import java.util.Calendar;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -47,28 +48,30 @@ import static com.bc.fiduceo.util.NetCDFUtils.CF_FILL_VALUE_NAME;
 import static com.bc.fiduceo.util.TimeUtils.millisSince1978;
 import static com.bc.fiduceo.util.TimeUtils.secondsSince1978;
 
-public class SSTInsituReader implements Reader {
+public class SSTInsituReader implements TimeIndexedReader {
+
+    private static final String TIME_VARIABLE_NAME = "insitu.time";
+    private static final String MOHC_ID_VARIABLE_NAME = "insitu.mohc_id";
 
     private final Map<String, Number> fillValueMap = new HashMap<>();
+    // columns are read on first access, large files are mostly accessed in sections only
     private final Map<String, Array> arrayMap = new HashMap<>();
 
     private NetcdfFile netcdfFile;
     private String insituType;
     private List<Variable> variables;
+    private TimeIndex timeIndex;
 
     @Override
     public void open(File file) throws IOException {
         netcdfFile = NetcdfFile.open(file.getPath());
         variables = netcdfFile.getVariables();
         for (Variable variable : variables) {
-            final String shortName = variable.getShortName();
-            final Array array = variable.read();
             final Number fillValue = variable.findAttribute(CF_FILL_VALUE_NAME).getNumericValue();
-            arrayMap.put(shortName, array);
-            fillValueMap.put(shortName, fillValue);
+            fillValueMap.put(variable.getShortName(), fillValue);
         }
 
-        addIdVariableAndData();
+        addIdVariable();
 
         // @todo extract method, parse from filename if not present tb 2017-05-29
         insituType = netcdfFile.findGlobalAttribute("dataset").getStringValue();
@@ -83,7 +86,10 @@ public class SSTInsituReader implements Reader {
         variables = null;
         insituType = null;
 
-        arrayMap.clear();
+        synchronized (this) {
+            arrayMap.clear();
+            timeIndex = null;
+        }
         fillValueMap.clear();
     }
 
@@ -129,7 +135,8 @@ public class SSTInsituReader implements Reader {
 
     @Override
     public TimeLocator getTimeLocator() throws IOException {
-        return (x, y) -> millisSince1978 + ((long) getTime(y)) * 1000L;
+        final Array timeArray = getSourceArray(TIME_VARIABLE_NAME);
+        return (x, y) -> millisSince1978 + ((long) timeArray.getInt(y)) * 1000L;
     }
 
     @Override
@@ -139,7 +146,7 @@ public class SSTInsituReader implements Reader {
 
     @Override
     public Array readRaw(int centerX, int centerY, Interval interval, String variableName) throws IOException, InvalidRangeException {
-        final Array sourceArray = arrayMap.get(variableName);
+        final Array sourceArray = getSourceArray(variableName);
         final Number fillValue = fillValueMap.get(variableName);
 
         final int windowWidth = interval.getX();
@@ -158,8 +165,78 @@ public class SSTInsituReader implements Reader {
         return windowArray;
     }
 
-    public Array getSourceArray(String variableName) {
-        return arrayMap.get(variableName);
+    /**
+     * Retrieves the complete data of a variable. The data is read on first access and kept until the reader is closed.
+     *
+     * @param variableName the variable name
+     * @return the data
+     * @throws IOException on disk access failures
+     */
+    public synchronized Array getSourceArray(String variableName) throws IOException {
+        Array array = arrayMap.get(variableName);
+        if (array == null) {
+            array = readSourceArray(variableName);
+            arrayMap.put(variableName, array);
+        }
+        return array;
+    }
+
+    /**
+     * Retrieves a contiguous section of the data of a variable. The section is served from memory if the variable
+     * has already been read completely, otherwise only the section is read from the file.
+     *
+     * @param variableName the variable name
+     * @param origin       the first row
+     * @param length       the number of rows
+     * @return the data
+     * @throws IOException           on disk access failures
+     * @throws InvalidRangeException on illegal section parameters
+     */
+    public Array readSection(String variableName, int origin, int length) throws IOException, InvalidRangeException {
+        final int[] sectionOrigin = {origin};
+        final int[] sectionShape = {length};
+
+        final Array array;
+        synchronized (this) {
+            array = arrayMap.get(variableName);
+        }
+        if (array != null) {
+            return array.section(sectionOrigin, sectionShape);
+        }
+
+        if (UniqueIdVariable.VARIABLE_NAME.equals(variableName)) {
+            final Number fillValue = fillValueMap.get(MOHC_ID_VARIABLE_NAME);
+            return createIdArray(readSection(MOHC_ID_VARIABLE_NAME, origin, length), readSection(TIME_VARIABLE_NAME, origin, length), fillValue.intValue());
+        }
+
+        return findVariable(variableName).read(sectionOrigin, sectionShape);
+    }
+
+    /**
+     * Retrieves the index on the acquisition times, created on first access.
+     *
+     * @return the time index, times in seconds since 1978-01-01
+     * @throws IOException on disk access failures
+     */
+    public synchronized TimeIndex getTimeIndex() throws IOException {
+        if (timeIndex == null) {
+            timeIndex = TimeIndex.create((int[]) getSourceArray(TIME_VARIABLE_NAME).getStorage());
+        }
+        return timeIndex;
+    }
+
+    @Override
+    public int[] getYIndicesInTimeRange(Date startTime, Date stopTime) throws IOException {
+        // the records have full second resolution, round the limits inwards
+        final long minTime = Math.floorDiv(startTime.getTime() - millisSince1978 + 999L, 1000L);
+        final long maxTime = Math.floorDiv(stopTime.getTime() - millisSince1978, 1000L);
+        if (maxTime < Integer.MIN_VALUE || minTime > Integer.MAX_VALUE) {
+            return new int[0];
+        }
+
+        final int minTimeInt = (int) Math.max(minTime, Integer.MIN_VALUE);
+        final int maxTimeInt = (int) Math.min(maxTime, Integer.MAX_VALUE);
+        return getTimeIndex().getRows(minTimeInt, maxTimeInt);
     }
 
     @Override
@@ -169,8 +246,8 @@ public class SSTInsituReader implements Reader {
 
     @Override
     public ArrayInt.D2 readAcquisitionTime(int x, int y, Interval interval) throws IOException, InvalidRangeException {
-        final Array acquisitionTime_1978 = readRaw(x, y, interval, "insitu.time");
-        final int fillValue = fillValueMap.get("insitu.time").intValue();
+        final Array acquisitionTime_1978 = readRaw(x, y, interval, TIME_VARIABLE_NAME);
+        final int fillValue = fillValueMap.get(TIME_VARIABLE_NAME).intValue();
         final int targetFillValue = NetCDFUtils.getDefaultFillValue(int.class).intValue();
         final Array acquisitionTime_1970 = Array.factory(acquisitionTime_1978.getDataType(), acquisitionTime_1978.getShape());
         for (int i = 0; i < acquisitionTime_1978.getSize(); i++) {
@@ -202,24 +279,19 @@ public class SSTInsituReader implements Reader {
      * @param y the y index
      * @return the time in seconds since 1978-01-01
      */
-    int getTime(int y) {
+    int getTime(int y) throws IOException {
         // package access for testing only tb 2016-10-31
-        return arrayMap.get("insitu.time").getInt(y);
+        return getSourceArray(TIME_VARIABLE_NAME).getInt(y);
     }
 
     int getNumObservations() {
         return NetCDFUtils.getDimensionLength("record", netcdfFile);
     }
 
-    private void extractSensingTimes(AcquisitionInfo info) {
-        final Array timeArray = arrayMap.get("insitu.time");
-        final int[] ints = (int[]) timeArray.getStorage();
-        int min = Integer.MAX_VALUE;
-        int max = Integer.MIN_VALUE;
-        for (int anInt : ints) {
-            min = Math.min(anInt, min);
-            max = Math.max(anInt, max);
-        }
+    private void extractSensingTimes(AcquisitionInfo info) throws IOException {
+        final TimeIndex index = getTimeIndex();
+        final int min = index.getMinTime();
+        final int max = index.getMaxTime();
         final Calendar utcCalendar = TimeUtils.getUTCCalendar();
 
         utcCalendar.setTimeInMillis(millisSince1978 + (long) min * 1000);
@@ -229,15 +301,30 @@ public class SSTInsituReader implements Reader {
         info.setSensingStop(utcCalendar.getTime());
     }
 
-    private void addIdVariableAndData() {
+    private void addIdVariable() {
         final UniqueIdVariable uniqueIdVariable = new UniqueIdVariable();
         variables.add(uniqueIdVariable);
 
-        final Number fillValue = fillValueMap.get("insitu.mohc_id");
+        final Number fillValue = fillValueMap.get(MOHC_ID_VARIABLE_NAME);
         fillValueMap.put(uniqueIdVariable.getShortName(), fillValue);
+    }
+
+    private Array readSourceArray(String variableName) throws IOException {
+        if (UniqueIdVariable.VARIABLE_NAME.equals(variableName)) {
+            final Number fillValue = fillValueMap.get(MOHC_ID_VARIABLE_NAME);
+            return createIdArray(getSourceArray(MOHC_ID_VARIABLE_NAME), getSourceArray(TIME_VARIABLE_NAME), fillValue.intValue());
+        }
 
-        final Array idArray = createIdArray(arrayMap.get("insitu.mohc_id"), arrayMap.get("insitu.time"), fillValue.intValue());
-        arrayMap.put(uniqueIdVariable.getShortName(), idArray);
+        return findVariable(variableName).read();
+    }
+
+    private Variable findVariable(String variableName) {
+        for (final Variable variable : variables) {
+            if (variable.getShortName().equals(variableName)) {
+                return variable;
+            }
+        }
+        throw new RuntimeException("Variable not contained in file: " + variableName);
     }
 
     static Array createIdArray(Array mohc_idArray, Array timeArray, int fillValue) {
@@ -0,0 +1,155 @@
+/*
+ * Copyright (C) 2017 Brockmann Consult GmbH
+ * This code was developed for the EC project "Fidelity and Uncertainty in
+ * Climate Data Records from Earth Observations (FIDUCEO)".
+ * Grant Agreement: 638822
+ *
+ *  This program is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License as published by the Free
+ *  Software Foundation; either version 3 of the License, or (at your option)
+ *  any later version.
+ *  This program is distributed in the hope that it will be useful, but WITHOUT
+ *  ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ *  FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ *  more details.
+ *
+ *  A copy of the GNU General Public License should have been supplied along
+ *  with this program; if not, see http://www.gnu.org/licenses/
+ *
+ */
+
+package com.bc.fiduceo.reader.insitu.sst_cci;
+
+import java.util.Arrays;
+
+/**
+ * Binary searchable index on the acquisition times of an in-situ file. The files are usually written in time order,
+ * in this case the index works directly on the time column. Otherwise a time-sorted permutation of the records is
+ * created once.
+ */
+public class TimeIndex {
+
+    private final int[] sortedTimes;
+    private final int[] sortedRows;
+
+    private TimeIndex(int[] sortedTimes, int[] sortedRows) {
+        this.sortedTimes = sortedTimes;
+        this.sortedRows = sortedRows;
+    }
+
+    /**
+     * Creates the index. The array passed in is referenced, not copied, and must not be modified afterwards.
+     *
+     * @param times the acquisition times, one per record
+     * @return the index
+     */
+    public static TimeIndex create(int[] times) {
+        if (isSorted(times)) {
+            return new TimeIndex(times, null);
+        }
+
+        // time in the upper, row in the lower half - records with equal time keep the file order
+        final long[] keys = new long[times.length];
+        for (int i = 0; i < times.length; i++) {
+            keys[i] = ((long) times[i] << 32) | i;
+        }
+        Arrays.sort(keys);
+
+        final int[] sortedTimes = new int[times.length];
+        final int[] sortedRows = new int[times.length];
+        for (int i = 0; i < keys.length; i++) {
+            sortedTimes[i] = (int) (keys[i] >> 32);
+            sortedRows[i] = (int) keys[i];
+        }
+        return new TimeIndex(sortedTimes, sortedRows);
+    }
+
+    /**
+     * @return true when the records of the file are in time order, the row ranges are contiguous then
+     */
+    public boolean isSorted() {
+        return sortedRows == null;
+    }
+
+    public int size() {
+        return sortedTimes.length;
+    }
+
+    public int getMinTime() {
+        return sortedTimes[0];
+    }
+
+    public int getMaxTime() {
+        return sortedTimes[sortedTimes.length - 1];
+    }
+
+    /**
+     * Retrieves the position of the first record with time &gt;= the value passed in, in time order.
+     *
+     * @param time the time
+     * @return the position, size() if there is none
+     */
+    public int lowerBound(int time) {
+        int low = 0;
+        int high = sortedTimes.length;
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            if (sortedTimes[mid] < time) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Retrieves the position of the first record with time &gt; the value passed in, in time order.
+     *
+     * @param time the time
+     * @return the position, size() if there is none
+     */
+    public int upperBound(int time) {
+        int low = 0;
+        int high = sortedTimes.length;
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            if (sortedTimes[mid] <= time) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Retrieves the rows of all records with minTime &lt;= time &lt;= maxTime, in time order.
+     *
+     * @param minTime the lower limit
+     * @param maxTime the upper limit
+     * @return the row indices
+     */
+    public int[] getRows(int minTime, int maxTime) {
+        final int start = lowerBound(minTime);
+        final int end = upperBound(maxTime);
+        if (end <= start) {
+            return new int[0];
+        }
+
+        final int[] rows = new int[end - start];
+        for (int i = start; i < end; i++) {
+            rows[i - start] = sortedRows == null ? i : sortedRows[i];
+        }
+        return rows;
+    }
+
+    private static boolean isSorted(int[] times) {
+        for (int i = 1; i < times.length; i++) {
+            if (times[i] < times[i - 1]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -32,7 +32,7 @@ import static com.bc.fiduceo.util.NetCDFUtils.CF_LONG_NAME;
 
 class UniqueIdVariable extends VariablePrototype {
 
-    private static final String VARIABLE_NAME = "insitu.id";
+    static final String VARIABLE_NAME = "insitu.id";
 
     @Override
     public String getFullName() {
@@ -65,6 +65,9 @@ class MxD06_Reader implements Reader {
 
     @Override
     public void close() throws IOException {
+        if (arrayCache != null) {
+            arrayCache.release();
+        }
         if (netcdfFile != null) {
             netcdfFile.close();
             netcdfFile = null;
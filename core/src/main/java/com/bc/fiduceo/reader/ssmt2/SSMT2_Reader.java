@@ -86,6 +86,9 @@ class SSMT2_Reader implements Reader {
 
     @Override
     public void close() throws IOException {
+        if (arrayCache != null) {
+            arrayCache.release();
+        }
         needVariablesInitialisation = true;
         readersMap = null;
         variablesList = null;
@@ -124,7 +127,7 @@ class SSMT2_Reader implements Reader {
     }
 
     @Override
-    public PixelLocator getPixelLocator() throws IOException {
+    public synchronized PixelLocator getPixelLocator() throws IOException {
         if (pixelLocator == null) {
             final ArrayFloat lonStorage = (ArrayFloat) arrayCache.get("lon");
             final ArrayFloat latStorage = (ArrayFloat) arrayCache.get("lat");
@@ -20,29 +20,22 @@ import java.util.ArrayList;
  */
 public class SnapAvoidCodeDuplicationClass_SwathPixelLocator implements PixelLocator {
 
-    private final GeoPos internalUseGeoPos;
     private final GeoCoding gc;
     private final int width;
     private final int height;
-    private final Point2D.Double internalUsePoint;
-    private BestApproximations bestApproximations;
-    private PixelPos internalUsePixelPos;
+    private final GeoApproximation[] approximations;
 
     public SnapAvoidCodeDuplicationClass_SwathPixelLocator(Array lonArray, Array latArray, int width, int height) {
         this.width = width;
         this.height = height;
         PlanarImage lonImg = getPlanarImage(lonArray, width, height);
         PlanarImage latImg = getPlanarImage(latArray, width, height);
-        GeoApproximation[] approximations = GeoApproximation.createApproximations(lonImg, latImg, null, 0.1);
-        bestApproximations = new BestApproximations(approximations);
+        approximations = GeoApproximation.createApproximations(lonImg, latImg, null, 0.1);
         final float[] lats = (float[]) latArray.getStorage();
         final float[] lons = (float[]) lonArray.getStorage();
         final TiePointGrid latGrid = new TiePointGrid("lat", width, height, 0.5, 0.5, 1.0, 1.0, lats);
         final TiePointGrid lonGrid = new TiePointGrid("lon", width, height, 0.5, 0.5, 1.0, 1.0, lons);
         gc = new TiePointGeoCoding(latGrid, lonGrid);
-        internalUseGeoPos = new GeoPos();
-        internalUsePixelPos = new PixelPos();
-        internalUsePoint = new Point2D.Double();
     }
 
     protected static PlanarImage getPlanarImage(Array data, int width, int height) {
@@ -54,14 +47,16 @@ public class SnapAvoidCodeDuplicationClass_SwathPixelLocator implements PixelLoc
 
     @Override
     public Point2D getGeoLocation(double x, double y, Point2D g) {
-        internalUsePixelPos.setLocation(x, y);
-        internalUseGeoPos.setInvalid();
-        gc.getGeoPos(internalUsePixelPos, internalUseGeoPos);
-        if (internalUseGeoPos.isValid()) {
+        // no scratch objects in fields, the locator keeps no per-call state
+        final PixelPos pixelPos = new PixelPos(x, y);
+        final GeoPos geoPos = new GeoPos();
+        geoPos.setInvalid();
+        gc.getGeoPos(pixelPos, geoPos);
+        if (geoPos.isValid()) {
             if (g == null) {
                 g = new Point2D.Double();
             }
-            g.setLocation(internalUseGeoPos.getLon(), internalUseGeoPos.getLat());
+            g.setLocation(geoPos.getLon(), geoPos.getLat());
             return g;
         }
         return null;
@@ -69,6 +64,7 @@ public class SnapAvoidCodeDuplicationClass_SwathPixelLocator implements PixelLoc
 
     @Override
     public Point2D[] getPixelLocation(double lon, double lat) {
+        final BestApproximations bestApproximations = new BestApproximations(approximations);
         bestApproximations.findFor(lon, lat);
         if (!bestApproximations.hasApproximations()) {
             return new Point2D[0];
@@ -76,10 +72,10 @@ public class SnapAvoidCodeDuplicationClass_SwathPixelLocator implements PixelLoc
         final ArrayList<Point2D> pipos = new ArrayList<>();
         final ArrayList<GeoApproximation> theBest = bestApproximations.getTheBest();
         for (GeoApproximation a : theBest) {
-            internalUsePoint.setLocation(lon, lat);
-            a.g2p(internalUsePoint);
-            if (isValid(internalUsePoint)) {
-                pipos.add(new Point2D.Double(internalUsePoint.getX(), internalUsePoint.getY()));
+            final Point2D.Double point = new Point2D.Double(lon, lat);
+            a.g2p(point);
+            if (isValid(point)) {
+                pipos.add(point);
             }
         }
         return pipos.toArray(new Point2D[0]);
@@ -20,10 +20,20 @@
 
 package com.bc.fiduceo.core;
 
+import com.bc.fiduceo.geometry.Geometry;
+import com.bc.fiduceo.geometry.GeometryFactory;
+import com.bc.fiduceo.geometry.TimeAxis;
+import com.google.common.geometry.S2LatLngRect;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
 
 public class SatelliteObservationTest {
 
@@ -50,4 +60,89 @@ public class SatelliteObservationTest {
         observation.setVersion(version_2);
         assertEquals(version_2, observation.getVersion());
     }
+
+    @Test
+    public void testGeoBoundsDecoder_calledOnceOnFirstAccess() {
+        final Geometry geometry = mock(Geometry.class);
+        final AtomicInteger calls = new AtomicInteger();
+
+        observation.setGeoBoundsDecoder(() -> {
+            calls.incrementAndGet();
+            return geometry;
+        });
+        assertEquals(0, calls.get());
+
+        assertSame(geometry, observation.getGeoBounds());
+        assertSame(geometry, observation.getGeoBounds());
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    public void testGeoBoundsDecoder_replacedBySetter() {
+        final Geometry geometry = mock(Geometry.class);
+
+        observation.setGeoBoundsDecoder(() -> mock(Geometry.class));
+        observation.setGeoBounds(geometry);
+        assertSame(geometry, observation.getGeoBounds());
+
+        observation.setGeoBounds(null);
+        assertNull(observation.getGeoBounds());
+    }
+
+    @Test
+    public void testTimeAxesDecoder_calledOnceOnFirstAccess() {
+        final TimeAxis[] timeAxes = {mock(TimeAxis.class)};
+        final AtomicInteger calls = new AtomicInteger();
+
+        observation.setTimeAxesDecoder(() -> {
+            calls.incrementAndGet();
+            return timeAxes;
+        });
+        assertEquals(0, calls.get());
+
+        assertSame(timeAxes, observation.getTimeAxes());
+        assertSame(timeAxes, observation.getTimeAxes());
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    public void testGetBoundingRects_segmented() {
+        final GeometryFactory geometryFactory = new GeometryFactory(GeometryFactory.Type.S2);
+        final Geometry[] geometries = {
+                geometryFactory.parse("POLYGON((2 -2, 4 -2, 4 1, 2 1, 2 -2))"),
+                geometryFactory.parse("POLYGON((2 1, 4 1, 4 4, 2 4, 2 1))")
+        };
+        observation.setGeoBounds(geometryFactory.createGeometryCollection(geometries));
+
+        final S2LatLngRect[] boundingRects = observation.getBoundingRects();
+        assertEquals(2, boundingRects.length);
+        assertEquals(-2.0, boundingRects[0].latLo().degrees(), 1e-3);
+        assertEquals(1.0, boundingRects[0].latHi().degrees(), 1e-3);
+        assertEquals(1.0, boundingRects[1].latLo().degrees(), 1e-3);
+        assertEquals(4.0, boundingRects[1].latHi().degrees(), 1e-3);
+        assertEquals(2.0, boundingRects[1].lngLo().degrees(), 1e-8);
+        assertEquals(4.0, boundingRects[1].lngHi().degrees(), 1e-8);
+
+        assertSame(boundingRects, observation.getBoundingRects());
+    }
+
+    @Test
+    public void testGetBoundingRects_resetWithGeoBounds() {
+        final GeometryFactory geometryFactory = new GeometryFactory(GeometryFactory.Type.S2);
+        observation.setGeoBounds(geometryFactory.parse("POLYGON((2 1, 4 1, 4 4, 2 4, 2 1))"));
+        final S2LatLngRect[] boundingRects = observation.getBoundingRects();
+        assertEquals(1, boundingRects.length);
+
+        observation.setGeoBoundsDecoder(() -> geometryFactory.parse("POLYGON((12 1, 14 1, 14 4, 12 4, 12 1))"));
+        final S2LatLngRect[] decodedRects = observation.getBoundingRects();
+        assertEquals(1, decodedRects.length);
+        assertEquals(12.0, decodedRects[0].lngLo().degrees(), 1e-8);
+    }
+
+    @Test
+    public void testGetBoundingRects_noGeoBounds() {
+        final S2LatLngRect[] boundingRects = observation.getBoundingRects();
+        assertEquals(1, boundingRects.length);
+        assertTrue(boundingRects[0].isEmpty());
+    }
 }
@@ -29,6 +29,8 @@ import java.io.IOException;
 import java.util.Map;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 public class SystemConfigTest {
@@ -93,6 +95,10 @@ public class SystemConfigTest {
 
         assertEquals("S2", systemConfig.getGeometryLibraryType());
         assertEquals(8, systemConfig.getReaderCacheSize());
+        assertEquals(1, systemConfig.getWorkerThreads());
+        assertEquals(0, systemConfig.getArrayCacheSize());
+        assertEquals(0, systemConfig.getArrayCacheTileHeight());
+        assertFalse(systemConfig.isObservationCatalogueEnabled());
     }
 
     @Test
@@ -106,4 +112,42 @@ public class SystemConfigTest {
 
         assertEquals(32, systemConfig.getReaderCacheSize());
     }
+
+    @Test
+    public void testWorkerThreads_FromFile() throws Exception {
+        final String useCaseXml = "<system-config>" +
+                "    <worker-threads>24</worker-threads>" +
+                "</system-config>";
+        final ByteArrayInputStream inputStream = new ByteArrayInputStream(useCaseXml.getBytes());
+
+        final SystemConfig systemConfig = SystemConfig.load(inputStream);
+
+        assertEquals(24, systemConfig.getWorkerThreads());
+    }
+
+    @Test
+    public void testArrayCache_FromFile() throws Exception {
+        final String useCaseXml = "<system-config>" +
+                "    <array-cache-size>2048</array-cache-size>" +
+                "    <array-cache-tile-height>512</array-cache-tile-height>" +
+                "</system-config>";
+        final ByteArrayInputStream inputStream = new ByteArrayInputStream(useCaseXml.getBytes());
+
+        final SystemConfig systemConfig = SystemConfig.load(inputStream);
+
+        assertEquals(2048, systemConfig.getArrayCacheSize());
+        assertEquals(512, systemConfig.getArrayCacheTileHeight());
+    }
+
+    @Test
+    public void testObservationCatalogue_FromFile() throws Exception {
+        final String useCaseXml = "<system-config>" +
+                "    <observation-catalogue>true</observation-catalogue>" +
+                "</system-config>";
+        final ByteArrayInputStream inputStream = new ByteArrayInputStream(useCaseXml.getBytes());
+
+        final SystemConfig systemConfig = SystemConfig.load(inputStream);
+
+        assertTrue(systemConfig.isObservationCatalogueEnabled());
+    }
 }
@@ -21,12 +21,21 @@
 package com.bc.fiduceo.db;
 
 
+import com.bc.fiduceo.geometry.Geometry;
+import com.bc.fiduceo.geometry.GeometryFactory;
 import com.bc.fiduceo.util.TimeUtils;
 import org.junit.Test;
 
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
 import java.util.Date;
 
 import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
 
 public class AbstractDriverTest {
 
@@ -45,7 +54,7 @@ public class AbstractDriverTest {
 
         final String sql = AbstractDriver.createSql(parameter);
 
-        assertEquals("SELECT * FROM SATELLITE_OBSERVATION obs INNER JOIN SENSOR sen ON obs.SensorId = sen.ID INNER JOIN TIMEAXIS axis ON obs.ID = axis.ObservationId WHERE obs.stopDate >= '2011-03-13 07:06:40.0'", sql);
+        assertEquals("SELECT * FROM SATELLITE_OBSERVATION obs INNER JOIN SENSOR sen ON obs.SensorId = sen.ID INNER JOIN TIMEAXIS axis ON obs.ID = axis.ObservationId WHERE obs.stopDate >= ?", sql);
     }
 
     @Test
@@ -55,7 +64,7 @@ public class AbstractDriverTest {
 
         final String sql = AbstractDriver.createSql(parameter);
 
-        assertEquals("SELECT * FROM SATELLITE_OBSERVATION obs INNER JOIN SENSOR sen ON obs.SensorId = sen.ID INNER JOIN TIMEAXIS axis ON obs.ID = axis.ObservationId WHERE obs.startDate <= '2008-05-05 15:06:40.0'", sql);
+        assertEquals("SELECT * FROM SATELLITE_OBSERVATION obs INNER JOIN SENSOR sen ON obs.SensorId = sen.ID INNER JOIN TIMEAXIS axis ON obs.ID = axis.ObservationId WHERE obs.startDate <= ?", sql);
     }
 
     @Test
@@ -66,7 +75,7 @@ public class AbstractDriverTest {
 
         final String sql = AbstractDriver.createSql(parameter);
 
-        assertEquals("SELECT * FROM SATELLITE_OBSERVATION obs INNER JOIN SENSOR sen ON obs.SensorId = sen.ID INNER JOIN TIMEAXIS axis ON obs.ID = axis.ObservationId WHERE obs.stopDate >= '2011-10-30 18:40:00.0' AND obs.startDate <= '2012-02-23 12:26:40.0'", sql);
+        assertEquals("SELECT * FROM SATELLITE_OBSERVATION obs INNER JOIN SENSOR sen ON obs.SensorId = sen.ID INNER JOIN TIMEAXIS axis ON obs.ID = axis.ObservationId WHERE obs.stopDate >= ? AND obs.startDate <= ?", sql);
     }
 
     @Test
@@ -76,7 +85,7 @@ public class AbstractDriverTest {
 
         final String sql = AbstractDriver.createSql(parameter);
 
-        assertEquals("SELECT * FROM SATELLITE_OBSERVATION obs INNER JOIN SENSOR sen ON obs.SensorId = sen.ID INNER JOIN TIMEAXIS axis ON obs.ID = axis.ObservationId WHERE sen.Name = 'fieberthermometer'", sql);
+        assertEquals("SELECT * FROM SATELLITE_OBSERVATION obs INNER JOIN SENSOR sen ON obs.SensorId = sen.ID INNER JOIN TIMEAXIS axis ON obs.ID = axis.ObservationId WHERE sen.Name = ?", sql);
     }
 
     @Test
@@ -87,7 +96,7 @@ public class AbstractDriverTest {
 
         final String sql = AbstractDriver.createSql(parameter);
 
-        assertEquals("SELECT * FROM SATELLITE_OBSERVATION obs INNER JOIN SENSOR sen ON obs.SensorId = sen.ID INNER JOIN TIMEAXIS axis ON obs.ID = axis.ObservationId WHERE obs.stopDate >= '2009-08-11 14:13:20.0' AND sen.Name = 'sensing'", sql);
+        assertEquals("SELECT * FROM SATELLITE_OBSERVATION obs INNER JOIN SENSOR sen ON obs.SensorId = sen.ID INNER JOIN TIMEAXIS axis ON obs.ID = axis.ObservationId WHERE obs.stopDate >= ? AND sen.Name = ?", sql);
     }
 
     @Test
@@ -97,7 +106,7 @@ public class AbstractDriverTest {
 
         final String sql = AbstractDriver.createSql(parameter);
 
-        assertEquals("SELECT * FROM SATELLITE_OBSERVATION obs INNER JOIN SENSOR sen ON obs.SensorId = sen.ID INNER JOIN TIMEAXIS axis ON obs.ID = axis.ObservationId WHERE obs.DataFile = '/whereever/i/lay/my/hat'", sql);
+        assertEquals("SELECT * FROM SATELLITE_OBSERVATION obs INNER JOIN SENSOR sen ON obs.SensorId = sen.ID INNER JOIN TIMEAXIS axis ON obs.ID = axis.ObservationId WHERE obs.DataFile = ?", sql);
     }
 
     @Test
@@ -107,6 +116,112 @@ public class AbstractDriverTest {
 
         final String sql = AbstractDriver.createSql(parameter);
 
-        assertEquals("SELECT * FROM SATELLITE_OBSERVATION obs INNER JOIN SENSOR sen ON obs.SensorId = sen.ID INNER JOIN TIMEAXIS axis ON obs.ID = axis.ObservationId WHERE obs.Version = 'v2.0'", sql);
+        assertEquals("SELECT * FROM SATELLITE_OBSERVATION obs INNER JOIN SENSOR sen ON obs.SensorId = sen.ID INNER JOIN TIMEAXIS axis ON obs.ID = axis.ObservationId WHERE obs.Version = ?", sql);
+    }
+
+    @Test
+    public void testCreateSql_versionAndGeometry() {
+        final GeometryFactory geometryFactory = new GeometryFactory(GeometryFactory.Type.S2);
+        final Geometry geometry = geometryFactory.parse("POLYGON((10 -5, 12 -5, 12 3, 10 3, 10 -5))");
+
+        final QueryParameter parameter = new QueryParameter();
+        parameter.setVersion("v1.1");
+        parameter.setGeometry(geometry);
+
+        final String sql = AbstractDriver.createSql(parameter);
+
+        final StringBuilder cellRanges = new StringBuilder();
+        for (int i = 0; i < CellCovering.MAX_CELLS; i++) {
+            if (i > 0) {
+                cellRanges.append(" OR ");
+            }
+            cellRanges.append("(cov.RangeMin <= ? AND cov.RangeMax >= ?)");
+        }
+        assertEquals("SELECT * FROM SATELLITE_OBSERVATION obs INNER JOIN SENSOR sen ON obs.SensorId = sen.ID INNER JOIN TIMEAXIS axis ON obs.ID = axis.ObservationId WHERE obs.Version = ? AND " +
+                "(obs.MinLat IS NULL OR (obs.MaxLat >= ? AND obs.MinLat <= ? AND obs.MaxLon >= ? AND obs.MinLon <= ? AND " +
+                "(obs.ID IN (SELECT cov.ObservationId FROM CELL_COVERING cov WHERE " + cellRanges + ") OR " +
+                "obs.ID IN (SELECT uncov.ID FROM SATELLITE_OBSERVATION uncov LEFT JOIN CELL_COVERING cov ON cov.ObservationId = uncov.ID WHERE cov.ObservationId IS NULL))))", sql);
+    }
+
+    @Test
+    public void testCreateSql_sameStatementForDifferentGeometries() {
+        final GeometryFactory geometryFactory = new GeometryFactory(GeometryFactory.Type.S2);
+        final Geometry smallGeometry = geometryFactory.parse("POLYGON((10 -5, 10.001 -5, 10.001 -4.999, 10 -4.999, 10 -5))");
+        final Geometry largeGeometry = geometryFactory.parse("POLYGON((-170 -60, 170 -60, 170 60, -170 60, -170 -60))");
+
+        final QueryParameter parameter = new QueryParameter();
+        parameter.setGeometry(smallGeometry);
+        final String smallSql = AbstractDriver.createSql(parameter);
+
+        parameter.setGeometry(largeGeometry);
+        final String largeSql = AbstractDriver.createSql(parameter);
+
+        assertEquals(smallSql, largeSql);
+    }
+
+    @Test
+    public void testSetSqlParameters_noParameter() throws SQLException {
+        final PreparedStatement preparedStatement = mock(PreparedStatement.class);
+
+        AbstractDriver.setSqlParameters(preparedStatement, null);
+
+        verifyNoMoreInteractions(preparedStatement);
+    }
+
+    @Test
+    public void testSetSqlParameters_startAndStopTime() throws SQLException {
+        final QueryParameter parameter = new QueryParameter();
+        parameter.setStartTime(TimeUtils.create(1320000000000L));
+        parameter.setStopTime(TimeUtils.create(1330000000000L));
+        final PreparedStatement preparedStatement = mock(PreparedStatement.class);
+
+        AbstractDriver.setSqlParameters(preparedStatement, parameter);
+
+        verify(preparedStatement, times(1)).setTimestamp(1, new Timestamp(1320000000000L));
+        verify(preparedStatement, times(1)).setTimestamp(2, new Timestamp(1330000000000L));
+        verifyNoMoreInteractions(preparedStatement);
+    }
+
+    @Test
+    public void testSetSqlParameters_sensorNameAndStartTime() throws SQLException {
+        final QueryParameter parameter = new QueryParameter();
+        parameter.setSensorName("sensing");
+        parameter.setStartTime(TimeUtils.create(1250000000000L));
+        final PreparedStatement preparedStatement = mock(PreparedStatement.class);
+
+        AbstractDriver.setSqlParameters(preparedStatement, parameter);
+
+        verify(preparedStatement, times(1)).setTimestamp(1, new Timestamp(1250000000000L));
+        verify(preparedStatement, times(1)).setString(2, "sensing");
+        verifyNoMoreInteractions(preparedStatement);
+    }
+
+    @Test
+    public void testSetSqlParameters_pathAndVersionAndGeometry() throws SQLException {
+        final GeometryFactory geometryFactory = new GeometryFactory(GeometryFactory.Type.S2);
+        final Geometry geometry = geometryFactory.parse("POLYGON((10 -5, 12 -5, 12 3, 10 3, 10 -5))");
+        final BoundingRect rect = BoundingRect.create(geometry);
+        final CellCovering covering = CellCovering.create(geometry);
+
+        final QueryParameter parameter = new QueryParameter();
+        parameter.setPath("/whereever/i/lay/my/hat");
+        parameter.setVersion("v1.1");
+        parameter.setGeometry(geometry);
+        final PreparedStatement preparedStatement = mock(PreparedStatement.class);
+
+        AbstractDriver.setSqlParameters(preparedStatement, parameter);
+
+        verify(preparedStatement, times(1)).setString(1, "/whereever/i/lay/my/hat");
+        verify(preparedStatement, times(1)).setString(2, "v1.1");
+        verify(preparedStatement, times(1)).setDouble(3, rect.minLat);
+        verify(preparedStatement, times(1)).setDouble(4, rect.maxLat);
+        verify(preparedStatement, times(1)).setDouble(5, rect.minLon);
+        verify(preparedStatement, times(1)).setDouble(6, rect.maxLon);
+        for (int i = 0; i < CellCovering.MAX_CELLS; i++) {
+            final int cell = Math.min(i, covering.size() - 1);
+            verify(preparedStatement, times(1)).setLong(7 + 2 * i, covering.rangeMax[cell]);
+            verify(preparedStatement, times(1)).setLong(8 + 2 * i, covering.rangeMin[cell]);
+        }
+        verifyNoMoreInteractions(preparedStatement);
     }
 }
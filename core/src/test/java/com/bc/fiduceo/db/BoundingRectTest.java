@@ -0,0 +1,101 @@
+/*
+ * Copyright (C) 2016 Brockmann Consult GmbH
+ * This code was developed for the EC project "Fidelity and Uncertainty in
+ * Climate Data Records from Earth Observations (FIDUCEO)".
+ * Grant Agreement: 638822
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * A copy of the GNU General Public License should have been supplied along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ *
+ */
+package com.bc.fiduceo.db;
+
+
+import com.bc.fiduceo.geometry.Geometry;
+import com.bc.fiduceo.geometry.GeometryFactory;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class BoundingRectTest {
+
+    private GeometryFactory geometryFactory;
+
+    @Before
+    public void setUp() {
+        geometryFactory = new GeometryFactory(GeometryFactory.Type.S2);
+    }
+
+    @Test
+    public void testCreate_nullGeometry() {
+        assertNull(BoundingRect.create(null));
+    }
+
+    @Test
+    public void testCreate_polygon() {
+        final Geometry polygon = geometryFactory.parse("POLYGON((10 -5, 12 -5, 12 3, 10 3, 10 -5))");
+
+        final BoundingRect rect = BoundingRect.create(polygon);
+        assertEquals(10.0, rect.minLon, 1e-8);
+        assertEquals(-5.0, rect.minLat, 1e-3);
+        assertEquals(12.0, rect.maxLon, 1e-8);
+        assertEquals(3.0, rect.maxLat, 1e-3);
+    }
+
+    @Test
+    public void testCreate_polygonCrossingAntiMeridian() {
+        final Geometry polygon = geometryFactory.parse("POLYGON((170 10, -170 10, -170 20, 170 20, 170 10))");
+
+        final BoundingRect rect = BoundingRect.create(polygon);
+        assertEquals(-180.0, rect.minLon, 1e-8);
+        assertEquals(10.0, rect.minLat, 1e-8);
+        assertEquals(180.0, rect.maxLon, 1e-8);
+        assertEquals(20.0, rect.maxLat, 0.5);   // the great circle edge bulges polewards
+    }
+
+    @Test
+    public void testCreate_polygonCoveringPole() {
+        final Geometry polygon = geometryFactory.parse("POLYGON((0 80, 90 80, 180 80, -90 80, 0 80))");
+
+        final BoundingRect rect = BoundingRect.create(polygon);
+        assertEquals(-180.0, rect.minLon, 1e-8);
+        assertEquals(180.0, rect.maxLon, 1e-8);
+        assertEquals(90.0, rect.maxLat, 1e-8);
+    }
+
+    @Test
+    public void testCreate_geometryCollection() {
+        final Geometry first = geometryFactory.parse("POLYGON((10 -5, 12 -5, 12 3, 10 3, 10 -5))");
+        final Geometry second = geometryFactory.parse("POLYGON((20 6, 22 6, 22 8, 20 8, 20 6))");
+        final Geometry collection = geometryFactory.createGeometryCollection(new Geometry[]{first, second});
+
+        final BoundingRect rect = BoundingRect.create(collection);
+        assertEquals(10.0, rect.minLon, 1e-8);
+        assertEquals(-5.0, rect.minLat, 1e-3);
+        assertEquals(22.0, rect.maxLon, 1e-8);
+        assertEquals(8.0, rect.maxLat, 1e-2);
+    }
+
+    @Test
+    public void testCreate_jtsPolygon() {
+        final GeometryFactory jtsFactory = new GeometryFactory(GeometryFactory.Type.JTS);
+        final Geometry polygon = jtsFactory.parse("POLYGON((10 -5, 12 -5, 12 3, 10 3, 10 -5))");
+
+        final BoundingRect rect = BoundingRect.create(polygon);
+        assertEquals(10.0, rect.minLon, 1e-8);
+        assertEquals(-5.0, rect.minLat, 1e-8);
+        assertEquals(12.0, rect.maxLon, 1e-8);
+        assertEquals(3.0, rect.maxLat, 1e-8);
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright (C) 2016 Brockmann Consult GmbH
+ * This code was developed for the EC project "Fidelity and Uncertainty in
+ * Climate Data Records from Earth Observations (FIDUCEO)".
+ * Grant Agreement: 638822
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * A copy of the GNU General Public License should have been supplied along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ *
+ */
+
+package com.bc.fiduceo.db;
+
+
+import com.bc.fiduceo.geometry.Geometry;
+import com.bc.fiduceo.geometry.GeometryFactory;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class CellCoveringTest {
+
+    private GeometryFactory geometryFactory;
+
+    @Before
+    public void setUp() {
+        geometryFactory = new GeometryFactory(GeometryFactory.Type.S2);
+    }
+
+    @Test
+    public void testCreate_nullGeometry() {
+        assertNull(CellCovering.create(null));
+    }
+
+    @Test
+    public void testCreate_polygon() {
+        final Geometry polygon = geometryFactory.parse("POLYGON((10 -5, 12 -5, 12 3, 10 3, 10 -5))");
+
+        final CellCovering covering = CellCovering.create(polygon);
+        assertTrue(covering.size() > 0);
+        assertTrue(covering.size() <= CellCovering.MAX_CELLS);
+        for (int i = 0; i < covering.size(); i++) {
+            assertTrue(covering.rangeMin[i] <= covering.rangeMax[i]);
+        }
+    }
+
+    @Test
+    public void testCreate_geometryCollection_limitedToMaxCells() {
+        final Geometry[] polygons = new Geometry[6];
+        for (int i = 0; i < polygons.length; i++) {
+            final int lon = -170 + 60 * i;
+            polygons[i] = geometryFactory.parse("POLYGON((" + lon + " -5, " + (lon + 2) + " -5, " + (lon + 2) + " 3, " + lon + " 3, " + lon + " -5))");
+        }
+        final Geometry collection = geometryFactory.createGeometryCollection(polygons);
+
+        final CellCovering covering = CellCovering.create(collection);
+        assertTrue(covering.size() > 0);
+        assertTrue(covering.size() <= CellCovering.MAX_CELLS);
+    }
+
+    @Test
+    public void testIntersection_overlappingAndDisjoint() {
+        final CellCovering covering = CellCovering.create(geometryFactory.parse("POLYGON((10 -5, 12 -5, 12 3, 10 3, 10 -5))"));
+        final CellCovering overlapping = CellCovering.create(geometryFactory.parse("POLYGON((11 0, 14 0, 14 2, 11 2, 11 0))"));
+        final CellCovering disjoint = CellCovering.create(geometryFactory.parse("POLYGON((-120 50, -118 50, -118 52, -120 52, -120 50))"));
+
+        assertTrue(intersects(covering, overlapping));
+        assertFalse(intersects(covering, disjoint));
+    }
+
+    @Test
+    public void testCreate_point() {
+        final CellCovering covering = CellCovering.create(geometryFactory.createPoint(-60.0, 45.0));
+        final CellCovering polygon = CellCovering.create(geometryFactory.parse("POLYGON((-61 44, -59 44, -59 46, -61 46, -61 44))"));
+
+        assertEquals(1, covering.size());
+        assertTrue(intersects(covering, polygon));
+    }
+
+    @Test
+    public void testToSortable_keepsUnsignedOrder() {
+        // cell IDs on faces 4 and 5 have the sign bit set
+        final long face0 = 0x1000000000000000L;
+        final long face5 = 0xb000000000000000L;
+
+        assertTrue(face5 < face0);
+        assertTrue(CellCovering.toSortable(face0) < CellCovering.toSortable(face5));
+    }
+
+    // the range test as run by the database queries
+    private static boolean intersects(CellCovering first, CellCovering second) {
+        for (int i = 0; i < first.size(); i++) {
+            for (int k = 0; k < second.size(); k++) {
+                if (first.rangeMin[i] <= second.rangeMax[k] && first.rangeMax[i] >= second.rangeMin[k]) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -332,6 +332,58 @@ public class MongoDbDriverTest {
         assertEquals(2, coordinateValues.get(1), 1e-8);
     }
 
+    @Test
+    public void testCreateQueryDocument_geometry() {
+        final Geometry geometry = new GeometryFactory(GeometryFactory.Type.S2).parse("POLYGON((10 -5, 12 -5, 12 3, 10 3, 10 -5))");
+        final BoundingRect rect = BoundingRect.create(geometry);
+        final QueryParameter queryParameter = new QueryParameter();
+        queryParameter.setGeometry(geometry);
+
+        final Document queryDocument = MongoDbDriver.createQueryDocument(queryParameter);
+
+        final List<Document> alternatives = (List<Document>) queryDocument.get("$or");
+        assertEquals(2, alternatives.size());
+
+        final Document noRectDoc = (Document) alternatives.get(0).get("geoRect");
+        assertFalse(noRectDoc.getBoolean("$exists"));
+
+        final Document overlapDoc = alternatives.get(1);
+        assertEquals(rect.minLat, ((Document) overlapDoc.get("geoRect.maxLat")).getDouble("$gte"), 1e-8);
+        assertEquals(rect.maxLat, ((Document) overlapDoc.get("geoRect.minLat")).getDouble("$lte"), 1e-8);
+        assertEquals(rect.minLon, ((Document) overlapDoc.get("geoRect.maxLon")).getDouble("$gte"), 1e-8);
+        assertEquals(rect.maxLon, ((Document) overlapDoc.get("geoRect.minLon")).getDouble("$lte"), 1e-8);
+
+        final CellCovering covering = CellCovering.create(geometry);
+        final Document elemMatch = (Document) ((Document) overlapDoc.get("geoCells")).get("$elemMatch");
+        final List<Document> cellOverlaps = (List<Document>) elemMatch.get("$or");
+        assertEquals(covering.size(), cellOverlaps.size());
+        assertEquals(covering.rangeMax[0], ((Document) cellOverlaps.get(0).get("min")).getLong("$lte").longValue());
+        assertEquals(covering.rangeMin[0], ((Document) cellOverlaps.get(0).get("max")).getLong("$gte").longValue());
+    }
+
+    @Test
+    public void testConvertToDocuments_cellCovering() {
+        final Geometry geometry = new GeometryFactory(GeometryFactory.Type.S2).parse("POLYGON((10 -5, 12 -5, 12 3, 10 3, 10 -5))");
+        final CellCovering covering = CellCovering.create(geometry);
+
+        final List<Document> documents = MongoDbDriver.convertToDocuments(covering);
+        assertEquals(covering.size(), documents.size());
+        for (int i = 0; i < documents.size(); i++) {
+            assertEquals(covering.rangeMin[i], documents.get(i).getLong("min").longValue());
+            assertEquals(covering.rangeMax[i], documents.get(i).getLong("max").longValue());
+        }
+    }
+
+    @Test
+    public void testConvertToDocument_boundingRect() {
+        final Document document = MongoDbDriver.convertToDocument(new BoundingRect(-12.5, 3.0, 17.25, 9.5));
+
+        assertEquals(3.0, document.getDouble("minLat"), 1e-8);
+        assertEquals(9.5, document.getDouble("maxLat"), 1e-8);
+        assertEquals(-12.5, document.getDouble("minLon"), 1e-8);
+        assertEquals(17.25, document.getDouble("maxLon"), 1e-8);
+    }
+
     @Test
     public void testCreateQueryDocument() throws Exception {
         QueryParameter queryParameter = new QueryParameter();
@@ -20,12 +20,15 @@
 
 package com.bc.fiduceo.db;
 
+import com.bc.fiduceo.geometry.Geometry;
+import com.bc.fiduceo.geometry.GeometryFactory;
 import org.junit.Before;
 import org.junit.Test;
 
 import java.util.Date;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 
 public class QueryParameterTest {
 
@@ -87,4 +90,13 @@ public class QueryParameterTest {
         parameter.setPath(path_2);
         assertEquals(path_2, parameter.getPath());
     }
+
+    @Test
+    public void testSetGetGeometry() {
+        final GeometryFactory geometryFactory = new GeometryFactory(GeometryFactory.Type.S2);
+        final Geometry geometry = geometryFactory.parse("POLYGON((0 0, 2 0, 2 2, 0 2, 0 0))");
+
+        parameter.setGeometry(geometry);
+        assertSame(geometry, parameter.getGeometry());
+    }
 }
@@ -37,12 +37,22 @@ import org.junit.Before;
 import org.junit.Test;
 
 import java.io.IOException;
+import java.sql.Connection;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 public abstract class StorageTest_SatelliteObservation {
 
@@ -184,6 +194,89 @@ public abstract class StorageTest_SatelliteObservation {
         assertEquals(sensor.getName(), result.get(0).getSensor().getName());
     }
 
+    @Test
+    public void testInsertList_andGet() throws SQLException, ParseException {
+        final SatelliteObservation observation = createSatelliteObservation(new Date(10000000L), new Date(11000000L));
+
+        final SatelliteObservation secondObservation = createSatelliteObservation(new Date(20000000L), new Date(21000000L));
+        final TimeAxis timeAxis = createTimeAxis("LINESTRING(2 5, 2 6, 2 7)", new Date(), new Date());
+        secondObservation.setTimeAxes(new TimeAxis[]{secondObservation.getTimeAxes()[0], timeAxis});
+        secondObservation.setDataFilePath("the/second/path");
+
+        final SatelliteObservation thirdObservation = createSatelliteObservation(new Date(30000000L), new Date(31000000L));
+        thirdObservation.setSensor(new Sensor("the_second_one"));
+        thirdObservation.setDataFilePath("the/third/path");
+
+        storage.insert(Arrays.asList(observation, secondObservation, thirdObservation));
+
+        final QueryParameter queryParameter = new QueryParameter();
+        queryParameter.setSensorName(SENSOR_NAME);
+        List<SatelliteObservation> result = storage.get(queryParameter);
+        assertEquals(2, result.size());
+        assertEquals(1, result.get(0).getTimeAxes().length);
+        assertEquals(2, result.get(1).getTimeAxes().length);
+
+        queryParameter.setSensorName("the_second_one");
+        result = storage.get(queryParameter);
+        assertEquals(1, result.size());
+        assertEquals("the_second_one", result.get(0).getSensor().getName());
+        assertEquals("the/third/path", result.get(0).getDataFilePath().toString());
+    }
+
+    @Test
+    public void testInsertList_empty() throws SQLException {
+        storage.insert(new ArrayList<>());
+
+        final List<SatelliteObservation> result = storage.get();
+        assertEquals(0, result.size());
+    }
+
+    @Test
+    public void testInsertList_invalidObservation_nothingStored() throws SQLException, ParseException {
+        final SatelliteObservation observation = createSatelliteObservation();
+        final SatelliteObservation invalidObservation = createSatelliteObservation();
+        invalidObservation.setSensor(null);
+
+        try {
+            storage.insert(Arrays.asList(observation, invalidObservation));
+            fail("RuntimeException expected");
+        } catch (RuntimeException expected) {
+        }
+
+        assertEquals(0, storage.get().size());
+
+        // the storage remains usable after the failed insert
+        storage.insert(observation);
+        final List<SatelliteObservation> result = storage.get();
+        assertEquals(1, result.size());
+        assertEquals(SENSOR_NAME, result.get(0).getSensor().getName());
+    }
+
+    @Test
+    public void testGet_concurrentQueries() throws Exception {
+        final SatelliteObservation observation = createSatelliteObservation();
+        final SatelliteObservation otherObservation = createSatelliteObservation();
+        otherObservation.setDataFilePath("the/other/path");
+        storage.insert(Arrays.asList(observation, otherObservation));
+
+        final QueryParameter queryParameter = new QueryParameter();
+        queryParameter.setSensorName(SENSOR_NAME);
+
+        final ExecutorService executorService = Executors.newFixedThreadPool(4);
+        try {
+            final List<Future<List<SatelliteObservation>>> futures = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                futures.add(executorService.submit(() -> storage.get(queryParameter)));
+            }
+
+            for (final Future<List<SatelliteObservation>> future : futures) {
+                assertEquals(2, future.get().size());
+            }
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
     @Test
     public void testSearchByTime_startTime_matchObservation() throws ParseException, SQLException {
         final Date startTime = TimeUtils.create(1000000000L);
@@ -439,6 +532,30 @@ public abstract class StorageTest_SatelliteObservation {
         assertEquals(1, satelliteObservations.size());
     }
 
+    @Test
+    public void testGetDataFilePaths() throws ParseException, SQLException {
+        final SatelliteObservation observation = createSatelliteObservation();
+        storage.insert(observation);
+
+        final SatelliteObservation otherObservation = createSatelliteObservation();
+        otherObservation.setDataFilePath("the/other/path");
+        storage.insert(otherObservation);
+
+        final Set<String> dataFilePaths = storage.getDataFilePaths(SENSOR_NAME);
+        assertEquals(2, dataFilePaths.size());
+        assertTrue(dataFilePaths.contains(DATA_FILE_PATH));
+        assertTrue(dataFilePaths.contains("the/other/path"));
+    }
+
+    @Test
+    public void testGetDataFilePaths_otherSensor() throws ParseException, SQLException {
+        final SatelliteObservation observation = createSatelliteObservation();
+        storage.insert(observation);
+
+        final Set<String> dataFilePaths = storage.getDataFilePaths("strange-name");
+        assertEquals(0, dataFilePaths.size());
+    }
+
     @Test
     public void testMultipleTimeAxes() throws ParseException, SQLException {
         final SatelliteObservation observation = createSatelliteObservation();
@@ -540,6 +657,113 @@ public abstract class StorageTest_SatelliteObservation {
     }
 
 
+    @Test
+    public void testSearchByGeometry_intersecting() throws ParseException, SQLException {
+        final SatelliteObservation observation = createSatelliteObservation();
+        storage.insert(observation);
+
+        final QueryParameter parameter = new QueryParameter();
+        parameter.setGeometry(geometryFactory.parse("POLYGON((11 6, 14 6, 14 9, 11 9, 11 6))"));
+
+        final List<SatelliteObservation> result = storage.get(parameter);
+        assertEquals(1, result.size());
+    }
+
+    @Test
+    public void testSearchByGeometry_notIntersecting() throws ParseException, SQLException {
+        final SatelliteObservation observation = createSatelliteObservation();
+        storage.insert(observation);
+
+        final QueryParameter parameter = new QueryParameter();
+        parameter.setGeometry(geometryFactory.parse("POLYGON((40 -20, 42 -20, 42 -18, 40 -18, 40 -20))"));
+
+        final List<SatelliteObservation> result = storage.get(parameter);
+        assertEquals(0, result.size());
+    }
+
+    @Test
+    public void testSearchByGeometry_observationWithoutGeometry() throws ParseException, SQLException {
+        final SatelliteObservation observation = createSatelliteObservation();
+        observation.setGeoBounds(null);
+        storage.insert(observation);
+
+        final QueryParameter parameter = new QueryParameter();
+        parameter.setGeometry(geometryFactory.parse("POLYGON((40 -20, 42 -20, 42 -18, 40 -18, 40 -20))"));
+
+        final List<SatelliteObservation> result = storage.get(parameter);
+        assertEquals(1, result.size());
+    }
+
+    @Test
+    public void testSearchByGeometry_observationWithoutCellCovering() throws ParseException, SQLException {
+        final SatelliteObservation observation = createSatelliteObservation();
+        storage.insert(observation);
+        executeUpdate(dataSource, "DELETE FROM CELL_COVERING");
+
+        final QueryParameter parameter = new QueryParameter();
+        parameter.setGeometry(geometryFactory.parse("POLYGON((11 6, 14 6, 14 9, 11 9, 11 6))"));
+        assertEquals(1, storage.get(parameter).size());
+
+        parameter.setGeometry(geometryFactory.parse("POLYGON((40 -20, 42 -20, 42 -18, 40 -18, 40 -20))"));
+        assertEquals(0, storage.get(parameter).size());
+    }
+
+    @Test
+    public void testOpen_updatesSchemaOfOlderDatabase() throws ParseException, SQLException {
+        // the schema before the bounding rectangle columns and the cell covering table were introduced
+        executeUpdate(dataSource, "DROP TABLE CELL_COVERING");
+        executeUpdate(dataSource, "DROP INDEX MIN_LAT");
+        executeUpdate(dataSource, "DROP INDEX MAX_LAT");
+        for (final String column : new String[]{"MinLat", "MaxLat", "MinLon", "MaxLon"}) {
+            executeUpdate(dataSource, "ALTER TABLE SATELLITE_OBSERVATION DROP COLUMN " + column);
+        }
+
+        // a second pool on the same database, the first one keeps an in-memory database alive
+        final Storage updatedStorage = Storage.create(copyDataSource(dataSource), geometryFactory);
+        try {
+            updatedStorage.insert(createSatelliteObservation());
+
+            final QueryParameter parameter = new QueryParameter();
+            parameter.setGeometry(geometryFactory.parse("POLYGON((11 6, 14 6, 14 9, 11 9, 11 6))"));
+            assertEquals(1, updatedStorage.get(parameter).size());
+
+            parameter.setGeometry(geometryFactory.parse("POLYGON((40 -20, 42 -20, 42 -18, 40 -18, 40 -20))"));
+            assertEquals(0, updatedStorage.get(parameter).size());
+        } finally {
+            updatedStorage.close();
+        }
+    }
+
+    @Test
+    public void testSearchByGeometryAndTime_timeNotMatching() throws ParseException, SQLException {
+        final SatelliteObservation observation = createSatelliteObservation(TimeUtils.create(1000000000L), TimeUtils.create(1001000000L));
+        storage.insert(observation);
+
+        final QueryParameter parameter = new QueryParameter();
+        parameter.setStartTime(TimeUtils.create(1000000000L - 2000L));
+        parameter.setStopTime(TimeUtils.create(1000000000L - 1000L));
+        parameter.setGeometry(geometryFactory.parse("POLYGON((11 6, 14 6, 14 9, 11 9, 11 6))"));
+
+        final List<SatelliteObservation> result = storage.get(parameter);
+        assertEquals(0, result.size());
+    }
+
+    private static void executeUpdate(BasicDataSource dataSource, String sql) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.executeUpdate(sql);
+        }
+    }
+
+    private static BasicDataSource copyDataSource(BasicDataSource dataSource) {
+        final BasicDataSource copy = new BasicDataSource();
+        copy.setDriverClassName(dataSource.getDriverClassName());
+        copy.setUrl(dataSource.getUrl());
+        copy.setUsername(dataSource.getUsername());
+        copy.setPassword(dataSource.getPassword());
+        return copy;
+    }
+
     private SatelliteObservation createSatelliteObservation(Date startTime, Date stopTime) throws ParseException {
         return createSatelliteObservation(startTime, stopTime, "POLYGON ((10 5, 10 7, 12 7, 12 5, 10 5))");
     }
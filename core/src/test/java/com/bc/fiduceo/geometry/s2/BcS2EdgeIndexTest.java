@@ -0,0 +1,109 @@
+/*
+ * Copyright (C) 2016 Brockmann Consult GmbH
+ * This code was developed for the EC project "Fidelity and Uncertainty in
+ * Climate Data Records from Earth Observations (FIDUCEO)".
+ * Grant Agreement: 638822
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * A copy of the GNU General Public License should have been supplied along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ *
+ */
+
+package com.bc.fiduceo.geometry.s2;
+
+import com.google.common.geometry.S2LatLng;
+import com.google.common.geometry.S2Point;
+import com.google.common.geometry.S2Polyline;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class BcS2EdgeIndexTest {
+
+    @Test
+    public void testGetNearestEdgeIndex_singleEdge() {
+        final S2Polyline polyline = createPolyline(new double[]{0.0, 0.0, 10.0, 0.0});
+        final BcS2EdgeIndex edgeIndex = new BcS2EdgeIndex(polyline);
+
+        assertEquals(0, edgeIndex.getNearestEdgeIndex(S2LatLng.fromDegrees(5.0, 5.0).toPoint()));
+    }
+
+    @Test
+    public void testGetNearestEdgeIndex_singleVertex() {
+        final S2Polyline polyline = createPolyline(new double[]{10.0, 20.0});
+        final BcS2EdgeIndex edgeIndex = new BcS2EdgeIndex(polyline);
+
+        assertEquals(0, edgeIndex.getNearestEdgeIndex(S2LatLng.fromDegrees(5.0, 5.0).toPoint()));
+    }
+
+    @Test
+    public void testGetNearestEdgeIndex_sharedVertex() {
+        final S2Polyline polyline = createPolyline(new double[]{0.0, 0.0, 1.0, 0.0, 2.0, 0.0});
+        final BcS2EdgeIndex edgeIndex = new BcS2EdgeIndex(polyline);
+
+        // both edges have the same distance, the lower index is returned
+        assertEquals(polyline.getNearestEdgeIndex(S2LatLng.fromDegrees(0.0, 1.0).toPoint()),
+                     edgeIndex.getNearestEdgeIndex(S2LatLng.fromDegrees(0.0, 1.0).toPoint()));
+    }
+
+    @Test
+    public void testGetNearestEdgeIndex_equalsSequentialSearch_satelliteTrack() {
+        final Random random = new Random(8812);
+        final int numVertices = 600;
+        final double[] lonLats = new double[2 * numVertices];
+        for (int i = 0; i < numVertices; i++) {
+            // a descending half orbit, polar region included
+            final double phase = Math.PI * i / (numVertices - 1);
+            lonLats[2 * i] = -170.0 + 200.0 * i / (numVertices - 1);
+            lonLats[2 * i + 1] = 85.0 * Math.cos(phase);
+        }
+        final S2Polyline polyline = createPolyline(lonLats);
+        final BcS2EdgeIndex edgeIndex = new BcS2EdgeIndex(polyline);
+
+        for (int k = 0; k < 2000; k++) {
+            final S2Point point = S2LatLng.fromDegrees(random.nextDouble() * 180.0 - 90.0, random.nextDouble() * 360.0 - 180.0).toPoint();
+            assertEquals(polyline.getNearestEdgeIndex(point), edgeIndex.getNearestEdgeIndex(point));
+        }
+    }
+
+    @Test
+    public void testGetNearestEdgeIndex_equalsSequentialSearch_randomPolylines() {
+        final Random random = new Random(114);
+        for (int n = 0; n < 20; n++) {
+            final int numVertices = 2 + random.nextInt(200);
+            final double[] lonLats = new double[2 * numVertices];
+            for (int i = 0; i < numVertices; i++) {
+                lonLats[2 * i] = random.nextDouble() * 360.0 - 180.0;
+                lonLats[2 * i + 1] = random.nextDouble() * 160.0 - 80.0;
+            }
+            final S2Polyline polyline = createPolyline(lonLats);
+            final BcS2EdgeIndex edgeIndex = new BcS2EdgeIndex(polyline);
+
+            for (int k = 0; k < 200; k++) {
+                final S2Point point = S2LatLng.fromDegrees(random.nextDouble() * 180.0 - 90.0, random.nextDouble() * 360.0 - 180.0).toPoint();
+                assertEquals(polyline.getNearestEdgeIndex(point), edgeIndex.getNearestEdgeIndex(point));
+            }
+        }
+    }
+
+    private static S2Polyline createPolyline(double[] lonLats) {
+        final List<S2Point> vertices = new ArrayList<>();
+        for (int i = 0; i < lonLats.length; i += 2) {
+            vertices.add(S2LatLng.fromDegrees(lonLats[i + 1], lonLats[i]).toPoint());
+        }
+        return new S2Polyline(vertices);
+    }
+}
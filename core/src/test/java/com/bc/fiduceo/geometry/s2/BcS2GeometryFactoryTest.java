@@ -25,6 +25,8 @@ import com.google.common.geometry.S2Point;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
@@ -241,30 +243,41 @@ public class BcS2GeometryFactoryTest {
         final Geometry point = factory.parse("POINT(-22.5 67.23)");
 
         final byte[] storageFormat = factory.toStorageFormat(point);
-        assertEquals("POINT(-22.500000000000004,67.23)", new String(storageFormat));
+        assertEquals(21, storageFormat.length);
+        assertWkbHeader(1, storageFormat);
     }
 
     @Test
     public void testToStorageFormat_lineString() {
-        final Geometry point = factory.parse("LINESTRING(1 8, 2 8.5, 3 8.7)");
+        final Geometry lineString = factory.parse("LINESTRING(1 8, 2 8.5, 3 8.7)");
 
-        final byte[] storageFormat = factory.toStorageFormat(point);
-        assertEquals("LINESTRING(1.0 7.999999999999998,2.0 8.5,3.0000000000000004 8.700000000000001)", new String(storageFormat));
+        final byte[] storageFormat = factory.toStorageFormat(lineString);
+        assertEquals(9 + 3 * 16, storageFormat.length);
+        assertWkbHeader(2, storageFormat);
     }
 
     @Test
     public void testToStorageFormat_polygon() {
-        final Geometry point = factory.parse("POLYGON((1 8, 2 8.5, 3 8.2, 1 8))");
+        final Geometry polygon = factory.parse("POLYGON((1 8, 2 8.5, 3 8.2, 1 8))");
 
-        final byte[] storageFormat = factory.toStorageFormat(point);
-        assertEquals("POLYGON((3.0000000000000004 8.2,2.0 8.5,1.0 7.999999999999998,3.0000000000000004 8.2))", new String(storageFormat));
+        final byte[] storageFormat = factory.toStorageFormat(polygon);
+        assertEquals(9 + 4 + 4 * 16, storageFormat.length);
+        assertWkbHeader(3, storageFormat);
+    }
+
+    @Test
+    public void testToStorageFormat_multiPolygon() {
+        final Geometry multiPolygon = factory.parse("MULTIPOLYGON(((0 0, 5 0, 5 5, 0 0)),((20 20, 25 20, 25 25, 20 20)))");
+
+        final byte[] storageFormat = factory.toStorageFormat(multiPolygon);
+        assertWkbHeader(6, storageFormat);
     }
 
     @Test
     public void testFromStorageFormat_point() {
-        final String pointWkt = "POINT(-22.5 67.23)";
+        final byte[] storageFormat = factory.toStorageFormat(factory.parse("POINT(-22.5 67.23)"));
 
-        final Geometry pointGeometry = factory.fromStorageFormat(pointWkt.getBytes());
+        final Geometry pointGeometry = factory.fromStorageFormat(storageFormat);
         assertTrue(pointGeometry instanceof Point);
 
         final Point[] coordinates = pointGeometry.getCoordinates();
@@ -275,9 +288,9 @@ public class BcS2GeometryFactoryTest {
 
     @Test
     public void testFromStorageFormat_lineString() {
-        final String lineStringWkt = "LINESTRING(1 8, 2 8.5, 3 8.7)";
+        final byte[] storageFormat = factory.toStorageFormat(factory.parse("LINESTRING(1 8, 2 8.5, 3 8.7)"));
 
-        final Geometry lineStringGeometry = factory.fromStorageFormat(lineStringWkt.getBytes());
+        final Geometry lineStringGeometry = factory.fromStorageFormat(storageFormat);
         assertTrue(lineStringGeometry instanceof LineString);
 
         final Point[] coordinates = lineStringGeometry.getCoordinates();
@@ -290,9 +303,9 @@ public class BcS2GeometryFactoryTest {
 
     @Test
     public void testFromStorageFormat_polygon() {
-        final String polygonWkt = "POLYGON((1 8, 2 8.5, 3 8.2, 1 8))";
+        final byte[] storageFormat = factory.toStorageFormat(factory.parse("POLYGON((1 8, 2 8.5, 3 8.2, 1 8))"));
 
-        final Geometry polygonGeometry = factory.fromStorageFormat(polygonWkt.getBytes());
+        final Geometry polygonGeometry = factory.fromStorageFormat(storageFormat);
         assertTrue(polygonGeometry instanceof Polygon);
 
         final Point[] coordinates = polygonGeometry.getCoordinates();
@@ -305,6 +318,24 @@ public class BcS2GeometryFactoryTest {
         assertEquals(8.2, coordinates[3].getLat(), 1e-8);
     }
 
+    @Test
+    public void testFromStorageFormat_multiPolygon() {
+        final byte[] storageFormat = factory.toStorageFormat(factory.parse("MULTIPOLYGON(((0 0, 5 0, 5 5, 0 0)),((20 20, 25 20, 25 25, 20 20)))"));
+
+        final Geometry geometry = factory.fromStorageFormat(storageFormat);
+        assertTrue(geometry instanceof MultiPolygon);
+        assertEquals(8, geometry.getCoordinates().length);
+    }
+
+    @Test
+    public void testFromStorageFormat_multiLineString() {
+        final byte[] storageFormat = factory.toStorageFormat(factory.parse("MULTILINESTRING((10 18, 20 20, 10 40),(40 40, 30 30, 40 20, 30 10))"));
+
+        final Geometry geometry = factory.fromStorageFormat(storageFormat);
+        assertTrue(geometry instanceof MultiLineString);
+        assertEquals(7, geometry.getCoordinates().length);
+    }
+
     @Test
     public void testExtractS2Points_emptyList() {
         final List<Point> points = new ArrayList<>();
@@ -324,4 +355,10 @@ public class BcS2GeometryFactoryTest {
         assertEquals(3, s2Points.size());
         assertEquals("(44.0, 33.0)", s2Points.get(1).toDegreesString());
     }
+
+    private static void assertWkbHeader(int expectedType, byte[] wkb) {
+        final ByteBuffer buffer = ByteBuffer.wrap(wkb).order(ByteOrder.LITTLE_ENDIAN);
+        assertEquals(1, buffer.get());
+        assertEquals(expectedType, buffer.getInt());
+    }
 }
@@ -0,0 +1,157 @@
+/*
+ * Copyright (C) 2016 Brockmann Consult GmbH
+ * This code was developed for the EC project "Fidelity and Uncertainty in
+ * Climate Data Records from Earth Observations (FIDUCEO)".
+ * Grant Agreement: 638822
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * A copy of the GNU General Public License should have been supplied along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ *
+ */
+
+package com.bc.fiduceo.geometry.s2;
+
+import com.bc.fiduceo.geometry.Point;
+import com.google.common.geometry.S1Angle;
+import com.google.common.geometry.S2LatLng;
+import com.google.common.geometry.S2Point;
+import com.google.common.geometry.S2Polyline;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the time lookup of BcS2TimeAxis using the edge index and cumulative lengths with the sub-line
+ * measurement it replaced, for half-orbit time axes sampled like the HIRS and AVHRR GAC readers do. Not a unit
+ * test, run with
+ * <pre>
+ *     mvn -pl core test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.bc.fiduceo.geometry.s2.BcS2TimeAxisBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BcS2TimeAxisBenchmark {
+
+    private static final int NUM_QUERY_POINTS = 1000;
+    private static final double INCLINATION = Math.toRadians(98.7);
+    private static final double ORBIT_SECONDS = 6060.0;
+    private static final double SWATH_HALF_WIDTH = 13.0;
+
+    @Param({"HIRS", "AVHRR_GAC"})
+    private String sensor;
+
+    private BcS2TimeAxis timeAxis;
+    private S2Polyline polyline;
+    private double invLength;
+    private long timeInterval;
+    private Point[] queryPoints;
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(BcS2TimeAxisBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    @Setup
+    public void setUp() {
+        // the readers split an orbit into two time axes, HIRS has ~950 scanlines per orbit with a time axis vertex every
+        // 10th line, AVHRR GAC ~13500 scanlines with a vertex every 100th line
+        final int numScanlines;
+        final int intervalY;
+        if ("HIRS".equals(sensor)) {
+            numScanlines = 475;
+            intervalY = 10;
+        } else {
+            numScanlines = 6750;
+            intervalY = 100;
+        }
+
+        final List<S2Point> vertices = new ArrayList<>();
+        for (int y = 0; y < numScanlines; y += intervalY) {
+            vertices.add(getTrackPoint((double) y / (numScanlines - 1)).toPoint());
+        }
+        vertices.add(getTrackPoint(1.0).toPoint());
+        polyline = new S2Polyline(vertices);
+
+        final Date startTime = new Date(1_200_000_000_000L);
+        final Date stopTime = new Date(startTime.getTime() + (long) (ORBIT_SECONDS * 500.0));
+        timeAxis = new BcS2TimeAxis(new BcS2LineString(polyline), startTime, stopTime);
+        invLength = 1.0 / polyline.getArclengthAngle().radians();
+        timeInterval = stopTime.getTime() - startTime.getTime();
+
+        final Random random = new Random(23);
+        queryPoints = new Point[NUM_QUERY_POINTS];
+        for (int i = 0; i < NUM_QUERY_POINTS; i++) {
+            final S2LatLng trackPoint = getTrackPoint(random.nextDouble());
+            final double lat = Math.max(-89.0, Math.min(89.0, trackPoint.latDegrees() + (random.nextDouble() - 0.5) * SWATH_HALF_WIDTH));
+            final double lon = trackPoint.lngDegrees() + (random.nextDouble() - 0.5) * SWATH_HALF_WIDTH;
+            queryPoints[i] = new BcS2Point(S2LatLng.fromDegrees(lat, lon).normalized());
+        }
+    }
+
+    @Benchmark
+    public void edgeIndex(Blackhole blackhole) {
+        for (final Point queryPoint : queryPoints) {
+            blackhole.consume(timeAxis.getTime(queryPoint));
+        }
+    }
+
+    @Benchmark
+    public void subLineMeasurement(Blackhole blackhole) {
+        for (final Point queryPoint : queryPoints) {
+            blackhole.consume(getTimeOffset(((S2LatLng) queryPoint.getInner()).toPoint()));
+        }
+    }
+
+    // the lookup as implemented before the edge index
+    private long getTimeOffset(S2Point point) {
+        final int nearestEdgeIndex = polyline.getNearestEdgeIndex(point);
+        final List<S2Point> vertices = new ArrayList<>();
+        for (int i = 0; i <= nearestEdgeIndex; i++) {
+            vertices.add(polyline.vertex(i));
+        }
+        vertices.add(polyline.projectToEdge(point, nearestEdgeIndex));
+        final S1Angle offsetAngle = new S2Polyline(vertices).getArclengthAngle();
+        return (long) (timeInterval * offsetAngle.radians() * invLength);
+    }
+
+    // sub-satellite point of a descending half orbit, earth rotation included
+    private static S2LatLng getTrackPoint(double fraction) {
+        final double argument = 0.5 * Math.PI + Math.PI * fraction;
+        final double x = Math.cos(argument);
+        final double y = Math.sin(argument) * Math.cos(INCLINATION);
+        final double z = Math.sin(argument) * Math.sin(INCLINATION);
+        final double earthRotation = 2.0 * Math.PI * 0.5 * ORBIT_SECONDS * fraction / 86164.0;
+        final S2LatLng inertial = new S2LatLng(new S2Point(x, y, z));
+        return S2LatLng.fromRadians(inertial.latRadians(), inertial.lngRadians() - earthRotation).normalized();
+    }
+}
@@ -26,13 +26,17 @@ import com.bc.fiduceo.geometry.Geometry;
 import com.bc.fiduceo.geometry.GeometryFactory;
 import com.bc.fiduceo.geometry.LineString;
 import com.bc.fiduceo.geometry.TimeAxis;
+import com.google.common.geometry.S2LatLng;
+import com.google.common.geometry.S2LatLngRect;
 import org.junit.Before;
 import org.junit.Test;
 
 import java.util.Date;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 @SuppressWarnings("ConstantConditions")
 public class IntersectionEngineTest {
@@ -459,6 +463,64 @@ public class IntersectionEngineTest {
         assertEquals(200, IntersectionEngine.calculateTimeDelta(interval_2, interval_1));
     }
 
+    @Test
+    public void testGetIntersectingIntervals_statistics_disjoint() {
+        final SatelliteObservation satelliteGeometry_1 = createSatelliteObservation("POLYGON((2 1, 3 1, 3 2, 3 3, 3 4, 2 4, 2 3, 2 2, 2 1))",
+                "LINESTRING(2.5 1,2.5 2, 2.5 3, 2.5 4)", 1000, 2000);
+        final SatelliteObservation satelliteGeometry_2 = createSatelliteObservation("POLYGON((0 5, 0 4, 0 3, 0 2, 1 2, 1 3, 1 4, 1 5, 0 5))",
+                "LINESTRING(0 5, 0 4, 0 3, 0 2)", 1000, 2000);
+
+        final IntersectionStatistics statistics = new IntersectionStatistics();
+        final Intersection[] intersectingIntervals = IntersectionEngine.getIntersectingIntervals(satelliteGeometry_1, satelliteGeometry_2, statistics);
+        assertEquals(0, intersectingIntervals.length);
+        assertEquals(1, statistics.getNumPairs());
+        assertEquals(1, statistics.getNumRejected());
+    }
+
+    @Test
+    public void testGetIntersectingIntervals_statistics_segmented() {
+        final SatelliteObservation segmented_1 = createSegmentedSatelliteObservation(new String[]{"POLYGON((2 -2, 4 -2, 4 1, 2 1, 2 -2))", "POLYGON((2 1, 4 1, 4 4, 2 4, 2 1))"},
+                new String[]{"LINESTRING(3 -2, 3 1)", "LINESTRING(3 1, 3 4)"},
+                new int[]{1000, 2000},
+                new int[]{2000, 3000});
+
+        final SatelliteObservation segmented_2 = createSegmentedSatelliteObservation(new String[]{"POLYGON((0 4, 1 2, 3 3, 2 5, 0 4))", "POLYGON((1 2, 3 0, 5 1, 3 3, 1 2))"},
+                new String[]{"LINESTRING(1 4.5, 2 2.5)", "LINESTRING(2 2.5, 4 0.5)"},
+                new int[]{1000, 2000},
+                new int[]{2000, 3000});
+
+        final IntersectionStatistics statistics = new IntersectionStatistics();
+        final Intersection[] intersectingIntervals = IntersectionEngine.getIntersectingIntervals(segmented_1, segmented_2, statistics);
+        assertEquals(3, intersectingIntervals.length);
+        assertEquals(4, statistics.getNumPairs());
+        assertEquals(1, statistics.getNumRejected());
+    }
+
+    @Test
+    public void testIsDisjoint() {
+        final S2LatLngRect rect = createRect(0.0, 0.0, 10.0, 10.0);
+
+        assertTrue(IntersectionEngine.isDisjoint(rect, createRect(11.0, 0.0, 20.0, 10.0)));
+        assertTrue(IntersectionEngine.isDisjoint(rect, createRect(0.0, -20.0, 10.0, -0.5)));
+        assertFalse(IntersectionEngine.isDisjoint(rect, createRect(5.0, 5.0, 20.0, 20.0)));
+        // touching rectangles may still have a non-empty intersection
+        assertFalse(IntersectionEngine.isDisjoint(rect, createRect(10.0, 0.0, 20.0, 10.0)));
+    }
+
+    @Test
+    public void testIsDisjoint_antiMeridian() {
+        final S2LatLngRect rect = new S2LatLngRect(S2LatLng.fromDegrees(-5.0, 175.0), S2LatLng.fromDegrees(5.0, -175.0));
+
+        assertFalse(IntersectionEngine.isDisjoint(rect, createRect(-179.0, -1.0, -170.0, 1.0)));
+        assertTrue(IntersectionEngine.isDisjoint(rect, createRect(-170.0, -1.0, 170.0, 1.0)));
+    }
+
+    @Test
+    public void testIsDisjoint_emptyRectsDoNotReject() {
+        assertFalse(IntersectionEngine.isDisjoint(S2LatLngRect.empty(), createRect(0.0, 0.0, 10.0, 10.0)));
+        assertFalse(IntersectionEngine.isDisjoint(createRect(0.0, 0.0, 10.0, 10.0), S2LatLngRect.empty()));
+    }
+
     private SatelliteObservation createSatelliteObservation(String polygonWkt, String lineWkt, int startTime, int stopTime) {
         final Geometry polygon = geometryFactory.parse(polygonWkt);
         final LineString lineString = (LineString) geometryFactory.parse(lineWkt);
@@ -483,4 +545,8 @@ public class IntersectionEngineTest {
         observation.setTimeAxes(timeAxes);
         return observation;
     }
+
+    private static S2LatLngRect createRect(double minLon, double minLat, double maxLon, double maxLat) {
+        return new S2LatLngRect(S2LatLng.fromDegrees(minLat, minLon), S2LatLng.fromDegrees(maxLat, maxLon));
+    }
 }
@@ -0,0 +1,152 @@
+/*
+ * Copyright (C) 2016 Brockmann Consult GmbH
+ * This code was developed for the EC project "Fidelity and Uncertainty in
+ * Climate Data Records from Earth Observations (FIDUCEO)".
+ * Grant Agreement: 638822
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * A copy of the GNU General Public License should have been supplied along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ *
+ */
+package com.bc.fiduceo.reader;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ArrayCacheMemoryTest {
+
+    private ArrayCacheMemory memory;
+
+    @Before
+    public void setUp() {
+        memory = new ArrayCacheMemory();
+    }
+
+    @Test
+    public void testDefaults() {
+        assertEquals(0, memory.getMaxBytes());
+        assertEquals(0, memory.getTileHeight());
+        assertEquals(0, memory.getResidentBytes());
+        assertEquals(0.0, memory.getHitRate(), 1e-8);
+    }
+
+    @Test
+    public void testConfigure() {
+        memory.configure(2048, 256);
+        assertEquals(2048, memory.getMaxBytes());
+        assertEquals(256, memory.getTileHeight());
+
+        memory.configure(0, -3);
+        assertEquals(0, memory.getMaxBytes());
+        assertEquals(0, memory.getTileHeight());
+    }
+
+    @Test
+    public void testUnbounded_nothingIsTracked() {
+        final TestResident resident = new TestResident(1000);
+
+        memory.added(resident);
+        memory.hit(resident);
+
+        assertEquals(0, memory.getResidentBytes());
+        assertEquals(1, memory.getHits());
+        assertEquals(1, memory.getMisses());
+        assertEquals(0.5, memory.getHitRate(), 1e-8);
+    }
+
+    @Test
+    public void testBounded_leastRecentlyUsedIsEvicted() {
+        memory.configure(250, 0);
+
+        final TestResident first = new TestResident(100);
+        final TestResident second = new TestResident(100);
+        final TestResident third = new TestResident(100);
+
+        memory.added(first);
+        memory.added(second);
+        assertEquals(200, memory.getResidentBytes());
+
+        memory.hit(first);
+        memory.added(third);
+
+        assertFalse(first.released);
+        assertTrue(second.released);
+        assertFalse(third.released);
+        assertEquals(200, memory.getResidentBytes());
+        assertEquals(300, memory.getPeakResidentBytes());
+        assertEquals(1, memory.getEvictions());
+    }
+
+    @Test
+    public void testBounded_residentInUseIsNotEvicted() {
+        memory.configure(50, 0);
+
+        final TestResident resident = new TestResident(100);
+        memory.added(resident);
+
+        assertFalse(resident.released);
+        assertEquals(100, memory.getResidentBytes());
+    }
+
+    @Test
+    public void testBounded_resizedAndRemoved() {
+        memory.configure(1000, 0);
+
+        final TestResident resident = new TestResident(100);
+        memory.added(resident);
+
+        resident.sizeInBytes = 400;
+        memory.resized(resident);
+        assertEquals(400, memory.getResidentBytes());
+
+        memory.removed(resident);
+        assertEquals(0, memory.getResidentBytes());
+        assertFalse(resident.released);
+    }
+
+    @Test
+    public void testResetStatistics() {
+        final TestResident resident = new TestResident(100);
+        memory.added(resident);
+        memory.hit(resident);
+
+        memory.resetStatistics();
+
+        assertEquals(0, memory.getHits());
+        assertEquals(0, memory.getMisses());
+        assertEquals(0, memory.getEvictions());
+    }
+
+    private static class TestResident implements ArrayCacheMemory.Resident {
+
+        private long sizeInBytes;
+        private boolean released;
+
+        TestResident(long sizeInBytes) {
+            this.sizeInBytes = sizeInBytes;
+        }
+
+        @Override
+        public long getSizeInBytes() {
+            return sizeInBytes;
+        }
+
+        @Override
+        public void release() {
+            released = true;
+        }
+    }
+}
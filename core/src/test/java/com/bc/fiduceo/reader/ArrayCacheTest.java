@@ -21,9 +21,12 @@
 package com.bc.fiduceo.reader;
 
 
+import com.bc.fiduceo.core.Interval;
 import org.junit.Before;
 import org.junit.Test;
 import ucar.ma2.Array;
+import ucar.ma2.DataType;
+import ucar.ma2.InvalidRangeException;
 import ucar.nc2.Attribute;
 import ucar.nc2.Group;
 import ucar.nc2.NetcdfFile;
@@ -32,8 +35,13 @@ import ucar.nc2.Variable;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.junit.Assert.*;
+import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -329,7 +337,6 @@ public class ArrayCacheTest {
         assertNull(attributeValue);
 
         verify(netcdfFile, times(1)).findVariable(null, "a_variable");
-        verify(variable, times(1)).read();
         verify(variable, times(1)).getAttributes();
         verifyNoMoreInteractions(netcdfFile, variable);
     }
@@ -350,7 +357,6 @@ public class ArrayCacheTest {
         assertEquals("the_value", attributeValue);
 
         verify(netcdfFile, times(1)).findVariable(null, "a_variable");
-        verify(variable, times(1)).read();
         verify(variable, times(1)).getAttributes();
         verifyNoMoreInteractions(netcdfFile, variable);
     }
@@ -389,7 +395,6 @@ public class ArrayCacheTest {
 
         verify(netcdfFile, times(1)).findGroup("a_group");
         verify(netcdfFile, times(1)).findVariable(group, "a_group_variable");
-        verify(variable, times(1)).read();
         verify(variable, times(1)).getAttributes();
         verifyNoMoreInteractions(netcdfFile, variable);
     }
@@ -411,7 +416,6 @@ public class ArrayCacheTest {
 
         verify(netcdfFile, times(1)).findGroup("a_group");
         verify(netcdfFile, times(1)).findVariable(group, "a_group_variable");
-        verify(variable, times(1)).read();
         verify(variable, times(1)).getAttributes();
         verifyNoMoreInteractions(netcdfFile, variable);
     }
@@ -427,7 +431,6 @@ public class ArrayCacheTest {
         assertEquals(-99999, attributeValue.intValue());
 
         verify(netcdfFile, times(1)).findVariable(null, "a_variable");
-        verify(variable, times(1)).read();
         verify(variable, times(1)).getAttributes();
         verifyNoMoreInteractions(netcdfFile, variable);
     }
@@ -444,7 +447,6 @@ public class ArrayCacheTest {
 
         verify(netcdfFile, times(1)).findGroup("a_group");
         verify(netcdfFile, times(1)).findVariable(group, "a_group_variable");
-        verify(variable, times(1)).read();
         verify(variable, times(1)).getAttributes();
         verifyNoMoreInteractions(netcdfFile, variable);
     }
@@ -463,4 +465,178 @@ public class ArrayCacheTest {
         assertNotNull(injectedArray);
         assertEquals(2, injectedArray.getInt(0));
     }
+
+    @Test
+    public void testGetNumberAttribute_thenArray() throws IOException {
+        final Attribute numberAttribute = new Attribute("attribute_number", 12);
+        final List<Attribute> attributeList = new ArrayList<>();
+        attributeList.add(numberAttribute);
+        when(variable.getAttributes()).thenReturn(attributeList);
+
+        final Number attributeValue = arrayCache.getNumberAttributeValue("attribute_number", "a_variable");
+        assertEquals(12, attributeValue.intValue());
+        verify(variable, times(0)).read();
+
+        final Array array = arrayCache.get("a_variable");
+        assertEquals(3, array.getInt(2));
+        verify(variable, times(1)).read();
+    }
+
+    @Test
+    public void testGetLineDimension() {
+        assertEquals(0, ArrayCache.getLineDimension(new int[]{12, 409}));
+        assertEquals(1, ArrayCache.getLineDimension(new int[]{1, 12, 409}));
+        assertEquals(0, ArrayCache.getLineDimension(new int[]{1}));
+    }
+
+    @Test
+    public void testGet_concurrentRequestsReadOnce() throws Exception {
+        final int numThreads = 8;
+        final ExecutorService executorService = Executors.newFixedThreadPool(numThreads);
+        try {
+            final List<Callable<Array>> tasks = new ArrayList<>();
+            for (int i = 0; i < numThreads; i++) {
+                tasks.add(() -> arrayCache.get("a_variable"));
+            }
+
+            final List<Future<Array>> futures = executorService.invokeAll(tasks);
+            final Array expected = futures.get(0).get();
+            for (final Future<Array> future : futures) {
+                assertSame(expected, future.get());
+            }
+        } finally {
+            executorService.shutdown();
+        }
+
+        verify(netcdfFile, times(1)).findVariable(null, "a_variable");
+        verify(variable, times(1)).read();
+        verify(variable, times(1)).getAttributes();
+        verifyNoMoreInteractions(netcdfFile, variable);
+    }
+
+    @Test
+    public void testReadRaw_tiled_windowsAcrossTileBoundaries() throws IOException, InvalidRangeException {
+        final Array data = createLineArray(DataType.FLOAT, 10, 6);
+        final ArrayCache tiledCache = createTiledCache(data, 3);
+        final Interval interval = new Interval(3, 3);
+
+        // center lines from outside the top to outside the bottom of the product
+        for (int y = -2; y <= 11; y++) {
+            for (int x = -1; x <= 6; x++) {
+                final Array expected = RawDataReader.read(x, y, interval, -1.f, data, 6);
+                final Array actual = tiledCache.readRaw("tiled_variable", x, y, interval, -1.f, 6);
+                assertWindowEquals(expected, actual);
+            }
+        }
+    }
+
+    @Test
+    public void testReadRaw_tiled_windowLargerThanTile() throws IOException, InvalidRangeException {
+        final Array data = createLineArray(DataType.INT, 10, 6);
+        final ArrayCache tiledCache = createTiledCache(data, 3);
+        final Interval interval = new Interval(5, 9);
+
+        for (int y = 0; y < 10; y++) {
+            final Array expected = RawDataReader.read(2, y, interval, -1, data, 6);
+            final Array actual = tiledCache.readRaw("tiled_variable", 2, y, interval, -1, 6);
+            assertWindowEquals(expected, actual);
+        }
+    }
+
+    @Test
+    public void testReadRaw_tiled_singleLineWindow() throws IOException, InvalidRangeException {
+        final Array data = createLineArray(DataType.SHORT, 10, 6);
+        final ArrayCache tiledCache = createTiledCache(data, 3);
+        final Interval interval = new Interval(3, 1);
+
+        // first and last line of the product and the last line of a tile
+        for (final int y : new int[]{0, 2, 9}) {
+            final Array expected = RawDataReader.read(3, y, interval, (short) -1, data, 6);
+            final Array actual = tiledCache.readRaw("tiled_variable", 3, y, interval, (short) -1, 6);
+            assertWindowEquals(expected, actual);
+        }
+    }
+
+    @Test
+    public void testReadRaw_tiled_threeDimensional() throws IOException, InvalidRangeException {
+        final Array data = createLineArray(DataType.DOUBLE, 10, 6).reshape(new int[]{1, 10, 6});
+        final ArrayCache tiledCache = createTiledCache(data, 4);
+        final Interval interval = new Interval(3, 5);
+
+        for (int y = -1; y <= 10; y++) {
+            final Array expected = RawDataReader.read(4, y, interval, Double.NaN, data, 6);
+            final Array actual = tiledCache.readRaw("tiled_variable", 4, y, interval, Double.NaN, 6);
+            assertWindowEquals(expected, actual);
+        }
+    }
+
+    @Test
+    public void testReadRaw_tiled_unsignedAcrossTileBoundary() throws IOException, InvalidRangeException {
+        final Array data = Array.factory(DataType.BYTE, new int[]{10, 6});
+        for (int i = 0; i < data.getSize(); i++) {
+            data.setByte(i, (byte) (200 + i));
+        }
+        data.setUnsigned(true);
+        final ArrayCache tiledCache = createTiledCache(data, 3);
+
+        final Array actual = tiledCache.readRaw("tiled_variable", 2, 3, new Interval(3, 3), null, 6);
+
+        assertTrue(actual.isUnsigned());
+        assertEquals(213, actual.getInt(0));
+        assertEquals(227, actual.getInt(8));
+    }
+
+    @Test
+    public void testReadRaw_tiled_batch() throws IOException, InvalidRangeException {
+        final Array data = createLineArray(DataType.FLOAT, 10, 6);
+        final ArrayCache tiledCache = createTiledCache(data, 3);
+        final Interval interval = new Interval(3, 3);
+        final int[] centerX = {0, 3, 5, 2};
+        final int[] centerY = {1, 4, 6, 9};
+
+        final Array expected = Array.factory(DataType.FLOAT, new int[]{4, 3, 3});
+        RawDataReader.read(centerX, centerY, interval, -1.f, data, 6, expected, 0);
+        final Array actual = Array.factory(DataType.FLOAT, new int[]{4, 3, 3});
+        tiledCache.readRaw("tiled_variable", centerX, centerY, interval, -1.f, 6, actual, 0);
+
+        assertWindowEquals(expected, actual);
+    }
+
+    private ArrayCache createTiledCache(Array data, int tileHeight) throws IOException, InvalidRangeException {
+        final Variable tiledVariable = mock(Variable.class);
+        when(netcdfFile.findVariable(null, "tiled_variable")).thenReturn(tiledVariable);
+        when(tiledVariable.getShape()).thenAnswer(invocation -> data.getShape());
+        when(tiledVariable.read()).thenReturn(data);
+        when(tiledVariable.read(any(int[].class), any(int[].class))).thenAnswer(invocation -> {
+            final int[] origin = (int[]) invocation.getArguments()[0];
+            final int[] shape = (int[]) invocation.getArguments()[1];
+            final Array tile = data.sectionNoReduce(origin, shape, null).copy();
+            tile.setUnsigned(data.isUnsigned());
+            return tile;
+        });
+
+        final ArrayCacheMemory memory = new ArrayCacheMemory();
+        memory.configure(0, tileHeight);
+        return new ArrayCache(netcdfFile, memory);
+    }
+
+    // the value at (y, x) is 100 * y + x
+    private static Array createLineArray(DataType dataType, int height, int width) {
+        final Array array = Array.factory(dataType, new int[]{height, width});
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                array.setInt(y * width + x, 100 * y + x);
+            }
+        }
+        return array;
+    }
+
+    private static void assertWindowEquals(Array expected, Array actual) {
+        assertArrayEquals(expected.getShape(), actual.getShape());
+        final Array expectedCopy = expected.copy();
+        final Array actualCopy = actual.copy();
+        for (int i = 0; i < expectedCopy.getSize(); i++) {
+            assertEquals(expectedCopy.getDouble(i), actualCopy.getDouble(i), 1e-8);
+        }
+    }
 }
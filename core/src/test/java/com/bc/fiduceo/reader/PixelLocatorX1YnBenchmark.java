@@ -0,0 +1,138 @@
+/*
+ * Copyright (C) 2016 Brockmann Consult GmbH
+ * This code was developed for the EC project "Fidelity and Uncertainty in
+ * Climate Data Records from Earth Observations (FIDUCEO)".
+ * Grant Agreement: 638822
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * A copy of the GNU General Public License should have been supplied along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ *
+ */
+package com.bc.fiduceo.reader;
+
+import com.bc.fiduceo.math.SphericalDistance;
+import org.esa.snap.core.util.math.RsMathUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import ucar.ma2.Array;
+
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the latitude band index of PixelLocatorX1Yn with the sequential scan it replaced, for locating seed
+ * points on a CALIOP-like track. Not a unit test, run with
+ * <pre>
+ *     mvn -pl core test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.bc.fiduceo.reader.PixelLocatorX1YnBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PixelLocatorX1YnBenchmark {
+
+    private static final double MAX_DISTANCE_KM = 5.0;
+    private static final double MEAN_EARTH_RADIUS_IN_KM = RsMathUtils.MEAN_EARTH_RADIUS * 0.001;
+    private static final int NUM_SEED_POINTS = 1000;
+
+    @Param({"10000", "60000"})
+    private int trackLength;
+
+    private Array lons;
+    private Array lats;
+    private PixelLocatorX1Yn pixelLocator;
+    private double[] seedLons;
+    private double[] seedLats;
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(PixelLocatorX1YnBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    @Setup
+    public void setUp() {
+        final float[] trackLons = new float[trackLength];
+        final float[] trackLats = new float[trackLength];
+        for (int i = 0; i < trackLength; i++) {
+            final double phase = Math.PI * i / trackLength;
+            trackLats[i] = (float) (-82.0 * Math.cos(phase));
+            trackLons[i] = (float) (-170.0 + 25.0 * i / trackLength);
+        }
+        lons = Array.factory(trackLons);
+        lats = Array.factory(trackLats);
+        pixelLocator = new PixelLocatorX1Yn(MAX_DISTANCE_KM, lons, lats);
+
+        final Random random = new Random(7);
+        seedLons = new double[NUM_SEED_POINTS];
+        seedLats = new double[NUM_SEED_POINTS];
+        for (int i = 0; i < NUM_SEED_POINTS; i++) {
+            final int trackIndex = random.nextInt(trackLength);
+            seedLons[i] = trackLons[trackIndex] + (random.nextDouble() - 0.5) * 0.05;
+            seedLats[i] = trackLats[trackIndex] + (random.nextDouble() - 0.5) * 0.05;
+        }
+    }
+
+    @Benchmark
+    public void bandIndex(Blackhole blackhole) {
+        for (int i = 0; i < NUM_SEED_POINTS; i++) {
+            blackhole.consume(pixelLocator.getPixelLocation(seedLons[i], seedLats[i]));
+        }
+    }
+
+    @Benchmark
+    public void sequentialScan(Blackhole blackhole) {
+        for (int i = 0; i < NUM_SEED_POINTS; i++) {
+            blackhole.consume(scan(seedLons[i], seedLats[i]));
+        }
+    }
+
+    // the lookup as implemented before the band index
+    private int scan(double lon, double lat) {
+        final SphericalDistance sphericalDistance = new SphericalDistance(lon, lat);
+        final double maxDistDegree = Math.toDegrees(MAX_DISTANCE_KM / MEAN_EARTH_RADIUS_IN_KM);
+        final double latMax = Math.min(lat + maxDistDegree, 90);
+        final double latMin = Math.max(lat - maxDistDegree, -90);
+        final ArrayList<Integer> feasible = new ArrayList<>();
+        for (int i = 0; i < trackLength; i++) {
+            final double iLat = lats.getDouble(i);
+            if (iLat >= latMin && iLat <= latMax) {
+                feasible.add(i);
+            }
+        }
+        int smallestIDX = -1;
+        double smallestDistKm = Double.MAX_VALUE;
+        for (int idx : feasible) {
+            final double distKm = sphericalDistance.distance(lons.getDouble(idx), lats.getDouble(idx)) * MEAN_EARTH_RADIUS_IN_KM;
+            if (distKm < smallestDistKm) {
+                smallestDistKm = distKm;
+                smallestIDX = idx;
+            }
+        }
+        return smallestDistKm <= MAX_DISTANCE_KM ? smallestIDX : -1;
+    }
+}
@@ -4,6 +4,7 @@ import static org.hamcrest.Matchers.*;
 import static org.junit.Assert.*;
 import static org.mockito.Mockito.*;
 
+import com.bc.fiduceo.math.SphericalDistance;
 import org.esa.snap.core.datamodel.Rotator;
 import org.esa.snap.core.util.math.RsMathUtils;
 import org.junit.*;
@@ -11,6 +12,7 @@ import ucar.ma2.Array;
 
 import java.awt.Point;
 import java.awt.geom.Point2D;
+import java.util.Random;
 
 /**
  * Created by Sabine on 26.06.2017.
@@ -144,4 +146,59 @@ public class PixelLocatorX1YnTest {
         }
     }
 
-}
\ No newline at end of file
+    @Test
+    public void getPixelLocation_sameResultAsSequentialScan() throws Exception {
+        final int numPoints = 5000;
+        final float[] trackLons = new float[numPoints];
+        final float[] trackLats = new float[numPoints];
+        for (int i = 0; i < numPoints; i++) {
+            // a track from the south pole to the north pole and back, every latitude is passed twice
+            final double phase = 2.0 * Math.PI * i / numPoints;
+            trackLats[i] = (float) (-90.0 * Math.cos(phase));
+            trackLons[i] = (float) (-170.0 + 340.0 * i / numPoints);
+        }
+        final Array trackLonArray = Array.factory(trackLons);
+        final Array trackLatArray = Array.factory(trackLats);
+        final PixelLocatorX1Yn locator = new PixelLocatorX1Yn(50, trackLonArray, trackLatArray);
+
+        final Random random = new Random(3);
+        for (int i = 0; i < 2000; i++) {
+            final int trackIndex = random.nextInt(numPoints);
+            final double lon = trackLons[trackIndex] + random.nextDouble() - 0.5;
+            final double lat = trackLats[trackIndex] + random.nextDouble() - 0.5;
+
+            final int expectedIndex = scanNearest(50, trackLonArray, trackLatArray, lon, lat);
+            final Point2D[] pixelLocation = locator.getPixelLocation(lon, lat);
+            if (expectedIndex < 0) {
+                assertThat(pixelLocation, is(nullValue()));
+            } else {
+                assertThat(pixelLocation, is(equalTo(new Point2D.Double[]{new Point2D.Double(0.5, expectedIndex + 0.5)})));
+            }
+        }
+    }
+
+    @Test
+    public void getPixelLocation_equalDistances_firstPointWins() throws Exception {
+        final Array trackLons = Array.factory(new float[]{10, 20, 10});
+        final Array trackLats = Array.factory(new float[]{45, 30, 45});
+        final PixelLocatorX1Yn locator = new PixelLocatorX1Yn(5, trackLons, trackLats);
+
+        final Point2D[] pixelLocation = locator.getPixelLocation(10, 45);
+        assertThat(pixelLocation, is(equalTo(new Point2D.Double[]{new Point2D.Double(0.5, 0.5)})));
+    }
+
+    private static int scanNearest(double maxDistanceKm, Array lons, Array lats, double lon, double lat) {
+        final double earthRadiusKm = RsMathUtils.MEAN_EARTH_RADIUS * 0.001;
+        final SphericalDistance sphericalDistance = new SphericalDistance(lon, lat);
+        int nearest = -1;
+        double smallestDistKm = Double.MAX_VALUE;
+        for (int i = 0; i < lats.getSize(); i++) {
+            final double distKm = sphericalDistance.distance(lons.getDouble(i), lats.getDouble(i)) * earthRadiusKm;
+            if (distKm < smallestDistKm) {
+                smallestDistKm = distKm;
+                nearest = i;
+            }
+        }
+        return smallestDistKm <= maxDistanceKm ? nearest : -1;
+    }
+}
@@ -0,0 +1,194 @@
+/*
+ * Copyright (C) 2016 Brockmann Consult GmbH
+ * This code was developed for the EC project "Fidelity and Uncertainty in
+ * Climate Data Records from Earth Observations (FIDUCEO)".
+ * Grant Agreement: 638822
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * A copy of the GNU General Public License should have been supplied along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ *
+ */
+
+package com.bc.fiduceo.reader;
+
+import com.bc.fiduceo.core.Interval;
+import org.junit.Before;
+import org.junit.Test;
+import ucar.ma2.Array;
+import ucar.ma2.DataType;
+import ucar.ma2.InvalidRangeException;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class RawDataReaderTest_windowBatch {
+
+    private Interval windowSize;
+
+    @Before
+    public void setUp() throws Exception {
+        windowSize = new Interval(3, 3);
+    }
+
+    @Test
+    public void testRead_2D_float() throws InvalidRangeException {
+        final Array rawArray = create2DArray(float.class);
+        final int[] centerX = {3, 9, 0, 0, 9, 5};
+        final int[] centerY = {3, 0, 0, 9, 9, 11};
+
+        final Array target = Array.factory(DataType.FLOAT, new int[]{centerX.length, 3, 3});
+        RawDataReader.read(centerX, centerY, windowSize, -2, rawArray, 10, target, 0);
+
+        assertWindowsEqual(centerX, centerY, -2, rawArray, 10, target, 0);
+    }
+
+    @Test
+    public void testRead_2D_short_withTargetOffset() throws InvalidRangeException {
+        final Array rawArray = create2DArray(short.class);
+        final int[] centerX = {4, 1, 8};
+        final int[] centerY = {-1, 5, 8};
+
+        final Array target = Array.factory(DataType.SHORT, new int[]{5, 3, 3});
+        RawDataReader.read(centerX, centerY, windowSize, (short) -32768, rawArray, 10, target, 2);
+
+        assertWindowsEqual(centerX, centerY, (short) -32768, rawArray, 10, target, 2);
+        final short[] storage = (short[]) target.getStorage();
+        for (int i = 0; i < 18; i++) {
+            assertEquals(0, storage[i]);
+        }
+    }
+
+    @Test
+    public void testRead_2D_section() throws InvalidRangeException {
+        final Array layers = Array.factory(DataType.INT, new int[]{10, 10, 3});
+        for (int i = 0; i < layers.getSize(); i++) {
+            layers.setInt(i, i);
+        }
+        final Array rawArray = layers.section(new int[]{0, 0, 1}, new int[]{10, 10, 1});
+        final int[] centerX = {0, 5, 9};
+        final int[] centerY = {4, 5, 9};
+
+        final Array target = Array.factory(DataType.INT, new int[]{3, 3, 3});
+        RawDataReader.read(centerX, centerY, windowSize, -1, rawArray, 10, target, 0);
+
+        assertWindowsEqual(centerX, centerY, -1, rawArray, 10, target, 0);
+    }
+
+    @Test
+    public void testRead_3D_channelSection() throws InvalidRangeException {
+        final Array channels = Array.factory(DataType.SHORT, new int[]{4, 10, 10});
+        for (int i = 0; i < channels.getSize(); i++) {
+            channels.setShort(i, (short) i);
+        }
+        final Array rawArray = channels.section(new int[]{2, 0, 0}, new int[]{1, 10, 10});
+        final int[] centerX = {3, 0, 9};
+        final int[] centerY = {3, 9, 0};
+
+        final Array target = Array.factory(DataType.SHORT, new int[]{3, 3, 3});
+        RawDataReader.read(centerX, centerY, windowSize, (short) -1, rawArray, 10, target, 0);
+
+        assertWindowsEqual(centerX, centerY, (short) -1, rawArray, 10, target, 0);
+        assertEquals(222, target.getShort(0));
+    }
+
+    @Test
+    public void testRead_3D_firstDimensionIsOne_double() throws InvalidRangeException {
+        final Array rawArray = create2DArray(double.class).reshape(new int[]{1, 10, 10});
+        final int[] centerX = {2, 9};
+        final int[] centerY = {7, 1};
+
+        final Array target = Array.factory(DataType.DOUBLE, new int[]{2, 3, 3});
+        RawDataReader.read(centerX, centerY, windowSize, Double.NaN, rawArray, 10, target, 0);
+
+        assertWindowsEqual(centerX, centerY, Double.NaN, rawArray, 10, target, 0);
+    }
+
+    @Test
+    public void testRead_1D_int() throws InvalidRangeException {
+        final Array rawArray = Array.factory(new int[]{22, 23, 24, 25, 26, 27, 28, 29});
+        final int[] centerX = {3, 0, 7};
+        final int[] centerY = {3, 0, 7};
+
+        final Array target = Array.factory(DataType.INT, new int[]{3, 3, 3});
+        RawDataReader.read(centerX, centerY, windowSize, -2, rawArray, 8, target, 0);
+
+        assertArrayEquals(new int[]{
+                24, 24, 24,
+                25, 25, 25,
+                26, 26, 26,
+
+                -2, -2, -2,
+                -2, 22, 22,
+                -2, 23, 23,
+
+                28, 28, -2,
+                29, 29, -2,
+                -2, -2, -2
+        }, (int[]) target.getStorage());
+    }
+
+    @Test
+    public void testRead_2D_firstDimensionIsOne_byte() throws InvalidRangeException {
+        final Array rawArray = Array.factory(new byte[][]{{10, 11, 12, 13, 14}});
+        final int[] centerX = {1, 4};
+        final int[] centerY = {1, 4};
+
+        final Array target = Array.factory(DataType.BYTE, new int[]{2, 3, 3});
+        RawDataReader.read(centerX, centerY, windowSize, (byte) -1, rawArray, 3, target, 0);
+
+        assertWindowsEqual(centerX, centerY, (byte) -1, rawArray, 3, target, 0);
+    }
+
+    @Test
+    public void testRead_differentTargetType() throws InvalidRangeException {
+        final Array rawArray = create2DArray(short.class);
+        final int[] centerX = {3, 0};
+        final int[] centerY = {3, 0};
+
+        final Array target = Array.factory(DataType.INT, new int[]{2, 3, 3});
+        RawDataReader.read(centerX, centerY, windowSize, -2, rawArray, 10, target, 0);
+
+        assertArrayEquals(new int[]{
+                22, 32, 42,
+                23, 33, 43,
+                24, 34, 44,
+
+                -2, -2, -2,
+                -2, 0, 10,
+                -2, 1, 11
+        }, (int[]) target.getStorage());
+    }
+
+    private static Array create2DArray(Class elementType) {
+        final Array array = Array.factory(elementType, new int[]{10, 10});
+        for (int y = 0; y < 10; y++) {
+            for (int x = 0; x < 10; x++) {
+                array.setInt(y * 10 + x, x * 10 + y);
+            }
+        }
+        return array;
+    }
+
+    private static void assertWindowsEqual(int[] centerX, int[] centerY, Number fillValue, Array rawArray, int defaultWidth, Array target, int targetZ) throws InvalidRangeException {
+        for (int i = 0; i < centerX.length; i++) {
+            // copy to canonical order, windows completely inside the raw data are returned as section views
+            final Array expected = RawDataReader.read(centerX[i], centerY[i], windowSize(), fillValue, rawArray, defaultWidth).copy();
+            for (int k = 0; k < 9; k++) {
+                assertEquals(expected.getDouble(k), target.getDouble((targetZ + i) * 9 + k), 1e-8);
+            }
+        }
+    }
+
+    private static Interval windowSize() {
+        return new Interval(3, 3);
+    }
+}
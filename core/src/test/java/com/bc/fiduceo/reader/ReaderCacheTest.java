@@ -109,6 +109,18 @@ public class ReaderCacheTest {
         verify(reader_2, times(1)).close();
     }
 
+    @Test
+    public void testGetReaderFor_cachedReaderIsNotOpenedAgain() throws IOException {
+        final Reader reader = mock(Reader.class);
+        readerCache.add(reader, Paths.get("a/relative/path/one"));
+
+        final Reader retrievedReader = readerCache.getReaderFor("the_sensor", Paths.get("a/relative/path/one"), "v1");
+        assertSame(reader, retrievedReader);
+        assertEquals(0, readerCache.getNumReadersOpened());
+
+        verify(reader, never()).open(any());
+    }
+
 
 
 
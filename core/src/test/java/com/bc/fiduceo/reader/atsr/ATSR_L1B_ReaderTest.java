@@ -166,4 +166,28 @@ public class ATSR_L1B_ReaderTest {
         final double noDataValue = ATSR_L1B_Reader.getGeophysicalNoDataValue(dataNode);
         assertEquals(-32767.0, noDataValue, 1e-8);
     }
+
+    @Test
+    public void testFill() {
+        final short[] shorts = new short[3];
+        ATSR_L1B_Reader.fill(shorts, -32768.0);
+        assertArrayEquals(new short[]{-32768, -32768, -32768}, shorts);
+
+        final int[] ints = new int[2];
+        ATSR_L1B_Reader.fill(ints, -2.147483647E9);
+        assertArrayEquals(new int[]{-2147483647, -2147483647}, ints);
+
+        final float[] floats = new float[2];
+        ATSR_L1B_Reader.fill(floats, -12.5);
+        assertArrayEquals(new float[]{-12.5f, -12.5f}, floats, 1e-8f);
+    }
+
+    @Test
+    public void testFill_unsupportedType() {
+        try {
+            ATSR_L1B_Reader.fill(new long[2], 0.0);
+            fail("RuntimeException expected");
+        } catch (RuntimeException expected) {
+        }
+    }
 }
@@ -0,0 +1,109 @@
+/*
+ * Copyright (C) 2016 Brockmann Consult GmbH
+ * This code was developed for the EC project "Fidelity and Uncertainty in
+ * Climate Data Records from Earth Observations (FIDUCEO)".
+ * Grant Agreement: 638822
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * A copy of the GNU General Public License should have been supplied along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ *
+ */
+
+package com.bc.fiduceo.reader.atsr;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class RasterTileCacheTest {
+
+    private List<String> loads;
+    private RasterTileCache cache;
+
+    @Before
+    public void setUp() {
+        loads = new ArrayList<>();
+        cache = new RasterTileCache(4, 10, 2, (variableName, y, height) -> {
+            loads.add(variableName + ":" + y + ":" + height);
+            final int[] tile = new int[height * 3];
+            for (int i = 0; i < tile.length; i++) {
+                tile[i] = y * 3 + i;
+            }
+            return tile;
+        });
+    }
+
+    @Test
+    public void testGetTile() throws IOException {
+        final int[] tile = (int[]) cache.getTile("btemp", 5);
+
+        assertArrayEquals(new int[]{12, 13, 14, 15, 16, 17, 18, 19, 20, 21, 22, 23}, tile);
+        assertEquals(1, loads.size());
+        assertEquals("btemp:4:4", loads.get(0));
+    }
+
+    @Test
+    public void testGetTile_lastTileIsClipped() throws IOException {
+        final int[] tile = (int[]) cache.getTile("btemp", 9);
+
+        assertEquals(6, tile.length);
+        assertEquals("btemp:8:2", loads.get(0));
+    }
+
+    @Test
+    public void testGetTile_linesOfSameTileAreServedFromCache() throws IOException {
+        final Object tile = cache.getTile("btemp", 0);
+
+        assertSame(tile, cache.getTile("btemp", 1));
+        assertSame(tile, cache.getTile("btemp", 3));
+        assertEquals(1, loads.size());
+    }
+
+    @Test
+    public void testGetTile_variablesAreCachedSeparately() throws IOException {
+        cache.getTile("btemp", 0);
+        cache.getTile("reflec", 0);
+
+        assertEquals(2, loads.size());
+        assertEquals("reflec:0:4", loads.get(1));
+    }
+
+    @Test
+    public void testGetTile_leastRecentlyUsedIsEvicted() throws IOException {
+        cache.getTile("btemp", 0);
+        cache.getTile("btemp", 4);
+        cache.getTile("btemp", 0);
+        cache.getTile("btemp", 8);     // evicts the tile at line 4
+
+        cache.getTile("btemp", 0);
+        assertEquals(3, loads.size());
+
+        cache.getTile("btemp", 4);
+        assertEquals(4, loads.size());
+    }
+
+    @Test
+    public void testClear() throws IOException {
+        cache.getTile("btemp", 0);
+        cache.clear();
+        cache.getTile("btemp", 0);
+
+        assertEquals(2, loads.size());
+    }
+}
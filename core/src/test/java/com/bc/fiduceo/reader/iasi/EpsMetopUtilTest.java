@@ -26,7 +26,9 @@ import org.junit.Test;
 
 import javax.imageio.stream.ImageInputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.Calendar;
+import java.util.TimeZone;
 
 import static org.junit.Assert.assertEquals;
 import static org.mockito.Mockito.mock;
@@ -109,4 +111,63 @@ public class EpsMetopUtilTest {
 
         assertEquals(16000.0, EpsMetopUtil.readVInt4(imageInputStream), 1e-8);
     }
+
+    @Test
+    public void testReadShortCdsTimeMillis_buffer() {
+        final ByteBuffer buffer = ByteBuffer.allocate(10);
+        buffer.putShort(4, (short) 5732);
+        buffer.putInt(6, 46074870);
+
+        final long millis = EpsMetopUtil.readShortCdsTimeMillis(buffer, 4);
+
+        final Calendar calendar = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+        calendar.setTimeInMillis(millis);
+        assertEquals(2015, calendar.get(Calendar.YEAR));
+        assertEquals(8, calendar.get(Calendar.MONTH));
+        assertEquals(11, calendar.get(Calendar.DAY_OF_MONTH));
+        assertEquals(12, calendar.get(Calendar.HOUR_OF_DAY));
+        assertEquals(47, calendar.get(Calendar.MINUTE));
+        assertEquals(54, calendar.get(Calendar.SECOND));
+        assertEquals(870, calendar.get(Calendar.MILLISECOND));
+    }
+
+    @Test
+    public void testReadShortCdsTimeMillis_buffer_unsignedValues() {
+        final ByteBuffer buffer = ByteBuffer.allocate(6);
+        buffer.putShort(0, (short) 0xFFFF);
+        buffer.putInt(2, 0xFFFFFFFF);
+
+        assertEquals(946684800000L + 65535L * 86400000L + 4294967295L, EpsMetopUtil.readShortCdsTimeMillis(buffer, 0));
+    }
+
+    @Test
+    public void testReadOBT_buffer() {
+        final ByteBuffer buffer = ByteBuffer.allocate(6);
+        buffer.putShort(0, (short) 0);
+        buffer.putInt(2, 46074870);
+        assertEquals(46074870L, EpsMetopUtil.readOBT(buffer, 0));
+
+        buffer.putShort(0, (short) 1);
+        buffer.putInt(2, 0);
+        assertEquals(4294967296L, EpsMetopUtil.readOBT(buffer, 0));
+
+        buffer.putShort(0, (short) 128);
+        buffer.putInt(2, 2048);
+        assertEquals(549755815936L, EpsMetopUtil.readOBT(buffer, 0));
+    }
+
+    @Test
+    public void testReadVInt4_buffer() {
+        final ByteBuffer buffer = ByteBuffer.allocate(7);
+        buffer.put(2, (byte) 2);
+        buffer.putInt(3, 200);
+        assertEquals(2.0, EpsMetopUtil.readVInt4(buffer, 2), 1e-8);
+
+        buffer.put(2, (byte) -2);
+        assertEquals(20000.0, EpsMetopUtil.readVInt4(buffer, 2), 1e-8);
+
+        buffer.put(2, (byte) 3);
+        buffer.putInt(3, 16);
+        assertEquals(0.01600000075995922, EpsMetopUtil.readVInt4(buffer, 2), 1e-8);
+    }
 }
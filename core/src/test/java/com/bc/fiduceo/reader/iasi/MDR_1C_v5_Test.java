@@ -22,8 +22,11 @@ package com.bc.fiduceo.reader.iasi;
 
 import org.junit.Test;
 
+import java.nio.ByteBuffer;
+import java.nio.ShortBuffer;
 import java.util.HashMap;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
@@ -76,4 +79,47 @@ public class MDR_1C_v5_Test {
         assertEquals(float.class, readProxy.getDataType());
         assertTrue(Double.isNaN(readProxy.getScaleFactor()));
     }
+
+    @Test
+    public void testGet_GS1cSpectBuffer() throws Exception {
+        final ByteBuffer record = ByteBuffer.allocateDirect((int) MDR_1C_v5.RECORD_SIZE);
+        // x = 3 is the second EFOV, line 0 maps to pixel 0 within it
+        final int spectrumOffset = 276790 + 4 * 17400;
+        record.putShort(spectrumOffset, (short) 118);
+        record.putShort(spectrumOffset + 2, (short) -4);
+        record.putShort(spectrumOffset + 2 * (EpsMetopConstants.SS - 1), (short) 2071);
+
+        final MDR_1C_v5 mdr_1C = new MDR_1C_v5(record);
+
+        final ShortBuffer spectrum = mdr_1C.get_GS1cSpectBuffer(3, 0);
+        assertEquals(EpsMetopConstants.SS, spectrum.remaining());
+        assertTrue(spectrum.isReadOnly());
+        assertEquals(118, spectrum.get(0));
+        assertEquals(-4, spectrum.get(1));
+        assertEquals(0, spectrum.get(2));
+        assertEquals(2071, spectrum.get(EpsMetopConstants.SS - 1));
+
+        final short[] spectrumArray = mdr_1C.get_GS1cSpect(3, 0);
+        final short[] expected = new short[EpsMetopConstants.SS];
+        spectrum.get(expected);
+        assertArrayEquals(expected, spectrumArray);
+    }
+
+    @Test
+    public void testReadPerEFOV_andPerPixel() throws Exception {
+        final ByteBuffer record = ByteBuffer.allocateDirect((int) MDR_1C_v5.RECORD_SIZE);
+        record.putShort(1000 + 2 * 2, (short) -19);
+        record.putInt(2000 + 4 * 2, 1234567);
+        record.put(3000, (byte) 2);
+        record.putInt(3001, 2000);
+        record.put(4000 + 2 * 4 + 3, (byte) 17);
+
+        final MDR_1C_v5 mdr_1C = new MDR_1C_v5(record);
+
+        assertEquals(-19, mdr_1C.readPerEFOV_short(4, 1000));
+        assertEquals(1234567, mdr_1C.readPerEFOV_int(5, 2000));
+        assertEquals(20.f, mdr_1C.readPerScan_vInt4(3000), 1e-6);
+        // x = 4 is an even pixel, line 0 maps to EFOV index 3
+        assertEquals(17, mdr_1C.readPerPixel_byte(4, 0, 4000));
+    }
 }
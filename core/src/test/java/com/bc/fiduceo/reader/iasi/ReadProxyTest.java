@@ -21,6 +21,7 @@
 package com.bc.fiduceo.reader.iasi;
 
 import org.junit.Test;
+import ucar.ma2.Array;
 
 import java.io.IOException;
 
@@ -268,4 +269,59 @@ public class ReadProxyTest {
         final Object data = vint4PerEfov.read(10, 1, new MDR_1C_v4());
         assertEquals(9.969209968386869E36, (float) data, 1e-8);
     }
+
+    @Test
+    public void testBytesPerScan_intoArray() throws IOException {
+        final ReadProxy.bytePerScan bytePerScan = new ReadProxy.bytePerScan(12);
+        final Array array = Array.factory(byte.class, new int[]{2, 3});
+
+        final MDR_1C_v5 mdr_1C = mock(MDR_1C_v5.class);
+        when(mdr_1C.readPerScan_byte(12)).thenReturn((byte) 44);
+
+        bytePerScan.read(3, 4, mdr_1C, array, 4);
+        assertEquals(44, array.getByte(4));
+        assertEquals(0, array.getByte(3));
+
+        verify(mdr_1C, times(1)).readPerScan_byte(12);
+        verifyNoMoreInteractions(mdr_1C);
+    }
+
+    @Test
+    public void testUtcPerEVOF_intoArray() throws IOException {
+        final ReadProxy.utcPerEVOF utcPerEVOF = new ReadProxy.utcPerEVOF(15);
+        final Array array = Array.factory(long.class, new int[]{1, 2});
+
+        final MDR_1C_v5 mdr_1C = mock(MDR_1C_v5.class);
+        when(mdr_1C.readPerEFOV_utc(6, 15)).thenReturn(1442000000000L);
+
+        utcPerEVOF.read(6, 1, mdr_1C, array, 1);
+        assertEquals(1442000000000L, array.getLong(1));
+
+        verify(mdr_1C, times(1)).readPerEFOV_utc(6, 15);
+        verifyNoMoreInteractions(mdr_1C);
+    }
+
+    @Test
+    public void testDualIntPerPixel_intoArray() throws IOException {
+        final ReadProxy.dualIntPerPixel dualIntPerPixel = new ReadProxy.dualIntPerPixel(19, 1, 1.0);
+        final Array array = Array.factory(int.class, new int[]{1, 1});
+
+        final MDR_1C_v5 mdr_1C = mock(MDR_1C_v5.class);
+        when(mdr_1C.readPerPixel_oneOfDualInt(10, 1, 19, 1)).thenReturn(51);
+
+        dualIntPerPixel.read(10, 1, mdr_1C, array, 0);
+        assertEquals(51, array.getInt(0));
+
+        verify(mdr_1C, times(1)).readPerPixel_oneOfDualInt(10, 1, 19, 1);
+        verifyNoMoreInteractions(mdr_1C);
+    }
+
+    @Test
+    public void testShortPerPixel_fillValue_intoArray() throws IOException {
+        final ReadProxy.shortPerPixel_fillValue shortPerPixel = new ReadProxy.shortPerPixel_fillValue();
+        final Array array = Array.factory(short.class, new int[]{1, 1});
+
+        shortPerPixel.read(9, 0, new MDR_1C_v4(), array, 0);
+        assertEquals(-32767, array.getShort(0));
+    }
 }
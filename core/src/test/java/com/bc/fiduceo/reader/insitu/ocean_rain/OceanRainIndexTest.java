@@ -0,0 +1,178 @@
+/*
+ * Copyright (C) 2017 Brockmann Consult GmbH
+ * This code was developed for the EC project "Fidelity and Uncertainty in
+ * Climate Data Records from Earth Observations (FIDUCEO)".
+ * Grant Agreement: 638822
+ *
+ *  This program is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License as published by the Free
+ *  Software Foundation; either version 3 of the License, or (at your option)
+ *  any later version.
+ *  This program is distributed in the hope that it will be useful, but WITHOUT
+ *  ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ *  FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ *  more details.
+ *
+ *  A copy of the GNU General Public License should have been supplied along
+ *  with this program; if not, see http://www.gnu.org/licenses/
+ *
+ */
+
+package com.bc.fiduceo.reader.insitu.ocean_rain;
+
+import com.bc.fiduceo.TestUtil;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class OceanRainIndexTest {
+
+    private File asciiFile;
+
+    @Before
+    public void setUp() throws IOException {
+        final File testDirectory = TestUtil.createTestDirectory();
+        asciiFile = new File(testDirectory, "OceanRAIN_allships_2010-2017_SST.ascii");
+        // intentionally not sorted by time
+        writeLines(asciiFile,
+                   "16092016 2126 8294.893056   1474061100   8.9958 -138.0500  28.5\n",
+                   "13062010 2012 6007.841667   1276459920  64.5660    0.3195   9.5\n",
+                   "17062010 0247 6011.115972   1276742820  73.8891  -19.5511  -1.8\n",
+                   "13062010 2013 6007.842361   1276459980  64.5661    0.3196   9.6\n");
+    }
+
+    @After
+    public void tearDown() {
+        TestUtil.deleteTestDirectory();
+    }
+
+    @Test
+    public void testOpen_createsSidecar() throws IOException {
+        final OceanRainIndex index = OceanRainIndex.open(asciiFile);
+
+        final File sidecarFile = new File(asciiFile.getPath() + OceanRainIndex.SIDECAR_EXTENSION);
+        assertTrue(sidecarFile.isFile());
+        assertTrue(OceanRainIndex.isValid(sidecarFile, asciiFile));
+
+        assertEquals(4, index.getNumRecords());
+    }
+
+    @Test
+    public void testGetLine_keepsFileOrder() throws IOException {
+        final OceanRainIndex index = OceanRainIndex.open(asciiFile);
+
+        Line line = index.getLine(0);
+        assertEquals(-138.05f, line.getLon(), 1e-8);
+        assertEquals(8.9958f, line.getLat(), 1e-8);
+        assertEquals(1474061100, line.getTime());
+        assertEquals(28.5f, line.getSst(), 1e-8);
+
+        line = index.getLine(2);
+        assertEquals(-19.5511f, line.getLon(), 1e-8);
+        assertEquals(73.8891f, line.getLat(), 1e-8);
+        assertEquals(1276742820, line.getTime());
+        assertEquals(-1.8f, line.getSst(), 1e-8);
+
+        assertEquals(1276459980, index.getTime(3));
+    }
+
+    @Test
+    public void testGetMinMaxTime() throws IOException {
+        final OceanRainIndex index = OceanRainIndex.open(asciiFile);
+
+        assertEquals(1276459920, index.getMinTime());
+        assertEquals(1474061100, index.getMaxTime());
+    }
+
+    @Test
+    public void testGetLinesInTimeRange() throws IOException {
+        final OceanRainIndex index = OceanRainIndex.open(asciiFile);
+
+        assertArrayEquals(new int[]{1, 3, 2, 0}, index.getLinesInTimeRange(1276459920, 1474061100));
+        assertArrayEquals(new int[]{1, 3}, index.getLinesInTimeRange(1276459920, 1276459980));
+        assertArrayEquals(new int[]{3, 2}, index.getLinesInTimeRange(1276459921, 1276742820));
+        assertArrayEquals(new int[]{0}, index.getLinesInTimeRange(1474061100, Integer.MAX_VALUE));
+        assertArrayEquals(new int[0], index.getLinesInTimeRange(1276742821, 1474061099));
+        assertArrayEquals(new int[0], index.getLinesInTimeRange(1474061101, 1474061200));
+    }
+
+    @Test
+    public void testOpen_reusesValidSidecar() throws IOException {
+        OceanRainIndex.open(asciiFile);
+        final File sidecarFile = new File(asciiFile.getPath() + OceanRainIndex.SIDECAR_EXTENSION);
+        final long lastModified = sidecarFile.lastModified();
+        assertTrue(sidecarFile.setLastModified(lastModified - 10000L));
+
+        final OceanRainIndex index = OceanRainIndex.open(asciiFile);
+        assertEquals(lastModified - 10000L, sidecarFile.lastModified());
+        assertEquals(4, index.getNumRecords());
+    }
+
+    @Test
+    public void testOpen_recreatesOutdatedSidecar() throws IOException {
+        OceanRainIndex.open(asciiFile);
+
+        writeLines(asciiFile,
+                   "13062010 2012 6007.841667   1276459920  64.5660    0.3195   9.5\n",
+                   "17062010 0247 6011.115972   1276742820  73.8891  -19.5511  -1.8\n");
+
+        final File sidecarFile = new File(asciiFile.getPath() + OceanRainIndex.SIDECAR_EXTENSION);
+        assertFalse(OceanRainIndex.isValid(sidecarFile, asciiFile));
+
+        final OceanRainIndex index = OceanRainIndex.open(asciiFile);
+        assertEquals(2, index.getNumRecords());
+        assertEquals(1276742820, index.getMaxTime());
+    }
+
+    @Test
+    public void testIsValid_missingFile() throws IOException {
+        assertFalse(OceanRainIndex.isValid(new File(asciiFile.getParentFile(), "not_there.idx"), asciiFile));
+    }
+
+    @Test
+    public void testIsValid_sameFileInOtherDirectory() throws IOException {
+        final File sidecarFile = new File(asciiFile.getPath() + OceanRainIndex.SIDECAR_EXTENSION);
+        OceanRainIndex.convert(asciiFile, sidecarFile);
+
+        final File otherDirectory = new File(asciiFile.getParentFile(), "other");
+        assertTrue(otherDirectory.mkdirs());
+        final File otherAsciiFile = new File(otherDirectory, asciiFile.getName());
+        Files.copy(asciiFile.toPath(), otherAsciiFile.toPath());
+        assertTrue(otherAsciiFile.setLastModified(asciiFile.lastModified()));
+
+        assertTrue(OceanRainIndex.isValid(sidecarFile, asciiFile));
+        assertFalse(OceanRainIndex.isValid(sidecarFile, otherAsciiFile));
+    }
+
+    @Test
+    public void testGetTempSidecarFile() {
+        final File otherAsciiFile = new File(new File(asciiFile.getParentFile(), "other"), asciiFile.getName());
+
+        final File tempSidecarFile = OceanRainIndex.getTempSidecarFile(asciiFile);
+        assertEquals(new File(System.getProperty("java.io.tmpdir")), tempSidecarFile.getParentFile());
+        assertTrue(tempSidecarFile.getName().startsWith(asciiFile.getName()));
+        assertTrue(tempSidecarFile.getName().endsWith(OceanRainIndex.SIDECAR_EXTENSION));
+
+        assertEquals(tempSidecarFile, OceanRainIndex.getTempSidecarFile(asciiFile));
+        assertNotEquals(tempSidecarFile, OceanRainIndex.getTempSidecarFile(otherAsciiFile));
+    }
+
+    private static void writeLines(File file, String... lines) throws IOException {
+        try (FileOutputStream outputStream = new FileOutputStream(file)) {
+            for (final String line : lines) {
+                outputStream.write(line.getBytes());
+            }
+        }
+    }
+}
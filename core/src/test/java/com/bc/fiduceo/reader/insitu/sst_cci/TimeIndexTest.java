@@ -0,0 +1,87 @@
+/*
+ * Copyright (C) 2017 Brockmann Consult GmbH
+ * This code was developed for the EC project "Fidelity and Uncertainty in
+ * Climate Data Records from Earth Observations (FIDUCEO)".
+ * Grant Agreement: 638822
+ *
+ *  This program is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License as published by the Free
+ *  Software Foundation; either version 3 of the License, or (at your option)
+ *  any later version.
+ *  This program is distributed in the hope that it will be useful, but WITHOUT
+ *  ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ *  FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ *  more details.
+ *
+ *  A copy of the GNU General Public License should have been supplied along
+ *  with this program; if not, see http://www.gnu.org/licenses/
+ *
+ */
+
+package com.bc.fiduceo.reader.insitu.sst_cci;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TimeIndexTest {
+
+    @Test
+    public void testCreate_sorted() {
+        final TimeIndex timeIndex = TimeIndex.create(new int[]{10, 20, 20, 30, 40});
+
+        assertTrue(timeIndex.isSorted());
+        assertEquals(5, timeIndex.size());
+        assertEquals(10, timeIndex.getMinTime());
+        assertEquals(40, timeIndex.getMaxTime());
+    }
+
+    @Test
+    public void testCreate_unsorted() {
+        final TimeIndex timeIndex = TimeIndex.create(new int[]{30, 10, 40, 20});
+
+        assertFalse(timeIndex.isSorted());
+        assertEquals(4, timeIndex.size());
+        assertEquals(10, timeIndex.getMinTime());
+        assertEquals(40, timeIndex.getMaxTime());
+    }
+
+    @Test
+    public void testLowerAndUpperBound() {
+        final TimeIndex timeIndex = TimeIndex.create(new int[]{10, 20, 20, 30, 40});
+
+        assertEquals(0, timeIndex.lowerBound(5));
+        assertEquals(0, timeIndex.lowerBound(10));
+        assertEquals(1, timeIndex.lowerBound(11));
+        assertEquals(1, timeIndex.lowerBound(20));
+        assertEquals(5, timeIndex.lowerBound(41));
+
+        assertEquals(0, timeIndex.upperBound(9));
+        assertEquals(1, timeIndex.upperBound(10));
+        assertEquals(3, timeIndex.upperBound(20));
+        assertEquals(5, timeIndex.upperBound(40));
+    }
+
+    @Test
+    public void testGetRows_sorted() {
+        final TimeIndex timeIndex = TimeIndex.create(new int[]{10, 20, 20, 30, 40});
+
+        assertArrayEquals(new int[]{1, 2, 3}, timeIndex.getRows(15, 30));
+        assertArrayEquals(new int[]{0, 1, 2, 3, 4}, timeIndex.getRows(10, 40));
+        assertArrayEquals(new int[]{4}, timeIndex.getRows(40, Integer.MAX_VALUE));
+        assertArrayEquals(new int[0], timeIndex.getRows(21, 29));
+        assertArrayEquals(new int[0], timeIndex.getRows(41, 50));
+    }
+
+    @Test
+    public void testGetRows_unsorted() {
+        final TimeIndex timeIndex = TimeIndex.create(new int[]{30, 10, 40, 20, 10});
+
+        assertArrayEquals(new int[]{1, 4, 3}, timeIndex.getRows(10, 20));
+        assertArrayEquals(new int[]{3, 0, 2}, timeIndex.getRows(11, 40));
+        assertArrayEquals(new int[0], timeIndex.getRows(31, 39));
+    }
+}
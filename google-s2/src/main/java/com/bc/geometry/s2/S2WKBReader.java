@@ -0,0 +1,187 @@
+/*
+ * Copyright (C) 2015 Brockmann Consult GmbH
+ * This code was developed for the EC project "Fidelity and Uncertainty in
+ * Climate Data Records from Earth Observations (FIDUCEO)".
+ * Grant Agreement: 638822
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * A copy of the GNU General Public License should have been supplied along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ *
+ */
+
+
+package com.bc.geometry.s2;
+
+import com.google.common.geometry.S2LatLng;
+import com.google.common.geometry.S2Loop;
+import com.google.common.geometry.S2Point;
+import com.google.common.geometry.S2Polygon;
+import com.google.common.geometry.S2Polyline;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads OGC well-known binary into S2 geometries, the result types are the same as delivered by the S2WKTReader.
+ * Both byte orders are accepted; Z and M ordinates (ISO or EWKB flagged) are skipped, as is an EWKB SRID.
+ */
+public class S2WKBReader {
+
+    private static final int EWKB_Z = 0x80000000;
+    private static final int EWKB_M = 0x40000000;
+    private static final int EWKB_SRID = 0x20000000;
+
+    public Object read(byte[] wkb) throws IllegalArgumentException {
+        final ByteBuffer buffer = ByteBuffer.wrap(wkb);
+        try {
+            return readGeometry(buffer);
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Truncated well-known binary geometry");
+        }
+    }
+
+    private Object readGeometry(ByteBuffer buffer) {
+        final int type = readHeader(buffer);
+        final int numOrdinates = getNumOrdinates(type);
+
+        switch (getBaseType(type)) {
+            case S2WKBWriter.POINT:
+                return readCoordinate(buffer, numOrdinates);
+            case S2WKBWriter.LINESTRING:
+                return new S2Polyline(readCoordinates(buffer, numOrdinates));
+            case S2WKBWriter.POLYGON:
+                return readPolygon(buffer, numOrdinates);
+            case S2WKBWriter.MULTILINESTRING:
+                return readMultiLineString(buffer);
+            case S2WKBWriter.MULTIPOLYGON:
+                return readMultiPolygon(buffer);
+            default:
+                throw new IllegalArgumentException("Unsupported geometry type: " + type);
+        }
+    }
+
+    private S2Polygon readPolygon(ByteBuffer buffer, int numOrdinates) {
+        final int numRings = buffer.getInt();
+        if (numRings == 0) {
+            return new S2Polygon();
+        }
+
+        final ArrayList<S2Loop> loops = new ArrayList<>(numRings);
+        final S2Loop shell = new S2Loop(readRing(buffer, numOrdinates));
+        shell.normalize();
+        loops.add(shell);
+        for (int i = 1; i < numRings; i++) {
+            loops.add(new S2Loop(readRing(buffer, numOrdinates)));
+        }
+        return new S2Polygon(loops);
+    }
+
+    private List<S2Polyline> readMultiLineString(ByteBuffer buffer) {
+        final int numLineStrings = buffer.getInt();
+        final List<S2Polyline> polylines = new ArrayList<>(numLineStrings);
+        for (int i = 0; i < numLineStrings; i++) {
+            final int type = readHeader(buffer);
+            if (getBaseType(type) != S2WKBWriter.LINESTRING) {
+                throw new IllegalArgumentException("Linestring expected in multilinestring, found type: " + type);
+            }
+            // the WKT reader drops a closing vertex here, we need to stay compatible
+            polylines.add(new S2Polyline(readRing(buffer, getNumOrdinates(type))));
+        }
+        return polylines;
+    }
+
+    private List<S2Polygon> readMultiPolygon(ByteBuffer buffer) {
+        final int numPolygons = buffer.getInt();
+        final List<S2Polygon> polygons = new ArrayList<>(numPolygons);
+        for (int i = 0; i < numPolygons; i++) {
+            final int type = readHeader(buffer);
+            if (getBaseType(type) != S2WKBWriter.POLYGON) {
+                throw new IllegalArgumentException("Polygon expected in multipolygon, found type: " + type);
+            }
+            polygons.add(readPolygon(buffer, getNumOrdinates(type)));
+        }
+        return polygons;
+    }
+
+    private List<S2Point> readRing(ByteBuffer buffer, int numOrdinates) {
+        final List<S2Point> points = readCoordinates(buffer, numOrdinates);
+        final int lastIndex = points.size() - 1;
+        if (points.size() > 1 && points.get(0).equals(points.get(lastIndex))) {
+            points.remove(lastIndex);
+        }
+        return points;
+    }
+
+    private List<S2Point> readCoordinates(ByteBuffer buffer, int numOrdinates) {
+        final int numPoints = buffer.getInt();
+        if (numPoints < 0 || (long) numPoints * numOrdinates * 8 > buffer.remaining()) {
+            throw new IllegalArgumentException("Invalid number of points: " + numPoints);
+        }
+
+        final List<S2Point> points = new ArrayList<>(numPoints);
+        for (int i = 0; i < numPoints; i++) {
+            points.add(readCoordinate(buffer, numOrdinates));
+        }
+        return points;
+    }
+
+    private S2Point readCoordinate(ByteBuffer buffer, int numOrdinates) {
+        final double lon = buffer.getDouble();
+        final double lat = buffer.getDouble();
+        for (int i = 2; i < numOrdinates; i++) {
+            buffer.getDouble();
+        }
+        return S2LatLng.fromDegrees(lat, lon).toPoint();
+    }
+
+    private int readHeader(ByteBuffer buffer) {
+        final byte byteOrder = buffer.get();
+        if (byteOrder == S2WKBWriter.NDR) {
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+        } else if (byteOrder == S2WKBWriter.XDR) {
+            buffer.order(ByteOrder.BIG_ENDIAN);
+        } else {
+            throw new IllegalArgumentException("Invalid byte order flag: " + byteOrder);
+        }
+
+        final int type = buffer.getInt();
+        if ((type & EWKB_SRID) != 0) {
+            buffer.getInt();
+        }
+        return type;
+    }
+
+    private static int getBaseType(int type) {
+        return (type & 0x0fffffff) % 1000;
+    }
+
+    private static int getNumOrdinates(int type) {
+        int numOrdinates = 2;
+        if ((type & EWKB_Z) != 0) {
+            numOrdinates++;
+        }
+        if ((type & EWKB_M) != 0) {
+            numOrdinates++;
+        }
+
+        final int isoDimension = (type & 0x0fffffff) / 1000;
+        if (isoDimension == 1 || isoDimension == 2) {
+            numOrdinates++;
+        } else if (isoDimension == 3) {
+            numOrdinates += 2;
+        }
+        return numOrdinates;
+    }
+}
@@ -0,0 +1,178 @@
+/*
+ * Copyright (C) 2015 Brockmann Consult GmbH
+ * This code was developed for the EC project "Fidelity and Uncertainty in
+ * Climate Data Records from Earth Observations (FIDUCEO)".
+ * Grant Agreement: 638822
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * A copy of the GNU General Public License should have been supplied along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ *
+ */
+
+
+package com.bc.geometry.s2;
+
+import com.google.common.geometry.S2LatLng;
+import com.google.common.geometry.S2Loop;
+import com.google.common.geometry.S2Point;
+import com.google.common.geometry.S2Polygon;
+import com.google.common.geometry.S2Polyline;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.List;
+
+/**
+ * Writes S2 geometries as OGC well-known binary (little endian, 2D, coordinates in degrees as lon/lat). Supports the
+ * geometry types of the S2WKTWriter plus lists of polygons, which are written as MULTIPOLYGON. Polygon loops are
+ * written as closed rings.
+ */
+public class S2WKBWriter {
+
+    static final byte NDR = 1;
+    static final byte XDR = 0;
+
+    static final int POINT = 1;
+    static final int LINESTRING = 2;
+    static final int POLYGON = 3;
+    static final int MULTILINESTRING = 5;
+    static final int MULTIPOLYGON = 6;
+
+    private static final int HEADER_SIZE = 5;
+    private static final int COORDINATE_SIZE = 16;
+
+    @SuppressWarnings("unchecked")
+    public static byte[] write(Object geometry) {
+        if (geometry instanceof S2Polyline) {
+            final S2Polyline polyline = (S2Polyline) geometry;
+            checkLineString(polyline);
+            final ByteBuffer buffer = allocate(getSize(polyline));
+            writeLineString(polyline, buffer);
+            return buffer.array();
+        } else if (geometry instanceof List) {
+            final List geometryList = (List) geometry;
+            if (!geometryList.isEmpty() && geometryList.get(0) instanceof S2Polyline) {
+                return writeMultiLineString((List<S2Polyline>) geometry);
+            } else if (!geometryList.isEmpty() && geometryList.get(0) instanceof S2Polygon) {
+                return writeMultiPolygon((List<S2Polygon>) geometry);
+            }
+        } else if (geometry instanceof S2Point) {
+            return writePoint(new S2LatLng((S2Point) geometry));
+        } else if (geometry instanceof S2LatLng) {
+            return writePoint((S2LatLng) geometry);
+        } else if (geometry instanceof S2Polygon) {
+            final S2Polygon polygon = (S2Polygon) geometry;
+            final ByteBuffer buffer = allocate(getSize(polygon));
+            writePolygon(polygon, buffer);
+            return buffer.array();
+        }
+
+        throw new IllegalArgumentException("unsupported geometry type: " + geometry);
+    }
+
+    private static byte[] writePoint(S2LatLng latLng) {
+        final ByteBuffer buffer = allocate(HEADER_SIZE + COORDINATE_SIZE);
+        writeHeader(POINT, buffer);
+        buffer.putDouble(latLng.lngDegrees());
+        buffer.putDouble(latLng.latDegrees());
+        return buffer.array();
+    }
+
+    private static byte[] writeMultiLineString(List<S2Polyline> polylines) {
+        int size = HEADER_SIZE + 4;
+        for (final S2Polyline polyline : polylines) {
+            checkLineString(polyline);
+            size += getSize(polyline);
+        }
+
+        final ByteBuffer buffer = allocate(size);
+        writeHeader(MULTILINESTRING, buffer);
+        buffer.putInt(polylines.size());
+        for (final S2Polyline polyline : polylines) {
+            writeLineString(polyline, buffer);
+        }
+        return buffer.array();
+    }
+
+    private static byte[] writeMultiPolygon(List<S2Polygon> polygons) {
+        int size = HEADER_SIZE + 4;
+        for (final S2Polygon polygon : polygons) {
+            size += getSize(polygon);
+        }
+
+        final ByteBuffer buffer = allocate(size);
+        writeHeader(MULTIPOLYGON, buffer);
+        buffer.putInt(polygons.size());
+        for (final S2Polygon polygon : polygons) {
+            writePolygon(polygon, buffer);
+        }
+        return buffer.array();
+    }
+
+    private static void writeLineString(S2Polyline polyline, ByteBuffer buffer) {
+        writeHeader(LINESTRING, buffer);
+        final int numVertices = polyline.numVertices();
+        buffer.putInt(numVertices);
+        for (int i = 0; i < numVertices; i++) {
+            writeCoordinate(polyline.vertex(i), buffer);
+        }
+    }
+
+    private static void writePolygon(S2Polygon polygon, ByteBuffer buffer) {
+        writeHeader(POLYGON, buffer);
+        final int numLoops = polygon.numLoops();
+        buffer.putInt(numLoops);
+        for (int i = 0; i < numLoops; i++) {
+            final S2Loop loop = polygon.loop(i);
+            final int numVertices = loop.numVertices();
+            buffer.putInt(numVertices + 1);
+            for (int k = 0; k < numVertices; k++) {
+                writeCoordinate(loop.vertex(k), buffer);
+            }
+            writeCoordinate(loop.vertex(0), buffer);
+        }
+    }
+
+    private static void writeHeader(int type, ByteBuffer buffer) {
+        buffer.put(NDR);
+        buffer.putInt(type);
+    }
+
+    private static void writeCoordinate(S2Point vertex, ByteBuffer buffer) {
+        final S2LatLng latLng = new S2LatLng(vertex);
+        buffer.putDouble(latLng.lngDegrees());
+        buffer.putDouble(latLng.latDegrees());
+    }
+
+    private static int getSize(S2Polyline polyline) {
+        return HEADER_SIZE + 4 + polyline.numVertices() * COORDINATE_SIZE;
+    }
+
+    private static int getSize(S2Polygon polygon) {
+        int size = HEADER_SIZE + 4;
+        final int numLoops = polygon.numLoops();
+        for (int i = 0; i < numLoops; i++) {
+            size += 4 + (polygon.loop(i).numVertices() + 1) * COORDINATE_SIZE;
+        }
+        return size;
+    }
+
+    private static void checkLineString(S2Polyline polyline) {
+        if (polyline.numVertices() < 2) {
+            throw new IllegalArgumentException("Linestring contains less that 2 vertices.");
+        }
+    }
+
+    private static ByteBuffer allocate(int size) {
+        return ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+    }
+}
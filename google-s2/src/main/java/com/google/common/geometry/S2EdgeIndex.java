@@ -71,7 +71,7 @@ public abstract strictfp class S2EdgeIndex {
   /**
    * Empties the index in case it already contained something.
    */
-  public void reset() {
+  public synchronized void reset() {
     minimumS2LevelUsed = S2CellId.MAX_LEVEL;
     indexComputed = false;
     queryCount = 0;
@@ -100,7 +100,7 @@ public abstract strictfp class S2EdgeIndex {
   }
 
   /** Computes the index (if it has not been previously done). */
-  public final void computeIndex() {
+  public final synchronized void computeIndex() {
     if (indexComputed) {
       return;
     }
@@ -153,7 +153,7 @@ public abstract strictfp class S2EdgeIndex {
     edges = newEdges;
   }
 
-  public final boolean isIndexComputed() {
+  public final synchronized boolean isIndexComputed() {
     return indexComputed;
   }
 
@@ -161,7 +161,7 @@ public abstract strictfp class S2EdgeIndex {
    * Tell the index that we just received a new request for candidates. Useful
    * to compute when to switch to quad tree.
    */
-  protected final void incrementQueryCount() {
+  protected final synchronized void incrementQueryCount() {
     ++queryCount;
   }
 
@@ -201,7 +201,7 @@ public abstract strictfp class S2EdgeIndex {
    * while the marginal cost to find is 3ms. Thus, this is a reasonable thing to
    * do.
    */
-  public final void predictAdditionalCalls(int n) {
+  public final synchronized void predictAdditionalCalls(int n) {
     if (indexComputed) {
       return;
     }
@@ -141,8 +141,10 @@ public final strictfp class S2Loop implements S2Region, Comparable<S2Loop> {
   public S2Loop(S2Loop src) {
     this.numVertices = src.numVertices();
     this.vertices = src.vertices.clone();
-    this.vertexToIndex = src.vertexToIndex;
-    this.index = src.index;
+    synchronized (src) {
+      this.vertexToIndex = src.vertexToIndex;
+      this.index = src.index;
+    }
     this.firstLogicalVertex = src.firstLogicalVertex;
     this.bound = src.getRectBound();
     this.originInside = src.originInside;
@@ -704,6 +706,12 @@ public final strictfp class S2Loop implements S2Region, Comparable<S2Loop> {
    * edge lookups.
    */
   private final DataEdgeIterator getEdgeIterator(int expectedQueries) {
+    return new DataEdgeIterator(getEdgeIndex(expectedQueries));
+  }
+
+  // Loops are shared between threads, the index is built at most once and
+  // under the lock of the loop.
+  private synchronized S2EdgeIndex getEdgeIndex(int expectedQueries) {
     if (index == null) {
       index = new S2EdgeIndex() {
         @Override
@@ -723,7 +731,7 @@ public final strictfp class S2Loop implements S2Region, Comparable<S2Loop> {
       };
     }
     index.predictAdditionalCalls(expectedQueries);
-    return new DataEdgeIterator(index);
+    return index;
   }
 
   /** Return true if this loop is valid. */
@@ -889,18 +897,23 @@ public final strictfp class S2Loop implements S2Region, Comparable<S2Loop> {
     bound = b;
   }
 
+  private synchronized Map<S2Point, Integer> getVertexToIndex() {
+    if (vertexToIndex == null) {
+      Map<S2Point, Integer> map = new HashMap<S2Point, Integer>();
+      for (int i = 1; i <= numVertices; i++) {
+        map.put(vertex(i), i);
+      }
+      vertexToIndex = map;
+    }
+    return vertexToIndex;
+  }
+
   /**
    * Return the index of a vertex at point "p", or -1 if not found. The return
    * value is in the range 1..num_vertices_ if found.
    */
   private int findVertex(S2Point p) {
-    if (vertexToIndex == null) {
-      vertexToIndex = new HashMap<S2Point, Integer>();
-      for (int i = 1; i <= numVertices; i++) {
-        vertexToIndex.put(vertex(i), i);
-      }
-    }
-    Integer index = vertexToIndex.get(p);
+    Integer index = getVertexToIndex().get(p);
     if (index == null) {
       return -1;
     } else {
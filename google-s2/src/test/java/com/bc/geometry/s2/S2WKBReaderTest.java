@@ -0,0 +1,146 @@
+/*
+ * Copyright (C) 2015 Brockmann Consult GmbH
+ * This code was developed for the EC project "Fidelity and Uncertainty in
+ * Climate Data Records from Earth Observations (FIDUCEO)".
+ * Grant Agreement: 638822
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * A copy of the GNU General Public License should have been supplied along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ *
+ */
+
+
+package com.bc.geometry.s2;
+
+import com.google.common.geometry.S2LatLng;
+import com.google.common.geometry.S2Point;
+import com.google.common.geometry.S2Polygon;
+import com.google.common.geometry.S2Polyline;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+@SuppressWarnings("unchecked")
+public class S2WKBReaderTest {
+
+    private final S2WKBReader reader = new S2WKBReader();
+    private final S2WKTReader wktReader = new S2WKTReader();
+
+    @Test
+    public void testRead_sameAsWKT() {
+        final List<String> wkts = Arrays.asList("LINESTRING(1.9999999999999996 -39.0,1.0 -39.5,0.0 -40.0)",
+                                                "POLYGON((-10 -10, 10 -10, 10 10, -10 10, -10 -10))",
+                                                "POLYGON((-10 10, 10 10, 10 -10, -10 -10, -10 10))",
+                                                "MULTILINESTRING((10 18, 20 20, 10 40),(40 40, 30 30, 40 20, 30 10))");
+        for (final String wkt : wkts) {
+            final Object geometry = wktReader.read(wkt);
+            final Object expected = wktReader.read(S2WKTWriter.write(geometry));
+            final Object actual = reader.read(S2WKBWriter.write(geometry));
+
+            assertEquals(wkt, S2WKTWriter.write(expected), S2WKTWriter.write(actual));
+        }
+    }
+
+    @Test
+    public void testRead_point() {
+        final S2Point point = S2LatLng.fromDegrees(14.6, -22.8).toPoint();
+
+        final S2Point actual = (S2Point) reader.read(S2WKBWriter.write(point));
+
+        final S2LatLng latLng = new S2LatLng(actual);
+        assertEquals(-22.8, latLng.lngDegrees(), 1e-12);
+        assertEquals(14.6, latLng.latDegrees(), 1e-12);
+    }
+
+    @Test
+    public void testRead_multiPolygon() {
+        final List<S2Polygon> polygons = (List<S2Polygon>) wktReader.read("MULTIPOLYGON(((0 0, 5 0, 5 5, 0 5, 0 0)),((20 20, 25 20, 25 25, 20 25, 20 20)))");
+
+        final List<S2Polygon> actual = (List<S2Polygon>) reader.read(S2WKBWriter.write(polygons));
+
+        assertEquals(2, actual.size());
+        for (int i = 0; i < polygons.size(); i++) {
+            final S2Polygon expected = (S2Polygon) wktReader.read(S2WKTWriter.write(polygons.get(i)));
+            assertEquals(expected.toString(), actual.get(i).toString());
+        }
+    }
+
+    @Test
+    public void testRead_bigEndian_withZ() {
+        final ByteBuffer buffer = ByteBuffer.allocate(9 + 2 * 24).order(ByteOrder.BIG_ENDIAN);
+        buffer.put((byte) 0);
+        buffer.putInt(0x80000002);
+        buffer.putInt(2);
+        buffer.putDouble(10.0).putDouble(20.0).putDouble(100.0);
+        buffer.putDouble(11.0).putDouble(21.0).putDouble(100.0);
+
+        final S2Polyline polyline = (S2Polyline) reader.read(buffer.array());
+
+        assertEquals(2, polyline.numVertices());
+        final S2LatLng second = new S2LatLng(polyline.vertex(1));
+        assertEquals(11.0, second.lngDegrees(), 1e-12);
+        assertEquals(21.0, second.latDegrees(), 1e-12);
+    }
+
+    @Test
+    public void testRead_ewkbSrid() {
+        final ByteBuffer buffer = ByteBuffer.allocate(9 + 4 + 16).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.put((byte) 1);
+        buffer.putInt(0x20000001);
+        buffer.putInt(4326);
+        buffer.putDouble(-5.0).putDouble(7.5);
+
+        final S2Point point = (S2Point) reader.read(buffer.array());
+
+        final S2LatLng latLng = new S2LatLng(point);
+        assertEquals(-5.0, latLng.lngDegrees(), 1e-12);
+        assertEquals(7.5, latLng.latDegrees(), 1e-12);
+    }
+
+    @Test
+    public void testRead_emptyPolygon() {
+        final ByteBuffer buffer = ByteBuffer.allocate(9).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.put((byte) 1);
+        buffer.putInt(3);
+        buffer.putInt(0);
+
+        final S2Polygon polygon = (S2Polygon) reader.read(buffer.array());
+        assertEquals(0, polygon.numLoops());
+    }
+
+    @Test
+    public void testRead_invalid() {
+        try {
+            reader.read(new byte[]{1, 2, 0, 0, 0, 1});
+            fail("IllegalArgumentException expected");
+        } catch (IllegalArgumentException expected) {
+        }
+
+        try {
+            reader.read(new byte[]{7, 1, 0, 0, 0});
+            fail("IllegalArgumentException expected");
+        } catch (IllegalArgumentException expected) {
+        }
+
+        try {
+            reader.read(new byte[]{1, 17, 0, 0, 0});
+            fail("IllegalArgumentException expected");
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+}
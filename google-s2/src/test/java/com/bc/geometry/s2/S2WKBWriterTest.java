@@ -0,0 +1,119 @@
+/*
+ * Copyright (C) 2015 Brockmann Consult GmbH
+ * This code was developed for the EC project "Fidelity and Uncertainty in
+ * Climate Data Records from Earth Observations (FIDUCEO)".
+ * Grant Agreement: 638822
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * A copy of the GNU General Public License should have been supplied along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ *
+ */
+
+
+package com.bc.geometry.s2;
+
+import com.google.common.geometry.S2LatLng;
+import com.google.common.geometry.S2Point;
+import com.google.common.geometry.S2Polygon;
+import com.google.common.geometry.S2Polyline;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class S2WKBWriterTest {
+
+    @Test
+    public void testWritePoint() {
+        final byte[] wkb = S2WKBWriter.write(S2LatLng.fromDegrees(-22.5, 14.0));
+
+        assertEquals(21, wkb.length);
+        final ByteBuffer buffer = ByteBuffer.wrap(wkb).order(ByteOrder.LITTLE_ENDIAN);
+        assertEquals(1, buffer.get());
+        assertEquals(1, buffer.getInt());
+        assertEquals(14.0, buffer.getDouble(), 1e-12);
+        assertEquals(-22.5, buffer.getDouble(), 1e-12);
+    }
+
+    @Test
+    public void testWriteLineString() {
+        final List<S2Point> vertices = new ArrayList<>();
+        vertices.add(createS2Point(2, -39));
+        vertices.add(createS2Point(1, -39.5));
+        vertices.add(createS2Point(0, -40));
+
+        final byte[] wkb = S2WKBWriter.write(new S2Polyline(vertices));
+
+        assertEquals(9 + 3 * 16, wkb.length);
+        final ByteBuffer buffer = ByteBuffer.wrap(wkb).order(ByteOrder.LITTLE_ENDIAN);
+        assertEquals(1, buffer.get());
+        assertEquals(2, buffer.getInt());
+        assertEquals(3, buffer.getInt());
+        assertEquals(2.0, buffer.getDouble(), 1e-12);
+        assertEquals(-39.0, buffer.getDouble(), 1e-12);
+    }
+
+    @Test
+    public void testWriteLineString_oneVertex() {
+        final List<S2Point> vertices = new ArrayList<>();
+        vertices.add(new S2Point());
+
+        try {
+            S2WKBWriter.write(new S2Polyline(vertices));
+            fail("IllegalArgumentException expected");
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+
+    @Test
+    public void testWritePolygon_ringIsClosed() {
+        final S2Polygon polygon = (S2Polygon) new S2WKTReader().read("POLYGON((-10 -10, 10 -10, 10 10, -10 10, -10 -10))");
+
+        final byte[] wkb = S2WKBWriter.write(polygon);
+
+        assertEquals(9 + 4 + 5 * 16, wkb.length);
+        final ByteBuffer buffer = ByteBuffer.wrap(wkb).order(ByteOrder.LITTLE_ENDIAN);
+        assertEquals(1, buffer.get());
+        assertEquals(3, buffer.getInt());
+        assertEquals(1, buffer.getInt());
+        assertEquals(5, buffer.getInt());
+        final double firstLon = buffer.getDouble();
+        final double firstLat = buffer.getDouble();
+        buffer.position(wkb.length - 16);
+        assertEquals(firstLon, buffer.getDouble(), 0.0);
+        assertEquals(firstLat, buffer.getDouble(), 0.0);
+    }
+
+    @Test
+    public void testWriteUnsupported() {
+        try {
+            S2WKBWriter.write("POINT(1 2)");
+            fail("IllegalArgumentException expected");
+        } catch (IllegalArgumentException expected) {
+        }
+
+        try {
+            S2WKBWriter.write(new ArrayList<S2Polyline>());
+            fail("IllegalArgumentException expected");
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+
+    private static S2Point createS2Point(double lon, double lat) {
+        return S2LatLng.fromDegrees(lat, lon).toPoint();
+    }
+}
@@ -20,9 +20,12 @@ import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.logging.Logger;
 
 /**
@@ -464,6 +467,95 @@ public strictfp class S2LoopTest extends GeometryTestCase {
     assertTrue(wxyz.compareTo(abcd) < 0);
   }
 
+  /**
+   * Loops of 2000 and more vertices build their edge index lazily on the first
+   * queries. The matchup workers share the loops of the cached observations,
+   * so concurrent queries must return the single threaded results.
+   */
+  public void testContainsAndIntersects_concurrentlyOnLargeLoop() throws Exception {
+    final int numVertices = 4000;
+    final S2Loop referenceLoop = makeCircle(numVertices);
+
+    final int numPoints = 2000;
+    final S2Point[] points = new S2Point[numPoints];
+    final boolean[] expectedContains = new boolean[numPoints];
+    for (int i = 0; i < numPoints; i++) {
+      points[i] = S2LatLng.fromDegrees(45.0 + 30.0 * rand.nextDouble(), -15.0 + 50.0 * rand.nextDouble()).toPoint();
+      expectedContains[i] = referenceLoop.contains(points[i]);
+    }
+
+    final List<S2Loop> others = new ArrayList<S2Loop>();
+    others.add(makeLoop("69.5:9, 69.5:11, 70.5:11, 70.5:9"));
+    others.add(makeLoop("69.8:9.5, 69.8:10.5, 72:10.5, 72:9.5"));
+    others.add(makeLoop("10:9, 10:11, 11:11, 11:9"));
+    final boolean[] expectedIntersects = new boolean[others.size()];
+    for (int i = 0; i < others.size(); i++) {
+      expectedIntersects[i] = referenceLoop.intersects(others.get(i));
+    }
+    assertTrue(expectedIntersects[0]);
+    assertTrue(expectedIntersects[1]);
+    assertFalse(expectedIntersects[2]);
+
+    // the race is on the first queries of a loop only, so each round starts on a fresh one
+    final int numThreads = 8;
+    final int numRounds = 20;
+    final AtomicReference<String> failure = new AtomicReference<String>();
+    for (int round = 0; round < numRounds && failure.get() == null; round++) {
+      final S2Loop sharedLoop = makeCircle(numVertices);
+      final CountDownLatch startSignal = new CountDownLatch(1);
+      final Thread[] threads = new Thread[numThreads];
+      for (int t = 0; t < numThreads; t++) {
+        final int offset = t * (numPoints / numThreads);
+        threads[t] = new Thread(new Runnable() {
+          @Override
+          public void run() {
+            try {
+              startSignal.await();
+              for (int k = 0; k < numPoints; k++) {
+                final int i = (offset + k) % numPoints;
+                if (sharedLoop.contains(points[i]) != expectedContains[i]) {
+                  failure.compareAndSet(null, "contains() differs for point " + i);
+                }
+                if (k % 100 == 0) {
+                  final int j = k / 100 % expectedIntersects.length;
+                  if (sharedLoop.intersects(others.get(j)) != expectedIntersects[j]) {
+                    failure.compareAndSet(null, "intersects() differs for loop " + j);
+                  }
+                }
+              }
+            } catch (Throwable e) {
+              failure.compareAndSet(null, e.toString());
+            }
+          }
+        });
+        threads[t].start();
+      }
+      startSignal.countDown();
+      for (Thread thread : threads) {
+        thread.join();
+      }
+    }
+
+    assertNull(failure.get(), failure.get());
+  }
+
+  // counter-clockwise circle of 10 degrees radius around 60:10
+  private static S2Loop makeCircle(int numVertices) {
+    final S2Point center = S2LatLng.fromDegrees(60, 10).toPoint();
+    final S2Point x = S2Point.normalize(S2Point.crossProd(center, new S2Point(0, 0, 1)));
+    final S2Point y = S2Point.crossProd(center, x);
+    final double radius = Math.toRadians(10);
+    final List<S2Point> vertices = new ArrayList<S2Point>(numVertices);
+    for (int i = 0; i < numVertices; i++) {
+      final double angle = 2 * Math.PI * i / numVertices;
+      final S2Point direction = S2Point.add(S2Point.mul(x, Math.cos(angle)), S2Point.mul(y, Math.sin(angle)));
+      vertices.add(S2Point.normalize(S2Point.add(S2Point.mul(center, Math.cos(radius)), S2Point.mul(direction, Math.sin(radius)))));
+    }
+    final S2Loop loop = new S2Loop(vertices);
+    loop.normalize();
+    return loop;
+  }
+
   public void testGetDistance() {
     // Error margin since we're doing numerical computations
     double epsilon = 1e-15;
@@ -0,0 +1,166 @@
+/*
+ * Copyright (C) 2015 Brockmann Consult GmbH
+ * This code was developed for the EC project "Fidelity and Uncertainty in
+ * Climate Data Records from Earth Observations (FIDUCEO)".
+ * Grant Agreement: 638822
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * A copy of the GNU General Public License should have been supplied along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ *
+ */
+
+package com.bc.fiduceo.ingest;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Records the products handled by an ingestion run, one line per product with the state and the data file path,
+ * separated by a tab. Each line is flushed when written, so a run that is interrupted can be resumed with the same
+ * checkpoint file. The resumed run skips the registered products only, products that failed - e.g. a whole insert
+ * batch during a database outage - are ingested again.
+ * <p>
+ * The product list of the archive scan is recorded as well, headed by a line with the number of products and the
+ * scan parameters. A resumed run takes the products from the checkpoint file instead of scanning the archive again.
+ * A scan that was interrupted before all products were written is ignored.
+ */
+class IngestionCheckpoint implements AutoCloseable {
+
+    static final String REGISTERED = "registered";
+    static final String FAILED = "failed";
+    static final String SCAN = "scan";
+    static final String PRODUCT = "product";
+
+    private final Set<String> processedPaths;
+    private final BufferedWriter writer;
+    private String scanKey;
+    private List<Path> scannedProducts;
+
+    private IngestionCheckpoint(Set<String> processedPaths, BufferedWriter writer) {
+        this.processedPaths = processedPaths;
+        this.writer = writer;
+    }
+
+    static IngestionCheckpoint open(Path checkpointFile) throws IOException {
+        final Set<String> processedPaths = new HashSet<>();
+        String scanKey = null;
+        List<Path> scannedProducts = null;
+        String currentScanKey = null;
+        int numScanned = 0;
+        List<Path> currentScan = null;
+        if (Files.isRegularFile(checkpointFile)) {
+            final List<String> lines = Files.readAllLines(checkpointFile, StandardCharsets.UTF_8);
+            for (final String line : lines) {
+                final int separatorIndex = line.indexOf('\t');
+                if (separatorIndex <= 0) {
+                    continue;
+                }
+
+                final String state = line.substring(0, separatorIndex);
+                final String value = line.substring(separatorIndex + 1);
+                if (REGISTERED.equals(state)) {
+                    processedPaths.add(value);
+                } else if (SCAN.equals(state)) {
+                    final int keyIndex = value.indexOf('\t');
+                    numScanned = Integer.parseInt(value.substring(0, keyIndex));
+                    currentScanKey = value.substring(keyIndex + 1);
+                    currentScan = new ArrayList<>(numScanned);
+                } else if (PRODUCT.equals(state) && currentScan != null) {
+                    currentScan.add(Paths.get(value));
+                }
+
+                if (currentScan != null && currentScan.size() == numScanned) {
+                    scanKey = currentScanKey;
+                    scannedProducts = currentScan;
+                    currentScan = null;
+                }
+            }
+        }
+
+        final BufferedWriter writer = Files.newBufferedWriter(checkpointFile, StandardCharsets.UTF_8,
+                                                              StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        final IngestionCheckpoint checkpoint = new IngestionCheckpoint(processedPaths, writer);
+        checkpoint.scanKey = scanKey;
+        checkpoint.scannedProducts = scannedProducts;
+        return checkpoint;
+    }
+
+    /**
+     * Retrieves the products of the archive scan recorded in the checkpoint file.
+     *
+     * @param scanKey the parameters of the scan, sensor, processing version and time range
+     * @return the products in archive order, or null when no complete scan is recorded
+     * @throws RuntimeException when the recorded scan was run with different parameters
+     */
+    List<Path> getScannedProducts(String scanKey) {
+        if (scannedProducts == null) {
+            return null;
+        }
+        if (!this.scanKey.equals(scanKey)) {
+            throw new RuntimeException("The checkpoint file has been written for a different ingestion run: " + this.scanKey.replace('\t', ' '));
+        }
+        return scannedProducts;
+    }
+
+    void addScannedProducts(String scanKey, Path[] productPaths) throws IOException {
+        writer.write(SCAN);
+        writer.write('\t');
+        writer.write(Integer.toString(productPaths.length));
+        writer.write('\t');
+        writer.write(scanKey);
+        writer.newLine();
+        for (final Path productPath : productPaths) {
+            writer.write(PRODUCT);
+            writer.write('\t');
+            writer.write(productPath.toString());
+            writer.newLine();
+        }
+        writer.flush();
+
+        this.scanKey = scanKey;
+        scannedProducts = new ArrayList<>(Arrays.asList(productPaths));
+    }
+
+    boolean isProcessed(String dataFilePath) {
+        return processedPaths.contains(dataFilePath);
+    }
+
+    int getNumProcessed() {
+        return processedPaths.size();
+    }
+
+    void add(String state, String dataFilePath) throws IOException {
+        writer.write(state);
+        writer.write('\t');
+        writer.write(dataFilePath);
+        writer.newLine();
+        writer.flush();
+        if (REGISTERED.equals(state)) {
+            processedPaths.add(dataFilePath);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+}
@@ -26,7 +26,6 @@ import com.bc.fiduceo.core.SatelliteObservation;
 import com.bc.fiduceo.core.Sensor;
 import com.bc.fiduceo.core.SystemConfig;
 import com.bc.fiduceo.db.DatabaseConfig;
-import com.bc.fiduceo.db.QueryParameter;
 import com.bc.fiduceo.db.Storage;
 import com.bc.fiduceo.geometry.GeometryFactory;
 import com.bc.fiduceo.log.FiduceoLogger;
@@ -47,8 +46,16 @@ import java.io.PrintWriter;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 import java.util.logging.Logger;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -57,6 +64,8 @@ import static com.bc.fiduceo.FiduceoConstants.VERSION_NUMBER;
 
 class IngestionTool {
 
+    private static final int INSERT_BATCH_SIZE = 64;
+
     private final Logger logger;
 
     IngestionTool() {
@@ -75,69 +84,194 @@ class IngestionTool {
         final ToolContext context = initializeContext(commandLine, confDirPath);
         logger.info("Successfully initialized tool");
 
+        final String checkpointPath = commandLine.getOptionValue("checkpoint");
+        IngestionCheckpoint checkpoint = null;
         try {
-            ingestMetadata(context, sensorType, processingVersion);
+            if (StringUtils.isNotNullAndNotEmpty(checkpointPath)) {
+                checkpoint = IngestionCheckpoint.open(Paths.get(checkpointPath));
+                logger.info("Resuming from checkpoint file '" + checkpointPath + "', " + checkpoint.getNumProcessed() + " products already processed");
+            }
+            ingestMetadata(context, sensorType, processingVersion, checkpoint);
         } finally {
+            if (checkpoint != null) {
+                checkpoint.close();
+            }
             context.getStorage().close();
         }
     }
 
-    private void ingestMetadata(ToolContext context, String sensorType, String processingVersion) throws SQLException, IOException {
+    // The products are read by the worker threads, each with its own reader. The observations are inserted by the
+    // calling thread in archive order, which keeps the storage single-threaded and the checkpoint file ordered.
+    // At most two products per worker are in flight; with one thread the products are read one by one.
+    // The observations are inserted in batches, a product is written to the checkpoint file once its batch is
+    // committed. A resumed run takes the product list from the checkpoint file and does not scan the archive again
+    private void ingestMetadata(ToolContext context, String sensorType, String processingVersion, IngestionCheckpoint checkpoint) throws SQLException, IOException {
         final ReaderFactory readerFactory = context.getReaderFactory();
-        final Reader reader = readerFactory.getReader(sensorType);
-
-        final Pattern pattern = getPattern(reader);
+        final Pattern pattern = getPattern(readerFactory.getReader(sensorType));
         final Storage storage = context.getStorage();
 
-        final QueryParameter queryParameter = new QueryParameter();
-
         final SystemConfig systemConfig = context.getSystemConfig();
         final ArchiveConfig archiveConfig = systemConfig.getArchiveConfig();
         final Archive archive = new Archive(archiveConfig);
         final Date startDate = context.getStartDate();
         final Date endDate = context.getEndDate();
 
-        final Path[] productPaths = archive.get(startDate, endDate, processingVersion, sensorType);
-        for (final Path filePath : productPaths) {
-            final Matcher matcher = getMatcher(filePath, pattern);
-            final String dataFilePath = filePath.toString();
-            if (!matcher.matches()) {
-                logger.warning("The file '" + dataFilePath + "' does not follow the file naming pattern. Skipping");
-                continue;
+        final Set<String> registeredPaths = storage.getDataFilePaths(sensorType);
+
+        final int numThreads = Math.max(1, systemConfig.getWorkerThreads());
+        final ExecutorService executorService = numThreads > 1 ? Executors.newFixedThreadPool(numThreads) : null;
+        final ThreadLocal<Reader> readers = ThreadLocal.withInitial(() -> readerFactory.getReader(sensorType));
+        final ArrayDeque<PendingProduct> pendingProducts = new ArrayDeque<>();
+        final int maxPendingProducts = numThreads == 1 ? 1 : 2 * numThreads;
+        final List<SatelliteObservation> insertBatch = new ArrayList<>(INSERT_BATCH_SIZE);
+        try {
+            final Path[] productPaths = getProductPaths(archive, sensorType, processingVersion, startDate, endDate, checkpoint);
+            for (final Path filePath : productPaths) {
+                final Matcher matcher = getMatcher(filePath, pattern);
+                final String dataFilePath = filePath.toString();
+                if (!matcher.matches()) {
+                    logger.warning("The file '" + dataFilePath + "' does not follow the file naming pattern. Skipping");
+                    continue;
+                }
+
+                if (registeredPaths.contains(dataFilePath)) {
+                    logger.info("The file '" + dataFilePath + "' is already registered to the database. Skipping");
+                    continue;
+                }
+
+                if (checkpoint != null && checkpoint.isProcessed(dataFilePath)) {
+                    logger.info("The file '" + dataFilePath + "' is listed in the checkpoint file. Skipping");
+                    continue;
+                }
+
+                logger.info("registering '" + dataFilePath + "' ...");
+
+                final FutureTask<SatelliteObservation> future = new FutureTask<>(() -> readObservation(readers.get(), filePath, sensorType, processingVersion));
+                if (executorService == null) {
+                    future.run();
+                } else {
+                    executorService.execute(future);
+                }
+                pendingProducts.add(new PendingProduct(dataFilePath, future));
+
+                if (pendingProducts.size() >= maxPendingProducts) {
+                    register(pendingProducts.poll(), insertBatch, storage, checkpoint);
+                }
             }
 
-            queryParameter.setPath(dataFilePath);
-            final List<SatelliteObservation> observations = storage.get(queryParameter);
-            if (observations.size() > 0) {
-                logger.info("The file '" + dataFilePath + "' is already registered to the database. Skipping");
-                continue;
+            while (!pendingProducts.isEmpty()) {
+                register(pendingProducts.poll(), insertBatch, storage, checkpoint);
+            }
+            insert(insertBatch, storage, checkpoint);
+        } finally {
+            if (executorService != null) {
+                executorService.shutdownNow();
             }
+        }
+    }
 
-            logger.info("registering '" + dataFilePath + "' ...");
-
-            try {
-                reader.open(filePath.toFile());
-                final AcquisitionInfo acquisitionInfo = reader.read();
-
-                final SatelliteObservation satelliteObservation = new SatelliteObservation();
-                satelliteObservation.setSensor(new Sensor(sensorType));
-                satelliteObservation.setStartTime(acquisitionInfo.getSensingStart());
-                satelliteObservation.setStopTime(acquisitionInfo.getSensingStop());
-                satelliteObservation.setDataFilePath(dataFilePath);
-                satelliteObservation.setGeoBounds(acquisitionInfo.getBoundingGeometry());
-                satelliteObservation.setTimeAxes(acquisitionInfo.getTimeAxes());
-                satelliteObservation.setNodeType(acquisitionInfo.getNodeType());
-                satelliteObservation.setVersion(processingVersion);
-                storage.insert(satelliteObservation);
-            } catch (Exception e) {
-                logger.severe("Unable to register the file '" + dataFilePath + "'");
-                logger.severe("Cause: " + e.getMessage());
-                e.printStackTrace();
-                continue;
-            } finally {
-                reader.close();
+    // a resumed run takes the product list from the checkpoint file, the archive is scanned once per checkpoint file
+    private Path[] getProductPaths(Archive archive, String sensorType, String processingVersion, Date startDate, Date endDate, IngestionCheckpoint checkpoint) throws IOException {
+        final String scanKey = getScanKey(sensorType, processingVersion, startDate, endDate);
+        if (checkpoint != null) {
+            final List<Path> scannedProducts = checkpoint.getScannedProducts(scanKey);
+            if (scannedProducts != null) {
+                logger.info("Taking the " + scannedProducts.size() + " products of the archive scan from the checkpoint file");
+                return scannedProducts.toArray(new Path[scannedProducts.size()]);
             }
-            logger.info("success");
+        }
+
+        final Path[] productPaths = archive.get(startDate, endDate, processingVersion, sensorType);
+        if (checkpoint != null) {
+            checkpoint.addScannedProducts(scanKey, productPaths);
+        }
+        return productPaths;
+    }
+
+    // package access for testing only
+    static String getScanKey(String sensorType, String processingVersion, Date startDate, Date endDate) {
+        return sensorType + "\t" + processingVersion + "\t" + TimeUtils.format(startDate, "yyyy-MM-dd'T'HH:mm:ss") + "\t" + TimeUtils.format(endDate, "yyyy-MM-dd'T'HH:mm:ss");
+    }
+
+    private void register(PendingProduct pendingProduct, List<SatelliteObservation> insertBatch, Storage storage, IngestionCheckpoint checkpoint) throws IOException {
+        final String dataFilePath = pendingProduct.dataFilePath;
+        try {
+            insertBatch.add(pendingProduct.future.get());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for product '" + dataFilePath + "'", e);
+        } catch (Exception e) {
+            final Throwable cause = e instanceof ExecutionException ? e.getCause() : e;
+            logFailure(dataFilePath, cause, checkpoint);
+            return;
+        }
+
+        if (insertBatch.size() >= INSERT_BATCH_SIZE) {
+            insert(insertBatch, storage, checkpoint);
+        }
+    }
+
+    private void insert(List<SatelliteObservation> insertBatch, Storage storage, IngestionCheckpoint checkpoint) throws IOException {
+        if (insertBatch.isEmpty()) {
+            return;
+        }
+
+        try {
+            storage.insert(insertBatch);
+            for (final SatelliteObservation satelliteObservation : insertBatch) {
+                logSuccess(satelliteObservation.getDataFilePath().toString(), checkpoint);
+            }
+        } catch (Exception e) {
+            // the batch is rolled back as a whole - retry one by one to find the offending product
+            logger.warning("Unable to insert a batch of " + insertBatch.size() + " products, inserting one by one");
+            for (final SatelliteObservation satelliteObservation : insertBatch) {
+                final String dataFilePath = satelliteObservation.getDataFilePath().toString();
+                try {
+                    storage.insert(satelliteObservation);
+                } catch (Exception singleException) {
+                    logFailure(dataFilePath, singleException, checkpoint);
+                    continue;
+                }
+                logSuccess(dataFilePath, checkpoint);
+            }
+        }
+        insertBatch.clear();
+    }
+
+    private void logSuccess(String dataFilePath, IngestionCheckpoint checkpoint) throws IOException {
+        if (checkpoint != null) {
+            checkpoint.add(IngestionCheckpoint.REGISTERED, dataFilePath);
+        }
+        logger.info("registered '" + dataFilePath + "'");
+    }
+
+    private void logFailure(String dataFilePath, Throwable cause, IngestionCheckpoint checkpoint) throws IOException {
+        logger.severe("Unable to register the file '" + dataFilePath + "'");
+        logger.severe("Cause: " + cause.getMessage());
+        cause.printStackTrace();
+        if (checkpoint != null) {
+            checkpoint.add(IngestionCheckpoint.FAILED, dataFilePath);
+        }
+    }
+
+    // package access for testing only
+    static SatelliteObservation readObservation(Reader reader, Path filePath, String sensorType, String processingVersion) throws IOException {
+        try {
+            reader.open(filePath.toFile());
+            final AcquisitionInfo acquisitionInfo = reader.read();
+
+            final SatelliteObservation satelliteObservation = new SatelliteObservation();
+            satelliteObservation.setSensor(new Sensor(sensorType));
+            satelliteObservation.setStartTime(acquisitionInfo.getSensingStart());
+            satelliteObservation.setStopTime(acquisitionInfo.getSensingStop());
+            satelliteObservation.setDataFilePath(filePath.toString());
+            satelliteObservation.setGeoBounds(acquisitionInfo.getBoundingGeometry());
+            satelliteObservation.setTimeAxes(acquisitionInfo.getTimeAxes());
+            satelliteObservation.setNodeType(acquisitionInfo.getNodeType());
+            satelliteObservation.setVersion(processingVersion);
+            return satelliteObservation;
+        } finally {
+            reader.close();
         }
     }
 
@@ -177,6 +311,9 @@ class IngestionTool {
         final Option versionOption = new Option("v", "version", true, "Define the sensor data processing version.");
         options.addOption(versionOption);
 
+        final Option checkpointOption = new Option("cp", "checkpoint", true, "Defines a checkpoint file of processed products, used to resume an interrupted run.");
+        options.addOption(checkpointOption);
+
         return options;
     }
 
@@ -249,4 +386,14 @@ class IngestionTool {
             throw new RuntimeException("Start date parameter missing");
         }
     }
+
+    private static class PendingProduct {
+        final String dataFilePath;
+        final Future<SatelliteObservation> future;
+
+        PendingProduct(String dataFilePath, Future<SatelliteObservation> future) {
+            this.dataFilePath = dataFilePath;
+            this.future = future;
+        }
+    }
 }
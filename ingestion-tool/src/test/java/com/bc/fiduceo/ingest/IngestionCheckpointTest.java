@@ -0,0 +1,180 @@
+/*
+ * Copyright (C) 2015 Brockmann Consult GmbH
+ * This code was developed for the EC project "Fidelity and Uncertainty in
+ * Climate Data Records from Earth Observations (FIDUCEO)".
+ * Grant Agreement: 638822
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * A copy of the GNU General Public License should have been supplied along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ *
+ */
+
+package com.bc.fiduceo.ingest;
+
+import com.bc.fiduceo.TestUtil;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class IngestionCheckpointTest {
+
+    private Path checkpointFile;
+
+    @Before
+    public void setUp() {
+        final File testDirectory = TestUtil.createTestDirectory();
+        checkpointFile = new File(testDirectory, "ingestion.checkpoint").toPath();
+    }
+
+    @After
+    public void tearDown() {
+        TestUtil.deleteTestDirectory();
+    }
+
+    @Test
+    public void testOpen_newFile() throws IOException {
+        try (IngestionCheckpoint checkpoint = IngestionCheckpoint.open(checkpointFile)) {
+            assertEquals(0, checkpoint.getNumProcessed());
+            assertFalse(checkpoint.isProcessed("/archive/product.nc"));
+        }
+
+        assertTrue(Files.isRegularFile(checkpointFile));
+    }
+
+    @Test
+    public void testAdd_andResume() throws IOException {
+        try (IngestionCheckpoint checkpoint = IngestionCheckpoint.open(checkpointFile)) {
+            checkpoint.add(IngestionCheckpoint.REGISTERED, "/archive/product_1.nc");
+            checkpoint.add(IngestionCheckpoint.FAILED, "/archive/with blank/product_2.nc");
+
+            assertTrue(checkpoint.isProcessed("/archive/product_1.nc"));
+            assertFalse(checkpoint.isProcessed("/archive/with blank/product_2.nc"));
+            assertEquals(1, checkpoint.getNumProcessed());
+        }
+
+        final List<String> lines = Files.readAllLines(checkpointFile, StandardCharsets.UTF_8);
+        assertEquals(2, lines.size());
+        assertEquals("registered\t/archive/product_1.nc", lines.get(0));
+        assertEquals("failed\t/archive/with blank/product_2.nc", lines.get(1));
+
+        try (IngestionCheckpoint checkpoint = IngestionCheckpoint.open(checkpointFile)) {
+            assertEquals(1, checkpoint.getNumProcessed());
+            assertTrue(checkpoint.isProcessed("/archive/product_1.nc"));
+            assertFalse(checkpoint.isProcessed("/archive/with blank/product_2.nc"));
+            assertFalse(checkpoint.isProcessed("/archive/product_3.nc"));
+
+            checkpoint.add(IngestionCheckpoint.REGISTERED, "/archive/product_3.nc");
+        }
+
+        assertEquals(3, Files.readAllLines(checkpointFile, StandardCharsets.UTF_8).size());
+    }
+
+    @Test
+    public void testResume_failedProductsAreIngestedAgain() throws IOException {
+        // a database outage fails a whole insert batch
+        try (IngestionCheckpoint checkpoint = IngestionCheckpoint.open(checkpointFile)) {
+            checkpoint.add(IngestionCheckpoint.REGISTERED, "/archive/product_1.nc");
+            checkpoint.add(IngestionCheckpoint.FAILED, "/archive/product_2.nc");
+            checkpoint.add(IngestionCheckpoint.FAILED, "/archive/product_3.nc");
+        }
+
+        try (IngestionCheckpoint checkpoint = IngestionCheckpoint.open(checkpointFile)) {
+            assertFalse(checkpoint.isProcessed("/archive/product_2.nc"));
+            assertFalse(checkpoint.isProcessed("/archive/product_3.nc"));
+
+            checkpoint.add(IngestionCheckpoint.REGISTERED, "/archive/product_2.nc");
+            checkpoint.add(IngestionCheckpoint.FAILED, "/archive/product_3.nc");
+        }
+
+        try (IngestionCheckpoint checkpoint = IngestionCheckpoint.open(checkpointFile)) {
+            assertEquals(2, checkpoint.getNumProcessed());
+            assertTrue(checkpoint.isProcessed("/archive/product_1.nc"));
+            assertTrue(checkpoint.isProcessed("/archive/product_2.nc"));
+            assertFalse(checkpoint.isProcessed("/archive/product_3.nc"));
+        }
+    }
+
+    @Test
+    public void testAddScannedProducts_andResume() throws IOException {
+        final Path[] productPaths = {Paths.get("/archive/product_1.nc"), Paths.get("/archive/with blank/product_2.nc")};
+        try (IngestionCheckpoint checkpoint = IngestionCheckpoint.open(checkpointFile)) {
+            assertNull(checkpoint.getScannedProducts("amsub\tv1.0"));
+
+            checkpoint.addScannedProducts("amsub\tv1.0", productPaths);
+            checkpoint.add(IngestionCheckpoint.REGISTERED, "/archive/product_1.nc");
+
+            assertEquals(2, checkpoint.getScannedProducts("amsub\tv1.0").size());
+        }
+
+        final List<String> lines = Files.readAllLines(checkpointFile, StandardCharsets.UTF_8);
+        assertEquals(4, lines.size());
+        assertEquals("scan\t2\tamsub\tv1.0", lines.get(0));
+        assertEquals("product\t/archive/product_1.nc", lines.get(1));
+        assertEquals("product\t/archive/with blank/product_2.nc", lines.get(2));
+
+        try (IngestionCheckpoint checkpoint = IngestionCheckpoint.open(checkpointFile)) {
+            final List<Path> scannedProducts = checkpoint.getScannedProducts("amsub\tv1.0");
+            assertEquals(2, scannedProducts.size());
+            assertEquals(productPaths[0], scannedProducts.get(0));
+            assertEquals(productPaths[1], scannedProducts.get(1));
+            assertTrue(checkpoint.isProcessed("/archive/product_1.nc"));
+        }
+    }
+
+    @Test
+    public void testGetScannedProducts_emptyScan() throws IOException {
+        try (IngestionCheckpoint checkpoint = IngestionCheckpoint.open(checkpointFile)) {
+            checkpoint.addScannedProducts("amsub\tv1.0", new Path[0]);
+        }
+
+        try (IngestionCheckpoint checkpoint = IngestionCheckpoint.open(checkpointFile)) {
+            assertEquals(0, checkpoint.getScannedProducts("amsub\tv1.0").size());
+        }
+    }
+
+    @Test
+    public void testGetScannedProducts_interruptedScanIsIgnored() throws IOException {
+        Files.write(checkpointFile, "scan\t3\tamsub\tv1.0\nproduct\t/archive/product_1.nc\n".getBytes(StandardCharsets.UTF_8));
+
+        try (IngestionCheckpoint checkpoint = IngestionCheckpoint.open(checkpointFile)) {
+            assertNull(checkpoint.getScannedProducts("amsub\tv1.0"));
+        }
+    }
+
+    @Test
+    public void testGetScannedProducts_differentRun() throws IOException {
+        try (IngestionCheckpoint checkpoint = IngestionCheckpoint.open(checkpointFile)) {
+            checkpoint.addScannedProducts("amsub\tv1.0", new Path[]{Paths.get("/archive/product_1.nc")});
+        }
+
+        try (IngestionCheckpoint checkpoint = IngestionCheckpoint.open(checkpointFile)) {
+            checkpoint.getScannedProducts("mhs\tv1.0");
+            fail("RuntimeException expected");
+        } catch (RuntimeException expected) {
+            assertEquals("The checkpoint file has been written for a different ingestion run: amsub v1.0", expected.getMessage());
+        }
+    }
+}
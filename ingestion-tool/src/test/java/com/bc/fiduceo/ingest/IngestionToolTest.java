@@ -20,6 +20,9 @@
 
 package com.bc.fiduceo.ingest;
 
+import com.bc.fiduceo.core.NodeType;
+import com.bc.fiduceo.core.SatelliteObservation;
+import com.bc.fiduceo.reader.AcquisitionInfo;
 import com.bc.fiduceo.reader.Reader;
 import com.bc.fiduceo.tool.ToolContext;
 import org.apache.commons.cli.CommandLine;
@@ -29,7 +32,9 @@ import org.junit.Before;
 import org.junit.Test;
 
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.Date;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -40,6 +45,9 @@ import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
 public class IngestionToolTest {
@@ -64,6 +72,7 @@ public class IngestionToolTest {
                 "usage: ingestion-tool <options>" + ls +
                 "Valid options are:" + ls +
                 "   -c,--config <arg>            Defines the configuration directory. Defaults to './config'." + ls +
+                "   -cp,--checkpoint <arg>       Defines a checkpoint file of processed products, used to resume an interrupted run." + ls +
                 "   -end,--end-time <Date>       Define the ending time of products to inject." + ls +
                 "   -h,--help                    Prints the tool usage." + ls +
                 "   -s,--sensor <arg>            Defines the sensor to be ingested." + ls +
@@ -119,6 +128,53 @@ public class IngestionToolTest {
         assertEquals("version", version.getLongOpt());
         assertEquals("Define the sensor data processing version.", version.getDescription());
         assertTrue(version.hasArg());
+
+        final Option checkpoint = options.getOption("checkpoint");
+        assertNotNull(checkpoint);
+        assertEquals("cp", checkpoint.getOpt());
+        assertEquals("checkpoint", checkpoint.getLongOpt());
+        assertEquals("Defines a checkpoint file of processed products, used to resume an interrupted run.", checkpoint.getDescription());
+        assertTrue(checkpoint.hasArg());
+    }
+
+    @Test
+    public void testReadObservation() throws IOException {
+        final AcquisitionInfo acquisitionInfo = new AcquisitionInfo();
+        acquisitionInfo.setSensingStart(new Date(1000000000L));
+        acquisitionInfo.setSensingStop(new Date(1000100000L));
+        acquisitionInfo.setNodeType(NodeType.ASCENDING);
+
+        final Reader reader = mock(Reader.class);
+        when(reader.read()).thenReturn(acquisitionInfo);
+
+        final Path filePath = Paths.get("archive", "the_product.nc");
+        final SatelliteObservation observation = IngestionTool.readObservation(reader, filePath, "the-sensor", "v1.1");
+        assertEquals("the-sensor", observation.getSensor().getName());
+        assertEquals(1000000000L, observation.getStartTime().getTime());
+        assertEquals(1000100000L, observation.getStopTime().getTime());
+        assertEquals(filePath.toString(), observation.getDataFilePath().toString());
+        assertEquals(NodeType.ASCENDING, observation.getNodeType());
+        assertEquals("v1.1", observation.getVersion());
+
+        verify(reader, times(1)).open(filePath.toFile());
+        verify(reader, times(1)).read();
+        verify(reader, times(1)).close();
+        verifyNoMoreInteractions(reader);
+    }
+
+    @Test
+    public void testReadObservation_readerIsClosedOnError() throws IOException {
+        final Reader reader = mock(Reader.class);
+        when(reader.read()).thenThrow(new IOException("broken"));
+
+        final Path filePath = Paths.get("archive", "the_product.nc");
+        try {
+            IngestionTool.readObservation(reader, filePath, "the-sensor", "v1.1");
+            fail("IOException expected");
+        } catch (IOException expected) {
+        }
+
+        verify(reader, times(1)).close();
     }
 
     @Test
@@ -198,6 +254,12 @@ public class IngestionToolTest {
         }
     }
 
+    @Test
+    public void testGetScanKey() {
+        final String scanKey = IngestionTool.getScanKey("amsub-n15", "v1.0", new Date(1000000000L), new Date(1086400000L));
+        assertEquals("amsub-n15\tv1.0\t1970-01-12T13:46:40\t1970-01-13T13:46:40", scanKey);
+    }
+
     @Test
     public void testVerifyDates_valid() {
         final ToolContext context = new ToolContext();
@@ -20,19 +20,46 @@
 
 package com.bc.fiduceo.matchup;
 
+import ucar.ma2.InvalidRangeException;
+
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
 public class MatchupCollection {
 
     private final List<MatchupSet> matchupSets;
+    private final MatchupSetConsumer consumer;
+    private int numConsumedMatchups;
 
     public MatchupCollection() {
+        this(null);
+    }
+
+    /**
+     * Creates a collection that hands each added MatchupSet to the consumer instead of storing it. Only the number of
+     * matchups passed on is kept, so the memory consumption does not grow with the number of matchups.
+     *
+     * @param consumer the consumer, or null to keep the MatchupSets in memory
+     */
+    public MatchupCollection(MatchupSetConsumer consumer) {
+        this.consumer = consumer;
         matchupSets = new ArrayList<>();
+        numConsumedMatchups = 0;
     }
 
     public void add(MatchupSet matchupSet) {
-        matchupSets.add(matchupSet);
+        if (consumer == null) {
+            matchupSets.add(matchupSet);
+            return;
+        }
+
+        try {
+            consumer.accept(matchupSet);
+        } catch (IOException | InvalidRangeException e) {
+            throw new RuntimeException("Failed to consume matchup set: " + e.getMessage(), e);
+        }
+        numConsumedMatchups += matchupSet.getNumObservations();
     }
 
     public List<MatchupSet> getSets() {
@@ -40,7 +67,7 @@ public class MatchupCollection {
     }
 
     public int getNumMatchups() {
-        int numMatchups = 0;
+        int numMatchups = numConsumedMatchups;
         for (final MatchupSet set : matchupSets) {
             numMatchups += set.getNumObservations();
         }
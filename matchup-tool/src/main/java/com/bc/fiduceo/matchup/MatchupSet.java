@@ -23,14 +23,13 @@ package com.bc.fiduceo.matchup;
 import com.bc.fiduceo.core.Sample;
 
 import java.nio.file.Path;
-import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 public class MatchupSet {
 
-    private List<SampleSet> sampleSets;
+    private SampleStore sampleStore;
 
     private Path primaryObservationPath;
     private String primaryProcessingVersion;
@@ -38,7 +37,7 @@ public class MatchupSet {
     private final Map<String, String> secondaryProcessingVersion;
 
     public MatchupSet() {
-        sampleSets = new ArrayList<>();
+        sampleStore = new SampleStore();
         secondaryObservationPath = new HashMap<>();
         secondaryProcessingVersion = new HashMap<>();
     }
@@ -60,22 +59,42 @@ public class MatchupSet {
     }
 
     public void addPrimary(Sample primarySample) {
-        final SampleSet sampleSet = new SampleSet();
-        sampleSet.setPrimary(primarySample);
+        sampleStore.set(SampleStore.PRIMARY, sampleStore.addRow(), primarySample);
+    }
 
-        sampleSets.add(sampleSet);
+    public void addPrimary(int x, int y, double lon, double lat, long time) {
+        sampleStore.set(SampleStore.PRIMARY, sampleStore.addRow(), x, y, lon, lat, time);
     }
 
     public int getNumObservations() {
-        return sampleSets.size();
+        return sampleStore.size();
+    }
+
+    public SampleStore getSampleStore() {
+        return sampleStore;
+    }
+
+    public void setSampleStore(SampleStore sampleStore) {
+        this.sampleStore = sampleStore;
     }
 
+    /**
+     * Provides the samples as a list of SampleSets. The list is a view on the SampleStore, the SampleSets in the list
+     * are created on access and do not keep their identity.
+     *
+     * @return the list view
+     */
     public List<SampleSet> getSampleSets() {
-        return sampleSets;
+        return sampleStore.asSampleSets();
     }
 
     public void setSampleSets(List<SampleSet> sampleSets) {
-        this.sampleSets = sampleSets;
+        final SampleStore store = new SampleStore();
+        final List<SampleSet> targetList = store.asSampleSets();
+        for (final SampleSet sampleSet : sampleSets) {
+            targetList.add(sampleSet);
+        }
+        sampleStore = store;
     }
 
     public void setPrimaryProcessingVersion(String primaryProcessingVersion) {
@@ -43,6 +43,7 @@ import com.bc.fiduceo.matchup.writer.ProcessingVersionWritingIOVariable;
 import com.bc.fiduceo.matchup.writer.ReaderContainer;
 import com.bc.fiduceo.matchup.writer.SourcePathWritingIOVariable;
 import com.bc.fiduceo.matchup.writer.VariablesConfiguration;
+import com.bc.fiduceo.reader.ArrayCacheMemory;
 import com.bc.fiduceo.reader.ReaderFactory;
 import com.bc.fiduceo.tool.ToolContext;
 import com.bc.fiduceo.util.NetCDFUtils;
@@ -89,6 +90,7 @@ class MatchupTool {
         final MmdWriterConfig mmdWriterConfig = loadWriterConfig(commandLine);
 
         runMatchupGeneration(context, mmdWriterConfig);
+        logArrayCacheStatistics();
     }
 
     // package access for testing only tb 2016-02-18
@@ -149,8 +151,13 @@ class MatchupTool {
     static void createIOVariablesPerSensor(IOVariablesList ioVariablesList, MatchupCollection matchupCollection,
                                            final UseCaseConfig useCaseConfig, VariablesConfiguration variablesConfiguration)
                 throws IOException {
-
         final MatchupSet matchupSet = getFirstMatchupSet(matchupCollection);
+        createIOVariablesPerSensor(ioVariablesList, matchupSet, useCaseConfig, variablesConfiguration);
+    }
+
+    static void createIOVariablesPerSensor(IOVariablesList ioVariablesList, MatchupSet matchupSet,
+                                           final UseCaseConfig useCaseConfig, VariablesConfiguration variablesConfiguration)
+                throws IOException {
         final Path primaryPath = matchupSet.getPrimaryObservationPath();
 
         final String primSensorName = useCaseConfig.getPrimarySensor().getName();
@@ -336,6 +343,7 @@ class MatchupTool {
 
         final SystemConfig systemConfig = SystemConfig.loadFrom(configDirectory);
         context.setSystemConfig(systemConfig);
+        ArrayCacheMemory.get().configure(systemConfig.getArrayCacheSize() * 1024L * 1024L, systemConfig.getArrayCacheTileHeight());
 
         context.setStartDate(getStartDate(commandLine));
         context.setEndDate(getEndDate(commandLine));
@@ -366,10 +374,22 @@ class MatchupTool {
         return context;
     }
 
+    private void logArrayCacheStatistics() {
+        final ArrayCacheMemory memory = ArrayCacheMemory.get();
+        logger.info(String.format("Array cache: hit rate %.3f (%d hits, %d misses), %d evictions, peak resident %d MB",
+                                  memory.getHitRate(), memory.getHits(), memory.getMisses(), memory.getEvictions(),
+                                  memory.getPeakResidentBytes() / (1024L * 1024L)));
+    }
+
     private void runMatchupGeneration(ToolContext context, MmdWriterConfig writerConfig) throws SQLException, IOException, InvalidRangeException {
         final UseCaseConfig useCaseConfig = context.getUseCaseConfig();
 
         final AbstractMatchupStrategy matchupStrategy = MatchupStrategyFactory.get(useCaseConfig, logger);
+        if (writerConfig.isStreaming()) {
+            runStreamingMatchupGeneration(matchupStrategy, context, writerConfig);
+            return;
+        }
+
         final MatchupCollection matchupCollection = matchupStrategy.createMatchupCollection(context);
 
         if (matchupCollection.getNumMatchups() == 0) {
@@ -380,24 +400,46 @@ class MatchupTool {
         writeMmdFile(matchupCollection, context, writerConfig);
     }
 
+    // MatchupSets are written as soon as the strategy completes them, the MMD file is created with the first non-empty
+    // set. Strategies that need the complete collection before they can hand out results (insitu) still return
+    // their MatchupSets in the collection, these are written afterwards
+    private void runStreamingMatchupGeneration(AbstractMatchupStrategy matchupStrategy, ToolContext context, MmdWriterConfig writerConfig) throws SQLException, IOException, InvalidRangeException {
+        final StreamingMmdWriter streamingWriter = new StreamingMmdWriter(context, writerConfig);
+        try {
+            matchupStrategy.setMatchupSetConsumer(streamingWriter);
+            final MatchupCollection matchupCollection = matchupStrategy.createMatchupCollection(context);
+            for (final MatchupSet matchupSet : matchupCollection.getSets()) {
+                streamingWriter.accept(matchupSet);
+            }
+        } finally {
+            matchupStrategy.setMatchupSetConsumer(null);
+            streamingWriter.close();
+        }
+    }
+
     private void writeMmdFile(MatchupCollection matchupCollection, ToolContext context, MmdWriterConfig writerConfig) throws IOException, InvalidRangeException {
         final MmdWriter mmdWriter = MmdWriterFactory.createFileWriter(writerConfig);
-        final UseCaseConfig useCaseConfig = context.getUseCaseConfig();
+        final MatchupSet matchupSet = getFirstMatchupSet(matchupCollection);
+        final IOVariablesList ioVariablesList = createIOVariablesList(matchupSet, context, writerConfig);
+
+        try {
+            mmdWriter.writeMMD(matchupCollection, context, ioVariablesList);
+        } finally {
+            ioVariablesList.close();
+        }
+    }
 
+    private IOVariablesList createIOVariablesList(MatchupSet matchupSet, ToolContext context, MmdWriterConfig writerConfig) throws IOException {
+        final UseCaseConfig useCaseConfig = context.getUseCaseConfig();
         final IOVariablesList ioVariablesList = new IOVariablesList(context.getReaderFactory());
 
         final VariablesConfiguration variablesConfiguration = writerConfig.getVariablesConfiguration();
-        createIOVariablesPerSensor(ioVariablesList, matchupCollection, useCaseConfig, variablesConfiguration);
+        createIOVariablesPerSensor(ioVariablesList, matchupSet, useCaseConfig, variablesConfiguration);
 
         if (useCaseConfig.isWriteDistance()) {
             addDistanceVariables(useCaseConfig, ioVariablesList, variablesConfiguration);
         }
-
-        try {
-            mmdWriter.writeMMD(matchupCollection, context, ioVariablesList);
-        } finally {
-            ioVariablesList.close();
-        }
+        return ioVariablesList;
     }
 
     private void addDistanceVariables(UseCaseConfig useCaseConfig, IOVariablesList ioVariablesList, VariablesConfiguration variablesConfiguration) {
@@ -453,4 +495,49 @@ class MatchupTool {
 
         return useCaseConfig;
     }
+
+    private class StreamingMmdWriter implements MatchupSetConsumer {
+
+        private final ToolContext context;
+        private final MmdWriterConfig writerConfig;
+        private MmdWriter mmdWriter;
+        private IOVariablesList ioVariablesList;
+
+        StreamingMmdWriter(ToolContext context, MmdWriterConfig writerConfig) {
+            this.context = context;
+            this.writerConfig = writerConfig;
+        }
+
+        @Override
+        public void accept(MatchupSet matchupSet) throws IOException, InvalidRangeException {
+            if (matchupSet.getNumObservations() == 0) {
+                return;
+            }
+
+            if (mmdWriter == null) {
+                ioVariablesList = createIOVariablesList(matchupSet, context, writerConfig);
+                mmdWriter = MmdWriterFactory.createFileWriter(writerConfig);
+                mmdWriter.open(context, ioVariablesList);
+            }
+
+            mmdWriter.writeMatchupSet(matchupSet);
+        }
+
+        void close() throws IOException, InvalidRangeException {
+            if (mmdWriter == null) {
+                if (ioVariablesList != null) {
+                    ioVariablesList.close();
+                }
+                logger.warning("No matchups in time interval, creation of MMD file skipped.");
+                return;
+            }
+
+            try {
+                mmdWriter.close();
+                logger.info("Successfully wrote " + mmdWriter.getNumMatchupsWritten() + " matchups to mmd-file '" + mmdWriter.getMmdFile().toAbsolutePath().toString() + "'");
+            } finally {
+                ioVariablesList.close();
+            }
+        }
+    }
 }
@@ -38,7 +38,6 @@ public class SampleSet {
     private Map<String, Sample> secondary;
 
     public SampleSet() {
-        secondary = new HashMap<>();
     }
 
     public Sample getPrimary() {
@@ -50,13 +49,26 @@ public class SampleSet {
     }
 
     public Sample getSecondary(String sensorName) {
+        if (secondary == null) {
+            return null;
+        }
         return secondary.get(sensorName);
     }
 
     public void setSecondary(String sensorName, Sample secondary) {
+        if (this.secondary == null) {
+            this.secondary = new HashMap<>();
+        }
         this.secondary.put(sensorName, secondary);
     }
 
+    String[] getSecondarySensorNames() {
+        if (secondary == null) {
+            return new String[0];
+        }
+        return secondary.keySet().toArray(new String[secondary.size()]);
+    }
+
     // todo se multisensor
     // if the multi sensor refactoring is done, this constant should never be used
     public static String getOnlyOneSecondaryKey() {
@@ -0,0 +1,435 @@
+/*
+ * Copyright (C) 2016 Brockmann Consult GmbH
+ * This code was developed for the EC project "Fidelity and Uncertainty in
+ * Climate Data Records from Earth Observations (FIDUCEO)".
+ * Grant Agreement: 638822
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * A copy of the GNU General Public License should have been supplied along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ *
+ */
+
+package com.bc.fiduceo.matchup;
+
+import com.bc.fiduceo.core.Sample;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Column oriented storage of the matchup samples of a MatchupSet. Each row is one matchup, each sensor occupies a
+ * slot holding primitive arrays for x, y, lon, lat and time. Slot 0 is the primary sensor, the secondary sensors
+ * get their slots in the order they are first set. A row does not need to contain a sample for every slot, the
+ * validity is tracked per slot.
+ * <p>
+ * Compared to one SampleSet with a HashMap of Sample objects per matchup, this needs about 32 bytes per matchup and
+ * sensor and no per-matchup objects at all.
+ */
+public class SampleStore {
+
+    public static final int PRIMARY = 0;
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private String[] sensorNames;
+    private int[][] x;
+    private int[][] y;
+    private double[][] lon;
+    private double[][] lat;
+    private long[][] time;
+    private BitSet[] valid;
+
+    private int size;
+    private int capacity;
+
+    public SampleStore() {
+        sensorNames = new String[0];
+        x = new int[0][];
+        y = new int[0][];
+        lon = new double[0][];
+        lat = new double[0][];
+        time = new long[0][];
+        valid = new BitSet[0];
+        size = 0;
+        capacity = INITIAL_CAPACITY;
+        addSlot(null);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getNumSlots() {
+        return sensorNames.length;
+    }
+
+    /**
+     * Retrieves the slot of a secondary sensor.
+     *
+     * @param sensorName the secondary sensor name
+     * @return the slot index or -1 if no sample has been set for this sensor
+     */
+    public int getSlot(String sensorName) {
+        for (int i = 1; i < sensorNames.length; i++) {
+            if (sensorNames[i].equals(sensorName)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Retrieves the slot of a secondary sensor which must be present in the store.
+     *
+     * @param sensorName the secondary sensor name
+     * @return the slot index
+     * @throws IllegalStateException if no sample has been set for this sensor
+     */
+    public int getRequiredSlot(String sensorName) {
+        final int slot = getSlot(sensorName);
+        if (slot < 0) {
+            throw new IllegalStateException("No samples of secondary sensor: " + sensorName);
+        }
+        return slot;
+    }
+
+    public int getOrCreateSlot(String sensorName) {
+        final int slot = getSlot(sensorName);
+        if (slot >= 0) {
+            return slot;
+        }
+        return addSlot(sensorName);
+    }
+
+    public String getSensorName(int slot) {
+        return sensorNames[slot];
+    }
+
+    /**
+     * Appends an empty row, i.e. a row without valid samples in any slot.
+     *
+     * @return the index of the new row
+     */
+    public int addRow() {
+        if (size == capacity) {
+            grow();
+        }
+        return size++;
+    }
+
+    public void set(int slot, int index, int x, int y, double lon, double lat, long time) {
+        this.x[slot][index] = x;
+        this.y[slot][index] = y;
+        this.lon[slot][index] = lon;
+        this.lat[slot][index] = lat;
+        this.time[slot][index] = time;
+        valid[slot].set(index);
+    }
+
+    public void set(int slot, int index, Sample sample) {
+        if (sample == null) {
+            valid[slot].clear(index);
+            return;
+        }
+        set(slot, index, sample.x, sample.y, sample.lon, sample.lat, sample.time);
+    }
+
+    public boolean isValid(int slot, int index) {
+        return valid[slot].get(index);
+    }
+
+    public int getX(int slot, int index) {
+        return x[slot][index];
+    }
+
+    public int getY(int slot, int index) {
+        return y[slot][index];
+    }
+
+    public double getLon(int slot, int index) {
+        return lon[slot][index];
+    }
+
+    public double getLat(int slot, int index) {
+        return lat[slot][index];
+    }
+
+    public long getTime(int slot, int index) {
+        return time[slot][index];
+    }
+
+    /**
+     * Creates a Sample object for the data stored. Intended for code that is not performance critical, hot loops
+     * should use the primitive accessors.
+     *
+     * @param slot  the sensor slot
+     * @param index the row index
+     * @return the sample or null if there is no valid sample in this slot
+     */
+    public Sample getSample(int slot, int index) {
+        if (!valid[slot].get(index)) {
+            return null;
+        }
+        return new Sample(x[slot][index], y[slot][index], lon[slot][index], lat[slot][index], time[slot][index]);
+    }
+
+    /**
+     * Appends a copy of a row of another store. The slots are mapped by sensor name.
+     *
+     * @param source the source store
+     * @param index  the row index in the source store
+     * @return the index of the new row
+     */
+    public int addRow(SampleStore source, int index) {
+        final int targetIndex = addRow();
+        final int numSlots = source.getNumSlots();
+        for (int sourceSlot = 0; sourceSlot < numSlots; sourceSlot++) {
+            if (!source.isValid(sourceSlot, index)) {
+                continue;
+            }
+            final int targetSlot = sourceSlot == PRIMARY ? PRIMARY : getOrCreateSlot(source.sensorNames[sourceSlot]);
+            set(targetSlot, targetIndex, source.x[sourceSlot][index], source.y[sourceSlot][index],
+                source.lon[sourceSlot][index], source.lat[sourceSlot][index], source.time[sourceSlot][index]);
+        }
+        return targetIndex;
+    }
+
+    /**
+     * Appends copies of all rows of another store. The slots are mapped by sensor name.
+     *
+     * @param source the source store
+     */
+    public void addRows(SampleStore source) {
+        final int numRows = source.size();
+        for (int index = 0; index < numRows; index++) {
+            addRow(source, index);
+        }
+    }
+
+    /**
+     * Removes all rows whose bit is not set, in place and keeping the order of the remaining rows.
+     *
+     * @param keep the rows to keep
+     */
+    public void retain(BitSet keep) {
+        int target = 0;
+        for (int index = keep.nextSetBit(0); index >= 0 && index < size; index = keep.nextSetBit(index + 1)) {
+            if (index != target) {
+                moveRow(index, target);
+            }
+            target++;
+        }
+        for (final BitSet slotValid : valid) {
+            slotValid.clear(target, size);
+        }
+        size = target;
+    }
+
+    public void remove(int index) {
+        final BitSet keep = new BitSet(size);
+        keep.set(0, size);
+        keep.clear(index);
+        retain(keep);
+    }
+
+    public void clear() {
+        for (final BitSet slotValid : valid) {
+            slotValid.clear();
+        }
+        size = 0;
+    }
+
+    /**
+     * Provides a list view on the rows of this store. The SampleSets delivered are views on the row data, they do not
+     * keep their identity and read and write the store directly. SampleSets added to the list are copied.
+     *
+     * @return the list view
+     */
+    public List<SampleSet> asSampleSets() {
+        return new SampleSetList();
+    }
+
+    private void copyFrom(SampleSet sampleSet, int index) {
+        if (sampleSet instanceof RowView) {
+            final RowView view = (RowView) sampleSet;
+            final int numSlots = view.store.getNumSlots();
+            for (int sourceSlot = 0; sourceSlot < numSlots; sourceSlot++) {
+                final Sample sample = view.store.getSample(sourceSlot, view.index);
+                final int targetSlot = sourceSlot == PRIMARY ? PRIMARY : getOrCreateSlot(view.store.sensorNames[sourceSlot]);
+                set(targetSlot, index, sample);
+            }
+            return;
+        }
+
+        set(PRIMARY, index, sampleSet.getPrimary());
+        for (final String sensorName : sampleSet.getSecondarySensorNames()) {
+            set(getOrCreateSlot(sensorName), index, sampleSet.getSecondary(sensorName));
+        }
+    }
+
+    private int addSlot(String sensorName) {
+        final int slot = sensorNames.length;
+        final int numSlots = slot + 1;
+        sensorNames = Arrays.copyOf(sensorNames, numSlots);
+        x = Arrays.copyOf(x, numSlots);
+        y = Arrays.copyOf(y, numSlots);
+        lon = Arrays.copyOf(lon, numSlots);
+        lat = Arrays.copyOf(lat, numSlots);
+        time = Arrays.copyOf(time, numSlots);
+        valid = Arrays.copyOf(valid, numSlots);
+
+        sensorNames[slot] = sensorName;
+        x[slot] = new int[capacity];
+        y[slot] = new int[capacity];
+        lon[slot] = new double[capacity];
+        lat[slot] = new double[capacity];
+        time[slot] = new long[capacity];
+        valid[slot] = new BitSet(capacity);
+        return slot;
+    }
+
+    private void grow() {
+        capacity = capacity + (capacity >> 1) + 1;
+        for (int slot = 0; slot < sensorNames.length; slot++) {
+            x[slot] = Arrays.copyOf(x[slot], capacity);
+            y[slot] = Arrays.copyOf(y[slot], capacity);
+            lon[slot] = Arrays.copyOf(lon[slot], capacity);
+            lat[slot] = Arrays.copyOf(lat[slot], capacity);
+            time[slot] = Arrays.copyOf(time[slot], capacity);
+        }
+    }
+
+    private void moveRow(int from, int to) {
+        for (int slot = 0; slot < sensorNames.length; slot++) {
+            x[slot][to] = x[slot][from];
+            y[slot][to] = y[slot][from];
+            lon[slot][to] = lon[slot][from];
+            lat[slot][to] = lat[slot][from];
+            time[slot][to] = time[slot][from];
+            valid[slot].set(to, valid[slot].get(from));
+        }
+    }
+
+    private class SampleSetList extends AbstractList<SampleSet> {
+
+        @Override
+        public SampleSet get(int index) {
+            checkIndex(index);
+            return new RowView(SampleStore.this, index);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public void add(int index, SampleSet sampleSet) {
+            if (index != size) {
+                throw new UnsupportedOperationException("SampleSets can only be appended");
+            }
+            copyFrom(sampleSet, addRow());
+            modCount++;
+        }
+
+        @Override
+        public SampleSet set(int index, SampleSet sampleSet) {
+            checkIndex(index);
+            final SampleSet previous = detach(index);
+            copyFrom(sampleSet, index);
+            return previous;
+        }
+
+        @Override
+        public SampleSet remove(int index) {
+            checkIndex(index);
+            final SampleSet removed = detach(index);
+            SampleStore.this.remove(index);
+            modCount++;
+            return removed;
+        }
+
+        @Override
+        public void clear() {
+            SampleStore.this.clear();
+            modCount++;
+        }
+
+        private SampleSet detach(int index) {
+            final SampleSet sampleSet = new SampleSet();
+            sampleSet.setPrimary(getSample(PRIMARY, index));
+            for (int slot = 1; slot < sensorNames.length; slot++) {
+                final Sample sample = getSample(slot, index);
+                if (sample != null) {
+                    sampleSet.setSecondary(sensorNames[slot], sample);
+                }
+            }
+            return sampleSet;
+        }
+
+        private void checkIndex(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+            }
+        }
+    }
+
+    private static class RowView extends SampleSet {
+
+        private final SampleStore store;
+        private final int index;
+
+        RowView(SampleStore store, int index) {
+            this.store = store;
+            this.index = index;
+        }
+
+        @Override
+        public Sample getPrimary() {
+            return store.getSample(PRIMARY, index);
+        }
+
+        @Override
+        public void setPrimary(Sample primary) {
+            store.set(PRIMARY, index, primary);
+        }
+
+        @Override
+        public Sample getSecondary(String sensorName) {
+            final int slot = store.getSlot(sensorName);
+            if (slot < 0) {
+                return null;
+            }
+            return store.getSample(slot, index);
+        }
+
+        @Override
+        public void setSecondary(String sensorName, Sample secondary) {
+            store.set(store.getOrCreateSlot(sensorName), index, secondary);
+        }
+
+        @Override
+        String[] getSecondarySensorNames() {
+            // slots are shared by all rows, only the secondaries set for this row are reported
+            final List<String> names = new ArrayList<>();
+            for (int slot = 1; slot < store.getNumSlots(); slot++) {
+                if (store.isValid(slot, index)) {
+                    names.add(store.getSensorName(slot));
+                }
+            }
+            return names.toArray(new String[names.size()]);
+        }
+    }
+}
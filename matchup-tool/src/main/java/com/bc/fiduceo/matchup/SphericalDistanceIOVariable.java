@@ -36,7 +36,7 @@ class SphericalDistanceIOVariable extends SampleSetIOVariable {
 
     @Override
     public void writeData(int centerX, int centerY, Interval interval, int zIndex) throws IOException, InvalidRangeException {
-        final double km = SphericalDistanceCalculator.calculateKm(sensorName, sampleSet);
+        final double km = SphericalDistanceCalculator.calculateKm(sensorName, getSampleSet());
         target.write((float) km, targetVariableName, zIndex);
     }
 }
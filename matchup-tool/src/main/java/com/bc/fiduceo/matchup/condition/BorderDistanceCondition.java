@@ -22,10 +22,10 @@ package com.bc.fiduceo.matchup.condition;
 
 import com.bc.fiduceo.core.Dimension;
 import com.bc.fiduceo.matchup.MatchupSet;
-import com.bc.fiduceo.core.Sample;
 import com.bc.fiduceo.matchup.SampleSet;
+import com.bc.fiduceo.matchup.SampleStore;
 
-import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
 
 class BorderDistanceCondition implements Condition {
@@ -38,47 +38,44 @@ class BorderDistanceCondition implements Condition {
 
     @Override
     public void apply(MatchupSet matchupSet, ConditionEngineContext context) {
-        List<SampleSet> sourceSamples = matchupSet.getSampleSets();
-        List<SampleSet> targetSamples = sourceSamples;
+        final SampleStore sampleStore = matchupSet.getSampleStore();
         for (Configuration configuration : configurations) {
-            targetSamples = new ArrayList<>();
+            if (sampleStore.size() == 0) {
+                return;
+            }
+
             if (configuration.usePrimary) {
                 final Dimension primarySize = context.getPrimarySize();
                 final int maxXPrimary = primarySize.getNx() - 1 - configuration.primary_x;
                 final int maxYPrimary = primarySize.getNy() - 1 - configuration.primary_y;
-                for (final SampleSet sampleSet : sourceSamples) {
-                    final Sample primary = sampleSet.getPrimary();
-                    if (primary.x < configuration.primary_x || primary.x > maxXPrimary) {
-                        continue;
-                    }
-
-                    if (primary.y < configuration.primary_y || primary.y > maxYPrimary) {
-                        continue;
-                    }
-                    targetSamples.add(sampleSet);
-                }
+                retainInside(sampleStore, SampleStore.PRIMARY, configuration.primary_x, maxXPrimary, configuration.primary_y, maxYPrimary);
             } else if (configuration.useSecondary) {
                 final String secondaryName = configuration.secondaryName;
                 final Dimension secondarySize = context.getSecondarySize(secondaryName);
                 final int maxXSecondary = secondarySize.getNx() - 1 - configuration.secondary_x;
                 final int maxYSecondary = secondarySize.getNy() - 1 - configuration.secondary_y;
-                for (final SampleSet sampleSet : sourceSamples) {
-                    final Sample secondary = sampleSet.getSecondary(secondaryName);
-                    if (secondary.x < configuration.secondary_x || secondary.x > maxXSecondary) {
-                        continue;
-                    }
-
-                    if (secondary.y < configuration.secondary_y || secondary.y > maxYSecondary) {
-                        continue;
-                    }
-                    targetSamples.add(sampleSet);
-                }
+                final int secondarySlot = sampleStore.getRequiredSlot(secondaryName);
+                retainInside(sampleStore, secondarySlot, configuration.secondary_x, maxXSecondary, configuration.secondary_y, maxYSecondary);
             }
-            sourceSamples.clear();
-            sourceSamples = targetSamples;
         }
+    }
 
-        matchupSet.setSampleSets(targetSamples);
+    private static void retainInside(SampleStore sampleStore, int slot, int minX, int maxX, int minY, int maxY) {
+        final int numSamples = sampleStore.size();
+        final BitSet keep = new BitSet(numSamples);
+        for (int i = 0; i < numSamples; i++) {
+            final int x = sampleStore.getX(slot, i);
+            if (x < minX || x > maxX) {
+                continue;
+            }
+
+            final int y = sampleStore.getY(slot, i);
+            if (y < minY || y > maxY) {
+                continue;
+            }
+            keep.set(i);
+        }
+        sampleStore.retain(keep);
     }
 
     static class Configuration {
@@ -21,12 +21,11 @@
 package com.bc.fiduceo.matchup.condition;
 
 import com.bc.fiduceo.matchup.MatchupSet;
-import com.bc.fiduceo.core.Sample;
 import com.bc.fiduceo.matchup.SampleSet;
+import com.bc.fiduceo.matchup.SampleStore;
 import com.bc.fiduceo.math.Distance;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.BitSet;
 
 /* The XML template for this condition class looks like:
 
@@ -49,18 +48,22 @@ class DistanceCondition implements Condition {
 
     @Override
     public void apply(MatchupSet matchupSet, ConditionEngineContext context) {
-        final List<SampleSet> sourceSamples = matchupSet.getSampleSets();
-        final List<SampleSet> targetSamples = new ArrayList<>();
-        for (final SampleSet sampleSet : sourceSamples) {
-            final Sample primary = sampleSet.getPrimary();
-            final Sample secondary = sampleSet.getSecondary(getSecondarySensorName());
-            final double kmDistance = Distance.computeSphericalDistanceKm(primary.lon, primary.lat, secondary.lon, secondary.lat);
+        final SampleStore sampleStore = matchupSet.getSampleStore();
+        final int numSamples = sampleStore.size();
+        if (numSamples == 0) {
+            return;
+        }
+
+        final int secondarySlot = sampleStore.getRequiredSlot(getSecondarySensorName());
+        final BitSet keep = new BitSet(numSamples);
+        for (int i = 0; i < numSamples; i++) {
+            final double kmDistance = Distance.computeSphericalDistanceKm(sampleStore.getLon(SampleStore.PRIMARY, i), sampleStore.getLat(SampleStore.PRIMARY, i),
+                                                                          sampleStore.getLon(secondarySlot, i), sampleStore.getLat(secondarySlot, i));
             if (kmDistance <= maxDistanceInKm) {
-                targetSamples.add(sampleSet);
+                keep.set(i);
             }
         }
-        matchupSet.setSampleSets(targetSamples);
-        sourceSamples.clear();
+        sampleStore.retain(keep);
     }
 
     double getMaxDistanceInKm() {
@@ -21,11 +21,10 @@
 package com.bc.fiduceo.matchup.condition;
 
 import com.bc.fiduceo.matchup.MatchupSet;
-import com.bc.fiduceo.core.Sample;
 import com.bc.fiduceo.matchup.SampleSet;
+import com.bc.fiduceo.matchup.SampleStore;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.BitSet;
 
 /*
  * The XML template for this condition class looks like:
@@ -70,17 +69,26 @@ class TimeDeltaCondition implements Condition {
 
     @Override
     public void apply(MatchupSet matchupSet, ConditionEngineContext context) {
-        final List<SampleSet> sourceSamples = matchupSet.getSampleSets();
-        final List<SampleSet> targetSamples = new ArrayList<>();
-        for (final SampleSet sampleSet : sourceSamples) {
-            boolean primaryIsValid = isValidDifferenceToPrimary(sampleSet);
-            boolean secondaryIsValid = isValidDifferenceBetweenSecondaries(sampleSet);
+        final SampleStore sampleStore = matchupSet.getSampleStore();
+        final int numSamples = sampleStore.size();
+        if (numSamples == 0) {
+            return;
+        }
+
+        final int[] secondarySlots = new int[secondarySensorNames.length];
+        for (int i = 0; i < secondarySlots.length; i++) {
+            secondarySlots[i] = sampleStore.getRequiredSlot(secondarySensorNames[i]);
+        }
+
+        final BitSet keep = new BitSet(numSamples);
+        for (int i = 0; i < numSamples; i++) {
+            boolean primaryIsValid = isValidDifferenceToPrimary(sampleStore, secondarySlots, i);
+            boolean secondaryIsValid = isValidDifferenceBetweenSecondaries(sampleStore, secondarySlots, i);
             if (primaryIsValid && secondaryIsValid) {
-                targetSamples.add(sampleSet);
+                keep.set(i);
             }
         }
-        matchupSet.setSampleSets(targetSamples);
-        sourceSamples.clear();
+        sampleStore.retain(keep);
     }
 
     long getMaxTimeDeltaInMillis() {
@@ -103,12 +111,12 @@ class TimeDeltaCondition implements Condition {
         this.secondaryCheck = secondaryCheck;
     }
 
-    private boolean isValidDifferenceToPrimary(SampleSet sampleSet) {
+    private boolean isValidDifferenceToPrimary(SampleStore sampleStore, int[] secondarySlots, int index) {
         if (primaryCheck) {
-            for (String secondarySensorName : secondarySensorNames) {
-                final Sample s1 = sampleSet.getPrimary();
-                final Sample s2 = sampleSet.getSecondary(secondarySensorName);
-                if (isInvalid(s1, s2)) {
+            final long primaryTime = sampleStore.getTime(SampleStore.PRIMARY, index);
+            for (int secondarySlot : secondarySlots) {
+                final long secondaryTime = sampleStore.getTime(secondarySlot, index);
+                if (isInvalid(primaryTime, secondaryTime)) {
                     return false;
                 }
             }
@@ -116,14 +124,14 @@ class TimeDeltaCondition implements Condition {
         return true;
     }
 
-    private boolean isValidDifferenceBetweenSecondaries(SampleSet sampleSet) {
+    private boolean isValidDifferenceBetweenSecondaries(SampleStore sampleStore, int[] secondarySlots, int index) {
         if (secondaryCheck) {
-            final int numNames = secondarySensorNames.length;
-            for (int i = 0; i < numNames - 1; i++) {
-                final Sample s1 = sampleSet.getSecondary(secondarySensorNames[i]);
-                for (int j = i + 1; j < numNames; j++) {
-                    final Sample s2 = sampleSet.getSecondary(secondarySensorNames[j]);
-                    if (isInvalid(s1, s2)) {
+            final int numSlots = secondarySlots.length;
+            for (int i = 0; i < numSlots - 1; i++) {
+                final long time_1 = sampleStore.getTime(secondarySlots[i], index);
+                for (int j = i + 1; j < numSlots; j++) {
+                    final long time_2 = sampleStore.getTime(secondarySlots[j], index);
+                    if (isInvalid(time_1, time_2)) {
                         return false;
                     }
                 }
@@ -132,8 +140,8 @@ class TimeDeltaCondition implements Condition {
         return true;
     }
 
-    private boolean isInvalid(Sample primary, Sample secondary) {
-        final long actualTimeDelta = Math.abs(primary.time - secondary.time);
+    private boolean isInvalid(long time_1, long time_2) {
+        final long actualTimeDelta = Math.abs(time_1 - time_2);
         return actualTimeDelta > maxTimeDeltaInMillis;
     }
 }
@@ -18,10 +18,9 @@
 package com.bc.fiduceo.matchup.condition;
 
 import com.bc.fiduceo.matchup.MatchupSet;
-import com.bc.fiduceo.matchup.SampleSet;
+import com.bc.fiduceo.matchup.SampleStore;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.BitSet;
 
 class TimeRangeCondition implements Condition {
 
@@ -30,15 +29,15 @@ class TimeRangeCondition implements Condition {
         final long endTime = context.getEndDate().getTime();
         final long startTime = context.getStartDate().getTime();
 
-        final List<SampleSet> sampleSets = matchupSet.getSampleSets();
-        final List<SampleSet> targetSets = new ArrayList<>();
-        for (SampleSet sampleSet : sampleSets) {
-            final long time = sampleSet.getPrimary().time;
+        final SampleStore sampleStore = matchupSet.getSampleStore();
+        final int numSamples = sampleStore.size();
+        final BitSet keep = new BitSet(numSamples);
+        for (int i = 0; i < numSamples; i++) {
+            final long time = sampleStore.getTime(SampleStore.PRIMARY, i);
             if (time >= startTime && time <= endTime) {
-                targetSets.add(sampleSet);
+                keep.set(i);
             }
         }
-        matchupSet.setSampleSets(targetSets);
-        sampleSets.clear();
+        sampleStore.retain(keep);
     }
 }
@@ -23,6 +23,7 @@ package com.bc.fiduceo.matchup.strategy;
 import com.bc.fiduceo.core.Dimension;
 import com.bc.fiduceo.core.SatelliteObservation;
 import com.bc.fiduceo.core.Sensor;
+import com.bc.fiduceo.core.SystemConfig;
 import com.bc.fiduceo.core.UseCaseConfig;
 import com.bc.fiduceo.db.QueryParameter;
 import com.bc.fiduceo.db.Storage;
@@ -32,33 +33,62 @@ import com.bc.fiduceo.geometry.Polygon;
 import com.bc.fiduceo.location.PixelLocator;
 import com.bc.fiduceo.matchup.MatchupCollection;
 import com.bc.fiduceo.matchup.MatchupSet;
+import com.bc.fiduceo.matchup.MatchupSetConsumer;
 import com.bc.fiduceo.matchup.condition.ConditionEngine;
 import com.bc.fiduceo.matchup.condition.ConditionEngineContext;
 import com.bc.fiduceo.matchup.screening.ScreeningEngine;
+import com.bc.fiduceo.math.Intersection;
+import com.bc.fiduceo.math.IntersectionEngine;
+import com.bc.fiduceo.math.IntersectionStatistics;
 import com.bc.fiduceo.reader.Reader;
 import com.bc.fiduceo.tool.ToolContext;
+import com.bc.fiduceo.util.TimeUtils;
 import org.esa.snap.core.util.StringUtils;
 import ucar.ma2.InvalidRangeException;
 
 import java.io.IOException;
 import java.sql.SQLException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.logging.Logger;
 
 public abstract class AbstractMatchupStrategy {
 
     final Logger logger;
+    final IntersectionStatistics intersectionStatistics;
+    private MatchupSetConsumer matchupSetConsumer;
+    private ObservationCatalogue observationCatalogue;
 
     AbstractMatchupStrategy(Logger logger) {
         this.logger = logger;
+        intersectionStatistics = new IntersectionStatistics();
     }
 
     abstract public MatchupCollection createMatchupCollection(ToolContext context) throws SQLException, IOException, InvalidRangeException;
 
+    /**
+     * Sets a consumer that receives each MatchupSet as soon as it is completed. MatchupSets passed to the consumer
+     * are not kept in the MatchupCollection returned by createMatchupCollection(), only their number of matchups.
+     *
+     * @param matchupSetConsumer the consumer, or null to collect all MatchupSets in memory
+     */
+    public void setMatchupSetConsumer(MatchupSetConsumer matchupSetConsumer) {
+        this.matchupSetConsumer = matchupSetConsumer;
+    }
+
+    MatchupCollection createTargetCollection() {
+        return new MatchupCollection(matchupSetConsumer);
+    }
+
     void applyConditionsAndScreenings(MatchupSet matchupSet,
                                       ConditionEngine conditionEngine, ConditionEngineContext conditionEngineContext,
                                       ScreeningEngine screeningEngine,
@@ -80,6 +110,139 @@ public abstract class AbstractMatchupStrategy {
         logger.info("Remaining " + matchupSet.getNumObservations() + " after matchup screening");
     }
 
+    /**
+     * Runs the processor for each primary observation and collects the resulting MatchupSets. When more than one
+     * worker thread is requested, the primary observations are processed concurrently as independent tasks. The
+     * results are always merged in the order of the primary observation list, so the content of the
+     * MatchupCollection does not depend on the number of threads. At most two tasks per worker thread are submitted
+     * and not yet merged, which bounds the number of results held in memory.
+     *
+     * @param primaryObservations the primary observations
+     * @param numThreads          the number of worker threads
+     * @param processor           the processor creating the MatchupSets for one primary observation
+     *
+     * @return the MatchupCollection
+     */
+    MatchupCollection processPrimaryObservations(List<SatelliteObservation> primaryObservations, int numThreads,
+                                                 PrimaryObservationProcessor processor) throws SQLException, IOException, InvalidRangeException {
+        final MatchupCollection matchupCollection = createTargetCollection();
+        if (numThreads <= 1) {
+            for (final SatelliteObservation primaryObservation : primaryObservations) {
+                addAll(matchupCollection, processor.process(primaryObservation));
+            }
+            return matchupCollection;
+        }
+
+        logger.info("Processing " + primaryObservations.size() + " primary observations using " + numThreads + " worker threads");
+
+        final int maxPendingResults = 2 * numThreads;
+        final ExecutorService executorService = Executors.newFixedThreadPool(numThreads);
+        try {
+            final Deque<Future<List<MatchupSet>>> pendingResults = new ArrayDeque<>(maxPendingResults);
+            for (final SatelliteObservation primaryObservation : primaryObservations) {
+                if (pendingResults.size() >= maxPendingResults) {
+                    addAll(matchupCollection, getResult(pendingResults.poll()));
+                }
+                pendingResults.add(executorService.submit(() -> processor.process(primaryObservation)));
+            }
+
+            while (!pendingResults.isEmpty()) {
+                addAll(matchupCollection, getResult(pendingResults.poll()));
+            }
+        } finally {
+            executorService.shutdownNow();
+        }
+
+        return matchupCollection;
+    }
+
+    // package access for testing only
+    static int getNumWorkerThreads(ToolContext context) {
+        final SystemConfig systemConfig = context.getSystemConfig();
+        if (systemConfig == null) {
+            return 1;
+        }
+        return Math.max(1, systemConfig.getWorkerThreads());
+    }
+
+    /**
+     * Intersects primary and secondary observation on the database metadata only (geo-bounds and time axes), the data
+     * files are not accessed.
+     *
+     * @param primaryObservation   the primary observation
+     * @param secondaryObservation the secondary observation
+     * @param timeDeltaInMillis    the maximal time delta allowed
+     * @param statistics           counts the geometry pairs tested and rejected, may be null
+     * @return the intersections with a minimal time delta below the limit, an empty array if the observations do not match
+     */
+    static Intersection[] getMatchingIntersections(SatelliteObservation primaryObservation, SatelliteObservation secondaryObservation, long timeDeltaInMillis,
+                                                   IntersectionStatistics statistics) {
+        final Intersection[] intersections = IntersectionEngine.getIntersectingIntervals(primaryObservation, secondaryObservation, statistics);
+        final List<Intersection> matchingIntersections = new ArrayList<>(intersections.length);
+        for (final Intersection intersection : intersections) {
+            if (intersection.getTimeInfo().getMinimalTimeDelta() < timeDeltaInMillis) {
+                matchingIntersections.add(intersection);
+            }
+        }
+        return matchingIntersections.toArray(new Intersection[matchingIntersections.size()]);
+    }
+
+    static Intersection[] getMatchingIntersections(SatelliteObservation primaryObservation, SatelliteObservation secondaryObservation, long timeDeltaInMillis) {
+        return getMatchingIntersections(primaryObservation, secondaryObservation, timeDeltaInMillis, null);
+    }
+
+    /**
+     * First pass of the secondary processing: intersects the primary observation with the secondary observations of
+     * all secondary sensors on the database metadata only, no data file is opened for non-matching secondaries.
+     *
+     * @param primaryObservation       the primary observation
+     * @param mapSecondaryObservations the secondary observations, mapped by sensor name
+     * @param useCaseConfig            the use case configuration
+     * @param timeDeltaInMillis        the maximal time delta allowed
+     * @param readerProvider           counts the rejected secondary observations
+     * @return the candidates per secondary sensor in the order of the use case configuration. The list is empty if
+     * one of the sensors has no candidate, as each matchup needs a sample of every secondary sensor
+     */
+    List<SecondaryCandidates> getSecondaryCandidates(SatelliteObservation primaryObservation, Map<String, List<SatelliteObservation>> mapSecondaryObservations,
+                                                     UseCaseConfig useCaseConfig, long timeDeltaInMillis, SecondaryReaderProvider readerProvider) {
+        final List<SecondaryCandidates> secondaryCandidates = new ArrayList<>();
+        for (final Sensor secondarySensor : useCaseConfig.getSecondarySensors()) {
+            final String sensorName = secondarySensor.getName();
+            final SecondaryCandidates candidates = new SecondaryCandidates(sensorName);
+            for (final SatelliteObservation secondaryObservation : mapSecondaryObservations.get(sensorName)) {
+                final Intersection[] intersectingIntervals = getMatchingIntersections(primaryObservation, secondaryObservation, timeDeltaInMillis, intersectionStatistics);
+                if (intersectingIntervals.length == 0) {
+                    readerProvider.countRejected();
+                    continue;
+                }
+                candidates.add(secondaryObservation, intersectingIntervals);
+            }
+
+            if (candidates.isEmpty()) {
+                return new ArrayList<>();
+            }
+            secondaryCandidates.add(candidates);
+        }
+        return secondaryCandidates;
+    }
+
+    // the readers of all secondary sensors of a combination are open at the same time, so the cache has to hold them all
+    // package access for testing only
+    static int getSecondaryReaderCacheSize(ToolContext context) {
+        final int readerCacheSize = context.getSystemConfig().getReaderCacheSize();
+        final int numSecondarySensors = context.getUseCaseConfig().getSecondarySensors().size();
+        return Math.max(readerCacheSize, numSecondarySensors);
+    }
+
+    void logReaderStatistics(SecondaryReaderProvider readerProvider) {
+        logger.info("Secondary observations evaluated: " + readerProvider.getNumCandidates() +
+                ", rejected on metadata: " + readerProvider.getNumRejected() +
+                ", readers opened: " + readerProvider.getNumReadersOpened() +
+                ", reader opens avoided: " + readerProvider.getNumOpensAvoided());
+        logger.info("Geometry pairs intersected: " + intersectionStatistics.getNumPairs() +
+                ", rejected on bounding rectangles: " + intersectionStatistics.getNumRejected());
+    }
+
     // package access for testing only tb 2016-11-04
     static boolean isSegmented(Geometry primaryGeoBounds) {
         return primaryGeoBounds instanceof GeometryCollection && ((GeometryCollection) primaryGeoBounds).getGeometries().length > 1;
@@ -145,19 +308,104 @@ public abstract class AbstractMatchupStrategy {
         return primaryObservations;
     }
 
-    Map<String, List<SatelliteObservation>> getSecondaryObservations(ToolContext context, Date searchTimeStart, Date searchTimeEnd) throws SQLException {
+    /**
+     * Sets up the in-memory catalogue of secondary observations when enabled in the system configuration. The
+     * catalogue window spans the search intervals of all primary observations passed in, so that the secondary
+     * queries of the run are answered without database access.
+     *
+     * @param context             the tool context
+     * @param primaryObservations the primary observations of the run
+     * @param timeDeltaInMillis   the maximal time delta between primary and secondary observations
+     */
+    void initObservationCatalogue(ToolContext context, List<SatelliteObservation> primaryObservations, long timeDeltaInMillis) {
+        observationCatalogue = null;
+
+        final SystemConfig systemConfig = context.getSystemConfig();
+        if (systemConfig == null || !systemConfig.isObservationCatalogueEnabled() || primaryObservations.isEmpty()) {
+            return;
+        }
+
+        Date minStartTime = primaryObservations.get(0).getStartTime();
+        Date maxStopTime = primaryObservations.get(0).getStopTime();
+        for (final SatelliteObservation primaryObservation : primaryObservations) {
+            if (primaryObservation.getStartTime().before(minStartTime)) {
+                minStartTime = primaryObservation.getStartTime();
+            }
+            if (primaryObservation.getStopTime().after(maxStopTime)) {
+                maxStopTime = primaryObservation.getStopTime();
+            }
+        }
+
+        // same arithmetic as the search intervals of the strategies, otherwise the window may miss them by a fraction of a second
+        final int timeDeltaSeconds = (int) (timeDeltaInMillis / 1000);
+        final Date catalogueStart = TimeUtils.addSeconds(-timeDeltaSeconds, minStartTime);
+        final Date catalogueEnd = TimeUtils.addSeconds(timeDeltaSeconds, maxStopTime);
+        logger.info("Using observation catalogue for secondary data (" + catalogueStart + ", " + catalogueEnd + ")");
+        observationCatalogue = new ObservationCatalogue(context.getStorage(), catalogueStart, catalogueEnd);
+    }
+
+    /**
+     * Queries the secondary observations for the search interval passed in. Served from the observation catalogue
+     * when it covers the interval, else from the database.
+     *
+     * @param context         the tool context
+     * @param searchTimeStart start of the search interval
+     * @param searchTimeEnd   end of the search interval
+     * @param searchGeometry  optional geometry, if set only observations possibly intersecting this geometry are returned;
+     *                        may be null
+     * @return the secondary observations, mapped by sensor name
+     * @throws SQLException on database errors
+     */
+    Map<String, List<SatelliteObservation>> getSecondaryObservations(ToolContext context, Date searchTimeStart, Date searchTimeEnd, Geometry searchGeometry) throws SQLException {
         final HashMap<String, List<SatelliteObservation>> mapSecondaryObservations = new HashMap<>();
 
         final UseCaseConfig useCaseConfig = context.getUseCaseConfig();
         final Storage storage = context.getStorage();
         final List<QueryParameter> parameters = getSecondarySensorParameter(useCaseConfig, searchTimeStart, searchTimeEnd);
         for (QueryParameter parameter : parameters) {
+            parameter.setGeometry(searchGeometry);
             final String sensorName = parameter.getSensorName();
             logger.info("Requesting secondary data ... (" + sensorName + ", " + parameter.getStartTime() + ", " + parameter.getStopTime());
-            final List<SatelliteObservation> secondaryObservations = storage.get(parameter);
+            final List<SatelliteObservation> secondaryObservations;
+            if (observationCatalogue != null && observationCatalogue.covers(searchTimeStart, searchTimeEnd)) {
+                secondaryObservations = observationCatalogue.get(parameter);
+            } else {
+                secondaryObservations = storage.get(parameter);
+            }
             logger.info("Received " + secondaryObservations.size() + " secondary satellite observations of sensor type " + sensorName);
             mapSecondaryObservations.put(sensorName, secondaryObservations);
         }
         return mapSecondaryObservations;
     }
+
+    private static void addAll(MatchupCollection matchupCollection, List<MatchupSet> matchupSets) {
+        for (final MatchupSet matchupSet : matchupSets) {
+            matchupCollection.add(matchupSet);
+        }
+    }
+
+    private static List<MatchupSet> getResult(Future<List<MatchupSet>> future) throws SQLException, IOException, InvalidRangeException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for matchup processing results", e);
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof SQLException) {
+                throw (SQLException) cause;
+            } else if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof InvalidRangeException) {
+                throw (InvalidRangeException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new RuntimeException(cause.getMessage(), cause);
+        }
+    }
+
+    interface PrimaryObservationProcessor {
+        List<MatchupSet> process(SatelliteObservation primaryObservation) throws SQLException, IOException, InvalidRangeException;
+    }
 }
@@ -31,6 +31,7 @@ import com.bc.fiduceo.location.PixelLocator;
 import com.bc.fiduceo.matchup.MatchupCollection;
 import com.bc.fiduceo.matchup.MatchupSet;
 import com.bc.fiduceo.matchup.SampleSet;
+import com.bc.fiduceo.matchup.SampleStore;
 import com.bc.fiduceo.matchup.condition.ConditionEngine;
 import com.bc.fiduceo.matchup.condition.ConditionEngineContext;
 import com.bc.fiduceo.matchup.screening.ScreeningEngine;
@@ -38,6 +39,7 @@ import com.bc.fiduceo.math.TimeInterval;
 import com.bc.fiduceo.reader.Reader;
 import com.bc.fiduceo.reader.ReaderCache;
 import com.bc.fiduceo.reader.ReaderFactory;
+import com.bc.fiduceo.reader.TimeIndexedReader;
 import com.bc.fiduceo.reader.TimeLocator;
 import com.bc.fiduceo.tool.ToolContext;
 import com.bc.fiduceo.util.TimeUtils;
@@ -49,6 +51,7 @@ import java.io.IOException;
 import java.nio.file.Path;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
@@ -92,7 +95,7 @@ class InsituPolarOrbitingMatchupStrategy extends AbstractMatchupStrategy {
 
         final Date searchTimeStart = TimeUtils.addSeconds(-timeDeltaSeconds, context.getStartDate());
         final Date searchTimeEnd = TimeUtils.addSeconds(timeDeltaSeconds, context.getEndDate());
-        final Map<String, List<SatelliteObservation>> mapSecondaryObservations = getSecondaryObservations(context, searchTimeStart, searchTimeEnd);
+        final Map<String, List<SatelliteObservation>> mapSecondaryObservations = getSecondaryObservations(context, searchTimeStart, searchTimeEnd, null);
         String[] secSensorNames = mapSecondaryObservations.keySet().toArray(new String[]{});
 
         final Map<String, Map<Path, List<MatchupSet>>> mapMatchupSetsInsituOrder = new HashMap<>();
@@ -157,8 +160,8 @@ class InsituPolarOrbitingMatchupStrategy extends AbstractMatchupStrategy {
                     final SampleCollector sampleCollector = new SampleCollector(context, pixelLocator);
 
                     for (MatchupSet matchupSet : matchupSets) {
-                        final List<SampleSet> completeSamples = sampleCollector.addSecondarySamples(matchupSet.getSampleSets(), timeLocator, secSensorName);
-                        matchupSet.setSampleSets(completeSamples);
+                        final SampleStore completeSamples = sampleCollector.addSecondarySamples(matchupSet.getSampleStore(), timeLocator, secSensorName);
+                        matchupSet.setSampleStore(completeSamples);
                     }
                 }
             }
@@ -364,28 +367,43 @@ class InsituPolarOrbitingMatchupStrategy extends AbstractMatchupStrategy {
 
     private List<Sample> getInsituSamples(TimeInterval processingInterval, Reader insituReader) throws IOException, InvalidRangeException {
         final List<Sample> insituSamples = new ArrayList<>();
-        final Dimension productSize = insituReader.getProductSize();
-        final int height = productSize.getNy();
-
         final String longitudeVariableName = insituReader.getLongitudeVariableName();
         final String latitudeVariableName = insituReader.getLatitudeVariableName();
 
+        if (insituReader instanceof TimeIndexedReader) {
+            final int[] yIndices = ((TimeIndexedReader) insituReader).getYIndicesInTimeRange(processingInterval.getStartTime(), processingInterval.getStopTime());
+            // keep the product order of the full scan
+            Arrays.sort(yIndices);
+            for (final int y : yIndices) {
+                final ArrayInt.D2 acquisitionTimeArray = insituReader.readAcquisitionTime(0, y, singlePixel);
+                final Date acquisitionDate = TimeUtils.create(acquisitionTimeArray.getInt(0) * 1000L);
+                insituSamples.add(createSample(insituReader, y, acquisitionDate, longitudeVariableName, latitudeVariableName));
+            }
+            return insituSamples;
+        }
+
+        final Dimension productSize = insituReader.getProductSize();
+        final int height = productSize.getNy();
+
         for (int i = 0; i < height; i++) {
             final ArrayInt.D2 acquisitionTimeArray = insituReader.readAcquisitionTime(0, i, singlePixel);
             final int acquisitionTime = acquisitionTimeArray.getInt(0);
             final Date acquisitionDate = TimeUtils.create(acquisitionTime * 1000L);
             if (processingInterval.contains(acquisitionDate)) {
-                final Array lon = insituReader.readRaw(0, i, singlePixel, longitudeVariableName);
-                final Array lat = insituReader.readRaw(0, i, singlePixel, latitudeVariableName);
-
-                final Sample sample = new Sample(0, i, lon.getDouble(0), lat.getDouble(0), acquisitionDate.getTime());
-                insituSamples.add(sample);
+                insituSamples.add(createSample(insituReader, i, acquisitionDate, longitudeVariableName, latitudeVariableName));
             }
         }
 
         return insituSamples;
     }
 
+    private Sample createSample(Reader insituReader, int y, Date acquisitionDate, String longitudeVariableName, String latitudeVariableName) throws IOException, InvalidRangeException {
+        final Array lon = insituReader.readRaw(0, y, singlePixel, longitudeVariableName);
+        final Array lat = insituReader.readRaw(0, y, singlePixel, latitudeVariableName);
+
+        return new Sample(0, y, lon.getDouble(0), lat.getDouble(0), acquisitionDate.getTime());
+    }
+
     static class CombineBean {
 
         public String primarySensorName;
@@ -0,0 +1,193 @@
+/*
+ * Copyright (C) 2016 Brockmann Consult GmbH
+ * This code was developed for the EC project "Fidelity and Uncertainty in
+ * Climate Data Records from Earth Observations (FIDUCEO)".
+ * Grant Agreement: 638822
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * A copy of the GNU General Public License should have been supplied along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ *
+ */
+
+package com.bc.fiduceo.matchup.strategy;
+
+import com.bc.fiduceo.core.SatelliteObservation;
+import com.bc.fiduceo.db.QueryParameter;
+import com.bc.fiduceo.db.Storage;
+import com.bc.fiduceo.geometry.GeometryUtil;
+import com.google.common.geometry.S2LatLngRect;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps the secondary observations of a matchup run in memory. The observations of each sensor are loaded with
+ * one database query covering the complete run window and are then served from an interval index on the
+ * observation times, followed by a bounding rectangle test against the search geometry. This replaces one database
+ * query per primary observation by a lookup in memory.
+ * <p>
+ * The observations are returned in the order of the database query. The spatial test works on the sphere and is
+ * at least as tight as the bounding rectangle test of the database, it never drops an observation intersecting the
+ * search geometry. Queries outside the loaded window must go to the database, use covers() to check.
+ */
+class ObservationCatalogue {
+
+    private final Storage storage;
+    private final Date startTime;
+    private final Date stopTime;
+    private final Map<String, ObservationIndex> indices;
+
+    ObservationCatalogue(Storage storage, Date startTime, Date stopTime) {
+        this.storage = storage;
+        this.startTime = startTime;
+        this.stopTime = stopTime;
+        indices = new HashMap<>();
+    }
+
+    boolean covers(Date searchTimeStart, Date searchTimeEnd) {
+        return !searchTimeStart.before(startTime) && !searchTimeEnd.after(stopTime);
+    }
+
+    /**
+     * Retrieves the observations for the sensor, version, time interval and optional search geometry of the
+     * parameter. Other query parameters are not supported.
+     *
+     * @param parameter the query parameter, the time interval must be covered by the catalogue
+     * @return the observations
+     * @throws SQLException on database errors when loading the observations of a sensor
+     */
+    List<SatelliteObservation> get(QueryParameter parameter) throws SQLException {
+        final Date searchTimeStart = parameter.getStartTime();
+        final Date searchTimeEnd = parameter.getStopTime();
+        if (!covers(searchTimeStart, searchTimeEnd)) {
+            throw new IllegalArgumentException("Search interval is not covered by the observation catalogue");
+        }
+
+        final ObservationIndex index = getIndex(parameter.getSensorName(), parameter.getVersion());
+        final S2LatLngRect searchRect = GeometryUtil.getBoundingRect(parameter.getGeometry());
+        return index.get(searchTimeStart.getTime(), searchTimeEnd.getTime(), searchRect);
+    }
+
+    // the first worker thread asking for a sensor loads it, the others wait for the result
+    private synchronized ObservationIndex getIndex(String sensorName, String version) throws SQLException {
+        final String key = sensorName + "/" + version;
+        ObservationIndex index = indices.get(key);
+        if (index == null) {
+            final QueryParameter parameter = new QueryParameter();
+            parameter.setSensorName(sensorName);
+            parameter.setVersion(version);
+            parameter.setStartTime(startTime);
+            parameter.setStopTime(stopTime);
+            index = new ObservationIndex(storage.get(parameter));
+            indices.put(key, index);
+        }
+        return index;
+    }
+
+    /**
+     * Interval index over the observation times: the observations sorted by start time together with the running
+     * maximum of the stop times. A query finds the last observation starting before the end of the search interval
+     * by binary search and walks back until no earlier observation can reach the start of the search interval.
+     */
+    private static class ObservationIndex {
+
+        private final SatelliteObservation[] observations;
+        private final int[] loadOrder;
+        private final long[] startTimes;
+        private final long[] maxStopTimes;
+        private final S2LatLngRect[] boundingRects;
+
+        private ObservationIndex(List<SatelliteObservation> loadedObservations) {
+            final int numObservations = loadedObservations.size();
+            final Integer[] sortOrder = new Integer[numObservations];
+            for (int i = 0; i < numObservations; i++) {
+                sortOrder[i] = i;
+            }
+            Arrays.sort(sortOrder, (i1, i2) -> loadedObservations.get(i1).getStartTime().compareTo(loadedObservations.get(i2).getStartTime()));
+
+            observations = new SatelliteObservation[numObservations];
+            loadOrder = new int[numObservations];
+            startTimes = new long[numObservations];
+            maxStopTimes = new long[numObservations];
+            boundingRects = new S2LatLngRect[numObservations];
+
+            long maxStopTime = Long.MIN_VALUE;
+            for (int i = 0; i < numObservations; i++) {
+                final SatelliteObservation observation = loadedObservations.get(sortOrder[i]);
+                observations[i] = observation;
+                loadOrder[i] = sortOrder[i];
+                startTimes[i] = observation.getStartTime().getTime();
+                maxStopTime = Math.max(maxStopTime, observation.getStopTime().getTime());
+                maxStopTimes[i] = maxStopTime;
+            }
+        }
+
+        private List<SatelliteObservation> get(long searchTimeStart, long searchTimeEnd, S2LatLngRect searchRect) {
+            final List<Integer> matches = new ArrayList<>();
+            for (int i = getLastStartingBefore(searchTimeEnd); i >= 0 && maxStopTimes[i] >= searchTimeStart; i--) {
+                if (observations[i].getStopTime().getTime() >= searchTimeStart && intersects(i, searchRect)) {
+                    matches.add(i);
+                }
+            }
+
+            // hand out the observations in the order of the database query
+            matches.sort((i1, i2) -> Integer.compare(loadOrder[i1], loadOrder[i2]));
+
+            final List<SatelliteObservation> result = new ArrayList<>(matches.size());
+            for (final int match : matches) {
+                result.add(observations[match]);
+            }
+            return result;
+        }
+
+        private int getLastStartingBefore(long time) {
+            int low = 0;
+            int high = startTimes.length - 1;
+            int last = -1;
+            while (low <= high) {
+                final int mid = (low + high) >>> 1;
+                if (startTimes[mid] <= time) {
+                    last = mid;
+                    low = mid + 1;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            return last;
+        }
+
+        // same semantics as the database query: no search geometry or no geo-bounds of the observation do not
+        // constrain the result
+        private boolean intersects(int index, S2LatLngRect searchRect) {
+            if (searchRect.isEmpty()) {
+                return true;
+            }
+
+            final S2LatLngRect boundingRect = getBoundingRect(index);
+            return boundingRect.isEmpty() || boundingRect.intersects(searchRect);
+        }
+
+        // the rectangles are calculated on first use, this leaves the geo-bounds of observations outside all
+        // search intervals undecoded
+        private synchronized S2LatLngRect getBoundingRect(int index) {
+            if (boundingRects[index] == null) {
+                boundingRects[index] = GeometryUtil.getBoundingRect(observations[index].getGeoBounds());
+            }
+            return boundingRects[index];
+        }
+    }
+}
@@ -27,13 +27,11 @@ import com.bc.fiduceo.geometry.Polygon;
 import com.bc.fiduceo.location.PixelLocator;
 import com.bc.fiduceo.matchup.MatchupCollection;
 import com.bc.fiduceo.matchup.MatchupSet;
-import com.bc.fiduceo.matchup.SampleSet;
+import com.bc.fiduceo.matchup.SampleStore;
 import com.bc.fiduceo.matchup.condition.ConditionEngine;
 import com.bc.fiduceo.matchup.condition.ConditionEngineContext;
 import com.bc.fiduceo.matchup.screening.ScreeningEngine;
 import com.bc.fiduceo.math.Intersection;
-import com.bc.fiduceo.math.IntersectionEngine;
-import com.bc.fiduceo.math.TimeInfo;
 import com.bc.fiduceo.reader.Reader;
 import com.bc.fiduceo.reader.ReaderFactory;
 import com.bc.fiduceo.tool.ToolContext;
@@ -42,6 +40,7 @@ import ucar.ma2.InvalidRangeException;
 
 import java.io.IOException;
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
@@ -56,13 +55,31 @@ class PolarOrbitingMatchupStrategy extends AbstractMatchupStrategy {
     }
 
     public MatchupCollection createMatchupCollection(ToolContext context) throws SQLException, IOException, InvalidRangeException {
-        final MatchupCollection matchupCollection = new MatchupCollection();
+        final List<SatelliteObservation> primaryObservations = getPrimaryObservations(context);
+        final int numThreads = getNumWorkerThreads(context);
+
+        final ConditionEngine conditionEngine = new ConditionEngine();
+        conditionEngine.configure(context.getUseCaseConfig());
+        initObservationCatalogue(context, primaryObservations, conditionEngine.getMaxTimeDeltaInMillis());
+
+        final ReaderFactory readerFactory = ReaderFactory.get(context.getGeometryFactory());
+        try (final SecondaryReaderProvider readerProvider = new SecondaryReaderProvider(readerFactory, getSecondaryReaderCacheSize(context))) {
+            final MatchupCollection matchupCollection = processPrimaryObservations(primaryObservations, numThreads,
+                    primaryObservation -> processPrimaryObservation(primaryObservation, context, conditionEngine, readerProvider));
+            logReaderStatistics(readerProvider);
+            return matchupCollection;
+        }
+    }
+
+    // the condition engine is configured once and only read here, all other state is local to the primary observation,
+    // so this method may run concurrently for different primaries
+    private List<MatchupSet> processPrimaryObservation(SatelliteObservation primaryObservation, ToolContext context, ConditionEngine conditionEngine,
+                                                       SecondaryReaderProvider readerProvider) throws SQLException, IOException, InvalidRangeException {
+        final List<MatchupSet> matchupSets = new ArrayList<>();
 
         final UseCaseConfig useCaseConfig = context.getUseCaseConfig();
 
-        final ConditionEngine conditionEngine = new ConditionEngine();
         final ConditionEngineContext conditionEngineContext = ConditionEngine.createContext(context);
-        conditionEngine.configure(useCaseConfig);
 
         final ScreeningEngine screeningEngine = new ScreeningEngine(context);
 
@@ -71,97 +88,94 @@ class PolarOrbitingMatchupStrategy extends AbstractMatchupStrategy {
         final long timeDeltaInMillis = conditionEngine.getMaxTimeDeltaInMillis();
         final int timeDeltaSeconds = (int) (timeDeltaInMillis / 1000);
 
-        final List<SatelliteObservation> primaryObservations = getPrimaryObservations(context);
-        for (final SatelliteObservation primaryObservation : primaryObservations) {
-            try (final Reader primaryReader = readerFactory.getReader(primaryObservation.getSensor().getName())) {
-                final Date searchTimeStart = TimeUtils.addSeconds(-timeDeltaSeconds, primaryObservation.getStartTime());
-                final Date searchTimeEnd = TimeUtils.addSeconds(timeDeltaSeconds, primaryObservation.getStopTime());
+        final Date searchTimeStart = TimeUtils.addSeconds(-timeDeltaSeconds, primaryObservation.getStartTime());
+        final Date searchTimeEnd = TimeUtils.addSeconds(timeDeltaSeconds, primaryObservation.getStopTime());
+
+        // @todo 2 tb/tb extract method
+        final Geometry primaryGeoBounds = primaryObservation.getGeoBounds();
+        final boolean isPrimarySegmented = AbstractMatchupStrategy.isSegmented(primaryGeoBounds);
+
+        final Map<String, List<SatelliteObservation>> mapSecondaryObservations = getSecondaryObservations(context, searchTimeStart, searchTimeEnd, primaryGeoBounds);
+
+        // first pass: intersect on the database metadata only, no data file is opened for non-matching secondaries
+        final List<SecondaryCandidates> secondaryCandidates = getSecondaryCandidates(primaryObservation, mapSecondaryObservations, useCaseConfig, timeDeltaInMillis, readerProvider);
+        if (secondaryCandidates.isEmpty()) {
+            return matchupSets;
+        }
+
+        // the first secondary sensor drives the sample collection, the further ones are added to its matchups
+        final SecondaryCandidates candidates = secondaryCandidates.get(0);
+        final String secondarySensorName = candidates.getSensorName();
+        final SecondarySampleCombiner combiner = new SecondarySampleCombiner(context, primaryObservation, secondaryCandidates, readerProvider, logger);
+
+        // second pass: open the readers for the remaining candidates only
+        try (final Reader primaryReader = readerFactory.getReader(primaryObservation.getSensor().getName())) {
+            primaryReader.open(primaryObservation.getDataFilePath().toFile());
+
+            final HashMap<String, Reader> secondaryReaderMap = new HashMap<>();
+
+            for (int i = 0; i < candidates.size(); i++) {
+                final SatelliteObservation secondaryObservation = candidates.getObservation(i);
+                final Intersection[] intersectingIntervals = candidates.getIntersections(i);
+
+                final Reader secondaryReader = readerProvider.getReader(secondaryObservation);
+                secondaryReaderMap.put(secondarySensorName, secondaryReader);
+
+                final MatchupSet matchupSet = new MatchupSet();
+                matchupSet.setPrimaryObservationPath(primaryObservation.getDataFilePath());
+                matchupSet.setPrimaryProcessingVersion(primaryObservation.getVersion());
+                matchupSet.setSecondaryObservationPath(secondarySensorName, secondaryObservation.getDataFilePath());
+                matchupSet.setSecondaryProcessingVersion(secondarySensorName, secondaryObservation.getVersion());
 
                 // @todo 2 tb/tb extract method
-                final Geometry primaryGeoBounds = primaryObservation.getGeoBounds();
-                final boolean isPrimarySegmented = AbstractMatchupStrategy.isSegmented(primaryGeoBounds);
+                final Geometry secondaryGeoBounds = secondaryObservation.getGeoBounds();
+                final boolean isSecondarySegmented = AbstractMatchupStrategy.isSegmented(secondaryGeoBounds);
 
-                primaryReader.open(primaryObservation.getDataFilePath().toFile());
+                final SampleStore samplesToCombine = new SampleStore();
+                for (final Intersection intersection : intersectingIntervals) {
+                    final PixelLocator primaryPixelLocator = getPixelLocator(primaryReader, isPrimarySegmented, (Polygon) intersection.getPrimaryGeometry());
+                    final PixelLocator secondaryPixelLocator = getPixelLocator(secondaryReader, isSecondarySegmented, (Polygon) intersection.getSecondaryGeometry());
 
-                final Map<String, List<SatelliteObservation>> mapSecondaryObservations = getSecondaryObservations(context, searchTimeStart, searchTimeEnd);
+                    if (primaryPixelLocator == null || secondaryPixelLocator == null) {
+                        logger.warning("Unable to create valid pixel locators. Skipping intersection segment.");
+                        continue;
+                    }
 
-                // todo se multisensor
-                // needed by method applyConditionsAndScreenings(...) which is ready to handle multiple secondary sensor
-                final HashMap<String, Reader> secondaryReaderMap = new HashMap<>();
+                    SampleCollector sampleCollector = new SampleCollector(context, primaryPixelLocator);
+                    sampleCollector.addPrimarySamples((Polygon) intersection.getGeometry(), matchupSet, primaryReader.getTimeLocator());
 
-                // todo se multisensor
-                // get(0) is still only one secondary sensor case
-                final String secondarySensorName_CaseOneSecondary = useCaseConfig.getSecondarySensors().get(0).getName();
-                // todo se multisensor
-                // still only one secondary sensor case
-                final List<SatelliteObservation> secondaryObservations = mapSecondaryObservations.get(secondarySensorName_CaseOneSecondary);
+                    sampleCollector = new SampleCollector(context, secondaryPixelLocator);
+                    final SampleStore completeSamples = sampleCollector.addSecondarySamples(matchupSet.getSampleStore(), secondaryReader.getTimeLocator(), secondarySensorName);
 
+                    if (combiner.hasFurtherSensors()) {
+                        // the primary samples of the next intersection are collected from scratch
+                        samplesToCombine.addRows(completeSamples);
+                        matchupSet.setSampleStore(new SampleStore());
+                        continue;
+                    }
 
-                for (final SatelliteObservation secondaryObservation : secondaryObservations) {
-                    // todo se multisensor
-                    // still only one secondary sensor case
-                    try (Reader secondaryReader = readerFactory.getReader(secondarySensorName_CaseOneSecondary)) {
-                        secondaryReader.open(secondaryObservation.getDataFilePath().toFile());
-                        // todo se multisensor
-                        // still only one secondary sensor case
-                        secondaryReaderMap.put(secondarySensorName_CaseOneSecondary, secondaryReader);
+                    matchupSet.setSampleStore(completeSamples);
 
-                        final Intersection[] intersectingIntervals = IntersectionEngine.getIntersectingIntervals(primaryObservation, secondaryObservation);
-                        if (intersectingIntervals.length == 0) {
-                            continue;
+                    if (matchupSet.getNumObservations() > 0) {
+                        applyConditionsAndScreenings(matchupSet, conditionEngine, conditionEngineContext, screeningEngine, primaryReader, secondaryReaderMap);
+                        if (matchupSet.getNumObservations() > 0) {
+                            matchupSets.add(matchupSet);
                         }
+                    }
+                }
 
-                        final MatchupSet matchupSet = new MatchupSet();
-                        matchupSet.setPrimaryObservationPath(primaryObservation.getDataFilePath());
-                        matchupSet.setPrimaryProcessingVersion(primaryObservation.getVersion());
-                        // todo se multisensor
-                        // still only one secondary sensor case
-                        matchupSet.setSecondaryObservationPath(secondarySensorName_CaseOneSecondary, secondaryObservation.getDataFilePath());
-                        // todo se multisensor
-                        // still only one secondary sensor case
-                        matchupSet.setSecondaryProcessingVersion(secondarySensorName_CaseOneSecondary, secondaryObservation.getVersion());
-
-                        // @todo 2 tb/tb extract method
-                        final Geometry secondaryGeoBounds = secondaryObservation.getGeoBounds();
-                        final boolean isSecondarySegmented = AbstractMatchupStrategy.isSegmented(secondaryGeoBounds);
-
-                        for (final Intersection intersection : intersectingIntervals) {
-                            final TimeInfo timeInfo = intersection.getTimeInfo();
-                            if (timeInfo.getMinimalTimeDelta() < timeDeltaInMillis) {
-                                final PixelLocator primaryPixelLocator = getPixelLocator(primaryReader, isPrimarySegmented, (Polygon) intersection.getPrimaryGeometry());
-                                final PixelLocator secondaryPixelLocator = getPixelLocator(secondaryReader, isSecondarySegmented, (Polygon) intersection.getSecondaryGeometry());
-
-                                if (primaryPixelLocator == null || secondaryPixelLocator == null) {
-                                    logger.warning("Unable to create valid pixel locators. Skipping intersection segment.");
-                                    continue;
-                                }
-
-                                SampleCollector sampleCollector = new SampleCollector(context, primaryPixelLocator);
-                                sampleCollector.addPrimarySamples((Polygon) intersection.getGeometry(), matchupSet, primaryReader.getTimeLocator());
-
-                                sampleCollector = new SampleCollector(context, secondaryPixelLocator);
-                                // todo se multisensor
-                                // still only one secondary sensor case
-                                final List<SampleSet> completeSamples = sampleCollector.addSecondarySamples(matchupSet.getSampleSets(), secondaryReader.getTimeLocator(), secondarySensorName_CaseOneSecondary);
-                                matchupSet.setSampleSets(completeSamples);
-
-                                if (matchupSet.getNumObservations() > 0) {
-                                    // todo se multisensor
-                                    // still only one secondary sensor case
-                                    // uses the secondaryReaderMap instantiated above
-                                    applyConditionsAndScreenings(matchupSet, conditionEngine, conditionEngineContext, screeningEngine, primaryReader, secondaryReaderMap);
-                                    if (matchupSet.getNumObservations() > 0) {
-                                        matchupCollection.add(matchupSet);
-                                    }
-                                }
-                            }
+                if (samplesToCombine.size() > 0) {
+                    // one condition and screening pass on the matchups of all secondary sensors
+                    combiner.combine(samplesToCombine, secondaryObservation, (combinedSet, secondaryReaders) -> {
+                        applyConditionsAndScreenings(combinedSet, conditionEngine, conditionEngineContext, screeningEngine, primaryReader, secondaryReaders);
+                        if (combinedSet.getNumObservations() > 0) {
+                            matchupSets.add(combinedSet);
                         }
-                    }
+                    });
                 }
             }
         }
 
-        return matchupCollection;
+        return matchupSets;
     }
-
 }
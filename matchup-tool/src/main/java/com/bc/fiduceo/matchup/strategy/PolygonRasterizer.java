@@ -0,0 +1,209 @@
+/*
+ * Copyright (C) 2016 Brockmann Consult GmbH
+ * This code was developed for the EC project "Fidelity and Uncertainty in
+ * Climate Data Records from Earth Observations (FIDUCEO)".
+ * Grant Agreement: 638822
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * A copy of the GNU General Public License should have been supplied along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ *
+ */
+
+package com.bc.fiduceo.matchup.strategy;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Scanline rasterizer for polygons in pixel space. The polygon is passed in as a set of edges, each with a border
+ * margin in pixels. A pixel belongs to the polygon when its center is inside according to the even-odd rule, this
+ * handles holes and multiple rings. Pixels with a center closer to an edge than the margin of the edge are reported
+ * as border pixels, the caller decides on these with an exact test.
+ * <p>
+ * The rasterizer keeps an edge table sorted by the upper edge limit and walks the scanlines with the list of active
+ * edges, the cost is linear in the number of pixels reported plus the number of edges per scanline.
+ */
+class PolygonRasterizer {
+
+    interface PixelConsumer {
+
+        void accept(int x, int y, boolean border);
+    }
+
+    private final List<Edge> edges;
+
+    PolygonRasterizer() {
+        edges = new ArrayList<>();
+    }
+
+    void addEdge(double x0, double y0, double x1, double y1, double margin) {
+        if (y0 <= y1) {
+            edges.add(new Edge(x0, y0, x1, y1, margin));
+        } else {
+            edges.add(new Edge(x1, y1, x0, y0, margin));
+        }
+    }
+
+    /**
+     * Reports the polygon pixels inside the rectangle passed in, row by row with ascending x.
+     *
+     * @param minX     the minimal x, inclusive
+     * @param minY     the minimal y, inclusive
+     * @param maxX     the maximal x, inclusive
+     * @param maxY     the maximal y, inclusive
+     * @param consumer the pixel consumer
+     */
+    void rasterize(int minX, int minY, int maxX, int maxY, PixelConsumer consumer) {
+        final Edge[] edgeTable = edges.toArray(new Edge[edges.size()]);
+        Arrays.sort(edgeTable, Comparator.comparingDouble(edge -> edge.top - edge.margin));
+
+        final List<Edge> activeEdges = new ArrayList<>();
+        double[] crossings = new double[16];
+        long[] spans = new long[16];
+        long[] borders = new long[16];
+        int nextEdge = 0;
+
+        for (int y = minY; y <= maxY; y++) {
+            final double yCenter = y + 0.5;
+            while (nextEdge < edgeTable.length && edgeTable[nextEdge].top - edgeTable[nextEdge].margin <= yCenter) {
+                activeEdges.add(edgeTable[nextEdge++]);
+            }
+            activeEdges.removeIf(edge -> edge.bottom + edge.margin < yCenter);
+
+            int numCrossings = 0;
+            int numBorders = 0;
+            for (final Edge edge : activeEdges) {
+                if (edge.top <= yCenter && yCenter < edge.bottom) {
+                    if (numCrossings == crossings.length) {
+                        crossings = Arrays.copyOf(crossings, 2 * numCrossings);
+                    }
+                    crossings[numCrossings++] = edge.getX(yCenter);
+                }
+
+                final double bandTop = Math.max(edge.top, yCenter - edge.margin);
+                final double bandBottom = Math.min(edge.bottom, yCenter + edge.margin);
+                if (bandTop <= bandBottom) {
+                    final double xTop = edge.isHorizontal() ? edge.xTop : edge.getX(bandTop);
+                    final double xBottom = edge.isHorizontal() ? edge.xBottom : edge.getX(bandBottom);
+                    final int first = Math.max(minX, (int) Math.ceil(Math.min(xTop, xBottom) - edge.margin - 0.5));
+                    final int last = Math.min(maxX, (int) Math.floor(Math.max(xTop, xBottom) + edge.margin - 0.5));
+                    if (first <= last) {
+                        if (numBorders == borders.length) {
+                            borders = Arrays.copyOf(borders, 2 * numBorders);
+                        }
+                        borders[numBorders++] = toRange(first, last);
+                    }
+                }
+            }
+
+            if (spans.length < numCrossings / 2 + numBorders) {
+                spans = new long[numCrossings / 2 + numBorders];
+            }
+
+            Arrays.sort(crossings, 0, numCrossings);
+            int numSpans = 0;
+            for (int i = 0; i + 1 < numCrossings; i += 2) {
+                final int first = Math.max(minX, (int) Math.ceil(crossings[i] - 0.5));
+                final int last = Math.min(maxX, (int) Math.ceil(crossings[i + 1] - 0.5) - 1);
+                if (first <= last) {
+                    spans[numSpans++] = toRange(first, last);
+                }
+            }
+
+            numBorders = merge(borders, numBorders);
+
+            // the pixels to report are the union of the spans and the border ranges
+            System.arraycopy(borders, 0, spans, numSpans, numBorders);
+            final int numRanges = merge(spans, numSpans + numBorders);
+
+            int borderIndex = 0;
+            for (int i = 0; i < numRanges; i++) {
+                final int last = getLast(spans[i]);
+                for (int x = getFirst(spans[i]); x <= last; x++) {
+                    while (borderIndex < numBorders && getLast(borders[borderIndex]) < x) {
+                        borderIndex++;
+                    }
+                    final boolean border = borderIndex < numBorders && getFirst(borders[borderIndex]) <= x;
+                    consumer.accept(x, y, border);
+                }
+            }
+        }
+    }
+
+    // sorts the ranges and merges overlapping or adjacent ones, returns the number of merged ranges
+    private static int merge(long[] ranges, int numRanges) {
+        if (numRanges == 0) {
+            return 0;
+        }
+        Arrays.sort(ranges, 0, numRanges);
+
+        int numMerged = 0;
+        int first = getFirst(ranges[0]);
+        int last = getLast(ranges[0]);
+        for (int i = 1; i < numRanges; i++) {
+            final int nextFirst = getFirst(ranges[i]);
+            final int nextLast = getLast(ranges[i]);
+            if (nextFirst <= last + 1) {
+                last = Math.max(last, nextLast);
+            } else {
+                ranges[numMerged++] = toRange(first, last);
+                first = nextFirst;
+                last = nextLast;
+            }
+        }
+        ranges[numMerged++] = toRange(first, last);
+        return numMerged;
+    }
+
+    // packs an inclusive pixel range, the packed values sort by the first pixel
+    private static long toRange(int first, int last) {
+        return ((long) first << 32) | (last & 0xFFFFFFFFL);
+    }
+
+    private static int getFirst(long range) {
+        return (int) (range >> 32);
+    }
+
+    private static int getLast(long range) {
+        return (int) range;
+    }
+
+    private static class Edge {
+
+        private final double xTop;
+        private final double top;
+        private final double xBottom;
+        private final double bottom;
+        private final double margin;
+
+        Edge(double xTop, double top, double xBottom, double bottom, double margin) {
+            this.xTop = xTop;
+            this.top = top;
+            this.xBottom = xBottom;
+            this.bottom = bottom;
+            this.margin = margin;
+        }
+
+        boolean isHorizontal() {
+            return bottom == top;
+        }
+
+        double getX(double y) {
+            if (isHorizontal()) {
+                return xTop;
+            }
+            return xTop + (y - top) * (xBottom - xTop) / (bottom - top);
+        }
+    }
+}
@@ -25,10 +25,14 @@ import com.bc.fiduceo.geometry.Point;
 import com.bc.fiduceo.geometry.Polygon;
 import com.bc.fiduceo.location.PixelLocator;
 import com.bc.fiduceo.matchup.MatchupSet;
-import com.bc.fiduceo.core.Sample;
-import com.bc.fiduceo.matchup.SampleSet;
+import com.bc.fiduceo.matchup.SampleStore;
 import com.bc.fiduceo.reader.TimeLocator;
 import com.bc.fiduceo.tool.ToolContext;
+import com.google.common.geometry.S2LatLng;
+import com.google.common.geometry.S2Loop;
+import com.google.common.geometry.S2Point;
+import com.google.common.geometry.S2Polygon;
+import com.vividsolutions.jts.geom.Coordinate;
 
 import java.awt.geom.Point2D;
 import java.util.ArrayList;
@@ -36,6 +40,13 @@ import java.util.List;
 
 class SampleCollector {
 
+    // minimal distance to an edge in pixels for a pixel to be sampled without the exact polygon test
+    private static final double BORDER_MARGIN = 1.0;
+    // maximal deviation in pixels of a projected edge from its straight line approximation
+    private static final double MAX_DEVIATION = 0.25;
+    private static final double MAX_SEGMENT_LENGTH = 16.0;
+    private static final int MAX_SPLIT_DEPTH = 24;
+
     private final PixelLocator pixelLocator;
     private final Range xRange;
     private final Range yRange;
@@ -51,34 +62,30 @@ class SampleCollector {
     /**
      * Adds the associated secondary sample location and time to the primary location.
      *
-     * @param sampleSets  the input data - will be empty after the operation!
-     * @param timeLocator the time locator for the sample locations
-     *
-     * @param secSensorName
-     * @return the result list with the sampleSets that contain two observations
+     * @param primarySamples the input data - is not modified by the operation
+     * @param timeLocator    the time locator for the sample locations
+     * @param secSensorName  the name of the secondary sensor
+     * @return the result store with the samples that contain two observations
      */
-    List<SampleSet> addSecondarySamples(List<SampleSet> sampleSets, TimeLocator timeLocator, final String secSensorName) {
+    SampleStore addSecondarySamples(SampleStore primarySamples, TimeLocator timeLocator, final String secSensorName) {
         Point2D geopos = new Point2D.Double();
-        final List<SampleSet> toKeep = new ArrayList<>();
-        for (SampleSet sampleSet : sampleSets) {
-            final Sample primary = sampleSet.getPrimary();
-            final Point2D[] pixelLocations = pixelLocator.getPixelLocation(primary.lon, primary.lat);
+        final SampleStore toKeep = new SampleStore();
+        final int secondarySlot = toKeep.getOrCreateSlot(secSensorName);
+        final int numSamples = primarySamples.size();
+        for (int index = 0; index < numSamples; index++) {
+            final double primaryLon = primarySamples.getLon(SampleStore.PRIMARY, index);
+            final double primaryLat = primarySamples.getLat(SampleStore.PRIMARY, index);
+            final Point2D[] pixelLocations = pixelLocator.getPixelLocation(primaryLon, primaryLat);
             if (pixelLocations == null) {
                 continue;
             }
-            for (int i = 0; i < pixelLocations.length; i++) {
-                Point2D pixelLocation = pixelLocations[i];
+            for (final Point2D pixelLocation : pixelLocations) {
                 final int x = (int) pixelLocation.getX();
                 final int y = (int) pixelLocation.getY();
                 geopos = pixelLocator.getGeoLocation(x + 0.5, y + 0.5, geopos);
                 final long time = timeLocator.getTimeFor(x, y);
-                final Sample sample = new Sample(x, y, geopos.getX(), geopos.getY(), time);
-                if (i>0) {
-                    sampleSet = new SampleSet();
-                    sampleSet.setPrimary(primary);
-                }
-                sampleSet.setSecondary(secSensorName, sample);
-                toKeep.add(sampleSet);
+                final int targetIndex = toKeep.addRow(primarySamples, index);
+                toKeep.set(secondarySlot, targetIndex, x, y, geopos.getX(), geopos.getY(), time);
             }
         }
 
@@ -95,13 +102,37 @@ class SampleCollector {
             }
         }
 
-        final Point2D.Double geoPos = new Point2D.Double();
-        final GeometryFactory factory = context.getGeometryFactory();
-
         final int startY = (int) yRange.getMin();
         final int endY = (int) yRange.getMax();
         final int startX = (int) xRange.getMin();
         final int endX = (int) xRange.getMax();
+
+        final PolygonRasterizer rasterizer = createRasterizer(polygon);
+        if (rasterizer == null) {
+            addPrimarySamplesByScan(polygon, matchupSet, timeLocator, startX, startY, endX, endY);
+            return;
+        }
+
+        final Point2D.Double geoPos = new Point2D.Double();
+        final GeometryFactory factory = context.getGeometryFactory();
+        rasterizer.rasterize(startX, startY, endX, endY, (x, y, border) -> {
+            final Point2D geoLocation = pixelLocator.getGeoLocation(x + .5, y + .5, geoPos);
+            final double lon = geoLocation.getX();
+            final double lat = geoLocation.getY();
+            if (border && !polygon.contains(factory.createPoint(lon, lat))) {
+                return;
+            }
+            final long time = timeLocator.getTimeFor(x, y);
+            matchupSet.addPrimary(x, y, lon, lat, time);
+        });
+    }
+
+    // tests every pixel of the bounding box against the polygon, used when the polygon cannot be projected to
+    // pixel space
+    private void addPrimarySamplesByScan(Polygon polygon, MatchupSet matchupSet, TimeLocator timeLocator, int startX, int startY, int endX, int endY) {
+        final Point2D.Double geoPos = new Point2D.Double();
+        final GeometryFactory factory = context.getGeometryFactory();
+
         for (int y = startY; y <= endY; y++) {
             for (int x = startX; x <= endX; x++) {
                 final Point2D geoLocation = pixelLocator.getGeoLocation(x + .5, y + .5, geoPos);
@@ -110,10 +141,146 @@ class SampleCollector {
                 final Point geoPoint = factory.createPoint(lon, lat);
                 if (polygon.contains(geoPoint)) {
                     final long time = timeLocator.getTimeFor(x, y);
-                    final Sample sample = new Sample(x, y, lon, lat, time);
-                    matchupSet.addPrimary(sample);
+                    matchupSet.addPrimary(x, y, lon, lat, time);
+                }
+            }
+        }
+    }
+
+    // Projects the polygon rings to pixel space. The edges are straight in pixel space but curved in geo space, S2 edges
+    // are great circle arcs and JTS edges are straight in lon/lat. Each edge is split at its midpoint until the projected
+    // midpoint deviates less than MAX_DEVIATION from the straight line and the pieces are short enough for the midpoint
+    // to represent the curvature, the pixels in the border margin are tested against the polygon. Returns null when a
+    // vertex or midpoint has no unique pixel location or an edge does not converge.
+    private PolygonRasterizer createRasterizer(Polygon polygon) {
+        final List<double[]> rings = getRings(polygon);
+        if (rings == null) {
+            return null;
+        }
+
+        final boolean geodesic = polygon.getInner() instanceof S2Polygon;
+        final PolygonRasterizer rasterizer = new PolygonRasterizer();
+        for (final double[] ring : rings) {
+            final int numVertices = ring.length / 2;
+            final Point2D[] pixels = new Point2D[numVertices];
+            for (int i = 0; i < numVertices; i++) {
+                pixels[i] = getUniquePixelLocation(ring[2 * i], ring[2 * i + 1]);
+                if (pixels[i] == null) {
+                    return null;
+                }
+            }
+
+            for (int i = 0; i < numVertices; i++) {
+                final int j = (i + 1) % numVertices;
+                if (!addEdge(rasterizer, ring[2 * i], ring[2 * i + 1], pixels[i], ring[2 * j], ring[2 * j + 1], pixels[j], geodesic, 0)) {
+                    return null;
+                }
+            }
+        }
+        return rasterizer;
+    }
+
+    private boolean addEdge(PolygonRasterizer rasterizer, double lon0, double lat0, Point2D pixel0, double lon1, double lat1,
+                            Point2D pixel1, boolean geodesic, int depth) {
+        final double[] midpoint = geodesic ? getGeodesicMidpoint(lon0, lat0, lon1, lat1) : getMidpoint(lon0, lat0, lon1, lat1);
+        final Point2D midPixel = getUniquePixelLocation(midpoint[0], midpoint[1]);
+        if (midPixel == null) {
+            return false;
+        }
+
+        final double deviation = midPixel.distance(0.5 * (pixel0.getX() + pixel1.getX()), 0.5 * (pixel0.getY() + pixel1.getY()));
+        if (deviation <= MAX_DEVIATION && pixel0.distance(pixel1) <= MAX_SEGMENT_LENGTH) {
+            rasterizer.addEdge(pixel0.getX(), pixel0.getY(), pixel1.getX(), pixel1.getY(), BORDER_MARGIN + 2.0 * deviation);
+            return true;
+        }
+
+        if (depth == MAX_SPLIT_DEPTH) {
+            return false;
+        }
+        return addEdge(rasterizer, lon0, lat0, pixel0, midpoint[0], midpoint[1], midPixel, geodesic, depth + 1) &&
+               addEdge(rasterizer, midpoint[0], midpoint[1], midPixel, lon1, lat1, pixel1, geodesic, depth + 1);
+    }
+
+    private Point2D getUniquePixelLocation(double lon, double lat) {
+        final Point2D[] pixelLocations = pixelLocator.getPixelLocation(lon, lat);
+        if (pixelLocations == null || pixelLocations.length != 1) {
+            return null;
+        }
+        return pixelLocations[0];
+    }
+
+    // the midpoint of an edge straight in lon/lat
+    static double[] getMidpoint(double lon0, double lat0, double lon1, double lat1) {
+        double deltaLon = lon1 - lon0;
+        if (deltaLon > 180.0) {
+            deltaLon -= 360.0;
+        } else if (deltaLon < -180.0) {
+            deltaLon += 360.0;
+        }
+
+        double lon = lon0 + 0.5 * deltaLon;
+        if (lon > 180.0) {
+            lon -= 360.0;
+        } else if (lon < -180.0) {
+            lon += 360.0;
+        }
+        return new double[]{lon, 0.5 * (lat0 + lat1)};
+    }
+
+    // the midpoint of the great circle arc between the points
+    static double[] getGeodesicMidpoint(double lon0, double lat0, double lon1, double lat1) {
+        final S2Point point0 = S2LatLng.fromDegrees(lat0, lon0).toPoint();
+        final S2Point point1 = S2LatLng.fromDegrees(lat1, lon1).toPoint();
+        final S2LatLng midpoint = new S2LatLng(S2Point.normalize(S2Point.add(point0, point1)));
+        return new double[]{midpoint.lngDegrees(), midpoint.latDegrees()};
+    }
+
+    // the rings as lon/lat vertex arrays without closing vertex, null for unsupported polygon implementations.
+    // package access for testing only
+    static List<double[]> getRings(Polygon polygon) {
+        final Object inner = polygon.getInner();
+        final List<double[]> rings = new ArrayList<>();
+        if (inner instanceof S2Polygon) {
+            final S2Polygon s2Polygon = (S2Polygon) inner;
+            for (int i = 0; i < s2Polygon.numLoops(); i++) {
+                final S2Loop loop = s2Polygon.loop(i);
+                final double[] ring = new double[2 * loop.numVertices()];
+                for (int k = 0; k < loop.numVertices(); k++) {
+                    final S2LatLng vertex = new S2LatLng(loop.vertex(k));
+                    ring[2 * k] = vertex.lngDegrees();
+                    ring[2 * k + 1] = vertex.latDegrees();
                 }
+                rings.add(ring);
+            }
+        } else if (inner instanceof com.vividsolutions.jts.geom.Polygon) {
+            final com.vividsolutions.jts.geom.Polygon jtsPolygon = (com.vividsolutions.jts.geom.Polygon) inner;
+            rings.add(toRing(jtsPolygon.getExteriorRing().getCoordinates()));
+            for (int i = 0; i < jtsPolygon.getNumInteriorRing(); i++) {
+                rings.add(toRing(jtsPolygon.getInteriorRingN(i).getCoordinates()));
+            }
+        } else {
+            return null;
+        }
+
+        for (final double[] ring : rings) {
+            if (ring.length < 6) {
+                return null;
             }
         }
+        return rings;
+    }
+
+    private static double[] toRing(Coordinate[] coordinates) {
+        int numVertices = coordinates.length;
+        if (numVertices > 1 && coordinates[0].equals2D(coordinates[numVertices - 1])) {
+            numVertices--;
+        }
+
+        final double[] ring = new double[2 * numVertices];
+        for (int i = 0; i < numVertices; i++) {
+            ring[2 * i] = coordinates[i].x;
+            ring[2 * i + 1] = coordinates[i].y;
+        }
+        return ring;
     }
 }
@@ -0,0 +1,69 @@
+/*
+ * Copyright (C) 2016 Brockmann Consult GmbH
+ * This code was developed for the EC project "Fidelity and Uncertainty in
+ * Climate Data Records from Earth Observations (FIDUCEO)".
+ * Grant Agreement: 638822
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * A copy of the GNU General Public License should have been supplied along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ *
+ */
+
+package com.bc.fiduceo.matchup.strategy;
+
+import com.bc.fiduceo.core.SatelliteObservation;
+import com.bc.fiduceo.math.Intersection;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The secondary observations of one secondary sensor which passed the intersection with a primary observation on the
+ * database metadata, together with their matching intersections.
+ */
+class SecondaryCandidates {
+
+    private final String sensorName;
+    private final List<SatelliteObservation> observations;
+    private final List<Intersection[]> intersections;
+
+    SecondaryCandidates(String sensorName) {
+        this.sensorName = sensorName;
+        observations = new ArrayList<>();
+        intersections = new ArrayList<>();
+    }
+
+    void add(SatelliteObservation observation, Intersection[] intersections) {
+        observations.add(observation);
+        this.intersections.add(intersections);
+    }
+
+    String getSensorName() {
+        return sensorName;
+    }
+
+    int size() {
+        return observations.size();
+    }
+
+    boolean isEmpty() {
+        return observations.isEmpty();
+    }
+
+    SatelliteObservation getObservation(int index) {
+        return observations.get(index);
+    }
+
+    Intersection[] getIntersections(int index) {
+        return intersections.get(index);
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright (C) 2016 Brockmann Consult GmbH
+ * This code was developed for the EC project "Fidelity and Uncertainty in
+ * Climate Data Records from Earth Observations (FIDUCEO)".
+ * Grant Agreement: 638822
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * A copy of the GNU General Public License should have been supplied along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ *
+ */
+
+package com.bc.fiduceo.matchup.strategy;
+
+import com.bc.fiduceo.core.SatelliteObservation;
+import com.bc.fiduceo.reader.Reader;
+import com.bc.fiduceo.reader.ReaderCache;
+import com.bc.fiduceo.reader.ReaderFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hands out opened secondary readers during a matchup run. Readers are not thread-safe, so each worker thread
+ * gets a ReaderCache of its own; within a thread a secondary file intersecting several primaries is opened once.
+ * Also keeps track of how many secondary reader opens were avoided, either because the candidate was rejected
+ * on the database metadata or because the reader was already cached.
+ */
+class SecondaryReaderProvider implements AutoCloseable {
+
+    private final List<ReaderCache> readerCaches;
+    private final ThreadLocal<ReaderCache> threadReaderCache;
+    private final AtomicInteger numCandidates;
+    private final AtomicInteger numRejected;
+
+    SecondaryReaderProvider(ReaderFactory readerFactory, int cacheSize) {
+        readerCaches = new ArrayList<>();
+        threadReaderCache = ThreadLocal.withInitial(() -> {
+            final ReaderCache readerCache = new ReaderCache(cacheSize, readerFactory, null);
+            synchronized (readerCaches) {
+                readerCaches.add(readerCache);
+            }
+            return readerCache;
+        });
+        numCandidates = new AtomicInteger();
+        numRejected = new AtomicInteger();
+    }
+
+    /**
+     * Counts a secondary observation that was rejected by the metadata intersection, its data file is never opened.
+     */
+    void countRejected() {
+        numCandidates.incrementAndGet();
+        numRejected.incrementAndGet();
+    }
+
+    /**
+     * Retrieves an opened reader for the secondary observation. The reader is owned by the provider, callers must not close it.
+     *
+     * @param observation the secondary observation
+     * @return the reader
+     * @throws IOException on disk access failures
+     */
+    Reader getReader(SatelliteObservation observation) throws IOException {
+        numCandidates.incrementAndGet();
+        return reacquireReader(observation);
+    }
+
+    /**
+     * Retrieves the reader for a secondary observation already requested by <code>getReader()</code> without counting
+     * it as a further candidate. The reader becomes the most recently used one, so it is not evicted while the readers
+     * of other secondary sensors are requested.
+     *
+     * @param observation the secondary observation
+     * @return the reader
+     * @throws IOException on disk access failures
+     */
+    Reader reacquireReader(SatelliteObservation observation) throws IOException {
+        final ReaderCache readerCache = threadReaderCache.get();
+        return readerCache.getReaderFor(observation.getSensor().getName(), observation.getDataFilePath(), observation.getVersion());
+    }
+
+    int getNumCandidates() {
+        return numCandidates.get();
+    }
+
+    int getNumRejected() {
+        return numRejected.get();
+    }
+
+    int getNumReadersOpened() {
+        int numOpened = 0;
+        synchronized (readerCaches) {
+            for (final ReaderCache readerCache : readerCaches) {
+                numOpened += readerCache.getNumReadersOpened();
+            }
+        }
+        return numOpened;
+    }
+
+    int getNumOpensAvoided() {
+        return getNumCandidates() - getNumReadersOpened();
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (readerCaches) {
+            for (final ReaderCache readerCache : readerCaches) {
+                readerCache.close();
+            }
+            readerCaches.clear();
+        }
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright (C) 2016 Brockmann Consult GmbH
+ * This code was developed for the EC project "Fidelity and Uncertainty in
+ * Climate Data Records from Earth Observations (FIDUCEO)".
+ * Grant Agreement: 638822
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * A copy of the GNU General Public License should have been supplied along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ *
+ */
+
+package com.bc.fiduceo.matchup.strategy;
+
+import com.bc.fiduceo.core.SatelliteObservation;
+import com.bc.fiduceo.geometry.Polygon;
+import com.bc.fiduceo.location.PixelLocator;
+import com.bc.fiduceo.matchup.MatchupSet;
+import com.bc.fiduceo.matchup.SampleStore;
+import com.bc.fiduceo.math.Intersection;
+import com.bc.fiduceo.reader.Reader;
+import com.bc.fiduceo.tool.ToolContext;
+import ucar.ma2.InvalidRangeException;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * Completes the matchups of the first secondary sensor with the samples of the further secondary sensors of a use
+ * case. The primary samples and the samples of the first secondary sensor are collected once by the strategy; each
+ * further sensor then locates these rows in the swaths of its candidate observations. Every combination of one
+ * observation per secondary sensor sharing at least one matchup is passed on as a MatchupSet of its own, holding a
+ * slot for each secondary sensor, so that one MMD contains all sensors.
+ */
+class SecondarySampleCombiner {
+
+    private final ToolContext context;
+    private final SatelliteObservation primaryObservation;
+    private final List<SecondaryCandidates> secondaryCandidates;
+    private final SecondaryReaderProvider readerProvider;
+    private final Logger logger;
+
+    SecondarySampleCombiner(ToolContext context, SatelliteObservation primaryObservation, List<SecondaryCandidates> secondaryCandidates,
+                            SecondaryReaderProvider readerProvider, Logger logger) {
+        this.context = context;
+        this.primaryObservation = primaryObservation;
+        this.secondaryCandidates = secondaryCandidates;
+        this.readerProvider = readerProvider;
+        this.logger = logger;
+    }
+
+    boolean hasFurtherSensors() {
+        return secondaryCandidates.size() > 1;
+    }
+
+    /**
+     * Adds the further secondary sensors to the samples passed in and hands each resulting combination to the consumer.
+     * The consumer is called while the secondary readers of the combination are open.
+     *
+     * @param samples          the samples containing the primary and the first secondary sensor
+     * @param firstObservation the observation of the first secondary sensor the samples belong to
+     * @param consumer         receives the combined MatchupSets
+     * @throws IOException           on disk access errors
+     * @throws InvalidRangeException on data access errors of the consumer
+     */
+    void combine(SampleStore samples, SatelliteObservation firstObservation, CombinationConsumer consumer) throws IOException, InvalidRangeException {
+        final Map<String, SatelliteObservation> selectedObservations = new LinkedHashMap<>();
+        selectedObservations.put(secondaryCandidates.get(0).getSensorName(), firstObservation);
+        combine(1, samples, selectedObservations, consumer);
+    }
+
+    private void combine(int depth, SampleStore samples, Map<String, SatelliteObservation> selectedObservations, CombinationConsumer consumer) throws IOException, InvalidRangeException {
+        if (depth == secondaryCandidates.size()) {
+            final MatchupSet matchupSet = new MatchupSet();
+            matchupSet.setPrimaryObservationPath(primaryObservation.getDataFilePath());
+            matchupSet.setPrimaryProcessingVersion(primaryObservation.getVersion());
+            final HashMap<String, Reader> secondaryReaders = new HashMap<>();
+            for (final Map.Entry<String, SatelliteObservation> entry : selectedObservations.entrySet()) {
+                final String sensorName = entry.getKey();
+                final SatelliteObservation observation = entry.getValue();
+                matchupSet.setSecondaryObservationPath(sensorName, observation.getDataFilePath());
+                matchupSet.setSecondaryProcessingVersion(sensorName, observation.getVersion());
+                // requested again so the readers of this combination are the most recently used ones and stay in the cache
+                secondaryReaders.put(sensorName, readerProvider.reacquireReader(observation));
+            }
+            matchupSet.setSampleStore(samples);
+            consumer.accept(matchupSet, secondaryReaders);
+            return;
+        }
+
+        final SecondaryCandidates candidates = secondaryCandidates.get(depth);
+        final String sensorName = candidates.getSensorName();
+        for (int i = 0; i < candidates.size(); i++) {
+            final SatelliteObservation observation = candidates.getObservation(i);
+            final SampleStore combinedSamples = addSecondarySamples(samples, observation, candidates.getIntersections(i), sensorName);
+            if (combinedSamples.size() == 0) {
+                continue;
+            }
+
+            selectedObservations.put(sensorName, observation);
+            combine(depth + 1, combinedSamples, selectedObservations, consumer);
+            selectedObservations.remove(sensorName);
+        }
+    }
+
+    private SampleStore addSecondarySamples(SampleStore samples, SatelliteObservation observation, Intersection[] intersections, String sensorName) throws IOException {
+        final Reader reader = readerProvider.getReader(observation);
+        final boolean isSegmented = AbstractMatchupStrategy.isSegmented(observation.getGeoBounds());
+
+        final SampleStore combinedSamples = new SampleStore();
+        for (final Intersection intersection : intersections) {
+            final PixelLocator pixelLocator = AbstractMatchupStrategy.getPixelLocator(reader, isSegmented, (Polygon) intersection.getSecondaryGeometry());
+            if (pixelLocator == null) {
+                logger.warning("Unable to create valid pixel locators. Skipping intersection segment.");
+                continue;
+            }
+
+            final SampleCollector sampleCollector = new SampleCollector(context, pixelLocator);
+            combinedSamples.addRows(sampleCollector.addSecondarySamples(samples, reader.getTimeLocator(), sensorName));
+        }
+        return combinedSamples;
+    }
+
+    interface CombinationConsumer {
+        void accept(MatchupSet matchupSet, Map<String, Reader> secondaryReaders) throws IOException, InvalidRangeException;
+    }
+}
@@ -0,0 +1,198 @@
+/*
+ * Copyright (C) 2016 Brockmann Consult GmbH
+ * This code was developed for the EC project "Fidelity and Uncertainty in
+ * Climate Data Records from Earth Observations (FIDUCEO)".
+ * Grant Agreement: 638822
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * A copy of the GNU General Public License should have been supplied along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ *
+ */
+
+package com.bc.fiduceo.matchup.strategy;
+
+import com.bc.fiduceo.core.SamplingPoint;
+import com.google.common.geometry.R1Interval;
+import com.google.common.geometry.S1Interval;
+import com.google.common.geometry.S2LatLng;
+import com.google.common.geometry.S2LatLngRect;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Index on the random seed points of a matchup run. The points are distributed to the cells of a regular
+ * latitude/longitude grid, within each cell they are sorted by time. A query visits only the grid cells touched
+ * by the search rectangle and, within each cell, only the points in the search time interval. The exact geometry
+ * test is left to the caller and runs on these candidates only.
+ * <p>
+ * Candidates are returned in the order of the list the index is created from. An empty search rectangle does not
+ * constrain the result.
+ */
+class SeedPointIndex {
+
+    static final double DEFAULT_CELL_SIZE = 5.0;
+
+    // covers the rounding of the degree/radian conversions at cell and rectangle borders
+    private static final S2LatLng MARGIN = S2LatLng.fromRadians(1e-9, 1e-9);
+
+    private final List<SamplingPoint> points;
+    private final double cellSize;
+    private final int numRows;
+    private final int numCols;
+    private final int[] cellOffsets;
+    private final int[] pointIndices;
+    private final long[] times;
+
+    SeedPointIndex(List<SamplingPoint> points) {
+        this(points, DEFAULT_CELL_SIZE);
+    }
+
+    SeedPointIndex(List<SamplingPoint> points, double cellSize) {
+        if (cellSize <= 0.0) {
+            throw new IllegalArgumentException("Cell size greater than zero expected.");
+        }
+        this.points = points;
+        this.cellSize = cellSize;
+        numRows = (int) Math.ceil(180.0 / cellSize);
+        numCols = (int) Math.ceil(360.0 / cellSize);
+
+        final int numPoints = points.size();
+        final Integer[] timeOrder = new Integer[numPoints];
+        for (int i = 0; i < numPoints; i++) {
+            timeOrder[i] = i;
+        }
+        // stable sort, points with equal times stay in list order
+        Arrays.sort(timeOrder, (a, b) -> Long.compare(points.get(a).getTime(), points.get(b).getTime()));
+
+        final int[] cells = new int[numPoints];
+        cellOffsets = new int[numRows * numCols + 1];
+        for (int i = 0; i < numPoints; i++) {
+            final SamplingPoint point = points.get(i);
+            cells[i] = getRow(point.getLat()) * numCols + getCol(normalizeLon(point.getLon()));
+            cellOffsets[cells[i] + 1]++;
+        }
+        for (int cell = 0; cell < numRows * numCols; cell++) {
+            cellOffsets[cell + 1] += cellOffsets[cell];
+        }
+
+        pointIndices = new int[numPoints];
+        times = new long[numPoints];
+        final int[] fillPositions = Arrays.copyOf(cellOffsets, cellOffsets.length - 1);
+        for (final int pointIndex : timeOrder) {
+            final int position = fillPositions[cells[pointIndex]]++;
+            pointIndices[position] = pointIndex;
+            times[position] = points.get(pointIndex).getTime();
+        }
+    }
+
+    /**
+     * Retrieves the seed points with a time in [startTime, stopTime] located in the search rectangle.
+     *
+     * @param startTime  start of the time interval, millis since epoch
+     * @param stopTime   end of the time interval, millis since epoch
+     * @param searchRect the search rectangle, empty for no spatial constraint
+     * @return the candidate points, in list order
+     */
+    List<SamplingPoint> getCandidates(long startTime, long stopTime, S2LatLngRect searchRect) {
+        int[] candidates = new int[64];
+        int numCandidates = 0;
+
+        final boolean unconstrained = searchRect.isEmpty();
+        final S2LatLngRect rect = unconstrained ? S2LatLngRect.full() : searchRect.expanded(MARGIN);
+        final R1Interval lat = rect.lat();
+        final S1Interval lng = rect.lng();
+
+        final int minRow = getRow(Math.toDegrees(lat.lo()));
+        final int maxRow = getRow(Math.toDegrees(lat.hi()));
+        final int[][] colRanges = getColRanges(lng);
+
+        for (int row = minRow; row <= maxRow; row++) {
+            for (final int[] colRange : colRanges) {
+                for (int col = colRange[0]; col <= colRange[1]; col++) {
+                    final int cell = row * numCols + col;
+                    final int cellEnd = cellOffsets[cell + 1];
+                    for (int i = lowerBound(cellOffsets[cell], cellEnd, startTime); i < cellEnd && times[i] <= stopTime; i++) {
+                        final int pointIndex = pointIndices[i];
+                        if (!unconstrained) {
+                            final SamplingPoint point = points.get(pointIndex);
+                            if (!lat.contains(Math.toRadians(point.getLat()))
+                                    || !lng.contains(Math.toRadians(normalizeLon(point.getLon())))) {
+                                continue;
+                            }
+                        }
+                        if (numCandidates == candidates.length) {
+                            candidates = Arrays.copyOf(candidates, 2 * numCandidates);
+                        }
+                        candidates[numCandidates++] = pointIndex;
+                    }
+                }
+            }
+        }
+
+        Arrays.sort(candidates, 0, numCandidates);
+        final List<SamplingPoint> result = new ArrayList<>(numCandidates);
+        for (int i = 0; i < numCandidates; i++) {
+            result.add(points.get(candidates[i]));
+        }
+        return result;
+    }
+
+    int size() {
+        return points.size();
+    }
+
+    private int[][] getColRanges(S1Interval lng) {
+        if (lng.isFull()) {
+            return new int[][]{{0, numCols - 1}};
+        }
+
+        final int loCol = getCol(Math.toDegrees(lng.lo()));
+        final int hiCol = getCol(Math.toDegrees(lng.hi()));
+        if (lng.isInverted()) {
+            return new int[][]{{loCol, numCols - 1}, {0, hiCol}};
+        }
+        return new int[][]{{loCol, hiCol}};
+    }
+
+    private int getRow(double lat) {
+        return clamp((int) Math.floor((lat + 90.0) / cellSize), numRows);
+    }
+
+    private int getCol(double lon) {
+        return clamp((int) Math.floor((lon + 180.0) / cellSize), numCols);
+    }
+
+    private int lowerBound(int from, int to, long time) {
+        int low = from;
+        int high = to;
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            if (times[mid] < time) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static int clamp(int index, int size) {
+        return Math.max(0, Math.min(size - 1, index));
+    }
+
+    // the S2 longitude intervals treat -180 as 180
+    private static double normalizeLon(double lon) {
+        return lon <= -180.0 ? 180.0 : lon;
+    }
+}
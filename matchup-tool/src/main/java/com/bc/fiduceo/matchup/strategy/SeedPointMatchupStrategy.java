@@ -23,25 +23,25 @@ import com.bc.fiduceo.core.UseCaseConfig;
 import com.bc.fiduceo.geometry.Geometry;
 import com.bc.fiduceo.geometry.GeometryCollection;
 import com.bc.fiduceo.geometry.GeometryFactory;
+import com.bc.fiduceo.geometry.GeometryUtil;
 import com.bc.fiduceo.geometry.Point;
 import com.bc.fiduceo.geometry.Polygon;
 import com.bc.fiduceo.location.PixelLocator;
 import com.bc.fiduceo.matchup.MatchupCollection;
 import com.bc.fiduceo.matchup.MatchupSet;
 import com.bc.fiduceo.core.Sample;
-import com.bc.fiduceo.matchup.SampleSet;
+import com.bc.fiduceo.matchup.SampleStore;
 import com.bc.fiduceo.matchup.condition.ConditionEngine;
 import com.bc.fiduceo.matchup.condition.ConditionEngineContext;
 import com.bc.fiduceo.matchup.screening.ScreeningEngine;
 import com.bc.fiduceo.math.Intersection;
-import com.bc.fiduceo.math.IntersectionEngine;
-import com.bc.fiduceo.math.TimeInfo;
 import com.bc.fiduceo.reader.Reader;
 import com.bc.fiduceo.reader.ReaderFactory;
 import com.bc.fiduceo.reader.TimeLocator;
 import com.bc.fiduceo.tool.ToolContext;
 import com.bc.fiduceo.util.SobolSamplingPointGenerator;
 import com.bc.fiduceo.util.TimeUtils;
+import com.google.common.geometry.S2LatLngRect;
 import ucar.ma2.InvalidRangeException;
 
 import java.awt.geom.Point2D;
@@ -65,7 +65,7 @@ public class SeedPointMatchupStrategy extends AbstractMatchupStrategy {
 
     @Override
     public MatchupCollection createMatchupCollection(ToolContext context) throws SQLException, IOException, InvalidRangeException {
-        final MatchupCollection matchupCollection = new MatchupCollection();
+        final MatchupCollection matchupCollection = createTargetCollection();
 
         final UseCaseConfig useCaseConfig = context.getUseCaseConfig();
 
@@ -81,11 +81,12 @@ public class SeedPointMatchupStrategy extends AbstractMatchupStrategy {
         final long timeDeltaInMillis = conditionEngine.getMaxTimeDeltaInMillis();
         final int timeDeltaSeconds = (int) (timeDeltaInMillis / 1000);
 
-        final List<SamplingPoint> seedPoints = createRandomPoints(context, useCaseConfig);
+        final SeedPointIndex seedPointIndex = new SeedPointIndex(createRandomPoints(context, useCaseConfig));
 
-        final List<SatelliteObservation> primaryObservations = getPrimaryObservations(context);
-        for (final SatelliteObservation primaryObservation : primaryObservations) {
-            try (final Reader primaryReader = readerFactory.getReader(primaryObservation.getSensor().getName())) {
+        try (final SecondaryReaderProvider readerProvider = new SecondaryReaderProvider(readerFactory, getSecondaryReaderCacheSize(context))) {
+            final List<SatelliteObservation> primaryObservations = getPrimaryObservations(context);
+            initObservationCatalogue(context, primaryObservations, timeDeltaInMillis);
+            for (final SatelliteObservation primaryObservation : primaryObservations) {
                 final Date primaryStartTime = primaryObservation.getStartTime();
                 final Date primaryStopTime = primaryObservation.getStopTime();
 
@@ -99,99 +100,100 @@ public class SeedPointMatchupStrategy extends AbstractMatchupStrategy {
                     primaryGeometries = new Geometry[]{primaryGeoBounds};
                 }
 
-                final List<SamplingPoint> primarySeedPoints = getPrimarySeedPoints(geometryFactory, seedPoints, primaryStartTime, primaryStopTime, primaryGeometries);
+                final List<SamplingPoint> primarySeedPoints = getPrimarySeedPoints(geometryFactory, seedPointIndex, primaryStartTime, primaryStopTime, primaryGeometries);
 
                 final Path primaryObservationDataFilePath = primaryObservation.getDataFilePath();
-                primaryReader.open(primaryObservationDataFilePath.toFile());
-
-//                following lines are for test purposes only
-//                >>>>>  start  <<<<<
-//                final Dimension productSize = primaryReader.getProductSize();
-//                final int numScanlines = productSize.getNy();
-//                final int numPoints = primarySeedPoints.size();
-//                System.out.println("Num Scanlines: " + numScanlines + "   num seed points: " + numPoints);
-//                final int equation = (int) (1.0 * numPoints / numScanlines * 2280);
-//                System.out.println("Equates to " + equation + " seed points at 2280 scanlines per MHS orbit");
-//                >>>>>  e n d  <<<<<
 
                 final Date searchTimeStart = TimeUtils.addSeconds(-timeDeltaSeconds, primaryStartTime);
                 final Date searchTimeEnd = TimeUtils.addSeconds(timeDeltaSeconds, primaryStopTime);
-                final Map<String, List<SatelliteObservation>> mapSecondaryObservations = getSecondaryObservations(context, searchTimeStart, searchTimeEnd);
+                final Map<String, List<SatelliteObservation>> mapSecondaryObservations = getSecondaryObservations(context, searchTimeStart, searchTimeEnd, primaryGeoBounds);
 
-                final MatchupSet primaryMatchups = getPrimaryMatchupSet(primaryReader, primarySeedPoints, primaryObservationDataFilePath);
-                if (primaryMatchups == null) {
+                final List<SecondaryCandidates> secondaryCandidates = getSecondaryCandidates(primaryObservation, mapSecondaryObservations, useCaseConfig, timeDeltaInMillis, readerProvider);
+                if (secondaryCandidates.isEmpty()) {
                     continue;
                 }
 
-                // todo se multisensor
-                // needed by method applyConditionsAndScreenings(...) which is ready to handle multiple secondary sensor
-                final HashMap<String, Reader> secondaryReaderMap = new HashMap<>();
-
-                // todo se multisensor
-                // get(0) is still only one secondary sensor case
-                final String secondarySensorName_CaseOneSecondary = useCaseConfig.getSecondarySensors().get(0).getName();
-                // todo se multisensor
-                // still only one secondary sensor case
-                final List<SatelliteObservation> secondaryObservations = mapSecondaryObservations.get(secondarySensorName_CaseOneSecondary);
-
-                for (final SatelliteObservation secondaryObservation : secondaryObservations) {
-                    // todo se multisensor
-                    // still only one secondary sensor case
-                    try (Reader secondaryReader = readerFactory.getReader(secondarySensorName_CaseOneSecondary)) {
-                        secondaryReader.open(secondaryObservation.getDataFilePath().toFile());
-                        // todo se multisensor
-                        // still only one secondary sensor case
-                        secondaryReaderMap.put(secondarySensorName_CaseOneSecondary, secondaryReader);
-
-                        final Intersection[] intersectingIntervals = IntersectionEngine.getIntersectingIntervals(primaryObservation, secondaryObservation);
-                        if (intersectingIntervals.length == 0) {
-                            continue;
-                        }
+                final SecondaryCandidates candidates = secondaryCandidates.get(0);
+                final String secondarySensorName = candidates.getSensorName();
+                final SecondarySampleCombiner combiner = new SecondarySampleCombiner(context, primaryObservation, secondaryCandidates, readerProvider, logger);
+
+                try (final Reader primaryReader = readerFactory.getReader(primaryObservation.getSensor().getName())) {
+                    primaryReader.open(primaryObservationDataFilePath.toFile());
+
+//                    following lines are for test purposes only
+//                    >>>>>  start  <<<<<
+//                    final Dimension productSize = primaryReader.getProductSize();
+//                    final int numScanlines = productSize.getNy();
+//                    final int numPoints = primarySeedPoints.size();
+//                    System.out.println("Num Scanlines: " + numScanlines + "   num seed points: " + numPoints);
+//                    final int equation = (int) (1.0 * numPoints / numScanlines * 2280);
+//                    System.out.println("Equates to " + equation + " seed points at 2280 scanlines per MHS orbit");
+//                    >>>>>  e n d  <<<<<
+
+                    final MatchupSet primaryMatchups = getPrimaryMatchupSet(primaryReader, primarySeedPoints, primaryObservationDataFilePath);
+                    if (primaryMatchups == null) {
+                        continue;
+                    }
+
+                    final HashMap<String, Reader> secondaryReaderMap = new HashMap<>();
+
+                    for (int i = 0; i < candidates.size(); i++) {
+                        final SatelliteObservation secondaryObservation = candidates.getObservation(i);
+                        final Intersection[] intersectingIntervals = candidates.getIntersections(i);
+
+                        final Reader secondaryReader = readerProvider.getReader(secondaryObservation);
+                        secondaryReaderMap.put(secondarySensorName, secondaryReader);
 
                         final MatchupSet matchupSet = new MatchupSet();
                         matchupSet.setPrimaryObservationPath(primaryObservationDataFilePath);
                         matchupSet.setPrimaryProcessingVersion(primaryObservation.getVersion());
-                        // todo se multisensor
-                        // still only one secondary sensor case
-                        matchupSet.setSecondaryObservationPath(secondarySensorName_CaseOneSecondary, secondaryObservation.getDataFilePath());
-                        // todo se multisensor
-                        // still only one secondary sensor case
-                        matchupSet.setSecondaryProcessingVersion(secondarySensorName_CaseOneSecondary, secondaryObservation.getVersion());
+                        matchupSet.setSecondaryObservationPath(secondarySensorName, secondaryObservation.getDataFilePath());
+                        matchupSet.setSecondaryProcessingVersion(secondarySensorName, secondaryObservation.getVersion());
 
                         // @todo 2 tb/tb extract method
                         final Geometry secondaryGeoBounds = secondaryObservation.getGeoBounds();
                         final boolean isSecondarySegmented = AbstractMatchupStrategy.isSegmented(secondaryGeoBounds);
 
+                        final SampleStore samplesToCombine = new SampleStore();
                         for (final Intersection intersection : intersectingIntervals) {
-                            final TimeInfo timeInfo = intersection.getTimeInfo();
-                            if (timeInfo.getMinimalTimeDelta() < timeDeltaInMillis) {
-                                final PixelLocator secondaryPixelLocator = getPixelLocator(secondaryReader, isSecondarySegmented, (Polygon) intersection.getSecondaryGeometry());
+                            final PixelLocator secondaryPixelLocator = getPixelLocator(secondaryReader, isSecondarySegmented, (Polygon) intersection.getSecondaryGeometry());
 
-                                if (secondaryPixelLocator == null) {
-                                    logger.warning("Unable to create valid pixel locators. Skipping intersection segment.");
-                                    continue;
-                                }
+                            if (secondaryPixelLocator == null) {
+                                logger.warning("Unable to create valid pixel locators. Skipping intersection segment.");
+                                continue;
+                            }
 
-                                SampleCollector sampleCollector = new SampleCollector(context, secondaryPixelLocator);
-                                // todo se multisensor
-                                // still only one secondary sensor case
-                                final List<SampleSet> completeSamples = sampleCollector.addSecondarySamples(primaryMatchups.getSampleSets(), secondaryReader.getTimeLocator(), secondarySensorName_CaseOneSecondary);
-                                matchupSet.setSampleSets(completeSamples);
+                            SampleCollector sampleCollector = new SampleCollector(context, secondaryPixelLocator);
+                            final SampleStore completeSamples = sampleCollector.addSecondarySamples(primaryMatchups.getSampleStore(), secondaryReader.getTimeLocator(), secondarySensorName);
+
+                            if (combiner.hasFurtherSensors()) {
+                                samplesToCombine.addRows(completeSamples);
+                                continue;
+                            }
 
+                            matchupSet.setSampleStore(completeSamples);
+
+                            if (matchupSet.getNumObservations() > 0) {
+                                applyConditionsAndScreenings(matchupSet, conditionEngine, conditionEngineContext, screeningEngine, primaryReader, secondaryReaderMap);
                                 if (matchupSet.getNumObservations() > 0) {
-                                    // todo se multisensor
-                                    // still only one secondary sensor case
-                                    // uses the secondaryReaderMap instantiated above
-                                    applyConditionsAndScreenings(matchupSet, conditionEngine, conditionEngineContext, screeningEngine, primaryReader, secondaryReaderMap);
-                                    if (matchupSet.getNumObservations() > 0) {
-                                        matchupCollection.add(matchupSet);
-                                    }
+                                    matchupCollection.add(matchupSet);
                                 }
                             }
                         }
+
+                        if (samplesToCombine.size() > 0) {
+                            combiner.combine(samplesToCombine, secondaryObservation, (combinedSet, secondaryReaders) -> {
+                                applyConditionsAndScreenings(combinedSet, conditionEngine, conditionEngineContext, screeningEngine, primaryReader, secondaryReaders);
+                                if (combinedSet.getNumObservations() > 0) {
+                                    matchupCollection.add(combinedSet);
+                                }
+                            });
+                        }
                     }
                 }
             }
+
+            logReaderStatistics(readerProvider);
         }
 
         return matchupCollection;
@@ -256,20 +258,23 @@ public class SeedPointMatchupStrategy extends AbstractMatchupStrategy {
         return (int) ((between + 1) * randomPointsPerDay);
     }
 
-    private List<SamplingPoint> getPrimarySeedPoints(GeometryFactory geometryFactory, List<SamplingPoint> seedPoints, Date primaryStartTime, Date primaryStopTime, Geometry[] primaryGeometries) {
+    // the index delivers the points in the time window and the bounding rectangle of the geometries, only these
+    // run the exact intersection test
+    private List<SamplingPoint> getPrimarySeedPoints(GeometryFactory geometryFactory, SeedPointIndex seedPointIndex, Date primaryStartTime, Date primaryStopTime, Geometry[] primaryGeometries) {
+        S2LatLngRect searchRect = S2LatLngRect.empty();
+        for (Geometry geometry : primaryGeometries) {
+            searchRect = searchRect.union(GeometryUtil.getBoundingRect(geometry));
+        }
+
+        final List<SamplingPoint> candidates = seedPointIndex.getCandidates(primaryStartTime.getTime(), primaryStopTime.getTime(), searchRect);
         final List<SamplingPoint> primaryPoints = new ArrayList<>();
-        for (SamplingPoint seedPoint : seedPoints) {
-            final long time = seedPoint.getTime();
-            final double lat = seedPoint.getLat();
-            final double lon = seedPoint.getLon();
-            final Point point = geometryFactory.createPoint(lon, lat);
-            if (time >= primaryStartTime.getTime() && time <= primaryStopTime.getTime()) {
-                for (Geometry geometry : primaryGeometries) {
-                    final Geometry intersection = geometry.getIntersection(point);
-                    if (intersection != null && intersection.isValid()) {
-                        primaryPoints.add(seedPoint);
-                        break;
-                    }
+        for (SamplingPoint seedPoint : candidates) {
+            final Point point = geometryFactory.createPoint(seedPoint.getLon(), seedPoint.getLat());
+            for (Geometry geometry : primaryGeometries) {
+                final Geometry intersection = geometry.getIntersection(point);
+                if (intersection != null && intersection.isValid()) {
+                    primaryPoints.add(seedPoint);
+                    break;
                 }
             }
         }
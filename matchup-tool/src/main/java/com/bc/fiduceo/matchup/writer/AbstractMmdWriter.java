@@ -29,8 +29,8 @@ import com.bc.fiduceo.core.UseCaseConfig;
 import com.bc.fiduceo.log.FiduceoLogger;
 import com.bc.fiduceo.matchup.MatchupCollection;
 import com.bc.fiduceo.matchup.MatchupSet;
-import com.bc.fiduceo.core.Sample;
 import com.bc.fiduceo.matchup.SampleSet;
+import com.bc.fiduceo.matchup.SampleStore;
 import com.bc.fiduceo.reader.Reader;
 import com.bc.fiduceo.reader.ReaderCache;
 import com.bc.fiduceo.reader.ReaderFactory;
@@ -53,15 +53,22 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.logging.Logger;
 
 abstract class AbstractMmdWriter implements MmdWriter, Target {
 
+    private static final int UNLIMITED = -1;
+
     private final Logger logger;
     private final Map<String, Array> dataCacheMap;
     private final Map<String, Variable> variableMap;
@@ -70,12 +77,31 @@ abstract class AbstractMmdWriter implements MmdWriter, Target {
     NetcdfFileWriter netcdfFileWriter;
     private int flushCount = 0;
 
+    private ReaderCache readerCache;
+    private IOVariablesList ioVariablesList;
+    private String primarySensorName;
+    private List<IOVariable> primaryVariables;
+    private Interval primaryInterval;
+    private String[] secSensorNames;
+    private List<List<IOVariable>> secVariablesList;
+    private Interval[] secIntervals;
+    private List<SampleSetIOVariable> sampleSetVariables;
+    private Path mmdFile;
+    private int zIndex;
+
+    private ExecutorService executorService;
+    private ThreadLocal<ReaderCache> workerReaderCache;
+    private List<ReaderCache> workerReaderCaches;
+    private List<MatchupSet> pendingSets;
+    private int numPendingSamples;
+
     AbstractMmdWriter(MmdWriterConfig writerConfig) {
         this.writerConfig = writerConfig;
         logger = FiduceoLogger.getLogger();
 
-        dataCacheMap = new HashMap<>();
-        variableMap = new HashMap<>();
+        // concurrent maps, the caches are filled by all writer threads
+        dataCacheMap = new ConcurrentHashMap<>();
+        variableMap = new ConcurrentHashMap<>();
     }
 
     /**
@@ -89,100 +115,146 @@ abstract class AbstractMmdWriter implements MmdWriter, Target {
      * @throws InvalidRangeException on dimension errors
      */
     public void writeMMD(MatchupCollection matchupCollection, ToolContext context, IOVariablesList ioVariablesList) throws IOException, InvalidRangeException {
-        if (matchupCollection.getNumMatchups() == 0) {
+        final int numMatchups = matchupCollection.getNumMatchups();
+        if (numMatchups == 0) {
             logger.warning("No matchups in time interval, creation of MMD file skipped.");
             return;
         }
 
-        final List<IOVariable> ioVariables = ioVariablesList.get();
-        for (IOVariable variable : ioVariables) {
-            variable.setTarget(this);
-        }
-
-        final ReaderFactory readerFactory = context.getReaderFactory();
-        final ReaderCache readerCache = new ReaderCache(writerConfig.getReaderCacheSize(), readerFactory, null);
-
         try {
-            logger.info("Start writing mmd-file ...");
-
-            final Path mmdFile = createMmdFile(context, writerConfig);
-            final UseCaseConfig useCaseConfig = context.getUseCaseConfig();
-
-            initializeNetcdfFile(mmdFile, useCaseConfig, ioVariablesList.get(), matchupCollection.getNumMatchups());
-            logger.info("Initialized target file");
-
-            final Sensor primarySensor = useCaseConfig.getPrimarySensor();
-            final String primarySensorName = primarySensor.getName();
-            final List<IOVariable> primaryVariables = ioVariablesList.getVariablesFor(primarySensorName);
-            final Dimension primaryDimension = useCaseConfig.getDimensionFor(primarySensorName);
-            final Interval primaryInterval = new Interval(primaryDimension.getNx(), primaryDimension.getNy());
-
-            final List<Sensor> secondarySensors = useCaseConfig.getSecondarySensors();
-            final int secSize = secondarySensors.size();
-            final String[] secSensorNames = new String[secSize];
-            final List<List<IOVariable>> secVariablesList = new ArrayList<>();
-            final Interval[] secIntervals = new Interval[secSize];
-            for (int i = 0; i < secondarySensors.size(); i++) {
-                Sensor secondarySensor = secondarySensors.get(i);
-                final String secondarySensorName = secondarySensor.getName();
-                secSensorNames[i] = secondarySensorName;
-                secVariablesList.add(ioVariablesList.getVariablesFor(secondarySensorName));
-                final Dimension secondaryDimension = useCaseConfig.getDimensionFor(secondarySensorName);
-                secIntervals[i] = new Interval(secondaryDimension.getNx(), secondaryDimension.getNy());
-            }
-
-            final List<SampleSetIOVariable> sampleSetVariables = ioVariablesList.getSampleSetIOVariables();
-            logger.info("Collected IO Variables");
-
+            open(context, ioVariablesList, numMatchups);
 
             final StopWatch stopWatch = new StopWatch();
             stopWatch.start();
 
             final List<MatchupSet> sets = matchupCollection.getSets();
-            int zIndex = 0;
-            final int cacheSize = writerConfig.getCacheSize();
             for (MatchupSet set : sets) {
-                final Path primaryObservationPath = set.getPrimaryObservationPath();
-                final Reader primaryReader = readerCache.getReaderFor(primarySensorName, primaryObservationPath, null);
-                ioVariablesList.setReaderAndPath(primarySensorName, primaryReader, primaryObservationPath, set.getPrimaryProcessingVersion());
-
-                logger.info("writing samples for " + primaryObservationPath.getFileName());
-                for (String secSensorName : secSensorNames) {
-                    final Path secondaryObservationPath = set.getSecondaryObservationPath(secSensorName);
-                    final Reader secondaryReader = readerCache.getReaderFor(secSensorName, secondaryObservationPath, null);
-                    ioVariablesList.setReaderAndPath(secSensorName, secondaryReader, secondaryObservationPath, set.getSecondaryProcessingVersion(secSensorName));
-                    logger.info("... and " + secondaryObservationPath.getFileName());
-                }
-                logger.info("Num matchups: " + set.getNumObservations());
-
-
-                final List<SampleSet> sampleSets = set.getSampleSets();
-                for (SampleSet sampleSet : sampleSets) {
-                    writeMmdValues(sampleSet.getPrimary(), zIndex, primaryVariables, primaryInterval);
-                    for (int i = 0; i < secSensorNames.length; i++) {
-                        String secSensorName = secSensorNames[i];
-                        final List<IOVariable> secIOVariables = secVariablesList.get(i);
-                        writeMmdValues(sampleSet.getSecondary(secSensorName), zIndex, secIOVariables, secIntervals[i]);
-                    }
-                    writeSampleSetVariables(sampleSet, sampleSetVariables, zIndex);
-                    zIndex++;
-                    if (zIndex % cacheSize == 0) {
-                        flush();
-                    }
-                }
+                writeMatchupSet(set);
             }
 
             stopWatch.stop();
 
             logger.info("Successfully wrote mmd-file to '" + mmdFile.toAbsolutePath().toString() + "'");
             logger.info("Writing time: '" + stopWatch.getTimeDiffString());
-
         } finally {
-            readerCache.close();
             close();
         }
     }
 
+    /**
+     * Creates the MMD file with an unlimited matchup dimension for streaming. MatchupSets are appended using
+     * <code>writeMatchupSet()</code> as they are produced, the file is completed by <code>close()</code>.
+     *
+     * @param context         the ToolContext
+     * @param ioVariablesList the variables which has to be part of the mmd file
+     * @throws IOException on disk access errors
+     */
+    @Override
+    public void open(ToolContext context, IOVariablesList ioVariablesList) throws IOException {
+        open(context, ioVariablesList, UNLIMITED);
+    }
+
+    @Override
+    public void writeMatchupSet(MatchupSet set) throws IOException, InvalidRangeException {
+        logger.info("writing samples for " + set.getPrimaryObservationPath().getFileName());
+        for (String secSensorName : secSensorNames) {
+            logger.info("... and " + set.getSecondaryObservationPath(secSensorName).getFileName());
+        }
+        logger.info("Num matchups: " + set.getNumObservations());
+
+        if (executorService != null) {
+            pendingSets.add(set);
+            numPendingSamples += set.getNumObservations();
+            if (numPendingSamples >= writerConfig.getCacheSize()) {
+                writePendingSets();
+            }
+            return;
+        }
+
+        setReaders(set, readerCache);
+
+        final int cacheSize = writerConfig.getCacheSize();
+        final int numSamples = set.getNumObservations();
+        int index = 0;
+        while (index < numSamples) {
+            final int numRows = Math.min(numSamples - index, cacheSize - zIndex % cacheSize);
+            writeSamples(set, index, numRows, zIndex);
+            index += numRows;
+            zIndex += numRows;
+            if (zIndex % cacheSize == 0) {
+                flush();
+            }
+        }
+    }
+
+    @Override
+    public int getNumMatchupsWritten() {
+        return zIndex + numPendingSamples;
+    }
+
+    @Override
+    public Path getMmdFile() {
+        return mmdFile;
+    }
+
+    private void open(ToolContext context, IOVariablesList ioVariablesList, int numMatchups) throws IOException {
+        this.ioVariablesList = ioVariablesList;
+        final List<IOVariable> ioVariables = ioVariablesList.get();
+        for (IOVariable variable : ioVariables) {
+            variable.setTarget(this);
+        }
+
+        final ReaderFactory readerFactory = context.getReaderFactory();
+        readerCache = new ReaderCache(writerConfig.getReaderCacheSize(), readerFactory, null);
+        final int writerThreads = writerConfig.getWriterThreads();
+        if (writerThreads > 1) {
+            logger.info("Extracting subset windows using " + writerThreads + " writer threads");
+            executorService = Executors.newFixedThreadPool(writerThreads);
+            workerReaderCaches = Collections.synchronizedList(new ArrayList<>());
+            workerReaderCache = ThreadLocal.withInitial(() -> {
+                final ReaderCache cache = new ReaderCache(writerConfig.getReaderCacheSize(), readerFactory, null);
+                workerReaderCaches.add(cache);
+                return cache;
+            });
+            pendingSets = new ArrayList<>();
+            numPendingSamples = 0;
+        }
+
+        logger.info("Start writing mmd-file ...");
+
+        mmdFile = createMmdFile(context, writerConfig);
+        final UseCaseConfig useCaseConfig = context.getUseCaseConfig();
+
+        initializeNetcdfFile(mmdFile, useCaseConfig, ioVariablesList.get(), numMatchups);
+        logger.info("Initialized target file");
+
+        final Sensor primarySensor = useCaseConfig.getPrimarySensor();
+        primarySensorName = primarySensor.getName();
+        primaryVariables = ioVariablesList.getVariablesFor(primarySensorName);
+        final Dimension primaryDimension = useCaseConfig.getDimensionFor(primarySensorName);
+        primaryInterval = new Interval(primaryDimension.getNx(), primaryDimension.getNy());
+
+        final List<Sensor> secondarySensors = useCaseConfig.getSecondarySensors();
+        final int secSize = secondarySensors.size();
+        secSensorNames = new String[secSize];
+        secVariablesList = new ArrayList<>();
+        secIntervals = new Interval[secSize];
+        for (int i = 0; i < secondarySensors.size(); i++) {
+            Sensor secondarySensor = secondarySensors.get(i);
+            final String secondarySensorName = secondarySensor.getName();
+            secSensorNames[i] = secondarySensorName;
+            secVariablesList.add(ioVariablesList.getVariablesFor(secondarySensorName));
+            final Dimension secondaryDimension = useCaseConfig.getDimensionFor(secondarySensorName);
+            secIntervals[i] = new Interval(secondaryDimension.getNx(), secondaryDimension.getNy());
+        }
+
+        sampleSetVariables = ioVariablesList.getSampleSetIOVariables();
+        logger.info("Collected IO Variables");
+
+        zIndex = 0;
+        flushCount = 0;
+    }
+
     @Override
     public void write(Array data, String variableName, int zIndex) {
         final Array target = getTarget(variableName);
@@ -320,13 +392,125 @@ abstract class AbstractMmdWriter implements MmdWriter, Target {
         }
     }
 
-    void close() throws IOException, InvalidRangeException {
-        flush();
-        variableMap.clear();
-        dataCacheMap.clear();
-        if (netcdfFileWriter != null) {
-            netcdfFileWriter.close();
-            netcdfFileWriter = null;
+    @Override
+    public void close() throws IOException, InvalidRangeException {
+        try {
+            if (netcdfFileWriter != null) {
+                if (executorService != null) {
+                    writePendingSets();
+                }
+                flush();
+            }
+        } finally {
+            variableMap.clear();
+            dataCacheMap.clear();
+            if (readerCache != null) {
+                readerCache.close();
+                readerCache = null;
+            }
+            if (executorService != null) {
+                executorService.shutdownNow();
+                executorService = null;
+                for (final ReaderCache cache : workerReaderCaches) {
+                    cache.close();
+                }
+                workerReaderCaches = null;
+                workerReaderCache = null;
+                pendingSets = null;
+            }
+            if (netcdfFileWriter != null) {
+                netcdfFileWriter.close();
+                netcdfFileWriter = null;
+            }
+        }
+    }
+
+    /**
+     * Writes the pending MatchupSets cache block by cache block. The rows of a block are distributed to the writer
+     * threads in chunks of one MatchupSet, i.e. of one pair of input files, each thread reading the subset windows
+     * through its own readers. The target row of every sample is fixed before the extraction, so the file content
+     * does not depend on the scheduling. The block is flushed by the calling thread when all chunks are completed.
+     */
+    private void writePendingSets() throws IOException, InvalidRangeException {
+        final int cacheSize = writerConfig.getCacheSize();
+        final List<Future<Void>> futures = new ArrayList<>();
+        for (final MatchupSet set : pendingSets) {
+            final int numSamples = set.getNumObservations();
+            int index = 0;
+            while (index < numSamples) {
+                final int numRows = Math.min(numSamples - index, cacheSize - zIndex % cacheSize);
+                final int startIndex = index;
+                final int startZIndex = zIndex;
+                futures.add(executorService.submit(() -> {
+                    setReaders(set, workerReaderCache.get());
+                    writeSamples(set, startIndex, numRows, startZIndex);
+                    return null;
+                }));
+                index += numRows;
+                zIndex += numRows;
+                if (zIndex % cacheSize == 0) {
+                    waitFor(futures);
+                    flush();
+                }
+            }
+        }
+        waitFor(futures);
+
+        pendingSets.clear();
+        numPendingSamples = 0;
+    }
+
+    private static void waitFor(List<Future<Void>> futures) throws IOException, InvalidRangeException {
+        try {
+            for (final Future<Void> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for subset extraction", e);
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof InvalidRangeException) {
+                throw (InvalidRangeException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new RuntimeException(cause.getMessage(), cause);
+        } finally {
+            futures.clear();
+        }
+    }
+
+    private void setReaders(MatchupSet set, ReaderCache cache) throws IOException {
+        final Path primaryObservationPath = set.getPrimaryObservationPath();
+        final Reader primaryReader = cache.getReaderFor(primarySensorName, primaryObservationPath, null);
+        ioVariablesList.setReaderAndPath(primarySensorName, primaryReader, primaryObservationPath, set.getPrimaryProcessingVersion());
+
+        for (String secSensorName : secSensorNames) {
+            final Path secondaryObservationPath = set.getSecondaryObservationPath(secSensorName);
+            final Reader secondaryReader = cache.getReaderFor(secSensorName, secondaryObservationPath, null);
+            ioVariablesList.setReaderAndPath(secSensorName, secondaryReader, secondaryObservationPath, set.getSecondaryProcessingVersion(secSensorName));
+        }
+    }
+
+    private void writeSamples(MatchupSet set, int startIndex, int numRows, int startZIndex) throws IOException, InvalidRangeException {
+        final SampleStore sampleStore = set.getSampleStore();
+        final int[] secSlots = new int[secSensorNames.length];
+        for (int i = 0; i < secSensorNames.length; i++) {
+            secSlots[i] = sampleStore.getRequiredSlot(secSensorNames[i]);
+        }
+        writeMmdValues(sampleStore, SampleStore.PRIMARY, startIndex, numRows, startZIndex, primaryVariables, primaryInterval);
+        for (int i = 0; i < secSensorNames.length; i++) {
+            writeMmdValues(sampleStore, secSlots[i], startIndex, numRows, startZIndex, secVariablesList.get(i), secIntervals[i]);
+        }
+
+        if (!sampleSetVariables.isEmpty()) {
+            final List<SampleSet> sampleSets = set.getSampleSets();
+            for (int row = 0; row < numRows; row++) {
+                writeSampleSetVariables(sampleSets.get(startIndex + row), sampleSetVariables, startZIndex + row);
+            }
         }
     }
 
@@ -338,31 +522,34 @@ abstract class AbstractMmdWriter implements MmdWriter, Target {
         }
     }
 
-    private void writeMmdValues(Sample sample, int zIndex, List<IOVariable> variables, Interval interval) throws IOException, InvalidRangeException {
-        final int x = sample.x;
-        final int y = sample.y;
+    private void writeMmdValues(SampleStore sampleStore, int slot, int startIndex, int numRows, int startZIndex,
+                                List<IOVariable> variables, Interval interval) throws IOException, InvalidRangeException {
+        final int[] x = new int[numRows];
+        final int[] y = new int[numRows];
+        for (int row = 0; row < numRows; row++) {
+            x[row] = sampleStore.getX(slot, startIndex + row);
+            y[row] = sampleStore.getY(slot, startIndex + row);
+        }
 
         for (IOVariable variable : variables) {
-            variable.writeData(x, y, interval, zIndex);
+            variable.writeData(x, y, interval, startZIndex);
         }
     }
 
     private Array getTarget(String variableName) {
-        if (!dataCacheMap.containsKey(variableName)) {
-            Variable variable = getVariable(variableName);
+        return dataCacheMap.computeIfAbsent(variableName, name -> {
+            final Variable variable = getVariable(name);
             final int[] shape = variable.getShape();
             shape[0] = writerConfig.getCacheSize();
-            dataCacheMap.put(variableName, Array.factory(variable.getDataType(), shape));
-        }
-        return dataCacheMap.get(variableName);
+            return Array.factory(variable.getDataType(), shape);
+        });
     }
 
     private Variable getVariable(String variableName) {
-        if (!variableMap.containsKey(variableName)) {
-            final String escapedName = NetcdfFile.makeValidCDLName(variableName);
-            variableMap.put(variableName, netcdfFileWriter.findVariable(escapedName));
-        }
-        return variableMap.get(variableName);
+        return variableMap.computeIfAbsent(variableName, name -> {
+            final String escapedName = NetcdfFile.makeValidCDLName(name);
+            return netcdfFileWriter.findVariable(escapedName);
+        });
     }
 
     private void createGlobalAttributes() {
@@ -385,7 +572,11 @@ abstract class AbstractMmdWriter implements MmdWriter, Target {
         }
         netcdfFileWriter.addDimension(null, "file_name", 128);
         netcdfFileWriter.addDimension(null, "processing_version", 30);
-        netcdfFileWriter.addDimension(null, "matchup_count", numMatchups);
+        if (numMatchups == UNLIMITED) {
+            netcdfFileWriter.addUnlimitedDimension("matchup_count");
+        } else {
+            netcdfFileWriter.addDimension(null, "matchup_count", numMatchups);
+        }
     }
 
     private String getDimensionNameNy(String sensorName) {
@@ -397,19 +588,20 @@ abstract class AbstractMmdWriter implements MmdWriter, Target {
     }
 
     private void flush() throws IOException, InvalidRangeException {
+        // the number of matchups is taken from the samples written, the matchup dimension may be unlimited
         final int cacheSize = writerConfig.getCacheSize();
+        final int zStart = flushCount * cacheSize;
+        final int restHeight = zIndex - zStart;
+        if (restHeight <= 0) {
+            return;
+        }
+
         for (Map.Entry<String, Array> entry : dataCacheMap.entrySet()) {
             final String variableName = entry.getKey();
             final Variable variable = variableMap.get(variableName);
-            final int matchupCount = variable.getShape(0);
-            final int zStart = flushCount * cacheSize;
-            final int restHeight = matchupCount - zStart;
-            if (restHeight <= 0) {
-                break;
-            }
             Array dataToBeWritten = entry.getValue();
             final int[] origin = new int[dataToBeWritten.getRank()];
-            if (zStart + cacheSize > matchupCount) {
+            if (restHeight < cacheSize) {
                 final int[] shape = dataToBeWritten.getShape();
                 shape[0] = restHeight;
                 dataToBeWritten = dataToBeWritten.sectionNoReduce(origin, shape, null);
@@ -418,8 +610,6 @@ abstract class AbstractMmdWriter implements MmdWriter, Target {
             netcdfFileWriter.write(variable, origin, dataToBeWritten);
         }
         flushCount++;
-        if (netcdfFileWriter != null) {
-            netcdfFileWriter.flush();
-        }
+        netcdfFileWriter.flush();
     }
 }
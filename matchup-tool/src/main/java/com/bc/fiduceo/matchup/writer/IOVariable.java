@@ -33,6 +33,24 @@ public interface IOVariable {
 
     void writeData(int centerX, int centerY, Interval interval, int zIndex) throws IOException, InvalidRangeException;
 
+    /**
+     * Writes the data of a number of consecutive matchups, starting at <code>zIndex</code>. The MMD writer guarantees
+     * that the matchups are located in the same cache block of the target. The default implementation writes matchup by
+     * matchup, variables reading windows should override this to read all windows in one call.
+     *
+     * @param centerX  the center x positions
+     * @param centerY  the center y positions, same length as centerX
+     * @param interval the window sizes
+     * @param zIndex   the target position of the first matchup
+     * @throws IOException           on disk access errors
+     * @throws InvalidRangeException on invalid window definitions
+     */
+    default void writeData(int[] centerX, int[] centerY, Interval interval, int zIndex) throws IOException, InvalidRangeException {
+        for (int i = 0; i < centerX.length; i++) {
+            writeData(centerX[i], centerY[i], interval, zIndex + i);
+        }
+    }
+
     String getSourceVariableName();
 
     List<Attribute> getAttributes();
@@ -22,12 +22,25 @@ package com.bc.fiduceo.matchup.writer;
 
 
 import com.bc.fiduceo.matchup.MatchupCollection;
+import com.bc.fiduceo.matchup.MatchupSet;
 import com.bc.fiduceo.tool.ToolContext;
 import ucar.ma2.InvalidRangeException;
 
 import java.io.IOException;
+import java.nio.file.Path;
 
 public interface MmdWriter {
 
     void writeMMD(MatchupCollection matchupCollection, ToolContext context, IOVariablesList ioVariablesList) throws IOException, InvalidRangeException;
+
+    // streaming interface: open() - writeMatchupSet() ... - close()
+    void open(ToolContext context, IOVariablesList ioVariablesList) throws IOException;
+
+    void writeMatchupSet(MatchupSet matchupSet) throws IOException, InvalidRangeException;
+
+    void close() throws IOException, InvalidRangeException;
+
+    int getNumMatchupsWritten();
+
+    Path getMmdFile();
 }
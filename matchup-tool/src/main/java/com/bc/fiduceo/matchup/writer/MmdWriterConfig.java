@@ -41,6 +41,8 @@ public class MmdWriterConfig {
     private static final String CACHE_SIZE_TAG = "cache-size";
     private static final String NETCDF_FORMAT_TAG = "netcdf-format";
     private static final String READER_CACHE_SIZE_TAG = "reader-cache-size";
+    private static final String STREAMING_TAG = "streaming";
+    private static final String WRITER_THREADS_TAG = "writer-threads";
     private static final String VARIABLES_CONFIGURATION_TAG = "variables-configuration";
     private static final String SENSOR_RENAME_TAG = "sensor-rename";
     private static final String SEPARATOR = "separator";
@@ -61,12 +63,15 @@ public class MmdWriterConfig {
     private NetcdfType netcdfFormat;
     private VariablesConfiguration variablesConfiguration;
     private int readerCacheSize;
+    private boolean streaming;
+    private int writerThreads;
 
     MmdWriterConfig() {
         cacheSize = 2048;
         netcdfFormat = NetcdfType.N4;
         variablesConfiguration = new VariablesConfiguration();
         readerCacheSize = 6;
+        writerThreads = 1;
     }
 
     private MmdWriterConfig(Document document) {
@@ -120,6 +125,25 @@ public class MmdWriterConfig {
         return readerCacheSize;
     }
 
+    public boolean isStreaming() {
+        return streaming;
+    }
+
+    void setStreaming(boolean streaming) {
+        this.streaming = streaming;
+    }
+
+    int getWriterThreads() {
+        return writerThreads;
+    }
+
+    void setWriterThreads(int writerThreads) {
+        if (writerThreads < 1) {
+            throw new RuntimeException("Number of writer threads must be at least 1");
+        }
+        this.writerThreads = writerThreads;
+    }
+
     private void init(Document document) {
         final Element rootElement = document.getRootElement();
         final String name = rootElement.getName();
@@ -151,6 +175,18 @@ public class MmdWriterConfig {
             setReaderCacheSize(Integer.valueOf(readerCacheValue));
         }
 
+        final Element streamingElement = rootElement.getChild(STREAMING_TAG);
+        if (streamingElement != null) {
+            final String streamingValue = streamingElement.getValue();
+            streaming = Boolean.valueOf(streamingValue);
+        }
+
+        final Element writerThreadsElement = rootElement.getChild(WRITER_THREADS_TAG);
+        if (writerThreadsElement != null) {
+            final String writerThreadsValue = writerThreadsElement.getValue();
+            setWriterThreads(Integer.valueOf(writerThreadsValue));
+        }
+
         final Element variablesConfigurationElement = rootElement.getChild(VARIABLES_CONFIGURATION_TAG);
         if (variablesConfigurationElement != null) {
             addSensorRenames(variablesConfigurationElement);
@@ -20,33 +20,46 @@ import com.bc.fiduceo.reader.Reader;
 
 import java.nio.file.Path;
 
+/**
+ * Holds the reader and file information the IOVariables of a sensor read from. The state is confined to the thread
+ * setting it, this allows the MMD writer to extract the data of different MatchupSets concurrently, each worker
+ * thread binding its own readers.
+ */
 public class ReaderContainer {
 
-    private Reader reader;
-    private Path sourcePath;
-    private String processingVersion;
+    private final ThreadLocal<State> state;
+
+    public ReaderContainer() {
+        state = ThreadLocal.withInitial(State::new);
+    }
 
     public void setReader(Reader reader) {
-        this.reader = reader;
+        state.get().reader = reader;
     }
 
     public Reader getReader() {
-        return reader;
+        return state.get().reader;
     }
 
     void setProcessingVersion(String processingVersion) {
-        this.processingVersion = processingVersion;
+        state.get().processingVersion = processingVersion;
     }
 
     String getProcessingVersion() {
-        return processingVersion;
+        return state.get().processingVersion;
     }
 
     Path getSourcePath() {
-        return sourcePath;
+        return state.get().sourcePath;
     }
 
     void setSourcePath(Path sourcePath) {
-        this.sourcePath = sourcePath;
+        state.get().sourcePath = sourcePath;
+    }
+
+    private static class State {
+        private Reader reader;
+        private Path sourcePath;
+        private String processingVersion;
     }
 }
@@ -24,9 +24,14 @@ import com.bc.fiduceo.matchup.SampleSet;
 
 public abstract class SampleSetIOVariable extends AbstractIOVariable {
 
-    protected SampleSet sampleSet;
+    // thread confined, the MMD writer may write the SampleSets of different matchups concurrently
+    private final ThreadLocal<SampleSet> sampleSet = new ThreadLocal<>();
 
     public void setSampleSet(SampleSet sampleSet) {
-        this.sampleSet = sampleSet;
+        this.sampleSet.set(sampleSet);
+    }
+
+    protected SampleSet getSampleSet() {
+        return sampleSet.get();
     }
 }
@@ -22,6 +22,7 @@ package com.bc.fiduceo.matchup.writer;
 
 import com.bc.fiduceo.core.Interval;
 import ucar.ma2.Array;
+import ucar.ma2.DataType;
 import ucar.ma2.InvalidRangeException;
 
 import java.io.IOException;
@@ -37,4 +38,12 @@ public class WindowReadingIOVariable extends ReaderIOVariable {
         final Array array = readerContainer.getReader().readRaw(centerX, centerY, interval, sourceVariableName);
         target.write(array, targetVariableName, zIndex);
     }
+
+    @Override
+    public void writeData(int[] centerX, int[] centerY, Interval interval, int zIndex) throws IOException, InvalidRangeException {
+        final int[] shape = {centerX.length, interval.getY(), interval.getX()};
+        final Array windows = Array.factory(DataType.getType(getDataType()), shape);
+        readerContainer.getReader().readRaw(centerX, centerY, interval, sourceVariableName, windows, 0);
+        target.write(windows, targetVariableName, zIndex);
+    }
 }
@@ -23,11 +23,17 @@ package com.bc.fiduceo.matchup;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.io.IOException;
 import java.util.List;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
 public class MatchupCollectionTest {
@@ -88,4 +94,43 @@ public class MatchupCollectionTest {
 
         assertEquals(57 + 109, collection.getNumMatchups());
     }
+
+    @Test
+    public void testAdd_withConsumer() throws Exception {
+        final MatchupSetConsumer consumer = mock(MatchupSetConsumer.class);
+        final MatchupCollection consumingCollection = new MatchupCollection(consumer);
+
+        final MatchupSet set_1 = mock(MatchupSet.class);
+        when(set_1.getNumObservations()).thenReturn(12);
+        consumingCollection.add(set_1);
+
+        final MatchupSet set_2 = mock(MatchupSet.class);
+        when(set_2.getNumObservations()).thenReturn(3);
+        consumingCollection.add(set_2);
+
+        verify(consumer).accept(set_1);
+        verify(consumer).accept(set_2);
+        verifyNoMoreInteractions(consumer);
+
+        assertEquals(0, consumingCollection.getSets().size());
+        assertEquals(15, consumingCollection.getNumMatchups());
+    }
+
+    @Test
+    public void testAdd_withConsumer_throwing() throws Exception {
+        final MatchupSetConsumer consumer = mock(MatchupSetConsumer.class);
+        final MatchupSet set = mock(MatchupSet.class);
+        final IOException ioException = new IOException("disk full");
+        doThrow(ioException).when(consumer).accept(set);
+
+        final MatchupCollection consumingCollection = new MatchupCollection(consumer);
+        try {
+            consumingCollection.add(set);
+            fail("RuntimeException expected");
+        } catch (RuntimeException expected) {
+            assertSame(ioException, expected.getCause());
+        }
+
+        assertEquals(0, consumingCollection.getNumMatchups());
+    }
 }
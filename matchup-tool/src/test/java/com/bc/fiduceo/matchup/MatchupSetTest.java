@@ -25,6 +25,7 @@ import org.junit.Before;
 import org.junit.Test;
 
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.Assert.assertEquals;
@@ -76,6 +77,36 @@ public class MatchupSetTest {
         assertEquals(expectedSample.lon, primary.lon, 1e-8);
     }
 
+    @Test
+    public void testAddPrimary_primitives() {
+        matchupSet.addPrimary(2, 3, 4.5, 5.5, 6L);
+
+        assertEquals(1, matchupSet.getNumObservations());
+        final SampleStore sampleStore = matchupSet.getSampleStore();
+        assertEquals(2, sampleStore.getX(SampleStore.PRIMARY, 0));
+        assertEquals(3, sampleStore.getY(SampleStore.PRIMARY, 0));
+        assertEquals(4.5, sampleStore.getLon(SampleStore.PRIMARY, 0), 1e-8);
+        assertEquals(5.5, sampleStore.getLat(SampleStore.PRIMARY, 0), 1e-8);
+        assertEquals(6L, sampleStore.getTime(SampleStore.PRIMARY, 0));
+    }
+
+    @Test
+    public void testSetSampleSets_copiesIntoNewStore() {
+        matchupSet.addPrimary(new Sample(1, 1, 1, 1, 1L));
+        matchupSet.addPrimary(new Sample(2, 2, 2, 2, 2L));
+
+        final List<SampleSet> sampleSets = matchupSet.getSampleSets();
+        final List<SampleSet> kept = new ArrayList<>();
+        kept.add(sampleSets.get(1));
+
+        matchupSet.setSampleSets(kept);
+        // the screenings clear their source list after setting the result
+        sampleSets.clear();
+
+        assertEquals(1, matchupSet.getNumObservations());
+        assertEquals(2, matchupSet.getSampleSets().get(0).getPrimary().x);
+    }
+
     @Test
     public void testProperty_ProcessingVersion() throws Exception {
         assertNull(matchupSet.getPrimaryProcessingVersion());
@@ -0,0 +1,263 @@
+/*
+ * Copyright (C) 2016 Brockmann Consult GmbH
+ * This code was developed for the EC project "Fidelity and Uncertainty in
+ * Climate Data Records from Earth Observations (FIDUCEO)".
+ * Grant Agreement: 638822
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * A copy of the GNU General Public License should have been supplied along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ *
+ */
+
+package com.bc.fiduceo.matchup;
+
+import com.bc.fiduceo.core.Sample;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.BitSet;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class SampleStoreTest {
+
+    private SampleStore store;
+
+    @Before
+    public void setUp() {
+        store = new SampleStore();
+    }
+
+    @Test
+    public void testEmptyStore() {
+        assertEquals(0, store.size());
+        assertEquals(1, store.getNumSlots());
+        assertEquals(0, store.asSampleSets().size());
+    }
+
+    @Test
+    public void testAddRowAndSet() {
+        final int index = store.addRow();
+        assertEquals(0, index);
+        assertFalse(store.isValid(SampleStore.PRIMARY, index));
+
+        store.set(SampleStore.PRIMARY, index, 3, 4, 5.5, 6.5, 78L);
+
+        assertTrue(store.isValid(SampleStore.PRIMARY, index));
+        assertEquals(3, store.getX(SampleStore.PRIMARY, index));
+        assertEquals(4, store.getY(SampleStore.PRIMARY, index));
+        assertEquals(5.5, store.getLon(SampleStore.PRIMARY, index), 1e-8);
+        assertEquals(6.5, store.getLat(SampleStore.PRIMARY, index), 1e-8);
+        assertEquals(78L, store.getTime(SampleStore.PRIMARY, index));
+    }
+
+    @Test
+    public void testSlots() {
+        assertEquals(-1, store.getSlot("sec_a"));
+
+        final int slot_a = store.getOrCreateSlot("sec_a");
+        final int slot_b = store.getOrCreateSlot("sec_b");
+        assertEquals(1, slot_a);
+        assertEquals(2, slot_b);
+        assertEquals(slot_a, store.getOrCreateSlot("sec_a"));
+        assertEquals(slot_b, store.getRequiredSlot("sec_b"));
+        assertEquals("sec_b", store.getSensorName(slot_b));
+        assertEquals(3, store.getNumSlots());
+    }
+
+    @Test
+    public void testGetRequiredSlot_missing() {
+        try {
+            store.getRequiredSlot("sec_a");
+            fail("IllegalStateException expected");
+        } catch (IllegalStateException expected) {
+            assertEquals("No samples of secondary sensor: sec_a", expected.getMessage());
+        }
+    }
+
+    @Test
+    public void testGrow() {
+        final int slot = store.getOrCreateSlot("sec");
+        for (int i = 0; i < 1000; i++) {
+            final int index = store.addRow();
+            store.set(SampleStore.PRIMARY, index, i, 2 * i, i, -i, 10L * i);
+            if (i % 2 == 0) {
+                store.set(slot, index, i + 1, i + 2, 0.5, 0.5, i);
+            }
+        }
+
+        assertEquals(1000, store.size());
+        assertEquals(999, store.getX(SampleStore.PRIMARY, 999));
+        assertEquals(9990L, store.getTime(SampleStore.PRIMARY, 999));
+        assertEquals(501, store.getX(slot, 500));
+        assertFalse(store.isValid(slot, 501));
+    }
+
+    @Test
+    public void testGetSample() {
+        final int index = store.addRow();
+        assertNull(store.getSample(SampleStore.PRIMARY, index));
+
+        store.set(SampleStore.PRIMARY, index, new Sample(7, 8, 9.0, 10.0, 11L));
+
+        final Sample sample = store.getSample(SampleStore.PRIMARY, index);
+        assertEquals(7, sample.x);
+        assertEquals(8, sample.y);
+        assertEquals(9.0, sample.lon, 1e-8);
+        assertEquals(10.0, sample.lat, 1e-8);
+        assertEquals(11L, sample.time);
+
+        store.set(SampleStore.PRIMARY, index, null);
+        assertFalse(store.isValid(SampleStore.PRIMARY, index));
+    }
+
+    @Test
+    public void testRetain() {
+        final int slot = store.getOrCreateSlot("sec");
+        for (int i = 0; i < 6; i++) {
+            final int index = store.addRow();
+            store.set(SampleStore.PRIMARY, index, i, 0, 0.0, 0.0, i);
+            if (i != 4) {
+                store.set(slot, index, 10 + i, 0, 0.0, 0.0, i);
+            }
+        }
+
+        final BitSet keep = new BitSet();
+        keep.set(1);
+        keep.set(3);
+        keep.set(4);
+        store.retain(keep);
+
+        assertEquals(3, store.size());
+        assertEquals(1, store.getX(SampleStore.PRIMARY, 0));
+        assertEquals(11, store.getX(slot, 0));
+        assertEquals(3, store.getX(SampleStore.PRIMARY, 1));
+        assertEquals(13, store.getX(slot, 1));
+        assertEquals(4, store.getX(SampleStore.PRIMARY, 2));
+        assertFalse(store.isValid(slot, 2));
+
+        // rows appended after retain must not inherit validity of removed rows
+        final int index = store.addRow();
+        assertFalse(store.isValid(SampleStore.PRIMARY, index));
+        assertFalse(store.isValid(slot, index));
+    }
+
+    @Test
+    public void testAddRow_fromOtherStore() {
+        final SampleStore source = new SampleStore();
+        final int sourceSlot_b = source.getOrCreateSlot("sec_b");
+        final int sourceIndex = source.addRow();
+        source.set(SampleStore.PRIMARY, sourceIndex, 1, 2, 3.0, 4.0, 5L);
+        source.set(sourceSlot_b, sourceIndex, 6, 7, 8.0, 9.0, 10L);
+
+        store.getOrCreateSlot("sec_a");
+        final int index = store.addRow(source, sourceIndex);
+
+        assertEquals(1, store.getX(SampleStore.PRIMARY, index));
+        final int slot_b = store.getSlot("sec_b");
+        assertEquals(2, slot_b);
+        assertEquals(6, store.getX(slot_b, index));
+        assertEquals(10L, store.getTime(slot_b, index));
+        assertFalse(store.isValid(store.getSlot("sec_a"), index));
+    }
+
+    @Test
+    public void testAddRows() {
+        final int index = store.addRow();
+        store.set(SampleStore.PRIMARY, index, 11, 12, 13.0, 14.0, 15L);
+
+        final SampleStore source = new SampleStore();
+        final int sourceSlot = source.getOrCreateSlot("sec");
+        for (int i = 0; i < 3; i++) {
+            final int sourceIndex = source.addRow();
+            source.set(SampleStore.PRIMARY, sourceIndex, i, i + 1, 0.5, 1.5, 100L + i);
+            source.set(sourceSlot, sourceIndex, i + 20, i + 21, 2.5, 3.5, 200L + i);
+        }
+
+        store.addRows(source);
+
+        assertEquals(4, store.size());
+        assertEquals(11, store.getX(SampleStore.PRIMARY, 0));
+        assertFalse(store.isValid(store.getSlot("sec"), 0));
+        assertEquals(2, store.getX(SampleStore.PRIMARY, 3));
+        assertEquals(102L, store.getTime(SampleStore.PRIMARY, 3));
+        assertEquals(22, store.getX(store.getSlot("sec"), 3));
+        assertEquals(202L, store.getTime(store.getSlot("sec"), 3));
+    }
+
+    @Test
+    public void testAsSampleSets_readAndWriteThrough() {
+        final int index = store.addRow();
+        store.set(SampleStore.PRIMARY, index, 1, 2, 3.0, 4.0, 5L);
+
+        final List<SampleSet> sampleSets = store.asSampleSets();
+        assertEquals(1, sampleSets.size());
+
+        final SampleSet sampleSet = sampleSets.get(0);
+        assertEquals(2, sampleSet.getPrimary().y);
+        assertNull(sampleSet.getSecondary("sec"));
+
+        sampleSet.setSecondary("sec", new Sample(11, 12, 13.0, 14.0, 15L));
+        assertEquals(11, store.getX(store.getSlot("sec"), index));
+    }
+
+    @Test
+    public void testAsSampleSets_secondarySensorNames() {
+        final int slot_a = store.getOrCreateSlot("sec_a");
+        final int slot_b = store.getOrCreateSlot("sec_b");
+        final int index_0 = store.addRow();
+        store.set(slot_a, index_0, 1, 2, 3.0, 4.0, 5L);
+        final int index_1 = store.addRow();
+        store.set(slot_a, index_1, 1, 2, 3.0, 4.0, 5L);
+        store.set(slot_b, index_1, 6, 7, 8.0, 9.0, 10L);
+        store.addRow();
+
+        final List<SampleSet> sampleSets = store.asSampleSets();
+        assertArrayEquals(new String[]{"sec_a"}, sampleSets.get(0).getSecondarySensorNames());
+        assertArrayEquals(new String[]{"sec_a", "sec_b"}, sampleSets.get(1).getSecondarySensorNames());
+        assertArrayEquals(new String[0], sampleSets.get(2).getSecondarySensorNames());
+
+        sampleSets.get(1).setSecondary("sec_a", null);
+        assertArrayEquals(new String[]{"sec_b"}, sampleSets.get(1).getSecondarySensorNames());
+    }
+
+    @Test
+    public void testAsSampleSets_addAndRemove() {
+        final List<SampleSet> sampleSets = store.asSampleSets();
+
+        for (int i = 0; i < 3; i++) {
+            final SampleSet sampleSet = new SampleSet();
+            sampleSet.setPrimary(new Sample(i, i, 0.0, 0.0, i));
+            sampleSet.setSecondary("sec", new Sample(10 + i, i, 0.0, 0.0, i));
+            sampleSets.add(sampleSet);
+        }
+        assertEquals(3, store.size());
+
+        final SampleSet removed = sampleSets.remove(1);
+        assertEquals(1, removed.getPrimary().x);
+        assertEquals(11, removed.getSecondary("sec").x);
+
+        assertEquals(2, store.size());
+        assertEquals(0, store.getX(SampleStore.PRIMARY, 0));
+        assertEquals(2, store.getX(SampleStore.PRIMARY, 1));
+        assertEquals(12, store.getX(store.getSlot("sec"), 1));
+
+        sampleSets.clear();
+        assertEquals(0, store.size());
+    }
+}
@@ -86,9 +86,9 @@ public class DistanceConditionTest {
 
         try {
             distanceCondition.apply(matchupSet, new ConditionEngineContext());
-            fail("NullPointerException expected");
-        } catch (NullPointerException expected) {
-            assertEquals(null, expected.getMessage());
+            fail("IllegalStateException expected");
+        } catch (IllegalStateException expected) {
+            assertEquals("No samples of secondary sensor: secName", expected.getMessage());
         }
     }
 
@@ -151,7 +151,7 @@ public class TimeDeltaConditionPluginTest {
         condition.apply(matchupSet, null);
 
         assertEquals(1, matchupSet.getNumObservations());
-        assertSame(expected, matchupSet.getSampleSets().get(0));
+        assertSampleTimes(matchupSet.getSampleSets().get(0), 0, "name1", 3000, "name2", 4000, "name3", 5000);
     }
 
     @Test
@@ -191,7 +191,7 @@ public class TimeDeltaConditionPluginTest {
         condition.apply(matchupSet, null);
 
         assertEquals(1, matchupSet.getNumObservations());
-        assertSame(validSampleSet, matchupSet.getSampleSets().get(0));
+        assertSampleTimes(matchupSet.getSampleSets().get(0), 10000, "a", 13000, "b", 7000, "c", 10500);
     }
 
     @Test
@@ -223,7 +223,7 @@ public class TimeDeltaConditionPluginTest {
         condition.apply(matchupSet, null);
 
         assertEquals(1, matchupSet.getNumObservations());
-        assertSame(expected, matchupSet.getSampleSets().get(0));
+        assertSampleTimes(matchupSet.getSampleSets().get(0), 0, "name1", 3000, "name2", 4000, "name3", 5000);
     }
 
     @Test
@@ -308,6 +308,13 @@ public class TimeDeltaConditionPluginTest {
         return invalidSampleSet_secName1;
     }
 
+    private static void assertSampleTimes(SampleSet sampleSet, long primaryTime, String name1, long time1, String name2, long time2, String name3, long time3) {
+        assertEquals(primaryTime, sampleSet.getPrimary().time);
+        assertEquals(time1, sampleSet.getSecondary(name1).time);
+        assertEquals(time2, sampleSet.getSecondary(name2).time);
+        assertEquals(time3, sampleSet.getSecondary(name3).time);
+    }
+
     private SampleSet createValidSampleSet() {
         final int millisecondsPrime = 0;
         final int milliSeconds1 = 3000;
@@ -92,9 +92,9 @@ public class TimeDeltaConditionTest {
         timeDeltaCondition.setSecondarySensorNames(secSensorName);
         try {
             timeDeltaCondition.apply(matchupSet, new ConditionEngineContext());
-            fail("NullPointerException expected");
-        } catch (NullPointerException expected) {
-            assertEquals(null, expected.getMessage());
+            fail("IllegalStateException expected");
+        } catch (IllegalStateException expected) {
+            assertEquals("No samples of secondary sensor: name", expected.getMessage());
         }
     }
 
@@ -118,7 +118,10 @@ public class TimeDeltaConditionTest {
 
         //verification
         assertEquals(1, matchupSet.getNumObservations());
-        assertSame(validSet, matchupSet.getSampleSets().get(0));
+        final SampleSet remainingSet = matchupSet.getSampleSets().get(0);
+        assertEquals(8, remainingSet.getSecondary("a").time);
+        assertEquals(4, remainingSet.getSecondary("b").time);
+        assertEquals(9, remainingSet.getSecondary("c").time);
     }
 
     private SampleSet createSampleSet(int primaryTime, int secondaryTime, String secSensorName) {
@@ -21,27 +21,43 @@
 package com.bc.fiduceo.matchup.strategy;
 
 import com.bc.fiduceo.TestUtil;
+import com.bc.fiduceo.core.SatelliteObservation;
 import com.bc.fiduceo.core.Sensor;
+import com.bc.fiduceo.core.SystemConfig;
 import com.bc.fiduceo.core.UseCaseConfig;
 import com.bc.fiduceo.core.UseCaseConfigBuilder;
 import com.bc.fiduceo.db.QueryParameter;
 import com.bc.fiduceo.geometry.Geometry;
 import com.bc.fiduceo.geometry.GeometryCollection;
+import com.bc.fiduceo.geometry.GeometryFactory;
+import com.bc.fiduceo.geometry.LineString;
 import com.bc.fiduceo.geometry.Polygon;
+import com.bc.fiduceo.geometry.TimeAxis;
 import com.bc.fiduceo.location.PixelLocator;
+import com.bc.fiduceo.matchup.MatchupCollection;
+import com.bc.fiduceo.matchup.MatchupSet;
+import com.bc.fiduceo.math.Intersection;
 import com.bc.fiduceo.reader.Reader;
 import com.bc.fiduceo.tool.ToolContext;
 import com.bc.fiduceo.util.TimeUtils;
 import org.junit.Test;
 
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.mockito.Matchers.same;
 import static org.mockito.Mockito.mock;
@@ -228,4 +244,231 @@ public class AbstractMatchupStrategyTest {
         verify(collection, times(2)).getGeometries();
         verifyNoMoreInteractions(collection);
     }
+
+    @Test
+    public void testGetNumWorkerThreads() {
+        final ToolContext context = new ToolContext();
+        assertEquals(1, AbstractMatchupStrategy.getNumWorkerThreads(context));
+
+        final SystemConfig systemConfig = mock(SystemConfig.class);
+        when(systemConfig.getWorkerThreads()).thenReturn(12);
+        context.setSystemConfig(systemConfig);
+        assertEquals(12, AbstractMatchupStrategy.getNumWorkerThreads(context));
+
+        when(systemConfig.getWorkerThreads()).thenReturn(0);
+        assertEquals(1, AbstractMatchupStrategy.getNumWorkerThreads(context));
+    }
+
+    @Test
+    public void testGetSecondaryReaderCacheSize() {
+        final ToolContext context = new ToolContext();
+        final SystemConfig systemConfig = mock(SystemConfig.class);
+        when(systemConfig.getReaderCacheSize()).thenReturn(2);
+        context.setSystemConfig(systemConfig);
+
+        final UseCaseConfig useCaseConfig = mock(UseCaseConfig.class);
+        when(useCaseConfig.getSecondarySensors()).thenReturn(Collections.singletonList(new Sensor("amsub-n15")));
+        context.setUseCaseConfig(useCaseConfig);
+        assertEquals(2, AbstractMatchupStrategy.getSecondaryReaderCacheSize(context));
+
+        when(useCaseConfig.getSecondarySensors()).thenReturn(Arrays.asList(new Sensor("amsub-n15"), new Sensor("mhs-n18"), new Sensor("ssmt2-f14")));
+        assertEquals(3, AbstractMatchupStrategy.getSecondaryReaderCacheSize(context));
+    }
+
+    @Test
+    public void testProcessPrimaryObservations_resultOrderIndependentOfThreads() throws Exception {
+        final List<SatelliteObservation> primaryObservations = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            final SatelliteObservation observation = new SatelliteObservation();
+            observation.setDataFilePath("primary_" + i);
+            primaryObservations.add(observation);
+        }
+
+        final AbstractMatchupStrategy.PrimaryObservationProcessor processor = primaryObservation -> {
+            final String fileName = primaryObservation.getDataFilePath().toString();
+            final int index = Integer.parseInt(fileName.substring(fileName.indexOf('_') + 1));
+            try {
+                // later observations finish first when run in parallel
+                Thread.sleep(5 * (12 - index));
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+
+            final MatchupSet matchupSet = new MatchupSet();
+            matchupSet.setPrimaryObservationPath(primaryObservation.getDataFilePath());
+            return Collections.singletonList(matchupSet);
+        };
+
+        final AbstractMatchupStrategy strategy = createStrategy();
+        final MatchupCollection sequential = strategy.processPrimaryObservations(primaryObservations, 1, processor);
+        final MatchupCollection parallel = strategy.processPrimaryObservations(primaryObservations, 4, processor);
+
+        final List<MatchupSet> sequentialSets = sequential.getSets();
+        final List<MatchupSet> parallelSets = parallel.getSets();
+        assertEquals(12, sequentialSets.size());
+        assertEquals(12, parallelSets.size());
+        for (int i = 0; i < 12; i++) {
+            assertEquals(Paths.get("primary_" + i), sequentialSets.get(i).getPrimaryObservationPath());
+            assertEquals(Paths.get("primary_" + i), parallelSets.get(i).getPrimaryObservationPath());
+        }
+    }
+
+    @Test
+    public void testProcessPrimaryObservations_boundedNumberOfPendingResults() throws Exception {
+        final List<SatelliteObservation> primaryObservations = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            final SatelliteObservation observation = new SatelliteObservation();
+            observation.setDataFilePath("primary_" + i);
+            primaryObservations.add(observation);
+        }
+
+        final AtomicInteger numStarted = new AtomicInteger();
+        final AtomicInteger numStartedWhileFirstRunning = new AtomicInteger();
+        final AbstractMatchupStrategy.PrimaryObservationProcessor processor = primaryObservation -> {
+            final int numStartedBefore = numStarted.getAndIncrement();
+            if (primaryObservation == primaryObservations.get(0)) {
+                try {
+                    // the result of the first observation is merged first, the second worker runs ahead meanwhile
+                    Thread.sleep(200);
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+                numStartedWhileFirstRunning.set(numStarted.get() - numStartedBefore);
+            }
+
+            final MatchupSet matchupSet = new MatchupSet();
+            matchupSet.setPrimaryObservationPath(primaryObservation.getDataFilePath());
+            return Collections.singletonList(matchupSet);
+        };
+
+        final AbstractMatchupStrategy strategy = createStrategy();
+        final MatchupCollection matchupCollection = strategy.processPrimaryObservations(primaryObservations, 2, processor);
+
+        assertEquals(20, matchupCollection.getSets().size());
+        // two threads hold at most four tasks not yet merged, the first one included
+        assertTrue(numStartedWhileFirstRunning.get() <= 4);
+    }
+
+    @Test
+    public void testProcessPrimaryObservations_parallelExceptionIsForwarded() throws Exception {
+        final List<SatelliteObservation> primaryObservations = new ArrayList<>();
+        primaryObservations.add(new SatelliteObservation());
+        primaryObservations.add(new SatelliteObservation());
+
+        final AbstractMatchupStrategy strategy = createStrategy();
+        try {
+            strategy.processPrimaryObservations(primaryObservations, 2, primaryObservation -> {
+                throw new java.io.IOException("broken file");
+            });
+            fail("IOException expected");
+        } catch (java.io.IOException expected) {
+            assertEquals("broken file", expected.getMessage());
+        }
+    }
+
+    @Test
+    public void testGetMatchingIntersections_noGeometricIntersection() {
+        final SatelliteObservation primary = createSatelliteObservation("POLYGON((2 1, 3 1, 3 2, 3 3, 3 4, 2 4, 2 3, 2 2, 2 1))",
+                "LINESTRING(2.5 1,2.5 2, 2.5 3, 2.5 4)");
+        final SatelliteObservation secondary = createSatelliteObservation("POLYGON((0 5, 0 4, 0 3, 0 2, 1 2, 1 3, 1 4, 1 5, 0 5))",
+                "LINESTRING(0 5, 0 4, 0 3, 0 2)");
+
+        final Intersection[] intersections = AbstractMatchupStrategy.getMatchingIntersections(primary, secondary, 10000);
+        assertEquals(0, intersections.length);
+    }
+
+    @Test
+    public void testGetMatchingIntersections_timeDelta() {
+        // the minimal time delta of these observations is 333 ms
+        final SatelliteObservation primary = createSatelliteObservation("POLYGON((2 4, 2 3, 2 2, 2 1, 3 1, 3 2, 3 3, 3 4, 2 4))",
+                "LINESTRING(2.5 4,2.5 3, 2.5 2, 2.5 1)");
+        final SatelliteObservation secondary = createSatelliteObservation("POLYGON((2.1 6, 2.1 5, 2.1 4, 2.1 3, 2.9 3, 2.9 4, 2.9 5, 2.9 6, 2.1 6))",
+                "LINESTRING(2.4 6, 2.4 5, 2.4 4, 2.4 3)");
+
+        Intersection[] intersections = AbstractMatchupStrategy.getMatchingIntersections(primary, secondary, 400);
+        assertEquals(1, intersections.length);
+        assertEquals(333, intersections[0].getTimeInfo().getMinimalTimeDelta());
+
+        intersections = AbstractMatchupStrategy.getMatchingIntersections(primary, secondary, 300);
+        assertEquals(0, intersections.length);
+    }
+
+    @Test
+    public void testGetSecondaryCandidates() {
+        final SatelliteObservation primary = createSatelliteObservation("POLYGON((2 1, 3 1, 3 2, 3 3, 3 4, 2 4, 2 3, 2 2, 2 1))",
+                "LINESTRING(2.5 1,2.5 2, 2.5 3, 2.5 4)");
+        final SatelliteObservation matching_a = createSatelliteObservation("POLYGON((2.1 6, 2.1 5, 2.1 4, 2.1 3, 2.9 3, 2.9 4, 2.9 5, 2.9 6, 2.1 6))",
+                "LINESTRING(2.4 6, 2.4 5, 2.4 4, 2.4 3)");
+        final SatelliteObservation disjoint_a = createSatelliteObservation("POLYGON((0 5, 0 4, 0 3, 0 2, 1 2, 1 3, 1 4, 1 5, 0 5))",
+                "LINESTRING(0 5, 0 4, 0 3, 0 2)");
+        final SatelliteObservation matching_b = createSatelliteObservation("POLYGON((2.2 2.5, 2.8 2.5, 2.8 3, 2.8 3.5, 2.2 3.5, 2.2 3, 2.2 2.5))",
+                "LINESTRING(2.5 2.5, 2.5 3, 2.5 3.5)");
+
+        final UseCaseConfig useCaseConfig = mock(UseCaseConfig.class);
+        when(useCaseConfig.getSecondarySensors()).thenReturn(Arrays.asList(new Sensor("sensor_a"), new Sensor("sensor_b")));
+
+        final Map<String, List<SatelliteObservation>> mapSecondaryObservations = new HashMap<>();
+        mapSecondaryObservations.put("sensor_a", Arrays.asList(disjoint_a, matching_a));
+        mapSecondaryObservations.put("sensor_b", Collections.singletonList(matching_b));
+
+        final SecondaryReaderProvider readerProvider = mock(SecondaryReaderProvider.class);
+
+        final List<SecondaryCandidates> secondaryCandidates = createStrategy().getSecondaryCandidates(primary, mapSecondaryObservations, useCaseConfig, 10000, readerProvider);
+        assertEquals(2, secondaryCandidates.size());
+
+        final SecondaryCandidates candidates_a = secondaryCandidates.get(0);
+        assertEquals("sensor_a", candidates_a.getSensorName());
+        assertEquals(1, candidates_a.size());
+        assertSame(matching_a, candidates_a.getObservation(0));
+        assertEquals(1, candidates_a.getIntersections(0).length);
+
+        final SecondaryCandidates candidates_b = secondaryCandidates.get(1);
+        assertEquals("sensor_b", candidates_b.getSensorName());
+        assertEquals(1, candidates_b.size());
+        assertSame(matching_b, candidates_b.getObservation(0));
+
+        verify(readerProvider, times(1)).countRejected();
+        verifyNoMoreInteractions(readerProvider);
+    }
+
+    @Test
+    public void testGetSecondaryCandidates_oneSensorWithoutCandidates() {
+        final SatelliteObservation primary = createSatelliteObservation("POLYGON((2 1, 3 1, 3 2, 3 3, 3 4, 2 4, 2 3, 2 2, 2 1))",
+                "LINESTRING(2.5 1,2.5 2, 2.5 3, 2.5 4)");
+        final SatelliteObservation matching_a = createSatelliteObservation("POLYGON((2.1 6, 2.1 5, 2.1 4, 2.1 3, 2.9 3, 2.9 4, 2.9 5, 2.9 6, 2.1 6))",
+                "LINESTRING(2.4 6, 2.4 5, 2.4 4, 2.4 3)");
+        final SatelliteObservation disjoint_b = createSatelliteObservation("POLYGON((0 5, 0 4, 0 3, 0 2, 1 2, 1 3, 1 4, 1 5, 0 5))",
+                "LINESTRING(0 5, 0 4, 0 3, 0 2)");
+
+        final UseCaseConfig useCaseConfig = mock(UseCaseConfig.class);
+        when(useCaseConfig.getSecondarySensors()).thenReturn(Arrays.asList(new Sensor("sensor_a"), new Sensor("sensor_b")));
+
+        final Map<String, List<SatelliteObservation>> mapSecondaryObservations = new HashMap<>();
+        mapSecondaryObservations.put("sensor_a", Collections.singletonList(matching_a));
+        mapSecondaryObservations.put("sensor_b", Collections.singletonList(disjoint_b));
+
+        final SecondaryReaderProvider readerProvider = mock(SecondaryReaderProvider.class);
+
+        final List<SecondaryCandidates> secondaryCandidates = createStrategy().getSecondaryCandidates(primary, mapSecondaryObservations, useCaseConfig, 10000, readerProvider);
+        assertEquals(0, secondaryCandidates.size());
+    }
+
+    private static SatelliteObservation createSatelliteObservation(String polygonWkt, String lineWkt) {
+        final GeometryFactory geometryFactory = new GeometryFactory(GeometryFactory.Type.S2);
+        final LineString lineString = (LineString) geometryFactory.parse(lineWkt);
+        final TimeAxis timeAxis = geometryFactory.createTimeAxis(lineString, new Date(1000), new Date(2000));
+        final SatelliteObservation observation = new SatelliteObservation();
+        observation.setGeoBounds(geometryFactory.parse(polygonWkt));
+        observation.setTimeAxes(new TimeAxis[]{timeAxis});
+        return observation;
+    }
+
+    private static AbstractMatchupStrategy createStrategy() {
+        return new AbstractMatchupStrategy(Logger.getAnonymousLogger()) {
+            @Override
+            public MatchupCollection createMatchupCollection(ToolContext context) {
+                throw new RuntimeException("not implemented");
+            }
+        };
+    }
 }
@@ -0,0 +1,146 @@
+/*
+ * Copyright (C) 2016 Brockmann Consult GmbH
+ * This code was developed for the EC project "Fidelity and Uncertainty in
+ * Climate Data Records from Earth Observations (FIDUCEO)".
+ * Grant Agreement: 638822
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * A copy of the GNU General Public License should have been supplied along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ *
+ */
+
+package com.bc.fiduceo.matchup.strategy;
+
+import com.bc.fiduceo.core.SatelliteObservation;
+import com.bc.fiduceo.db.QueryParameter;
+import com.bc.fiduceo.db.Storage;
+import com.bc.fiduceo.geometry.GeometryFactory;
+import com.bc.fiduceo.util.TimeUtils;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ObservationCatalogueTest {
+
+    private Storage storage;
+    private GeometryFactory geometryFactory;
+    private ObservationCatalogue catalogue;
+
+    @Before
+    public void setUp() {
+        storage = mock(Storage.class);
+        geometryFactory = new GeometryFactory(GeometryFactory.Type.S2);
+        catalogue = new ObservationCatalogue(storage, TimeUtils.create(100000L), TimeUtils.create(900000L));
+    }
+
+    @Test
+    public void testCovers() {
+        assertTrue(catalogue.covers(TimeUtils.create(100000L), TimeUtils.create(900000L)));
+        assertTrue(catalogue.covers(TimeUtils.create(200000L), TimeUtils.create(300000L)));
+
+        assertFalse(catalogue.covers(TimeUtils.create(99999L), TimeUtils.create(300000L)));
+        assertFalse(catalogue.covers(TimeUtils.create(200000L), TimeUtils.create(900001L)));
+    }
+
+    @Test
+    public void testGet_timeInterval_inLoadOrder() throws SQLException {
+        final List<SatelliteObservation> observations = new ArrayList<>();
+        observations.add(createObservation(500000L, 600000L, null));
+        observations.add(createObservation(100000L, 200000L, null));
+        observations.add(createObservation(150000L, 700000L, null));
+        observations.add(createObservation(300000L, 400000L, null));
+        when(storage.get(any(QueryParameter.class))).thenReturn(observations);
+
+        List<SatelliteObservation> result = catalogue.get(createParameter(350000L, 550000L, null));
+        assertEquals(3, result.size());
+        assertSame(observations.get(0), result.get(0));
+        assertSame(observations.get(2), result.get(1));
+        assertSame(observations.get(3), result.get(2));
+
+        result = catalogue.get(createParameter(610000L, 800000L, null));
+        assertEquals(1, result.size());
+        assertSame(observations.get(2), result.get(0));
+
+        result = catalogue.get(createParameter(710000L, 800000L, null));
+        assertEquals(0, result.size());
+
+        verify(storage, times(1)).get(any(QueryParameter.class));
+    }
+
+    @Test
+    public void testGet_searchGeometry() throws SQLException {
+        final List<SatelliteObservation> observations = new ArrayList<>();
+        observations.add(createObservation(100000L, 200000L, "POLYGON((0 0, 10 0, 10 10, 0 10, 0 0))"));
+        observations.add(createObservation(100000L, 200000L, "POLYGON((50 50, 60 50, 60 60, 50 60, 50 50))"));
+        observations.add(createObservation(100000L, 200000L, null));
+        when(storage.get(any(QueryParameter.class))).thenReturn(observations);
+
+        final String searchWkt = "POLYGON((5 5, 20 5, 20 20, 5 20, 5 5))";
+        final List<SatelliteObservation> result = catalogue.get(createParameter(150000L, 160000L, searchWkt));
+        assertEquals(2, result.size());
+        assertSame(observations.get(0), result.get(0));
+        assertSame(observations.get(2), result.get(1));
+    }
+
+    @Test
+    public void testGet_noObservations() throws SQLException {
+        when(storage.get(any(QueryParameter.class))).thenReturn(new ArrayList<>());
+
+        final List<SatelliteObservation> result = catalogue.get(createParameter(150000L, 160000L, null));
+        assertEquals(0, result.size());
+    }
+
+    @Test
+    public void testGet_intervalNotCovered() throws SQLException {
+        try {
+            catalogue.get(createParameter(50000L, 160000L, null));
+            fail("IllegalArgumentException expected");
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+
+    private SatelliteObservation createObservation(long startMillis, long stopMillis, String geoBoundsWkt) {
+        final SatelliteObservation observation = new SatelliteObservation();
+        observation.setStartTime(TimeUtils.create(startMillis));
+        observation.setStopTime(TimeUtils.create(stopMillis));
+        if (geoBoundsWkt != null) {
+            observation.setGeoBounds(geometryFactory.parse(geoBoundsWkt));
+        }
+        return observation;
+    }
+
+    private QueryParameter createParameter(long startMillis, long stopMillis, String searchWkt) {
+        final QueryParameter parameter = new QueryParameter();
+        parameter.setSensorName("the_sensor");
+        parameter.setStartTime(TimeUtils.create(startMillis));
+        parameter.setStopTime(TimeUtils.create(stopMillis));
+        if (searchWkt != null) {
+            parameter.setGeometry(geometryFactory.parse(searchWkt));
+        }
+        return parameter;
+    }
+}
@@ -0,0 +1,183 @@
+/*
+ * Copyright (C) 2016 Brockmann Consult GmbH
+ * This code was developed for the EC project "Fidelity and Uncertainty in
+ * Climate Data Records from Earth Observations (FIDUCEO)".
+ * Grant Agreement: 638822
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * A copy of the GNU General Public License should have been supplied along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ *
+ */
+
+package com.bc.fiduceo.matchup.strategy;
+
+import org.junit.Test;
+
+import java.awt.geom.Line2D;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PolygonRasterizerTest {
+
+    @Test
+    public void testRasterize_rectangle() {
+        final PolygonRasterizer rasterizer = new PolygonRasterizer();
+        addRing(rasterizer, new double[]{2.0, 3.0, 5.0, 3.0, 5.0, 5.0, 2.0, 5.0}, 0.0);
+
+        final List<int[]> pixels = rasterize(rasterizer, 0, 0, 10, 10);
+        assertEquals(6, pixels.size());
+        assertPixel(2, 3, false, pixels.get(0));
+        assertPixel(3, 3, false, pixels.get(1));
+        assertPixel(4, 3, false, pixels.get(2));
+        assertPixel(2, 4, false, pixels.get(3));
+        assertPixel(3, 4, false, pixels.get(4));
+        assertPixel(4, 4, false, pixels.get(5));
+    }
+
+    @Test
+    public void testRasterize_rectangle_withMargin() {
+        final PolygonRasterizer rasterizer = new PolygonRasterizer();
+        addRing(rasterizer, new double[]{2.0, 2.0, 8.0, 2.0, 8.0, 8.0, 2.0, 8.0}, 1.0);
+
+        final List<int[]> pixels = rasterize(rasterizer, 0, 0, 10, 10);
+        // the pixels up to one pixel off the edges are border pixels, this includes one row and column outside
+        assertEquals(64, pixels.size());
+        assertPixel(1, 1, true, pixels.get(0));
+        for (final int[] pixel : pixels) {
+            final boolean interior = pixel[0] >= 3 && pixel[0] <= 6 && pixel[1] >= 3 && pixel[1] <= 6;
+            assertEquals(!interior, pixel[2] == 1);
+        }
+    }
+
+    @Test
+    public void testRasterize_clippedToRectangle() {
+        final PolygonRasterizer rasterizer = new PolygonRasterizer();
+        addRing(rasterizer, new double[]{0.0, 0.0, 20.0, 0.0, 20.0, 20.0, 0.0, 20.0}, 0.0);
+
+        final List<int[]> pixels = rasterize(rasterizer, 5, 6, 7, 7);
+        assertEquals(6, pixels.size());
+        assertPixel(5, 6, false, pixels.get(0));
+        assertPixel(7, 7, false, pixels.get(5));
+    }
+
+    @Test
+    public void testRasterize_withHole() {
+        final PolygonRasterizer rasterizer = new PolygonRasterizer();
+        addRing(rasterizer, new double[]{0.0, 0.0, 6.0, 0.0, 6.0, 6.0, 0.0, 6.0}, 0.0);
+        addRing(rasterizer, new double[]{2.0, 2.0, 4.0, 2.0, 4.0, 4.0, 2.0, 4.0}, 0.0);
+
+        final List<int[]> pixels = rasterize(rasterizer, 0, 0, 10, 10);
+        assertEquals(32, pixels.size());
+        for (final int[] pixel : pixels) {
+            assertFalse(pixel[0] >= 2 && pixel[0] <= 3 && pixel[1] >= 2 && pixel[1] <= 3);
+        }
+    }
+
+    @Test
+    public void testRasterize_noEdges() {
+        final PolygonRasterizer rasterizer = new PolygonRasterizer();
+
+        assertEquals(0, rasterize(rasterizer, 0, 0, 10, 10).size());
+    }
+
+    @Test
+    public void testRasterize_randomPolygons() {
+        final Random random = new Random(1287);
+        for (int k = 0; k < 20; k++) {
+            // star shaped polygon around (30, 30), self-intersection free
+            final int numVertices = 5 + random.nextInt(30);
+            final double[] ring = new double[2 * numVertices];
+            for (int i = 0; i < numVertices; i++) {
+                final double angle = 2.0 * Math.PI * i / numVertices;
+                final double radius = 5.0 + random.nextDouble() * 20.0;
+                ring[2 * i] = 30.0 + radius * Math.cos(angle);
+                ring[2 * i + 1] = 30.0 + radius * Math.sin(angle);
+            }
+            final double margin = random.nextDouble() * 2.0;
+
+            final PolygonRasterizer rasterizer = new PolygonRasterizer();
+            addRing(rasterizer, ring, margin);
+            final List<int[]> pixels = rasterize(rasterizer, 0, 0, 59, 59);
+
+            int index = 0;
+            for (int y = 0; y < 60; y++) {
+                for (int x = 0; x < 60; x++) {
+                    final boolean inside = isInside(ring, x + 0.5, y + 0.5);
+                    final boolean nearEdge = getEdgeDistance(ring, x + 0.5, y + 0.5) < margin;
+                    if (index < pixels.size() && pixels.get(index)[0] == x && pixels.get(index)[1] == y) {
+                        final boolean border = pixels.get(index)[2] == 1;
+                        assertTrue(inside || border);
+                        if (nearEdge) {
+                            assertTrue(border);
+                        }
+                        index++;
+                    } else {
+                        assertFalse(inside);
+                        assertFalse(nearEdge);
+                    }
+                }
+            }
+            // row major order without duplicates
+            assertEquals(pixels.size(), index);
+        }
+    }
+
+    private static void addRing(PolygonRasterizer rasterizer, double[] ring, double margin) {
+        final int numVertices = ring.length / 2;
+        for (int i = 0; i < numVertices; i++) {
+            final int j = (i + 1) % numVertices;
+            rasterizer.addEdge(ring[2 * i], ring[2 * i + 1], ring[2 * j], ring[2 * j + 1], margin);
+        }
+    }
+
+    private static List<int[]> rasterize(PolygonRasterizer rasterizer, int minX, int minY, int maxX, int maxY) {
+        final List<int[]> pixels = new ArrayList<>();
+        rasterizer.rasterize(minX, minY, maxX, maxY, (x, y, border) -> pixels.add(new int[]{x, y, border ? 1 : 0}));
+        return pixels;
+    }
+
+    private static void assertPixel(int x, int y, boolean border, int[] pixel) {
+        assertEquals(x, pixel[0]);
+        assertEquals(y, pixel[1]);
+        assertEquals(border ? 1 : 0, pixel[2]);
+    }
+
+    private static boolean isInside(double[] ring, double x, double y) {
+        final int numVertices = ring.length / 2;
+        boolean inside = false;
+        for (int i = 0, j = numVertices - 1; i < numVertices; j = i++) {
+            final double xi = ring[2 * i];
+            final double yi = ring[2 * i + 1];
+            final double xj = ring[2 * j];
+            final double yj = ring[2 * j + 1];
+            if ((yi > y) != (yj > y) && x < (xj - xi) * (y - yi) / (yj - yi) + xi) {
+                inside = !inside;
+            }
+        }
+        return inside;
+    }
+
+    private static double getEdgeDistance(double[] ring, double x, double y) {
+        final int numVertices = ring.length / 2;
+        double distance = Double.MAX_VALUE;
+        for (int i = 0; i < numVertices; i++) {
+            final int j = (i + 1) % numVertices;
+            distance = Math.min(distance, Line2D.ptSegDist(ring[2 * i], ring[2 * i + 1], ring[2 * j], ring[2 * j + 1], x, y));
+        }
+        return distance;
+    }
+}
@@ -30,6 +30,7 @@ import com.bc.fiduceo.location.PixelLocator;
 import com.bc.fiduceo.matchup.MatchupSet;
 import com.bc.fiduceo.core.Sample;
 import com.bc.fiduceo.matchup.SampleSet;
+import com.bc.fiduceo.matchup.SampleStore;
 import com.bc.fiduceo.reader.TimeLocator;
 import com.bc.fiduceo.tool.ToolContext;
 import org.junit.*;
@@ -102,7 +103,7 @@ public class SampleCollectorTest {
         matchupSet.addPrimary(new Sample(2, 3, 4.5, 5.5, 100L));
         matchupSet.addPrimary(new Sample(6, 7, 8.5, 9.5, 200L));
 
-        final List<SampleSet> sampleSets = collector.addSecondarySamples(matchupSet.getSampleSets(), new TestTimeLocator(), SampleSet.getOnlyOneSecondaryKey());
+        final List<SampleSet> sampleSets = collector.addSecondarySamples(matchupSet.getSampleStore(), new TestTimeLocator(), SampleSet.getOnlyOneSecondaryKey()).asSampleSets();
 
         assertEquals(2, sampleSets.size());
 
@@ -141,13 +142,15 @@ public class SampleCollectorTest {
         matchupSet.addPrimary(primaryOne);
         matchupSet.addPrimary(primaryTwo);
 
-        final List<SampleSet> sampleSets = collector.addSecondarySamples(matchupSet.getSampleSets(), new TestTimeLocator(), SampleSet.getOnlyOneSecondaryKey());
+        final List<SampleSet> sampleSets = collector.addSecondarySamples(matchupSet.getSampleStore(), new TestTimeLocator(), SampleSet.getOnlyOneSecondaryKey()).asSampleSets();
 
         assertEquals(1, sampleSets.size());
 
         SampleSet sampleSet = sampleSets.get(0);
         Sample primary = sampleSet.getPrimary();
-        assertSame(primaryTwo, primary);
+        assertEquals(6, primary.x);
+        assertEquals(7, primary.y);
+        assertEquals(200L, primary.time);
         final Sample secondary = sampleSet.getSecondary(SampleSet.getOnlyOneSecondaryKey());
         assertNotNull(secondary);
         assertEquals(34.321, secondary.lat, 1e-8);
@@ -157,6 +160,165 @@ public class SampleCollectorTest {
         assertEquals(14012, secondary.time);
     }
 
+    @Test
+    public void testAddSecondarySamples_multiplePixelLocations() throws Exception {
+        final PixelLocator locator = Mockito.mock(PixelLocator.class);
+        collector = new SampleCollector(context, locator);
+
+        when(locator.getPixelLocation(4.5, 5.5)).thenReturn(new Point2D[]{new Point2D.Double(12.3, 14.8), new Point2D.Double(22.6, 24.1)});
+        when(locator.getGeoLocation(eq(12.5), eq(14.5), isA(Point2D.class))).thenReturn(new Point2D.Double(170.123, 34.321));
+        when(locator.getGeoLocation(eq(22.5), eq(24.5), isA(Point2D.class))).thenReturn(new Point2D.Double(-10.5, 11.6));
+
+        final MatchupSet matchupSet = new MatchupSet();
+        matchupSet.addPrimary(new Sample(2, 3, 4.5, 5.5, 100L));
+
+        final SampleStore sampleStore = collector.addSecondarySamples(matchupSet.getSampleStore(), new TestTimeLocator(), "the_secondary");
+        assertEquals(2, sampleStore.size());
+
+        final int secondarySlot = sampleStore.getSlot("the_secondary");
+        assertEquals(2, sampleStore.getX(SampleStore.PRIMARY, 0));
+        assertEquals(12, sampleStore.getX(secondarySlot, 0));
+        assertEquals(14, sampleStore.getY(secondarySlot, 0));
+        assertEquals(170.123, sampleStore.getLon(secondarySlot, 0), 1e-8);
+
+        assertEquals(2, sampleStore.getX(SampleStore.PRIMARY, 1));
+        assertEquals(100L, sampleStore.getTime(SampleStore.PRIMARY, 1));
+        assertEquals(22, sampleStore.getX(secondarySlot, 1));
+        assertEquals(24, sampleStore.getY(secondarySlot, 1));
+        assertEquals(11.6, sampleStore.getLat(secondarySlot, 1), 1e-8);
+        assertEquals(24022L, sampleStore.getTime(secondarySlot, 1));
+
+        // the input is not modified
+        assertEquals(1, matchupSet.getNumObservations());
+        assertEquals(-1, matchupSet.getSampleStore().getSlot("the_secondary"));
+    }
+
+    @Test
+    public void testAddPrimarySamples_triangle() {
+        final Polygon polygon = factory.createPolygon(createPoints(new double[]{
+                1, 1,
+                9, 1,
+                1, 7,
+                1, 1
+        }));
+
+        final MatchupSet matchupSet = new MatchupSet();
+        collector.addPrimarySamples(polygon, matchupSet, new TestTimeLocator());
+
+        // the rasterized samples equal the pixels with a center inside the polygon, in row major order
+        final List<SampleSet> sampleSets = matchupSet.getSampleSets();
+        int index = 0;
+        for (int y = 14; y <= 20; y++) {
+            for (int x = 12; x <= 20; x++) {
+                if (polygon.contains(factory.createPoint(x - 11 + 0.5, y - 13 + 0.5))) {
+                    final Sample primary = sampleSets.get(index).getPrimary();
+                    assertEquals("Index = " + index, x, primary.x);
+                    assertEquals("Index = " + index, y, primary.y);
+                    assertEquals("Index = " + index, x + 1000 * y, primary.time);
+                    index++;
+                }
+            }
+        }
+        assertEquals(index, sampleSets.size());
+        assertTrue(index > 10);
+    }
+
+    @Test
+    public void testAddPrimarySamples_polarSwath_equalsFullScan() {
+        // a band across the north pole, the long edges are great circles passing 16 degrees north of the
+        // lon/lat midpoints of their vertices, this is about 180 pixels at 10 km resolution
+        final Polygon polygon = factory.createPolygon(createPoints(new double[]{
+                -10, 70,
+                10, 70,
+                170, 70,
+                -170, 70,
+                -10, 70
+        }));
+        assertTrue(polygon.contains(factory.createPoint(0, 89.9)));
+
+        final PixelLocator pixelLocator = new PolarStereographicPixelLocator(10.0);
+        final SampleCollector polarCollector = new SampleCollector(context, pixelLocator);
+        final MatchupSet matchupSet = new MatchupSet();
+        polarCollector.addPrimarySamples(polygon, matchupSet, new TestTimeLocator());
+
+        assertSamplesEqual(scanPixelsInside(polygon, pixelLocator), matchupSet.getSampleStore());
+    }
+
+    @Test
+    public void testAddPrimarySamples_highLatitudeGrid_equalsFullScan() {
+        // on a lon/lat grid the lon/lat midpoints of the edges are on the straight pixel edges, the great circle
+        // of the southern edge runs up to 74.6 degrees north, this is 46 pixels at 0.1 degree resolution
+        final Polygon polygon = factory.createPolygon(createPoints(new double[]{
+                -40, 70,
+                40, 70,
+                40, 80,
+                -40, 80,
+                -40, 70
+        }));
+        assertFalse(polygon.contains(factory.createPoint(0, 72)));
+
+        final PixelLocator pixelLocator = new LonLatGridPixelLocator(0.1);
+        final SampleCollector gridCollector = new SampleCollector(context, pixelLocator);
+        final MatchupSet matchupSet = new MatchupSet();
+        gridCollector.addPrimarySamples(polygon, matchupSet, new TestTimeLocator());
+
+        assertSamplesEqual(scanPixelsInside(polygon, pixelLocator), matchupSet.getSampleStore());
+    }
+
+    @Test
+    public void testGetRings_S2() {
+        final Polygon polygon = factory.createPolygon(createPoints(new double[]{
+                1, 1,
+                3, 1,
+                3, 3,
+                1, 3,
+                1, 1
+        }));
+
+        final List<double[]> rings = SampleCollector.getRings(polygon);
+        assertEquals(1, rings.size());
+        assertEquals(8, rings.get(0).length);
+    }
+
+    @Test
+    public void testGetRings_JTS() {
+        final GeometryFactory jtsFactory = new GeometryFactory(GeometryFactory.Type.JTS);
+        final List<Point> points = new ArrayList<>();
+        points.add(jtsFactory.createPoint(1, 1));
+        points.add(jtsFactory.createPoint(3, 1));
+        points.add(jtsFactory.createPoint(3, 3));
+        points.add(jtsFactory.createPoint(1, 3));
+        points.add(jtsFactory.createPoint(1, 1));
+        final Polygon polygon = jtsFactory.createPolygon(points);
+
+        final List<double[]> rings = SampleCollector.getRings(polygon);
+        assertEquals(1, rings.size());
+        final double[] ring = rings.get(0);
+        assertEquals(8, ring.length);
+        for (final double coordinate : ring) {
+            assertTrue(coordinate == 1.0 || coordinate == 3.0);
+        }
+    }
+
+    @Test
+    public void testGetMidpoint() {
+        assertArrayEquals(new double[]{2.0, 3.0}, SampleCollector.getMidpoint(1.0, 2.0, 3.0, 4.0), 1e-8);
+        assertArrayEquals(new double[]{-2.5, -10.0}, SampleCollector.getMidpoint(-5.0, -20.0, 0.0, 0.0), 1e-8);
+    }
+
+    @Test
+    public void testGetMidpoint_antiMeridian() {
+        assertArrayEquals(new double[]{180.0, 1.0}, SampleCollector.getMidpoint(179.0, 0.0, -179.0, 2.0), 1e-8);
+        assertArrayEquals(new double[]{-179.5, 1.0}, SampleCollector.getMidpoint(-179.0, 0.0, 180.0, 2.0), 1e-8);
+    }
+
+    @Test
+    public void testGetGeodesicMidpoint() {
+        assertArrayEquals(new double[]{0.0, 0.0}, SampleCollector.getGeodesicMidpoint(-10.0, 0.0, 10.0, 0.0), 1e-8);
+        assertArrayEquals(new double[]{90.0, 86.3836}, SampleCollector.getGeodesicMidpoint(10.0, 70.0, 170.0, 70.0), 1e-4);
+        assertArrayEquals(new double[]{180.0, 0.0}, SampleCollector.getGeodesicMidpoint(179.0, 0.0, -179.0, 0.0), 1e-8);
+    }
+
     @Test
     public void testPointInPolygonTest_GeometriesCreatedByFactory() throws Exception {
         final Polygon polygon = factory.createPolygon(createPoints(new double[]{
@@ -179,6 +341,41 @@ public class SampleCollectorTest {
         return points;
     }
 
+    private void assertSamplesEqual(List<Point2D> expected, SampleStore sampleStore) {
+        assertEquals(expected.size(), sampleStore.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals("Index = " + i, (int) expected.get(i).getX(), sampleStore.getX(SampleStore.PRIMARY, i));
+            assertEquals("Index = " + i, (int) expected.get(i).getY(), sampleStore.getY(SampleStore.PRIMARY, i));
+        }
+        assertTrue(expected.size() > 5000);
+    }
+
+    // the pixels of the vertex bounding box with a center inside the polygon, in row major order
+    private List<Point2D> scanPixelsInside(Polygon polygon, PixelLocator pixelLocator) {
+        double minX = Double.MAX_VALUE;
+        double maxX = -Double.MAX_VALUE;
+        double minY = Double.MAX_VALUE;
+        double maxY = -Double.MAX_VALUE;
+        for (final Point point : polygon.getCoordinates()) {
+            final Point2D pixel = pixelLocator.getPixelLocation(point.getLon(), point.getLat())[0];
+            minX = Math.min(minX, pixel.getX());
+            maxX = Math.max(maxX, pixel.getX());
+            minY = Math.min(minY, pixel.getY());
+            maxY = Math.max(maxY, pixel.getY());
+        }
+
+        final List<Point2D> pixels = new ArrayList<>();
+        for (int y = (int) minY; y <= (int) maxY; y++) {
+            for (int x = (int) minX; x <= (int) maxX; x++) {
+                final Point2D geoLocation = pixelLocator.getGeoLocation(x + 0.5, y + 0.5, null);
+                if (polygon.contains(factory.createPoint(geoLocation.getX(), geoLocation.getY()))) {
+                    pixels.add(new Point2D.Double(x, y));
+                }
+            }
+        }
+        return pixels;
+    }
+
     private class OffsetPixelLocator implements PixelLocator {
 
         private final int offsetX;
@@ -200,6 +397,57 @@ public class SampleCollectorTest {
         }
     }
 
+    // lon/lat grid with the first row at 90 degrees north and the first column at 180 degrees west
+    private class LonLatGridPixelLocator implements PixelLocator {
+
+        private final double resolution;
+
+        LonLatGridPixelLocator(double resolution) {
+            this.resolution = resolution;
+        }
+
+        @Override
+        public Point2D getGeoLocation(double x, double y, Point2D g) {
+            return new Point2D.Double(x * resolution - 180.0, 90.0 - y * resolution);
+        }
+
+        @Override
+        public Point2D[] getPixelLocation(double lon, double lat) {
+            return new Point2D[]{new Point2D.Double((lon + 180.0) / resolution, (90.0 - lat) / resolution)};
+        }
+    }
+
+    // north polar stereographic projection centered in a 1000 x 1000 pixel image
+    private class PolarStereographicPixelLocator implements PixelLocator {
+
+        private static final double EARTH_RADIUS_KM = 6371.0;
+        private static final double CENTER = 500.0;
+
+        private final double kmPerPixel;
+
+        PolarStereographicPixelLocator(double kmPerPixel) {
+            this.kmPerPixel = kmPerPixel;
+        }
+
+        @Override
+        public Point2D getGeoLocation(double x, double y, Point2D g) {
+            final double dx = (x - CENTER) * kmPerPixel;
+            final double dy = (y - CENTER) * kmPerPixel;
+            final double r = Math.sqrt(dx * dx + dy * dy);
+            final double lat = 90.0 - 2.0 * Math.toDegrees(Math.atan(r / (2.0 * EARTH_RADIUS_KM)));
+            final double lon = Math.toDegrees(Math.atan2(dx, dy));
+            return new Point2D.Double(lon, lat);
+        }
+
+        @Override
+        public Point2D[] getPixelLocation(double lon, double lat) {
+            final double r = 2.0 * EARTH_RADIUS_KM * Math.tan(Math.toRadians(90.0 - lat) / 2.0) / kmPerPixel;
+            final double x = CENTER + r * Math.sin(Math.toRadians(lon));
+            final double y = CENTER + r * Math.cos(Math.toRadians(lon));
+            return new Point2D[]{new Point2D.Double(x, y)};
+        }
+    }
+
     private class TestTimeLocator implements TimeLocator {
 
         @Override
@@ -0,0 +1,85 @@
+/*
+ * Copyright (C) 2016 Brockmann Consult GmbH
+ * This code was developed for the EC project "Fidelity and Uncertainty in
+ * Climate Data Records from Earth Observations (FIDUCEO)".
+ * Grant Agreement: 638822
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * A copy of the GNU General Public License should have been supplied along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ *
+ */
+
+package com.bc.fiduceo.matchup.strategy;
+
+import com.bc.fiduceo.geometry.GeometryFactory;
+import com.bc.fiduceo.reader.ReaderFactory;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+
+public class SecondaryReaderProviderTest {
+
+    private SecondaryReaderProvider readerProvider;
+
+    @Before
+    public void setUp() {
+        final ReaderFactory readerFactory = ReaderFactory.get(new GeometryFactory(GeometryFactory.Type.S2));
+        readerProvider = new SecondaryReaderProvider(readerFactory, 4);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        readerProvider.close();
+    }
+
+    @Test
+    public void testCounters_initial() {
+        assertEquals(0, readerProvider.getNumCandidates());
+        assertEquals(0, readerProvider.getNumRejected());
+        assertEquals(0, readerProvider.getNumReadersOpened());
+        assertEquals(0, readerProvider.getNumOpensAvoided());
+    }
+
+    @Test
+    public void testCountRejected() {
+        readerProvider.countRejected();
+        readerProvider.countRejected();
+        readerProvider.countRejected();
+
+        assertEquals(3, readerProvider.getNumCandidates());
+        assertEquals(3, readerProvider.getNumRejected());
+        assertEquals(0, readerProvider.getNumReadersOpened());
+        assertEquals(3, readerProvider.getNumOpensAvoided());
+    }
+
+    @Test
+    public void testCountRejected_concurrently() throws InterruptedException {
+        final Thread[] threads = new Thread[4];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(() -> {
+                for (int k = 0; k < 250; k++) {
+                    readerProvider.countRejected();
+                }
+            });
+            threads[i].start();
+        }
+        for (final Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(1000, readerProvider.getNumRejected());
+    }
+}
@@ -0,0 +1,198 @@
+/*
+ * Copyright (C) 2016 Brockmann Consult GmbH
+ * This code was developed for the EC project "Fidelity and Uncertainty in
+ * Climate Data Records from Earth Observations (FIDUCEO)".
+ * Grant Agreement: 638822
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * A copy of the GNU General Public License should have been supplied along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ *
+ */
+
+package com.bc.fiduceo.matchup.strategy;
+
+import com.bc.fiduceo.core.SatelliteObservation;
+import com.bc.fiduceo.location.PixelLocator;
+import com.bc.fiduceo.matchup.MatchupSet;
+import com.bc.fiduceo.matchup.SampleStore;
+import com.bc.fiduceo.math.Intersection;
+import com.bc.fiduceo.reader.Reader;
+import com.bc.fiduceo.tool.ToolContext;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.awt.geom.Point2D;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class SecondarySampleCombinerTest {
+
+    private SatelliteObservation primaryObservation;
+    private SatelliteObservation observation_a;
+    private SecondaryReaderProvider readerProvider;
+    private SampleStore samples;
+
+    @Before
+    public void setUp() {
+        primaryObservation = createObservation("primary.nc");
+        observation_a = createObservation("sensor_a.nc");
+        readerProvider = mock(SecondaryReaderProvider.class);
+
+        // three matchups at lon 1, 2 and 3 with samples of the primary and the first secondary sensor
+        samples = new SampleStore();
+        final int slot_a = samples.getOrCreateSlot("sensor_a");
+        for (int i = 1; i <= 3; i++) {
+            final int index = samples.addRow();
+            samples.set(SampleStore.PRIMARY, index, i, 0, i + 0.5, 0.5, 1000L);
+            samples.set(slot_a, index, i + 10, 5, i + 0.5, 0.5, 1100L);
+        }
+    }
+
+    @Test
+    public void testHasFurtherSensors() {
+        final SecondaryCandidates candidates_a = new SecondaryCandidates("sensor_a");
+        candidates_a.add(observation_a, new Intersection[]{mock(Intersection.class)});
+        final SecondaryCandidates candidates_b = new SecondaryCandidates("sensor_b");
+
+        SecondarySampleCombiner combiner = createCombiner(candidates_a);
+        assertFalse(combiner.hasFurtherSensors());
+
+        combiner = createCombiner(candidates_a, candidates_b);
+        assertTrue(combiner.hasFurtherSensors());
+    }
+
+    @Test
+    public void testCombine_threeSensors() throws Exception {
+        final SatelliteObservation observation_b1 = createObservation("sensor_b_1.nc");
+        final SatelliteObservation observation_b2 = createObservation("sensor_b_2.nc");
+        final SatelliteObservation observation_c = createObservation("sensor_c.nc");
+
+        final Reader reader_b1 = createReader(observation_b1, 1.0, 2.0);
+        final Reader reader_b2 = createReader(observation_b2, 2.0, 4.0);
+        final Reader reader_c = createReader(observation_c, 1.0, 3.0);
+        final Reader reader_a = mock(Reader.class);
+        when(readerProvider.reacquireReader(observation_a)).thenReturn(reader_a);
+
+        final SecondaryCandidates candidates_a = new SecondaryCandidates("sensor_a");
+        candidates_a.add(observation_a, new Intersection[]{mock(Intersection.class)});
+        final SecondaryCandidates candidates_b = new SecondaryCandidates("sensor_b");
+        candidates_b.add(observation_b1, new Intersection[]{mock(Intersection.class)});
+        candidates_b.add(observation_b2, new Intersection[]{mock(Intersection.class)});
+        final SecondaryCandidates candidates_c = new SecondaryCandidates("sensor_c");
+        candidates_c.add(observation_c, new Intersection[]{mock(Intersection.class)});
+
+        final List<MatchupSet> matchupSets = new ArrayList<>();
+        final List<Map<String, Reader>> readerMaps = new ArrayList<>();
+        createCombiner(candidates_a, candidates_b, candidates_c).combine(samples, observation_a, (matchupSet, secondaryReaders) -> {
+            matchupSets.add(matchupSet);
+            readerMaps.add(secondaryReaders);
+        });
+
+        assertEquals(2, matchupSets.size());
+
+        // b1 covers lon 1 to 2 and shares the first matchup with c
+        MatchupSet matchupSet = matchupSets.get(0);
+        assertEquals("primary.nc", matchupSet.getPrimaryObservationPath().toString());
+        assertEquals("sensor_a.nc", matchupSet.getSecondaryObservationPath("sensor_a").toString());
+        assertEquals("sensor_b_1.nc", matchupSet.getSecondaryObservationPath("sensor_b").toString());
+        assertEquals("sensor_c.nc", matchupSet.getSecondaryObservationPath("sensor_c").toString());
+        SampleStore store = matchupSet.getSampleStore();
+        assertEquals(1, store.size());
+        assertEquals(1, store.getX(SampleStore.PRIMARY, 0));
+        assertEquals(11, store.getX(store.getRequiredSlot("sensor_a"), 0));
+        assertEquals(1, store.getX(store.getRequiredSlot("sensor_b"), 0));
+        assertEquals(1, store.getX(store.getRequiredSlot("sensor_c"), 0));
+
+        Map<String, Reader> secondaryReaders = readerMaps.get(0);
+        assertEquals(3, secondaryReaders.size());
+        assertSame(reader_a, secondaryReaders.get("sensor_a"));
+        assertSame(reader_b1, secondaryReaders.get("sensor_b"));
+        assertSame(reader_c, secondaryReaders.get("sensor_c"));
+
+        // b2 covers lon 2 to 4, c drops the third matchup
+        matchupSet = matchupSets.get(1);
+        assertEquals("sensor_b_2.nc", matchupSet.getSecondaryObservationPath("sensor_b").toString());
+        assertEquals("sensor_c.nc", matchupSet.getSecondaryObservationPath("sensor_c").toString());
+        store = matchupSet.getSampleStore();
+        assertEquals(1, store.size());
+        assertEquals(2, store.getX(SampleStore.PRIMARY, 0));
+        assertEquals(12, store.getX(store.getRequiredSlot("sensor_a"), 0));
+        assertEquals(2, store.getX(store.getRequiredSlot("sensor_b"), 0));
+        assertEquals(2000L, store.getTime(store.getRequiredSlot("sensor_b"), 0));
+
+        secondaryReaders = readerMaps.get(1);
+        assertSame(reader_b2, secondaryReaders.get("sensor_b"));
+    }
+
+    @Test
+    public void testCombine_noCommonMatchups() throws Exception {
+        final SatelliteObservation observation_b = createObservation("sensor_b.nc");
+        final SatelliteObservation observation_c = createObservation("sensor_c.nc");
+        createReader(observation_b, 1.0, 2.0);
+        createReader(observation_c, 2.5, 4.0);
+
+        final SecondaryCandidates candidates_a = new SecondaryCandidates("sensor_a");
+        candidates_a.add(observation_a, new Intersection[]{mock(Intersection.class)});
+        final SecondaryCandidates candidates_b = new SecondaryCandidates("sensor_b");
+        candidates_b.add(observation_b, new Intersection[]{mock(Intersection.class)});
+        final SecondaryCandidates candidates_c = new SecondaryCandidates("sensor_c");
+        candidates_c.add(observation_c, new Intersection[]{mock(Intersection.class)});
+
+        final List<MatchupSet> matchupSets = new ArrayList<>();
+        createCombiner(candidates_a, candidates_b, candidates_c).combine(samples, observation_a, (matchupSet, secondaryReaders) -> matchupSets.add(matchupSet));
+
+        assertEquals(0, matchupSets.size());
+    }
+
+    private SecondarySampleCombiner createCombiner(SecondaryCandidates... candidates) {
+        return new SecondarySampleCombiner(new ToolContext(), primaryObservation, Arrays.asList(candidates), readerProvider, Logger.getAnonymousLogger());
+    }
+
+    // the reader locates the geo-positions with lon inside the range passed in, the pixel x is the integer part of lon
+    private Reader createReader(SatelliteObservation observation, double minLon, double maxLon) throws Exception {
+        final Reader reader = mock(Reader.class);
+        when(reader.getPixelLocator()).thenReturn(new PixelLocator() {
+            @Override
+            public Point2D getGeoLocation(double x, double y, Point2D g) {
+                return new Point2D.Double(x, y);
+            }
+
+            @Override
+            public Point2D[] getPixelLocation(double lon, double lat) {
+                if (lon < minLon || lon > maxLon) {
+                    return new Point2D[0];
+                }
+                return new Point2D[]{new Point2D.Double(lon, lat)};
+            }
+        });
+        when(reader.getTimeLocator()).thenReturn((x, y) -> 1000L * x);
+        when(readerProvider.getReader(observation)).thenReturn(reader);
+        when(readerProvider.reacquireReader(observation)).thenReturn(reader);
+        return reader;
+    }
+
+    private static SatelliteObservation createObservation(String dataFilePath) {
+        final SatelliteObservation observation = new SatelliteObservation();
+        observation.setDataFilePath(dataFilePath);
+        return observation;
+    }
+}
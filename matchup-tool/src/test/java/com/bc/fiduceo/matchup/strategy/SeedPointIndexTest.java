@@ -0,0 +1,140 @@
+/*
+ * Copyright (C) 2016 Brockmann Consult GmbH
+ * This code was developed for the EC project "Fidelity and Uncertainty in
+ * Climate Data Records from Earth Observations (FIDUCEO)".
+ * Grant Agreement: 638822
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 3 of the License, or (at your option)
+ * any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for
+ * more details.
+ *
+ * A copy of the GNU General Public License should have been supplied along
+ * with this program; if not, see http://www.gnu.org/licenses/
+ *
+ */
+
+package com.bc.fiduceo.matchup.strategy;
+
+import com.bc.fiduceo.core.SamplingPoint;
+import com.google.common.geometry.S2LatLng;
+import com.google.common.geometry.S2LatLngRect;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+public class SeedPointIndexTest {
+
+    @Test
+    public void testGetCandidates_timeInterval() {
+        final List<SamplingPoint> points = new ArrayList<>();
+        points.add(new SamplingPoint(10.0, 20.0, 400));
+        points.add(new SamplingPoint(10.5, 20.5, 100));
+        points.add(new SamplingPoint(11.0, 21.0, 300));
+        points.add(new SamplingPoint(11.5, 21.5, 200));
+
+        final SeedPointIndex index = new SeedPointIndex(points);
+
+        final List<SamplingPoint> candidates = index.getCandidates(200, 300, S2LatLngRect.empty());
+        assertEquals(2, candidates.size());
+        assertSame(points.get(2), candidates.get(0));
+        assertSame(points.get(3), candidates.get(1));
+    }
+
+    @Test
+    public void testGetCandidates_searchRect() {
+        final List<SamplingPoint> points = new ArrayList<>();
+        points.add(new SamplingPoint(-40.0, 10.0, 100));
+        points.add(new SamplingPoint(-30.0, 12.0, 100));
+        points.add(new SamplingPoint(-30.0, 40.0, 100));
+        points.add(new SamplingPoint(-29.0, 11.0, 100));
+
+        final SeedPointIndex index = new SeedPointIndex(points);
+
+        final S2LatLngRect searchRect = createRect(-32.0, 9.0, -28.0, 15.0);
+        final List<SamplingPoint> candidates = index.getCandidates(0, 1000, searchRect);
+        assertEquals(2, candidates.size());
+        assertSame(points.get(1), candidates.get(0));
+        assertSame(points.get(3), candidates.get(1));
+    }
+
+    @Test
+    public void testGetCandidates_antiMeridian() {
+        final List<SamplingPoint> points = new ArrayList<>();
+        points.add(new SamplingPoint(179.5, 0.0, 100));
+        points.add(new SamplingPoint(0.0, 0.0, 100));
+        points.add(new SamplingPoint(-180.0, 0.5, 100));
+        points.add(new SamplingPoint(-179.0, -0.5, 100));
+        points.add(new SamplingPoint(-170.0, 0.0, 100));
+
+        final SeedPointIndex index = new SeedPointIndex(points);
+
+        final S2LatLngRect searchRect = new S2LatLngRect(S2LatLng.fromDegrees(-2.0, 178.0), S2LatLng.fromDegrees(2.0, -178.0));
+        final List<SamplingPoint> candidates = index.getCandidates(0, 1000, searchRect);
+        assertEquals(3, candidates.size());
+        assertSame(points.get(0), candidates.get(0));
+        assertSame(points.get(2), candidates.get(1));
+        assertSame(points.get(3), candidates.get(2));
+    }
+
+    @Test
+    public void testGetCandidates_equalsBruteForce() {
+        final Random random = new Random(3345);
+        final List<SamplingPoint> points = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            points.add(new SamplingPoint(random.nextDouble() * 360.0 - 180.0, random.nextDouble() * 180.0 - 90.0, random.nextInt(10000)));
+        }
+
+        final SeedPointIndex index = new SeedPointIndex(points, 7.0);
+        assertEquals(5000, index.size());
+
+        for (int k = 0; k < 50; k++) {
+            final double lon = random.nextDouble() * 300.0 - 150.0;
+            final double lat = random.nextDouble() * 140.0 - 70.0;
+            final S2LatLngRect searchRect = createRect(lon, lat, lon + 25.0, lat + 15.0);
+            final long startTime = random.nextInt(8000);
+            final long stopTime = startTime + 2000;
+
+            final List<SamplingPoint> expected = new ArrayList<>();
+            for (final SamplingPoint point : points) {
+                if (point.getTime() >= startTime && point.getTime() <= stopTime
+                        && searchRect.contains(S2LatLng.fromDegrees(point.getLat(), point.getLon()))) {
+                    expected.add(point);
+                }
+            }
+
+            assertEquals(expected, index.getCandidates(startTime, stopTime, searchRect));
+        }
+    }
+
+    @Test
+    public void testGetCandidates_noPoints() {
+        final SeedPointIndex index = new SeedPointIndex(new ArrayList<>());
+
+        assertEquals(0, index.getCandidates(0, 1000, S2LatLngRect.empty()).size());
+        assertEquals(0, index.getCandidates(0, 1000, createRect(0.0, 0.0, 10.0, 10.0)).size());
+    }
+
+    @Test
+    public void testCreate_invalidCellSize() {
+        try {
+            new SeedPointIndex(new ArrayList<>(), 0.0);
+            fail("IllegalArgumentException expected");
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+
+    private static S2LatLngRect createRect(double minLon, double minLat, double maxLon, double maxLat) {
+        return new S2LatLngRect(S2LatLng.fromDegrees(minLat, minLon), S2LatLng.fromDegrees(maxLat, maxLon));
+    }
+}
@@ -93,6 +93,8 @@ public class MmdWriterConfigTest {
         assertEquals(2048, config.getCacheSize());
         assertEquals(N4, config.getNetcdfFormat());
         assertEquals(6, config.getReaderCacheSize());
+        assertFalse(config.isStreaming());
+        assertEquals(1, config.getWriterThreads());
 
         final VariablesConfiguration variablesConfiguration = config.getVariablesConfiguration();
         assertNotNull(variablesConfiguration);
@@ -148,6 +150,52 @@ public class MmdWriterConfigTest {
         assertEquals(14, loadedConfig.getReaderCacheSize());
     }
 
+    @Test
+    public void testSetIsStreaming() {
+        config.setStreaming(true);
+        assertTrue(config.isStreaming());
+
+        config.setStreaming(false);
+        assertFalse(config.isStreaming());
+    }
+
+    @Test
+    public void testLoad_streaming() {
+        final String configXml = "<mmd-writer-config>" +
+                "    <streaming>true</streaming>" +
+                "</mmd-writer-config>";
+        final ByteArrayInputStream inputStream = new ByteArrayInputStream(configXml.getBytes());
+
+        final MmdWriterConfig loadedConfig = MmdWriterConfig.load(inputStream);
+        assertTrue(loadedConfig.isStreaming());
+    }
+
+    @Test
+    public void testSetGetWriterThreads() {
+        config.setWriterThreads(4);
+        assertEquals(4, config.getWriterThreads());
+    }
+
+    @Test
+    public void testSetWriterThreads_invalid() {
+        try {
+            config.setWriterThreads(0);
+            fail("RuntimeException expected");
+        } catch (RuntimeException expected) {
+        }
+    }
+
+    @Test
+    public void testLoad_writerThreads() {
+        final String configXml = "<mmd-writer-config>" +
+                "    <writer-threads>3</writer-threads>" +
+                "</mmd-writer-config>";
+        final ByteArrayInputStream inputStream = new ByteArrayInputStream(configXml.getBytes());
+
+        final MmdWriterConfig loadedConfig = MmdWriterConfig.load(inputStream);
+        assertEquals(3, loadedConfig.getWriterThreads());
+    }
+
     @Test
     public void testLoad_emptyVariablesConfiguration() {
         final String configXml = "<mmd-writer-config>" +
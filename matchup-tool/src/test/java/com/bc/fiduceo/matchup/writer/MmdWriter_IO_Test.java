@@ -315,6 +315,36 @@ public class MmdWriter_IO_Test {
         execute_usecase_02(mmdWriter);
     }
 
+    @Test
+    public void testWrite_usecase02_AVHRR_streaming_NC3() throws IOException, InvalidRangeException {
+        writerConfig.setCacheSize(3);
+        final MmdWriter mmdWriter = new MmdWriterNC3(writerConfig);
+        execute_usecase_02_streaming(mmdWriter);
+    }
+
+    @Test
+    public void testWrite_usecase02_AVHRR_streaming_NC4() throws IOException, InvalidRangeException {
+        writerConfig.setCacheSize(3);
+        final MmdWriter mmdWriter = new MmdWriterNC4(writerConfig);
+        execute_usecase_02_streaming(mmdWriter);
+    }
+
+    @Test
+    public void testWrite_usecase02_AVHRR_writerThreads_NC3() throws IOException, InvalidRangeException {
+        writerConfig.setCacheSize(3);
+        writerConfig.setWriterThreads(2);
+        final MmdWriter mmdWriter = new MmdWriterNC3(writerConfig);
+        execute_usecase_02(mmdWriter);
+    }
+
+    @Test
+    public void testWrite_usecase02_AVHRR_writerThreads_streaming_NC4() throws IOException, InvalidRangeException {
+        writerConfig.setCacheSize(3);
+        writerConfig.setWriterThreads(3);
+        final MmdWriter mmdWriter = new MmdWriterNC4(writerConfig);
+        execute_usecase_02_streaming(mmdWriter);
+    }
+
     private static MatchupCollection createMatchupCollection_AVHRR(File testDataDirectory) {
         final MatchupCollection matchupCollection = new MatchupCollection();
         final MatchupSet matchupSet = new MatchupSet();
@@ -359,6 +389,63 @@ public class MmdWriter_IO_Test {
         try {
             netcdfFile = NetcdfFile.open(testDir.getAbsolutePath() + File.separator + "mmd02_avhrr-n10_avhrr-n11_1989-122_1989-123.nc");
 
+            assertUsecase02Content(netcdfFile);
+        } finally {
+            if (netcdfFile != null) {
+                netcdfFile.close();
+            }
+        }
+    }
+
+    private void execute_usecase_02_streaming(MmdWriter mmdWriter) throws IOException, InvalidRangeException {
+        final File testDataDirectory = TestUtil.getTestDataDirectory();
+
+        final MatchupCollection matchupCollection = createMatchupCollection_AVHRR(testDataDirectory);
+
+        final ToolContext context = new ToolContext();
+        final UseCaseConfig useCaseConfig = createUseCaseConfig_AVHRR();
+        context.setUseCaseConfig(useCaseConfig);
+        context.setStartDate(TimeUtils.parseDOYBeginOfDay("1989-122"));
+        context.setEndDate(TimeUtils.parseDOYEndOfDay("1989-123"));
+
+        final ReaderFactory readerFactory = ReaderFactory.get(context.getGeometryFactory());
+        context.setReaderFactory(readerFactory);
+        final IOVariablesList ioVariablesList = new IOVariablesList(readerFactory);
+
+        final VariablesConfiguration variablesConfiguration = new VariablesConfiguration();
+
+        Delegator_MatchupTool.createIOVariablesPerSensor(ioVariablesList, matchupCollection, useCaseConfig, variablesConfiguration);
+        try {
+            mmdWriter.open(context, ioVariablesList);
+            for (final MatchupSet matchupSet : matchupCollection.getSets()) {
+                mmdWriter.writeMatchupSet(matchupSet);
+            }
+            assertEquals(8, mmdWriter.getNumMatchupsWritten());
+        } finally {
+            mmdWriter.close();
+            ioVariablesList.close();
+        }
+
+        final Path mmdFile = mmdWriter.getMmdFile();
+        assertEquals("mmd02_avhrr-n10_avhrr-n11_1989-122_1989-123.nc", mmdFile.getFileName().toString());
+
+        NetcdfFile netcdfFile = null;
+        try {
+            netcdfFile = NetcdfFile.open(mmdFile.toAbsolutePath().toString());
+
+            final ucar.nc2.Dimension matchupDimension = netcdfFile.findDimension("matchup_count");
+            assertTrue(matchupDimension.isUnlimited());
+            assertEquals(8, matchupDimension.getLength());
+
+            assertUsecase02Content(netcdfFile);
+        } finally {
+            if (netcdfFile != null) {
+                netcdfFile.close();
+            }
+        }
+    }
+
+    private void assertUsecase02Content(NetcdfFile netcdfFile) throws IOException {
             NCTestUtils.assertVectorVariable("avhrr-n10_x", 0, 0.0, netcdfFile);
             NCTestUtils.assertVectorVariable("avhrr-n10_y", 1, 8982.0, netcdfFile);
             NCTestUtils.assertStringVariable("avhrr-n10_file_name", 2, "19890501225800-ESACCI-L1C-AVHRR10_G-fv01.0.nc", netcdfFile);
@@ -403,11 +490,6 @@ public class MmdWriter_IO_Test {
             NCTestUtils.assert3DVariable("avhrr-n10_satellite_zenith_angle", 2, 1, 6, 6844.0, netcdfFile);
             NCTestUtils.assert3DVariable("avhrr-n10_satellite_zenith_angle", 3, 1, 6, 6797.0, netcdfFile);
             NCTestUtils.assert3DVariable("avhrr-n10_solar_zenith_angle", 4, 1, 7, 12181.0, netcdfFile);
-        } finally {
-            if (netcdfFile != null) {
-                netcdfFile.close();
-            }
-        }
     }
 
     private UseCaseConfig createUseCaseConfig_AVHRR() throws IOException {
@@ -24,6 +24,8 @@ import static org.junit.Assert.*;
 import static org.mockito.Matchers.anyInt;
 import static org.mockito.Matchers.anyObject;
 import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Matchers.same;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -33,6 +35,7 @@ import static org.mockito.Mockito.when;
 import com.bc.fiduceo.core.Interval;
 import com.bc.fiduceo.reader.Reader;
 import org.junit.*;
+import org.mockito.ArgumentCaptor;
 import ucar.ma2.Array;
 import ucar.ma2.InvalidRangeException;
 import ucar.nc2.Attribute;
@@ -115,4 +118,34 @@ public class WindowReadingIOVariableTest {
         verifyNoMoreInteractions(target);
     }
 
+    @Test
+    public void testWriteData_batch() throws IOException, InvalidRangeException {
+        final Target target = mock(Target.class);
+        final Reader readerMock = mock(Reader.class);
+
+        final ReaderContainer sourceContainer = new ReaderContainer();
+        sourceContainer.setReader(readerMock);
+
+        final WindowReadingIOVariable ioVariable = new WindowReadingIOVariable(sourceContainer);
+        ioVariable.setTarget(target);
+        ioVariable.setSourceVariableName("hans_wurst");
+        ioVariable.setTargetVariableName("target_hans_wurst");
+        ioVariable.setDataType("short");
+
+        final Interval interval = new Interval(3, 5);
+        final int[] centerX = {3, 5};
+        final int[] centerY = {4, 6};
+        ioVariable.writeData(centerX, centerY, interval, 12);
+
+        final ArgumentCaptor<Array> captor = ArgumentCaptor.forClass(Array.class);
+        verify(readerMock, times(1)).readRaw(same(centerX), same(centerY), same(interval), eq("hans_wurst"), captor.capture(), eq(0));
+        verify(target, times(1)).write(captor.getValue(), "target_hans_wurst", 12);
+
+        final Array windows = captor.getValue();
+        assertEquals(short.class, windows.getElementType());
+        assertArrayEquals(new int[]{2, 5, 3}, windows.getShape());
+
+        verifyNoMoreInteractions(readerMock);
+        verifyNoMoreInteractions(target);
+    }
 }
@@ -25,6 +25,7 @@ import com.bc.fiduceo.post.PostProcessing;
 import com.bc.fiduceo.reader.Reader;
 import com.bc.fiduceo.reader.ReaderCache;
 import com.bc.fiduceo.reader.insitu.sst_cci.SSTInsituReader;
+import com.bc.fiduceo.reader.insitu.sst_cci.TimeIndex;
 import com.bc.fiduceo.util.NetCDFUtils;
 import ucar.ma2.Array;
 import ucar.ma2.DataType;
@@ -102,15 +103,12 @@ class SstInsituTimeSeries extends PostProcessing {
             final String insituFileName = getSourceFileName(fileNameVariable, i, filenameFieldSize, FILE_NAME_PATTERN_D8_D8_NC);
             final SSTInsituReader insituReader = (SSTInsituReader) readerCache.getReaderFor(sensorType, Paths.get(insituFileName), processingVersion);
             Range range = computeInsituRange(y1D[i], insituReader);
-            final int[] origin1D = {range.min};
             final int timeSeriesLength = getTimeSeriesLength(range);
-            final int[] shape1D = {timeSeriesLength};
             final int[] origin2D = {i, 0};
             final int[] shape2D = {1, timeSeriesLength};
             final List<Variable> variables = insituReader.getVariables();
             for (Variable variable1D : variables) {
-                final Array fullSrcData1D = insituReader.getSourceArray(variable1D.getShortName());
-                final Array srcData1D = fullSrcData1D.section(origin1D, shape1D);
+                final Array srcData1D = insituReader.readSection(variable1D.getShortName(), range.min, timeSeriesLength);
                 final String validShortName = makeValidCDLName(variable1D.getShortName());
                 final Variable targetVar2D = writer.findVariable(validShortName);
                 final Array targetData2D = srcData1D.reshape(shape2D);
@@ -155,6 +153,27 @@ class SstInsituTimeSeries extends PostProcessing {
     }
 
     Range computeInsituRange(int matchupPos, SSTInsituReader insituReader) throws IOException, InvalidRangeException {
+        final TimeIndex timeIndex = insituReader.getTimeIndex();
+        if (!timeIndex.isSorted()) {
+            return computeInsituRangeByScan(matchupPos, insituReader);
+        }
+
+        final int matchupTime = insituReader.getSourceArray("insitu.time").getInt(matchupPos);
+        final int minTime_ = matchupTime - (timeRangeSeconds / 2);
+        final int maxTime = minTime_ + timeRangeSeconds;
+        final int minTime = minTime_ < 0 ? 0 : minTime_;
+
+        int minIdx = Math.min(timeIndex.lowerBound(minTime), matchupPos);
+        if (minIdx == 0 && matchupPos > 0) {
+            // the scan never extends to the first record, keep the ranges identical
+            minIdx = 1;
+        }
+        final int maxIdx = Math.max(timeIndex.upperBound(maxTime) - 1, matchupPos);
+        return new Range(minIdx, maxIdx);
+    }
+
+    // package access for testing only
+    Range computeInsituRangeByScan(int matchupPos, SSTInsituReader insituReader) throws IOException {
         final String name = "insitu.time";
         final Array sourceArray = insituReader.getSourceArray(name);
         final int[] times = (int[]) sourceArray.getStorage();
@@ -27,8 +27,11 @@ import static org.mockito.Mockito.*;
 
 import com.bc.fiduceo.post.Constants;
 import com.bc.fiduceo.reader.Reader;
+import com.bc.fiduceo.reader.insitu.sst_cci.SSTInsituReader;
+import com.bc.fiduceo.reader.insitu.sst_cci.TimeIndex;
 import com.beust.jcommander.internal.Lists;
 import org.junit.*;
+import ucar.ma2.Array;
 import ucar.ma2.DataType;
 import ucar.nc2.Attribute;
 import ucar.nc2.NetcdfFile;
@@ -120,4 +123,37 @@ public class SstInsituTimeSeriesTest {
         verify(newVar, times(3)).addAttribute(any(Attribute.class));
         verifyNoMoreInteractions(writer, insituReader, newVar, v3, v2);
     }
+
+    @Test
+    public void computeInsituRange_binarySearchEqualsScan() throws Exception {
+        final int[] times = {100, 150, 200, 200, 260, 300, 390, 400, 520, 600};
+        final SSTInsituReader insituReader = mock(SSTInsituReader.class);
+        when(insituReader.getTimeIndex()).thenReturn(TimeIndex.create(times));
+        when(insituReader.getSourceArray("insitu.time")).thenReturn(Array.factory(times));
+
+        for (final int timeRange : new int[]{0, 50, 100, 201, 1000}) {
+            final SstInsituTimeSeries insituTimeSeries = new SstInsituTimeSeries("any", timeRange, 20, "matchupTimeVarName");
+            for (int matchupPos = 0; matchupPos < times.length; matchupPos++) {
+                final SstInsituTimeSeries.Range expected = insituTimeSeries.computeInsituRangeByScan(matchupPos, insituReader);
+                final SstInsituTimeSeries.Range range = insituTimeSeries.computeInsituRange(matchupPos, insituReader);
+
+                assertEquals(expected.min, range.min);
+                assertEquals(expected.max, range.max);
+            }
+        }
+    }
+
+    @Test
+    public void computeInsituRange_unsortedFallsBackToScan() throws Exception {
+        final int[] times = {100, 150, 120, 180, 200, 260};
+        final SSTInsituReader insituReader = mock(SSTInsituReader.class);
+        when(insituReader.getTimeIndex()).thenReturn(TimeIndex.create(times));
+        when(insituReader.getSourceArray("insitu.time")).thenReturn(Array.factory(times));
+
+        final SstInsituTimeSeries insituTimeSeries = new SstInsituTimeSeries("any", 100, 20, "matchupTimeVarName");
+        final SstInsituTimeSeries.Range range = insituTimeSeries.computeInsituRange(4, insituReader);
+
+        assertEquals(3, range.min);
+        assertEquals(4, range.max);
+    }
 }